@@ -0,0 +1,163 @@
+package controller;
+
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Function;
+
+import model.ShapeOperation;
+import utilities.CommandTokenizer;
+
+/**
+ * CommandParser class. Turns the lines of a command file into ShapeOperations. Each command
+ * keyword has its own parser, found in a HashMap keyed by the lower case keyword. The keyword is
+ * taken from the tokenizer as a String and lower cased before the lookup; toLowerCase() returns
+ * the same String when it is already lower case, so only keywords with upper case letters build a
+ * new one. The parsers read ints and names straight from the tokenizer. Holds no state besides the
+ * map, which is only read, so lines can be parsed on several threads at once.
+ */
+public final class CommandParser {
+  private enum COMMANDS {
+    SHAPE(CommandParser::createShape),
+    MOVE(CommandParser::moveShape),
+    RESIZE(CommandParser::resizeShape),
+    COLOR(CommandParser::colorShape),
+    REMOVE(CommandParser::removeShape),
+    SNAPSHOT(CommandParser::takeSnapshot),
+    FRONT(line -> ShapeOperation.bringToFront(line.token(1))),
+    BACK(line -> ShapeOperation.sendToBack(line.token(1))),
+    ORDER(CommandParser::reorderShape);
+
+    private final Function<CommandTokenizer, ShapeOperation> parser;
+
+    COMMANDS(Function<CommandTokenizer, ShapeOperation> parser) {
+      this.parser = parser;
+    }
+  }
+
+  private static final Map<String, COMMANDS> KEYWORDS = new HashMap<>();
+
+  static {
+    for (COMMANDS command : COMMANDS.values()) {
+      KEYWORDS.put(command.name().toLowerCase(Locale.ROOT), command);
+    }
+  }
+
+  /**
+   * Constructor. Only the static methods are used.
+   */
+  private CommandParser() {
+  }
+
+  /**
+   * Builds the operation for the command on a tokenizer's current line.
+   * @param line CommandTokenizer at the command's line
+   * @return ShapeOperation or null if the line is not a valid command
+   * @throws NumberFormatException if an int argument is not an int
+   * @throws IndexOutOfBoundsException if the line is missing an argument
+   */
+  public static ShapeOperation parse(CommandTokenizer line) throws NumberFormatException,
+          IndexOutOfBoundsException {
+    COMMANDS command = KEYWORDS.get(line.token(0).toLowerCase(Locale.ROOT));
+    return command == null ? null : command.parser.apply(line);
+  }
+
+  /**
+   * Builds the operation that creates a shape given the passed command line.
+   * @param line CommandTokenizer at the command's line
+   * @return ShapeOperation
+   */
+  private static ShapeOperation createShape(CommandTokenizer line) {
+    String name = line.token(1);
+    String type = line.token(2);
+    int xpos = line.intToken(3);
+    int ypos = line.intToken(4);
+    int width = line.intToken(5);
+    int length = line.intToken(6);
+    int red = line.intToken(7);
+    int green = line.intToken(8);
+    int blue = line.intToken(9);
+
+    return ShapeOperation.make(type, name, length, width, xpos, ypos, red, green, blue);
+  }
+
+  /**
+   * Builds the operation that moves a shape given the passed command line.
+   * @param line CommandTokenizer at the command's line
+   * @return ShapeOperation
+   */
+  private static ShapeOperation moveShape(CommandTokenizer line) {
+    String name = line.token(1);
+    int xpos = line.intToken(2);
+    int ypos = line.intToken(3);
+
+    return ShapeOperation.move(name, xpos, ypos);
+  }
+
+  /**
+   * Builds the operation that resizes a shape given the passed command line.
+   * @param line CommandTokenizer at the command's line
+   * @return ShapeOperation
+   */
+  private static ShapeOperation resizeShape(CommandTokenizer line) {
+    String name = line.token(1);
+    int width = line.intToken(2);
+    int length = line.intToken(3);
+
+    return ShapeOperation.resize(name, length, width);
+  }
+
+  /**
+   * Builds the operation that colors a shape given the passed command line.
+   * @param line CommandTokenizer at the command's line
+   * @return ShapeOperation
+   */
+  private static ShapeOperation colorShape(CommandTokenizer line) {
+    String name = line.token(1);
+    int red = line.intToken(2);
+    int green = line.intToken(3);
+    int blue = line.intToken(4);
+
+    return ShapeOperation.color(name, red, green, blue);
+  }
+
+  /**
+   * Builds the operation that removes a shape given the passed command line.
+   * @param line CommandTokenizer at the command's line
+   * @return ShapeOperation
+   */
+  private static ShapeOperation removeShape(CommandTokenizer line) {
+    String name = line.token(1);
+    return ShapeOperation.remove(name);
+  }
+
+  /**
+   * Builds the operation that moves a shape to a position in the paint order given the passed
+   * command line. Position 0 is the back.
+   * @param line CommandTokenizer at the command's line
+   * @return ShapeOperation
+   */
+  private static ShapeOperation reorderShape(CommandTokenizer line) {
+    String name = line.token(1);
+    int index = line.intToken(2);
+
+    return ShapeOperation.reorder(name, index);
+  }
+
+  /**
+   * Builds the operation that takes a snapshot with provided description (optional).
+   * @param line CommandTokenizer at the command's line
+   * @return ShapeOperation
+   */
+  private static ShapeOperation takeSnapshot(CommandTokenizer line) {
+    StringBuilder description = new StringBuilder();
+    for (int i = 1; i < line.tokenCount(); i++) {
+      if (i > 1) {
+        description.append(' ');
+      }
+      description.append(line.token(i));
+    }
+
+    return ShapeOperation.snapshot(description.toString());
+  }
+}
@@ -1,11 +1,23 @@
 package controller;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
-import java.util.stream.Stream;
 
 import utilities.shapes.I2DShape;
 import utilities.shapes.ShapeTypes;
+import model.AlbumListener;
+import model.CompiledScript;
+import model.OcclusionCuller;
+import model.ShapeOperation;
 import model.ShapesPhotoAlbum;
 import utilities.Snapshot;
 import utilities.CommandFileReader;
@@ -16,9 +28,10 @@ import views.web.HtmlView;
  * Controller for PhotoAlbum MVC program.
  */
 public class PhotoAlbumController implements IPhotoAlbumController {
-  private enum COMMANDS {SHAPE, MOVE, RESIZE, COLOR, REMOVE, SNAPSHOT;}
+  private static final int BATCH_SIZE = 4096;
   private ShapesPhotoAlbum model;
-  private List<List<String>> commandsList = null;
+  private CommandFileReader commands;
+  private Path commandFile;
   private ViewFrame viewFrame;
   private int snapshotIndex = 0;
   private List<String> args;
@@ -34,8 +47,9 @@ public class PhotoAlbumController implements IPhotoAlbumController {
     this.args = args;
     this.model = model;
 
-    // Get filtered shapes command list
-    this.commandsList = new CommandFileReader(args.get(0)).getCommandsList();
+    // Get reader for the filtered shapes commands, read as they are executed
+    this.commandFile = Paths.get(args.get(0));
+    this.commands = new CommandFileReader(args.get(0));
   }
 
   /**
@@ -54,196 +68,182 @@ public class PhotoAlbumController implements IPhotoAlbumController {
   }
 
   /**
-   * Begins MVC program with web view.
+   * Begins MVC program with web view. Each snapshot page is written as the model takes the
+   * snapshot, instead of reading every snapshot back once the commands are done.
    * @param header String header for HTML rendering
    */
   @Override
   public void run(String header) {
-    // Parse through file commands and pass shape creation commands to model
-    this.executeCommands();
-
     // Initialize view object
     this.htmlView = new HtmlView(this.args.get(2), header); // pass outfile and name
-    this.snapshotsToWriter(); // pass snapshots to views
+
+    // Write pages for snapshots already in the model, then for each one the commands take
+    Map<Snapshot, String> written = new IdentityHashMap<>();
+    for (Snapshot snapshot : this.model.getSnapshots()) {
+      this.snapshotToWriter(snapshot, written);
+    }
+    AlbumListener pageWriter = new AlbumListener() {
+      @Override
+      public void snapshotTaken(Snapshot snapshot) {
+        PhotoAlbumController.this.snapshotToWriter(snapshot, written);
+      }
+    };
+    this.model.addListener(pageWriter);
+    try {
+      // Parse through file commands and pass shape creation commands to model
+      this.executeCommands();
+    } finally {
+      this.model.removeListener(pageWriter);
+    }
+
     this.htmlView.closeHeader(); // finish html file
     this.htmlView.startView(); // start views rendering
   }
 
   /**
-   * Goes through list of commands and passes them to model to create shapes and snapshots.
+   * Compiles the command file into a binary file that can be passed as the command file of a
+   * later run, so the text is only parsed once. Lines that are not valid commands are left out.
+   * If the command file cannot be read to the end or a line fails to parse, the compiled file is
+   * deleted instead of being left cut short.
+   * @param compiledFile String path of the compiled file, overwritten if it exists
+   * @throws NumberFormatException if an int argument of a command is not an int
+   * @throws IndexOutOfBoundsException if a command is missing an argument
    */
-  private void executeCommands() {
-    // Get list of validCommands from COMMANDS enum
-    List<String> validCommands = Stream.of(COMMANDS.values()).
-            map(COMMANDS::name).toList();
-
-    // Iterate through commandsList
-    for(int i = 0; i < this.commandsList.size(); i++) {
-
-      // Check that line contains a valid command
-      if(validCommands.contains(this.commandsList.get(i).get(0).toUpperCase())) {
-
-        // Get line
-        List<String> line = this.commandsList.get(i);
-        // Get command
-        String command = line.get(0).toUpperCase();
-
-        // Check what the command is
-        if (command.equals(COMMANDS.SHAPE.toString())) {
-          this.createShape(line);
-
-        } else if (command.equals(COMMANDS.MOVE.toString())) {
-          this.moveShape(line);
-
-        } else if (command.equals(COMMANDS.RESIZE.toString())) {
-          this.resizeShape(line);
-
-        } else if (command.equals(COMMANDS.COLOR.toString())) {
-          this.colorShape(line);
-
-        } else if (command.equals(COMMANDS.REMOVE.toString())) {
-          this.removeShape(line);
-
-        } else if (command.equals(COMMANDS.SNAPSHOT.toString())) {
-          this.takeSnapshot(line);
+  public void compile(String compiledFile) throws NumberFormatException,
+          IndexOutOfBoundsException {
+    Path path = Paths.get(compiledFile);
+    boolean finished = false;
+    // Use try-catch block in case file cannot be written
+    try (CompiledScript.Writer writer = new CompiledScript.Writer(path)) {
+      boolean read = this.commands.forEachParsed(CommandParser::parse, operation -> {
+        try {
+          writer.write(operation);
+        } catch (IOException e) {
+          throw new UncheckedIOException(e);
         }
+      });
+      if (read) {
+        writer.finish();
+        finished = true;
+      }
+      // Print error to terminal
+    } catch (IOException e) {
+      finished = false;
+      e.printStackTrace();
+    } finally {
+      if (!finished) {
+        this.deleteCompiled(path);
       }
-      // keep iterating until finds a valid command
     }
   }
 
   /**
-   * Gets a snapshot with the current snapshotIndex from the model and passes it to views for
-   * rendering.
+   * Helper method that deletes a compiled file that could not be finished.
+   * @param path Path compiled file
    */
-  private void passGraphics() {
-    this.viewFrame.receiveGraphics(this.model.getSnapshots().get(this.snapshotIndex));
+  private void deleteCompiled(Path path) {
+    try {
+      Files.deleteIfExists(path);
+    } catch (IOException e) {
+      e.printStackTrace();
+    }
   }
 
   /**
-   * Goes through snapshots and tells HTML renderer what shapes to write to file.
+   * Goes through the commands as they are read from the file and passes them to model in
+   * batches of BATCH_SIZE operations to create shapes and snapshots, so only one batch is held
+   * in memory at a time however long the file is. Large files are parsed in chunks on the
+   * common fork-join pool while the model applies the chunks already parsed, in file order.
+   * A compiled command file is read straight into operations instead. A rejected command is
+   * reported by its number among all the commands, not just its batch.
    */
-  private void snapshotsToWriter() {
-    if(this.htmlView == null || this.htmlView.getClass() != HtmlView.class) {
-      System.err.println("Error: Invalid HTML writer object.");
-      System.exit(1);
-    }
-
-    // Get list of snapshots from model
-    List<Snapshot> snapshots = this.model.getSnapshots();
-
-    // For each snapshot tell htmlWriter to write to file
-    for(Snapshot snapshot : snapshots) {
-      String title = "ID: " + snapshot.getID() + "  " + snapshot.getDescription();
-
-      // Open new snapshot page with snapshot description
-      this.htmlView.openPage(title);
-
-      // Add shapes to page
-      List<I2DShape> shapes = snapshot.getShapes();
-      for (I2DShape shape : shapes) {
-        String length = String.valueOf(shape.getLength());
-        String width = String.valueOf(shape.getWidth());
-        String xpos = String.valueOf(shape.getX());
-        String ypos = String.valueOf(shape.getY());
-        String rgb = shape.getRGB().getR() + "," + shape.getRGB().getG() + ","
-                + shape.getRGB().getB();
-
-        // Add rectangle shape
-        if (shape.getType() == ShapeTypes.RECTANGLE) {
-          this.htmlView.newRect(shape.getName(), length, width, xpos, ypos, rgb);
-
-        // Add oval shape
-        } else if (shape.getType() == ShapeTypes.OVAL) {
-          this.htmlView.newOval(shape.getName(), length, width, xpos, ypos, rgb);
-        }
+  private void executeCommands() {
+    List<ShapeOperation> operations = new ArrayList<>(BATCH_SIZE);
+    long[] applied = {0}; // operations passed to the model in earlier batches
+    Consumer<ShapeOperation> batcher = operation -> {
+      operations.add(operation);
+      if (operations.size() == BATCH_SIZE) {
+        this.model.applyBatch(operations, applied[0] + 1);
+        applied[0] += operations.size();
+        operations.clear();
       }
-      // Close snapshot page
-      this.htmlView.closePage();
+    };
+
+    // Use try-catch block in case file cannot be read
+    try {
+      if (CompiledScript.isCompiled(this.commandFile)) {
+        CompiledScript.forEachOperation(this.commandFile, batcher);
+      } else {
+        this.commands.forEachParsed(CommandParser::parse, batcher);
+      }
+      // Print error to terminal
+    } catch (IOException e) {
+      e.printStackTrace();
     }
-  }
 
-  /**
-   * Tells models to create a shape given the passed list of commands.
-   * @param line List<String>
-   */
-  private void createShape(List<String> line) {
-    String name = line.get(1);
-    String type = line.get(2);
-    int xpos = Integer.parseInt(line.get(3));
-    int ypos = Integer.parseInt(line.get(4));
-    int width = Integer.parseInt(line.get(5));
-    int length = Integer.parseInt(line.get(6));
-    int red = Integer.parseInt(line.get(7));
-    int green = Integer.parseInt(line.get(8));
-    int blue = Integer.parseInt(line.get(9));
-
-    this.model.makeShape(type, name, length, width, xpos, ypos, red, green, blue);
+    // Pass remaining operations to model
+    this.model.applyBatch(operations, applied[0] + 1);
   }
 
   /**
-   * Tells model to move a shape given the passed list of commands.
-   * @param line List<String>
+   * Gets a snapshot with the current snapshotIndex from the model and passes it to views for
+   * rendering.
    */
-  private void moveShape(List<String> line) {
-    String name = line.get(1);
-    int xpos = Integer.parseInt(line.get(2));
-    int ypos = Integer.parseInt(line.get(3));
-
-    this.model.moveShape(name, xpos, ypos);
+  private void passGraphics() {
+    this.viewFrame.receiveGraphics(this.model.getSnapshots().get(this.snapshotIndex));
   }
 
   /**
-   * Tells models to resize a shape given the passed list of commands.
-   * @param line List<String>
+   * Tells HTML renderer what shapes of a snapshot to write to file, as a page of its own.
+   * @param snapshot Snapshot
+   * @param written Map<Snapshot, String> shapes already written, by the snapshot that holds them
    */
-  private void resizeShape(List<String> line) {
-    String name = line.get(1);
-    int width = Integer.parseInt(line.get(2));
-    int length = Integer.parseInt(line.get(3));
-
-    this.model.resizeShape(name, length, width);
-  }
+  private void snapshotToWriter(Snapshot snapshot, Map<Snapshot, String> written) {
+    if(this.htmlView == null || this.htmlView.getClass() != HtmlView.class) {
+      System.err.println("Error: Invalid HTML writer object.");
+      System.exit(1);
+    }
+    String title = "ID: " + snapshot.getID() + "  " + snapshot.getDescription();
 
-  /**
-   * Tells model to color a shape given the passed list of commands.
-   * @param line List<String>
-   */
-  private void colorShape(List<String> line) {
-    String name = line.get(1);
-    int red = Integer.parseInt(line.get(2));
-    int green = Integer.parseInt(line.get(3));
-    int blue = Integer.parseInt(line.get(4));
+    // Open new snapshot page with snapshot description
+    this.htmlView.openPage(title);
 
-    this.model.colorShape(name, red, green, blue);
-  }
+    // Reuse shapes written for an earlier snapshot with the same shapes, and leave out
+    // shapes hidden under later rectangles
+    String page = written.get(snapshot.getOriginal());
+    if (page != null) {
+      this.htmlView.addShapes(page);
+    } else {
+      this.shapesToWriter(OcclusionCuller.visibleShapes(snapshot.getShapes()));
+      written.put(snapshot.getOriginal(), this.htmlView.getPageShapes());
+    }
 
-  /**
-   * Tells model to remove a shape given the passed list of commands.
-   * @param line List<String>
-   */
-  private void removeShape(List<String> line) {
-    String name = line.get(1);
-    this.model.deleteShape(name);
+    // Close snapshot page
+    this.htmlView.closePage();
   }
 
   /**
-   * Tells model to take a snapshot with provided description (optional).
-   * @param line List<String>
+   * Tells HTML renderer to write shapes into the open page.
+   * @param shapes List<I2DShape></I2DShape>
    */
-  private void takeSnapshot(List<String> line) {
-    String description = "";
-    if (line.size() > 1) {
-      for (int i = 1; i < line.size(); i++) {
-        if (i == line.size() - 1) {
-          description += line.get(i);
-        } else {
-          description += line.get(i) + " ";
-        }
+  private void shapesToWriter(List<I2DShape> shapes) {
+    for (I2DShape shape : shapes) {
+      String length = String.valueOf(shape.getLength());
+      String width = String.valueOf(shape.getWidth());
+      String xpos = String.valueOf(shape.getX());
+      String ypos = String.valueOf(shape.getY());
+      String rgb = shape.getRGB().getR() + "," + shape.getRGB().getG() + ","
+              + shape.getRGB().getB();
+
+      // Add rectangle shape
+      if (shape.getType() == ShapeTypes.RECTANGLE) {
+        this.htmlView.newRect(shape.getName(), length, width, xpos, ypos, rgb);
+
+      // Add oval shape
+      } else if (shape.getType() == ShapeTypes.OVAL) {
+        this.htmlView.newOval(shape.getName(), length, width, xpos, ypos, rgb);
       }
     }
-
-    this.model.takeSnapshot(description);
   }
 
   /**
@@ -282,7 +282,10 @@ public class PhotoAlbumController implements IPhotoAlbumController {
   @Override
   public void showSnapshot(String id) {
     // Get snapshot index from model
-    int index = this.model.getSnapshotIDs().indexOf(id);
+    int index = this.model.indexOf(id);
+    if (index < 0) {
+      return;
+    }
     this.snapshotIndex = index;
     this.passGraphics();
   }
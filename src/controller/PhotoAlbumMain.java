@@ -15,7 +15,8 @@ public class PhotoAlbumMain {
   /**
    * Main method.
    * @param args -in "name-of-command-file" -view "type-of-view"
-   * [-out "where-output-should-go"] [xmax] [ymax]
+   * [-out "where-output-should-go"] [xmax] [ymax], or -in "name-of-command-file"
+   * -compile "where-compiled-file-should-go" to compile the command file without viewing it
    */
   public static void main(String[] args) throws FileNotFoundException {
 
@@ -23,17 +24,32 @@ public class PhotoAlbumMain {
     List<String> argsList = new ArgsReader(args).getArgsList();
 
     // Initialize controller with model and args
-    PhotoAlbumController controller = new PhotoAlbumController(argsList, new ShapesPhotoAlbum());
+    ShapesPhotoAlbum model = new ShapesPhotoAlbum();
+    PhotoAlbumController controller = new PhotoAlbumController(argsList, model);
+
+    // Compile the command file instead of running it if asked to
+    if (argsList.get(5) != null) {
+      try {
+        controller.compile(argsList.get(5));
+      } finally {
+        model.close();
+      }
+      return;
+    }
 
     // Initialize view depending on command line args
     if (argsList.get(1).equalsIgnoreCase("graphical")) {
       ViewFrame view = new ViewFrame("Shapes Photo Album",
               Integer.parseInt(argsList.get(3)),Integer.parseInt(argsList.get(4)), controller);
 
-      // Pass view to controller and begin program
+      // Pass view to controller and begin program, which ends when the window is closed
       controller.run(view);
     } else {
-      controller.run("Shapes Photo Album");
+      try {
+        controller.run("Shapes Photo Album");
+      } finally {
+        model.close();
+      }
     }
   }
 }
@@ -0,0 +1,233 @@
+package model;
+
+import java.util.Arrays;
+
+import utilities.Snapshot;
+import utilities.shapes.I2DShape;
+
+/**
+ * AlbumEvents class. Publishes an album's changes to its AlbumListeners. The listeners are kept
+ * in an array that is replaced whenever one is added or removed, so publishing an event neither
+ * locks nor allocates, and a listener can add or remove listeners from inside a callback. With no
+ * listeners an album can skip building the shapes of an event altogether. While held, events are
+ * kept in parallel arrays and published in order on release, or dropped on discard, so listeners
+ * only hear about the changes a transaction keeps. Holding is only meant for albums edited by one
+ * thread at a time.
+ */
+public class AlbumEvents {
+  private static final AlbumListener[] NONE = new AlbumListener[0];
+  private static final int INITIAL_HELD = 16;
+  private static final byte MADE = 0;
+  private static final byte CHANGED = 1;
+  private static final byte DELETED = 2;
+  private static final byte REORDERED = 3;
+  private static final byte SNAPSHOT = 4;
+  private volatile AlbumListener[] listeners = NONE;
+  private boolean holding = false;
+  private byte[] kinds = new byte[0];
+  private Object[] firsts = new Object[0]; // previous shape, or the snapshot
+  private I2DShape[] seconds = new I2DShape[0]; // shape after the event
+  private int[] froms = new int[0];
+  private int[] tos = new int[0];
+  private int held = 0;
+
+  /**
+   * Adds a listener. A listener added twice is told about each event twice.
+   * @param listener AlbumListener
+   * @throws IllegalArgumentException if listener is null
+   */
+  public synchronized void addListener(AlbumListener listener) throws IllegalArgumentException {
+    if (listener == null) {
+      throw new IllegalArgumentException("Listener required.");
+    }
+    AlbumListener[] added = Arrays.copyOf(this.listeners, this.listeners.length + 1);
+    added[added.length - 1] = listener;
+    this.listeners = added;
+  }
+
+  /**
+   * Removes a listener, once if it was added more than once.
+   * @param listener AlbumListener
+   * @return boolean false if the listener was not added
+   */
+  public synchronized boolean removeListener(AlbumListener listener) {
+    AlbumListener[] current = this.listeners;
+    for (int i = 0; i < current.length; i++) {
+      if (current[i] == listener) {
+        AlbumListener[] removed = new AlbumListener[current.length - 1];
+        System.arraycopy(current, 0, removed, 0, i);
+        System.arraycopy(current, i + 1, removed, i, current.length - i - 1);
+        this.listeners = removed.length == 0 ? NONE : removed;
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Returns whether any listener is added, so callers can skip building an event nobody hears.
+   * @return boolean
+   */
+  public boolean hasListeners() {
+    return this.listeners.length > 0;
+  }
+
+  /**
+   * Publishes that a shape was made.
+   * @param shape I2DShape new shape
+   */
+  public void shapeMade(I2DShape shape) {
+    this.publish(MADE, null, shape, 0, 0);
+  }
+
+  /**
+   * Publishes that a shape was moved, resized or recolored.
+   * @param previous I2DShape shape before the edit
+   * @param shape I2DShape shape after the edit
+   */
+  public void shapeChanged(I2DShape previous, I2DShape shape) {
+    this.publish(CHANGED, previous, shape, 0, 0);
+  }
+
+  /**
+   * Publishes that a shape was deleted.
+   * @param shape I2DShape deleted shape
+   */
+  public void shapeDeleted(I2DShape shape) {
+    this.publish(DELETED, shape, null, 0, 0);
+  }
+
+  /**
+   * Publishes that a shape was moved to another position in the paint order.
+   * @param shape I2DShape moved shape
+   * @param previous int old position
+   * @param index int new position
+   */
+  public void shapeReordered(I2DShape shape, int previous, int index) {
+    this.publish(REORDERED, null, shape, previous, index);
+  }
+
+  /**
+   * Publishes that a snapshot was taken.
+   * @param snapshot Snapshot new snapshot
+   */
+  public void snapshotTaken(Snapshot snapshot) {
+    this.publish(SNAPSHOT, snapshot, null, 0, 0);
+  }
+
+  /**
+   * Keeps events from now on instead of publishing them.
+   * @throws IllegalStateException if events are already held
+   */
+  public void hold() throws IllegalStateException {
+    if (this.holding) {
+      throw new IllegalStateException("Events are already held.");
+    }
+    this.holding = true;
+  }
+
+  /**
+   * Publishes the held events in the order they happened and stops holding.
+   * @throws IllegalStateException if events are not held
+   */
+  public void release() throws IllegalStateException {
+    this.checkHolding();
+    this.holding = false;
+    // Listeners do not edit this album, so no event is held while these are published
+    for (int i = 0; i < this.held; i++) {
+      this.publish(this.kinds[i], this.firsts[i], this.seconds[i], this.froms[i], this.tos[i]);
+    }
+    this.clearHeld();
+  }
+
+  /**
+   * Drops the held events and stops holding.
+   * @throws IllegalStateException if events are not held
+   */
+  public void discard() throws IllegalStateException {
+    this.checkHolding();
+    this.holding = false;
+    this.clearHeld();
+  }
+
+  /**
+   * Helper method that checks events are held.
+   * @throws IllegalStateException if events are not held
+   */
+  private void checkHolding() throws IllegalStateException {
+    if (!this.holding) {
+      throw new IllegalStateException("Events are not held.");
+    }
+  }
+
+  /**
+   * Helper method that lets go of the held shapes and snapshots.
+   */
+  private void clearHeld() {
+    Arrays.fill(this.firsts, 0, this.held, null);
+    Arrays.fill(this.seconds, 0, this.held, null);
+    this.held = 0;
+  }
+
+  /**
+   * Helper method that tells every listener about an event, or keeps it while events are held.
+   * @param kind byte event kind
+   * @param first Object previous shape, or the snapshot
+   * @param second I2DShape shape after the event
+   * @param from int old paint order position
+   * @param to int new paint order position
+   */
+  private void publish(byte kind, Object first, I2DShape second, int from, int to) {
+    AlbumListener[] current = this.listeners;
+    if (current.length == 0) {
+      return;
+    }
+    if (this.holding) {
+      this.keep(kind, first, second, from, to);
+      return;
+    }
+    for (AlbumListener listener : current) {
+      switch (kind) {
+        case MADE:
+          listener.shapeMade(second);
+          break;
+        case CHANGED:
+          listener.shapeChanged((I2DShape) first, second);
+          break;
+        case DELETED:
+          listener.shapeDeleted((I2DShape) first);
+          break;
+        case REORDERED:
+          listener.shapeReordered(second, from, to);
+          break;
+        default:
+          listener.snapshotTaken((Snapshot) first);
+      }
+    }
+  }
+
+  /**
+   * Helper method that appends an event to the held events.
+   * @param kind byte event kind
+   * @param first Object previous shape, or the snapshot
+   * @param second I2DShape shape after the event
+   * @param from int old paint order position
+   * @param to int new paint order position
+   */
+  private void keep(byte kind, Object first, I2DShape second, int from, int to) {
+    if (this.held == this.kinds.length) {
+      int capacity = Math.max(INITIAL_HELD, this.held * 2);
+      this.kinds = Arrays.copyOf(this.kinds, capacity);
+      this.firsts = Arrays.copyOf(this.firsts, capacity);
+      this.seconds = Arrays.copyOf(this.seconds, capacity);
+      this.froms = Arrays.copyOf(this.froms, capacity);
+      this.tos = Arrays.copyOf(this.tos, capacity);
+    }
+    this.kinds[this.held] = kind;
+    this.firsts[this.held] = first;
+    this.seconds[this.held] = second;
+    this.froms[this.held] = from;
+    this.tos[this.held] = to;
+    this.held++;
+  }
+}
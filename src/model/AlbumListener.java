@@ -0,0 +1,52 @@
+package model;
+
+import utilities.Snapshot;
+import utilities.shapes.I2DShape;
+
+/**
+ * AlbumListener interface. Told about each change to an album right after it is made, so views,
+ * indexes and persistence can follow the album without reading every shape again. Shapes and
+ * snapshots are immutable, so events pass them as they are instead of wrapping them. Every method
+ * does nothing by default, so a listener only overrides the events it needs. Listeners must not
+ * edit the album they listen to from inside a callback.
+ */
+public interface AlbumListener {
+  /**
+   * Called after a shape is made.
+   * @param shape I2DShape new shape
+   */
+  default void shapeMade(I2DShape shape) {
+  }
+
+  /**
+   * Called after a shape is moved, resized or recolored.
+   * @param previous I2DShape shape before the edit
+   * @param shape I2DShape shape after the edit
+   */
+  default void shapeChanged(I2DShape previous, I2DShape shape) {
+  }
+
+  /**
+   * Called after a shape is deleted.
+   * @param shape I2DShape deleted shape
+   */
+  default void shapeDeleted(I2DShape shape) {
+  }
+
+  /**
+   * Called after a shape is moved to another position in the paint order. The shapes between
+   * the two positions each moved one position towards the old one.
+   * @param shape I2DShape moved shape
+   * @param previous int old position, 0 being the back
+   * @param index int new position
+   */
+  default void shapeReordered(I2DShape shape, int previous, int index) {
+  }
+
+  /**
+   * Called after a snapshot is taken.
+   * @param snapshot Snapshot new snapshot
+   */
+  default void snapshotTaken(Snapshot snapshot) {
+  }
+}
@@ -0,0 +1,111 @@
+package model;
+
+import java.util.BitSet;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+
+import utilities.shapes.I2DShape;
+import utilities.shapes.ShapeTypes;
+
+/**
+ * AttributeIndex class. Secondary indexes from shape type and from packed RGB color to the canvas
+ * slots of the shapes that have them, so the shapes of one type or one color can be found without
+ * scanning the canvas. Each key holds a bit set of slots, which lists the shapes in paint order.
+ * Colors nobody uses any more are dropped, so the color index only grows with the colors in use.
+ */
+public class AttributeIndex {
+  private final Map<ShapeTypes, BitSet> byType = new EnumMap<>(ShapeTypes.class);
+  private final Map<Integer, BitSet> byColor = new HashMap<>();
+
+  /**
+   * Updates the indexes for a change to one slot. Moves and resizes leave them alone.
+   * @param slot int canvas slot
+   * @param previous I2DShape shape held before, or null if the slot was empty
+   * @param shape I2DShape shape held now, or null if the slot was emptied
+   */
+  public void update(int slot, I2DShape previous, I2DShape shape) {
+    if (previous != null && shape != null && previous.getType() == shape.getType()
+            && previous.getRGB().getPacked() == shape.getRGB().getPacked()) {
+      return;
+    }
+    if (previous != null) {
+      this.remove(slot, previous);
+    }
+    if (shape != null) {
+      this.add(slot, shape);
+    }
+  }
+
+  /**
+   * Adds a shape to both indexes.
+   * @param slot int canvas slot
+   * @param shape I2DShape
+   */
+  public void add(int slot, I2DShape shape) {
+    this.byType.computeIfAbsent(shape.getType(), type -> new BitSet()).set(slot);
+    this.byColor.computeIfAbsent(shape.getRGB().getPacked(), color -> new BitSet()).set(slot);
+  }
+
+  /**
+   * Removes a shape from both indexes.
+   * @param slot int canvas slot
+   * @param shape I2DShape shape held in the slot
+   */
+  public void remove(int slot, I2DShape shape) {
+    BitSet typed = this.byType.get(shape.getType());
+    if (typed != null) {
+      typed.clear(slot);
+    }
+    BitSet colored = this.byColor.get(shape.getRGB().getPacked());
+    if (colored != null) {
+      colored.clear(slot);
+      if (colored.isEmpty()) {
+        this.byColor.remove(shape.getRGB().getPacked());
+      }
+    }
+  }
+
+  /**
+   * Removes every shape from both indexes.
+   */
+  public void clear() {
+    this.byType.clear();
+    this.byColor.clear();
+  }
+
+  /**
+   * Returns the slots of the shapes of a type, in paint order.
+   * @param type ShapeTypes
+   * @return int[]
+   */
+  public int[] slotsOfType(ShapeTypes type) {
+    return toArray(this.byType.get(type));
+  }
+
+  /**
+   * Returns the slots of the shapes with a color, in paint order.
+   * @param packed int packed RGB color
+   * @return int[]
+   */
+  public int[] slotsWithColor(int packed) {
+    return toArray(this.byColor.get(packed));
+  }
+
+  /**
+   * Returns the number of colors in use.
+   * @return int
+   */
+  public int colorCount() {
+    return this.byColor.size();
+  }
+
+  /**
+   * Helper method that lists the set bits of a bit set in order.
+   * @param slots BitSet or null
+   * @return int[]
+   */
+  private static int[] toArray(BitSet slots) {
+    return slots == null ? new int[0] : slots.stream().toArray();
+  }
+}
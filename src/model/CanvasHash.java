@@ -0,0 +1,141 @@
+package model;
+
+import utilities.shapes.I2DShape;
+
+/**
+ * CanvasHash class. Content hash of a canvas, kept up to date one slot change at a time. The
+ * hash is a sum with one term per filled slot, mixing the slot with the shape held in it, so a
+ * change updates it in constant time and the same shapes in the same slots always give the same
+ * hash no matter which edits led there. Different canvases can share a hash, so a second check
+ * hash is kept the same way from an independent hash of each shape, which folds the name's
+ * characters with a different multiplier instead of using String.hashCode(). A match of both
+ * only marks a candidate: names can still be chosen to collide, so the album compares the shapes
+ * before sharing them.
+ */
+public class CanvasHash {
+  private static final long MULTIPLIER = 0x9E3779B97F4A7C15L;
+  private static final long CHECK_MULTIPLIER = 0xC2B2AE3D27D4EB4FL;
+  private long value = 0;
+  private long check = 0;
+
+  /**
+   * Updates the hash for a change to one slot.
+   * @param slot int canvas slot
+   * @param previous I2DShape shape held before, or null if the slot was empty
+   * @param shape I2DShape shape held now, or null if the slot was emptied
+   */
+  public void update(int slot, I2DShape previous, I2DShape shape) {
+    if (previous != null) {
+      this.value -= term(slot, previous);
+      this.check -= checkTerm(slot, previous);
+    }
+    if (shape != null) {
+      this.value += term(slot, shape);
+      this.check += checkTerm(slot, shape);
+    }
+  }
+
+  /**
+   * Recomputes the hash from every slot of a canvas, such as after its slots are renumbered.
+   * @param canvas PersistentShapeStore
+   */
+  public void reset(PersistentShapeStore canvas) {
+    this.value = 0;
+    this.check = 0;
+    for (int slot = 0; slot < canvas.slotCount(); slot++) {
+      I2DShape shape = canvas.get(slot);
+      if (shape != null) {
+        this.value += term(slot, shape);
+        this.check += checkTerm(slot, shape);
+      }
+    }
+  }
+
+  /**
+   * Returns the current hash.
+   * @return long
+   */
+  public long value() {
+    return this.value;
+  }
+
+  /**
+   * Returns the current check hash, independent of value().
+   * @return long
+   */
+  public long check() {
+    return this.check;
+  }
+
+  /**
+   * Returns a 64 bit hash of a shape's name, type, dimensions, coordinates and color.
+   * @param shape I2DShape
+   * @return long
+   */
+  public static long hash(I2DShape shape) {
+    return hashFields(shape, shape.getName().hashCode(), MULTIPLIER);
+  }
+
+  /**
+   * Returns a second 64 bit hash of a shape, independent of hash(), for the check hash.
+   * @param shape I2DShape
+   * @return long
+   */
+  public static long checkHash(I2DShape shape) {
+    String name = shape.getName();
+    long hash = name.length();
+    for (int i = 0; i < name.length(); i++) {
+      hash = hash * CHECK_MULTIPLIER + name.charAt(i);
+    }
+    return hashFields(shape, hash, CHECK_MULTIPLIER);
+  }
+
+  /**
+   * Helper method that folds a shape's type, dimensions, coordinates and color into a hash of
+   * its name.
+   * @param shape I2DShape
+   * @param hash long hash of the name
+   * @param multiplier long odd multiplier
+   * @return long
+   */
+  private static long hashFields(I2DShape shape, long hash, long multiplier) {
+    hash = hash * multiplier + shape.getType().ordinal();
+    hash = hash * multiplier + shape.getLength();
+    hash = hash * multiplier + shape.getWidth();
+    hash = hash * multiplier + shape.getX();
+    hash = hash * multiplier + shape.getY();
+    hash = hash * multiplier + shape.getRGB().getPacked();
+    return mix(hash);
+  }
+
+  /**
+   * Helper method that returns the term of a slot holding a shape.
+   * @param slot int canvas slot
+   * @param shape I2DShape
+   * @return long
+   */
+  private static long term(int slot, I2DShape shape) {
+    return mix(hash(shape) + slot * MULTIPLIER);
+  }
+
+  /**
+   * Helper method that returns the check term of a slot holding a shape.
+   * @param slot int canvas slot
+   * @param shape I2DShape
+   * @return long
+   */
+  private static long checkTerm(int slot, I2DShape shape) {
+    return mix(checkHash(shape) + slot * CHECK_MULTIPLIER);
+  }
+
+  /**
+   * Helper method that spreads the bits of a hash, so nearby inputs give unrelated outputs.
+   * @param hash long
+   * @return long
+   */
+  private static long mix(long hash) {
+    hash = (hash ^ (hash >>> 30)) * 0xBF58476D1CE4E5B9L;
+    hash = (hash ^ (hash >>> 27)) * 0x94D049BB133111EBL;
+    return hash ^ (hash >>> 31);
+  }
+}
@@ -0,0 +1,125 @@
+package model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import utilities.shapes.I2DShape;
+
+/**
+ * ChangeJournal class. Append-only journal of every shape an album's canvas gains, loses or
+ * replaces, with a mark at the journal offset of each snapshot. Two snapshots are compared by
+ * folding only the entries between their marks by shape name, so a diff takes time
+ * proportional to the edits between the snapshots instead of the number of shapes.
+ */
+public class ChangeJournal {
+  private static final int INITIAL_ENTRIES = 64;
+  private I2DShape[] befores = new I2DShape[INITIAL_ENTRIES];
+  private I2DShape[] afters = new I2DShape[INITIAL_ENTRIES];
+  private int size = 0;
+  private int[] marks = new int[INITIAL_ENTRIES];
+  private int markCount = 0;
+
+  /**
+   * Appends a change to one shape.
+   * @param before I2DShape shape before, or null if it was made
+   * @param after I2DShape shape after, or null if it was removed
+   */
+  public void record(I2DShape before, I2DShape after) {
+    if (this.size == this.befores.length) {
+      this.befores = Arrays.copyOf(this.befores, this.size * 2);
+      this.afters = Arrays.copyOf(this.afters, this.size * 2);
+    }
+    this.befores[this.size] = before;
+    this.afters[this.size] = after;
+    this.size++;
+  }
+
+  /**
+   * Marks the current offset for a new snapshot.
+   * @return int position of the mark, in the order snapshots were taken
+   */
+  public int mark() {
+    if (this.markCount == this.marks.length) {
+      this.marks = Arrays.copyOf(this.marks, this.markCount * 2);
+    }
+    this.marks[this.markCount] = this.size;
+    return this.markCount++;
+  }
+
+  /**
+   * Drops every mark after the first few, such as those of rolled back snapshots. Their entries
+   * stay, since later entries build on them.
+   * @param count int number of marks to keep
+   */
+  public void truncateMarks(int count) {
+    this.markCount = Math.min(count, this.markCount);
+  }
+
+  /**
+   * Returns the number of entries in the journal.
+   * @return int
+   */
+  public int size() {
+    return this.size;
+  }
+
+  /**
+   * Returns the differences between the snapshots at two marks.
+   * @param from int mark of the snapshot to compare from
+   * @param to int mark of the snapshot to compare to
+   * @return SnapshotDiff
+   * @throws IndexOutOfBoundsException if a mark does not exist
+   */
+  public SnapshotDiff diff(int from, int to) throws IndexOutOfBoundsException {
+    if (from < 0 || from >= this.markCount || to < 0 || to >= this.markCount) {
+      throw new IndexOutOfBoundsException("No mark " + (from < 0 || from >= this.markCount
+              ? from : to));
+    }
+    if (from > to) {
+      return this.fold(this.marks[to], this.marks[from]).reverse();
+    }
+    return this.fold(this.marks[from], this.marks[to]);
+  }
+
+  /**
+   * Helper method that folds the entries in a range into the first and last version of each
+   * shape they touch, in the order the shapes were first touched.
+   * @param start int first entry
+   * @param end int entry after the last
+   * @return SnapshotDiff
+   */
+  private SnapshotDiff fold(int start, int end) {
+    Map<String, I2DShape[]> versions = new LinkedHashMap<>();
+    for (int i = start; i < end; i++) {
+      I2DShape before = this.befores[i];
+      I2DShape after = this.afters[i];
+      String name = before != null ? before.getName() : after.getName();
+      I2DShape[] version = versions.get(name);
+      if (version == null) {
+        versions.put(name, new I2DShape[] {before, after});
+      } else {
+        version[1] = after;
+      }
+    }
+
+    List<I2DShape> added = new ArrayList<>();
+    List<I2DShape> removed = new ArrayList<>();
+    List<SnapshotDiff.Change> changed = new ArrayList<>();
+    for (I2DShape[] version : versions.values()) {
+      if (version[0] == null && version[1] != null) {
+        added.add(version[1]);
+      } else if (version[0] != null && version[1] == null) {
+        removed.add(version[0]);
+      } else if (version[0] != null) {
+        SnapshotDiff.Change change = SnapshotDiff.Change.of(version[0], version[1]);
+        if (change != null) {
+          changed.add(change);
+        }
+      }
+    }
+    return new SnapshotDiff(added, removed, changed);
+  }
+}
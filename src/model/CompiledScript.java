@@ -0,0 +1,404 @@
+package model;
+
+import java.io.BufferedOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * CompiledScript class. Reads and writes command files compiled to a compact binary form, so a
+ * script run many times is only tokenized once. The file starts with a magic number and a
+ * version, followed by one opcode byte per ShapeOperation and an end marker. Ints are written as
+ * zigzag varints, so small and negative values take one or two bytes. Shape names and types go
+ * through a string table that grows as the file is read: a name is written in full the first
+ * time it is used and by its position in the table after that. Snapshot descriptions are written
+ * in full every time.
+ */
+public final class CompiledScript {
+  public static final int VERSION = 1;
+  private static final byte[] MAGIC = {(byte) 0x89, 'S', 'P', 'A'};
+  private static final int END = 0;
+  // Opcodes are positions in this array plus one, so only ever append to it
+  private static final ShapeOperation.Kind[] KINDS = {ShapeOperation.Kind.MAKE,
+      ShapeOperation.Kind.MOVE, ShapeOperation.Kind.RESIZE, ShapeOperation.Kind.COLOR,
+      ShapeOperation.Kind.REMOVE, ShapeOperation.Kind.SNAPSHOT, ShapeOperation.Kind.ORDER,
+      ShapeOperation.Kind.FRONT, ShapeOperation.Kind.BACK};
+  private static final int BUFFER_SIZE = 1 << 16;
+
+  /**
+   * Constructor. Only static methods and the Writer are used.
+   */
+  private CompiledScript() {
+  }
+
+  /**
+   * Returns whether a file starts with the magic number of a compiled command file.
+   * @param file Path
+   * @return boolean
+   * @throws IOException if the file cannot be read
+   */
+  public static boolean isCompiled(Path file) throws IOException {
+    byte[] start = new byte[MAGIC.length];
+    try (InputStream in = Files.newInputStream(file)) {
+      return in.readNBytes(start, 0, start.length) == start.length
+              && Arrays.equals(start, MAGIC);
+    }
+  }
+
+  /**
+   * Reads a compiled command file and passes each operation to an action as soon as it is read,
+   * in file order.
+   * @param file Path compiled command file
+   * @param action Consumer<ShapeOperation> called once per operation
+   * @throws IOException if the file cannot be read, is not a compiled command file of this
+   *     version, or is cut short
+   */
+  public static void forEachOperation(Path file, Consumer<ShapeOperation> action)
+          throws IOException {
+    try (Input in = new Input(Files.newInputStream(file))) {
+      for (byte b : MAGIC) {
+        if ((byte) in.readByte() != b) {
+          throw new IOException(file + " is not a compiled command file.");
+        }
+      }
+      int version = in.readByte();
+      if (version != VERSION) {
+        throw new IOException("Unsupported compiled command file version " + version + ".");
+      }
+
+      List<String> strings = new ArrayList<>();
+      int opcode;
+      while ((opcode = in.readByte()) != END) {
+        if (opcode < 1 || opcode > KINDS.length) {
+          throw new IOException("Unknown opcode " + opcode + ".");
+        }
+        action.accept(read(KINDS[opcode - 1], in, strings));
+      }
+    }
+  }
+
+  /**
+   * Helper method that reads the operands of one operation.
+   * @param kind ShapeOperation.Kind kind given by the opcode
+   * @param in Input
+   * @param strings List<String> string table so far
+   * @return ShapeOperation
+   * @throws IOException if the file cannot be read or is cut short
+   */
+  private static ShapeOperation read(ShapeOperation.Kind kind, Input in, List<String> strings)
+          throws IOException {
+    if (kind == ShapeOperation.Kind.SNAPSHOT) {
+      return ShapeOperation.snapshot(in.readString());
+    }
+    String name = in.readTableString(strings);
+    switch (kind) {
+      case MAKE:
+        String type = in.readTableString(strings);
+        int x = in.readInt();
+        int y = in.readInt();
+        int width = in.readInt();
+        int length = in.readInt();
+        return ShapeOperation.make(type, name, length, width, x, y, in.readInt(), in.readInt(),
+                in.readInt());
+      case MOVE:
+        return ShapeOperation.move(name, in.readInt(), in.readInt());
+      case RESIZE:
+        int newWidth = in.readInt();
+        return ShapeOperation.resize(name, in.readInt(), newWidth);
+      case COLOR:
+        return ShapeOperation.color(name, in.readInt(), in.readInt(), in.readInt());
+      case REMOVE:
+        return ShapeOperation.remove(name);
+      case ORDER:
+        return ShapeOperation.reorder(name, in.readInt());
+      case FRONT:
+        return ShapeOperation.bringToFront(name);
+      default:
+        return ShapeOperation.sendToBack(name);
+    }
+  }
+
+  /**
+   * Writer class. Writes operations to a compiled command file. The end marker is only written
+   * by finish(), once every operation is written, so a file closed after an error is rejected on
+   * load instead of being read as a complete script.
+   */
+  public static final class Writer implements AutoCloseable {
+    private final OutputStream out;
+    private final Map<String, Integer> strings = new HashMap<>();
+    private boolean finished = false;
+
+    /**
+     * Constructor. Creates or overwrites the file and writes its header.
+     * @param file Path compiled command file
+     * @throws IOException if the file cannot be written
+     */
+    public Writer(Path file) throws IOException {
+      this.out = new BufferedOutputStream(Files.newOutputStream(file), BUFFER_SIZE);
+      try {
+        this.out.write(MAGIC);
+        this.out.write(VERSION);
+      } catch (IOException e) {
+        this.out.close();
+        throw e;
+      }
+    }
+
+    /**
+     * Appends an operation.
+     * @param operation ShapeOperation
+     * @throws IOException if the file cannot be written
+     * @throws IllegalArgumentException if operation is null
+     * @throws IllegalStateException if the file is already finished
+     */
+    public void write(ShapeOperation operation) throws IOException, IllegalArgumentException,
+            IllegalStateException {
+      if (operation == null) {
+        throw new IllegalArgumentException("Operation cannot be null.");
+      }
+      if (this.finished) {
+        throw new IllegalStateException("Compiled command file is already finished.");
+      }
+      this.out.write(opcode(operation.getKind()));
+      if (operation.getKind() == ShapeOperation.Kind.SNAPSHOT) {
+        this.writeString(operation.getName());
+        return;
+      }
+      this.writeTableString(operation.getName());
+      switch (operation.getKind()) {
+        case MAKE:
+          this.writeTableString(operation.getType());
+          this.writeInt(operation.getX());
+          this.writeInt(operation.getY());
+          this.writeInt(operation.getWidth());
+          this.writeInt(operation.getLength());
+          this.writeInt(operation.getR());
+          this.writeInt(operation.getG());
+          this.writeInt(operation.getB());
+          break;
+        case MOVE:
+          this.writeInt(operation.getX());
+          this.writeInt(operation.getY());
+          break;
+        case RESIZE:
+          this.writeInt(operation.getWidth());
+          this.writeInt(operation.getLength());
+          break;
+        case COLOR:
+          this.writeInt(operation.getR());
+          this.writeInt(operation.getG());
+          this.writeInt(operation.getB());
+          break;
+        case ORDER:
+          this.writeInt(operation.getIndex());
+          break;
+        default:
+          break;
+      }
+    }
+
+    /**
+     * Writes the end marker once every operation is written. Until it is called the file reads
+     * as cut short.
+     * @throws IOException if the file cannot be written
+     * @throws IllegalStateException if the file is already finished
+     */
+    public void finish() throws IOException, IllegalStateException {
+      if (this.finished) {
+        throw new IllegalStateException("Compiled command file is already finished.");
+      }
+      this.out.write(END);
+      this.out.flush();
+      this.finished = true;
+    }
+
+    /**
+     * Closes the file, finished or not.
+     * @throws IOException if the file cannot be closed
+     */
+    @Override
+    public void close() throws IOException {
+      this.out.close();
+    }
+
+    /**
+     * Helper method that writes a string through the string table: its position plus one if it
+     * was written before, otherwise 0 followed by the string.
+     * @param text String
+     * @throws IOException if the file cannot be written
+     */
+    private void writeTableString(String text) throws IOException {
+      Integer position = this.strings.get(text);
+      if (position != null) {
+        this.writeVarint(position + 1);
+        return;
+      }
+      this.strings.put(text, this.strings.size());
+      this.writeVarint(0);
+      this.writeString(text);
+    }
+
+    /**
+     * Helper method that writes a string as its UTF-8 length and bytes.
+     * @param text String
+     * @throws IOException if the file cannot be written
+     */
+    private void writeString(String text) throws IOException {
+      byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+      this.writeVarint(bytes.length);
+      this.out.write(bytes);
+    }
+
+    /**
+     * Helper method that writes an int as a zigzag varint, so values near zero of either sign
+     * are short.
+     * @param value int
+     * @throws IOException if the file cannot be written
+     */
+    private void writeInt(int value) throws IOException {
+      this.writeVarint((value << 1) ^ (value >> 31));
+    }
+
+    /**
+     * Helper method that writes an unsigned int seven bits at a time, low bits first, with the
+     * top bit of each byte set when more follow.
+     * @param value int read as unsigned
+     * @throws IOException if the file cannot be written
+     */
+    private void writeVarint(int value) throws IOException {
+      while ((value & ~0x7F) != 0) {
+        this.out.write((value & 0x7F) | 0x80);
+        value >>>= 7;
+      }
+      this.out.write(value);
+    }
+
+    /**
+     * Helper method that returns the opcode of a kind of operation.
+     * @param kind ShapeOperation.Kind
+     * @return int
+     */
+    private static int opcode(ShapeOperation.Kind kind) {
+      for (int i = 0; i < KINDS.length; i++) {
+        if (KINDS[i] == kind) {
+          return i + 1;
+        }
+      }
+      throw new IllegalArgumentException("No opcode for " + kind + ".");
+    }
+  }
+
+  /**
+   * Buffered input that reads single bytes without the locking of BufferedInputStream.
+   */
+  private static final class Input implements AutoCloseable {
+    private final InputStream in;
+    private final byte[] buffer = new byte[BUFFER_SIZE];
+    private int position = 0;
+    private int limit = 0;
+
+    private Input(InputStream in) {
+      this.in = in;
+    }
+
+    /**
+     * Reads one byte.
+     * @return int byte value, 0 to 255
+     * @throws IOException if the file cannot be read or has ended
+     */
+    private int readByte() throws IOException {
+      if (this.position == this.limit) {
+        this.limit = this.in.read(this.buffer);
+        this.position = 0;
+        if (this.limit <= 0) {
+          this.limit = 0;
+          throw new EOFException("Compiled command file ends without its end marker.");
+        }
+      }
+      return this.buffer[this.position++] & 0xFF;
+    }
+
+    /**
+     * Reads an unsigned varint.
+     * @return int
+     * @throws IOException if the file cannot be read, has ended or the varint is too long
+     */
+    private int readVarint() throws IOException {
+      int value = 0;
+      for (int shift = 0; shift < 35; shift += 7) {
+        int b = this.readByte();
+        value |= (b & 0x7F) << shift;
+        if ((b & 0x80) == 0) {
+          return value;
+        }
+      }
+      throw new IOException("Varint longer than 5 bytes.");
+    }
+
+    /**
+     * Reads a zigzag varint.
+     * @return int
+     * @throws IOException if the file cannot be read or has ended
+     */
+    private int readInt() throws IOException {
+      int value = this.readVarint();
+      return (value >>> 1) ^ -(value & 1);
+    }
+
+    /**
+     * Reads a string written as its UTF-8 length and bytes.
+     * @return String
+     * @throws IOException if the file cannot be read or has ended
+     */
+    private String readString() throws IOException {
+      int length = this.readVarint();
+      if (length < 0) {
+        throw new IOException("Invalid string length.");
+      }
+      if (length <= this.limit - this.position) {
+        String text = new String(this.buffer, this.position, length, StandardCharsets.UTF_8);
+        this.position += length;
+        return text;
+      }
+      byte[] bytes = new byte[length];
+      for (int i = 0; i < length; i++) {
+        bytes[i] = (byte) this.readByte();
+      }
+      return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Reads a string written through the string table, adding it to the table if it is new.
+     * @param strings List<String> string table so far
+     * @return String
+     * @throws IOException if the file cannot be read, has ended or names a missing string
+     */
+    private String readTableString(List<String> strings) throws IOException {
+      int position = this.readVarint();
+      if (position == 0) {
+        String text = this.readString();
+        strings.add(text);
+        return text;
+      }
+      if (position < 0 || position > strings.size()) {
+        throw new IOException("String " + position + " is not in the table.");
+      }
+      return strings.get(position - 1);
+    }
+
+    @Override
+    public void close() throws IOException {
+      this.in.close();
+    }
+  }
+}
@@ -0,0 +1,836 @@
+package model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.ObjIntConsumer;
+import java.util.function.UnaryOperator;
+
+import utilities.Snapshot;
+import utilities.shapes.I2DShape;
+import utilities.shapes.Oval;
+import utilities.shapes.RGB;
+import utilities.shapes.Rectangle;
+import utilities.shapes.ShapeTypes;
+import utilities.shapes.Triangle;
+
+/**
+ * ConcurrentShapesPhotoAlbum class. Photo album that many threads can edit at once. Each shape name
+ * maps to an entry in a ConcurrentHashMap holding a short chain of versions, and edits to different
+ * shapes only contend on their own entry. Every version carries a stamp from a global clock and the
+ * insertion order of its shape, so a snapshot can read a consistent point-in-time view in insertion
+ * order while writers keep going: taking a snapshot only blocks writers for as long as it takes to
+ * read the clock. Shapes in a version are never edited in place. Edits are recorded in one
+ * UndoHistory shared by all threads while the shape's entry is still locked, so edits to one shape
+ * are recorded in the order they were made; undo and redo hold back writers and snapshots while
+ * they replay an edit. The entry of a deleted shape is dropped as soon as no snapshot in progress
+ * needs it. Paint order is the order carried by each version; new shapes get spaced out orders on
+ * top, so a reordered shape can usually be given an order between its new neighbours. A PaintOrder
+ * over a slot per entry, behind its own lock, finds a shape's position and its new neighbours in
+ * O(log n); makes and deletes take that lock only to put a shape on top or take it out.
+ * AlbumListeners are told about each change on the thread that made it, after the shape and
+ * snapshot locks are let go (undo and redo tell them while still holding writers back), so changes
+ * made by different threads at the same time may be told in either order.
+ */
+public class ConcurrentShapesPhotoAlbum implements IShapesPhotoAlbum {
+  private static final long UNPINNED = Long.MAX_VALUE;
+  private static final long ORDER_GAP = 1L << 20;
+  private static final int INITIAL_SLOTS = 16;
+  private final ConcurrentHashMap<String, Entry> entries = new ConcurrentHashMap<>();
+  private final ReentrantReadWriteLock gate = new ReentrantReadWriteLock();
+  private final AtomicLong clock = new AtomicLong();
+  private final Object snapshotLock = new Object();
+  private final SnapshotIndex snapshots = new SnapshotIndex(); // guarded by snapshotLock
+  private final Object orderLock = new Object();
+  private final PaintOrder paintOrder = new PaintOrder(new int[0]); // guarded by orderLock
+  private Entry[] bySlot = new Entry[INITIAL_SLOTS]; // guarded by orderLock
+  private int[] freeSlots = new int[INITIAL_SLOTS]; // guarded by orderLock
+  private int freeCount = 0; // guarded by orderLock
+  private int slotCount = 0; // guarded by orderLock
+  private long insertions = 0; // order of the topmost shape, guarded by orderLock
+  private final UndoHistory history = new UndoHistory(); // guarded by itself
+  private final AlbumEvents listeners = new AlbumEvents();
+  private volatile long pinned = UNPINNED;
+
+  /**
+   * Constructor.
+   */
+  public ConcurrentShapesPhotoAlbum() {
+  }
+
+  /**
+   * Makes a shape within and adds it to the photo album canvas.
+   * @param type String type of shape
+   * @param name String name of shape
+   * @param length int length
+   * @param width int width
+   * @param x int x coordinate
+   * @param y int y coordiante
+   * @param r int r RGB value
+   * @param g int g RGB value
+   * @param b int b RGB value
+   * @throws IllegalArgumentException if invalid type or name passed
+   */
+  @Override
+  public void makeShape(String type, String name, int length, int width, int x, int y,
+                        int r, int g, int b) throws IllegalArgumentException {
+    // Check valid shape type and name
+    if (type == null || type.isBlank()) {
+      throw new IllegalArgumentException("Shape type required.");
+    }
+    if (name == null || name.isBlank()) {
+      throw new IllegalArgumentException("Shape name required.");
+    }
+    ShapeTypes shapeType = ShapeTypes.fromName(type);
+    if (shapeType == null) {
+      throw new IllegalArgumentException("Invalid shape type");
+    }
+
+    this.write(name, true, current -> {
+      if (shapeType == ShapeTypes.RECTANGLE) {
+        return new Rectangle(name, length, width, x, y, r, g, b);
+      } else if (shapeType == ShapeTypes.OVAL) {
+        return new Oval(name, length, width, x, y, r, g, b);
+      }
+      return new Triangle(name, length, width, x, y, r, g, b);
+    }, (previous, index) -> this.history.recordMake(shapeType, name, length, width, x, y,
+            UndoHistory.packColor(r, g, b)));
+  }
+
+  /**
+   * Returns an unmodifiable List of all shape names.
+   * @return List<String></String>
+   */
+  @Override
+  public List<String> getShapeNames() {
+    List<String> names = new ArrayList<>();
+    for (I2DShape shape : this.readCurrent()) {
+      names.add(shape.getName());
+    }
+    return Collections.unmodifiableList(names);
+  }
+
+  /**
+   * Returns a list of all shapes, read at a single point in time. Shapes are immutable, so they
+   * are shared rather than copied.
+   * @return List<I2DShape></I2DShape>
+   */
+  @Override
+  public List<I2DShape> getShapes() {
+    return new ArrayList<>(this.readCurrent());
+  }
+
+  /**
+   * Returns the shapes whose bounding box intersects a rectangular region of the canvas, in
+   * paint order. This album keeps no spatial index, so it scans every shape.
+   * @param x int x coordinate of region corner
+   * @param y int y coordinate of region corner
+   * @param width int width of region
+   * @param height int height of region
+   * @return List<I2DShape></I2DShape>
+   * @throws IllegalArgumentException if width or height not positive
+   */
+  @Override
+  public List<I2DShape> getShapesInRegion(int x, int y, int width, int height)
+          throws IllegalArgumentException {
+    if (width <= 0 || height <= 0) {
+      throw new IllegalArgumentException("Invalid width or height");
+    }
+    List<I2DShape> shapes = new ArrayList<>();
+    for (I2DShape shape : this.readCurrent()) {
+      if (SpatialGrid.intersects(shape, x, y, width, height)) {
+        shapes.add(shape);
+      }
+    }
+    return shapes;
+  }
+
+  /**
+   * Returns the topmost shape whose bounding box contains a point, or null if no
+   * shape does. This album keeps no spatial index, so it scans every shape.
+   * @param x int x coordinate
+   * @param y int y coordinate
+   * @return I2DShape or null
+   */
+  @Override
+  public I2DShape getShapeAt(int x, int y) {
+    I2DShape topmost = null;
+    for (I2DShape shape : this.readCurrent()) {
+      if (SpatialGrid.contains(shape, x, y)) {
+        topmost = shape;
+      }
+    }
+    return topmost;
+  }
+
+  /**
+   * Returns the shapes of a type, in paint order. This album keeps no type index, so it scans
+   * every shape.
+   * @param type String type of shape
+   * @return List<I2DShape></I2DShape>
+   * @throws IllegalArgumentException if invalid type
+   */
+  @Override
+  public List<I2DShape> getShapesOfType(String type) throws IllegalArgumentException {
+    ShapeTypes shapeType = checkShapeType(type);
+    List<I2DShape> shapes = new ArrayList<>();
+    for (I2DShape shape : this.readCurrent()) {
+      if (shape.getType() == shapeType) {
+        shapes.add(shape);
+      }
+    }
+    return shapes;
+  }
+
+  /**
+   * Returns the shapes with a color, in paint order. This album keeps no color index, so it
+   * scans every shape.
+   * @param r int r RGB value
+   * @param g int g RGB value
+   * @param b int b RGB value
+   * @return List<I2DShape></I2DShape>
+   * @throws IllegalArgumentException if invalid color
+   */
+  @Override
+  public List<I2DShape> getShapesWithColor(int r, int g, int b) throws IllegalArgumentException {
+    RGB color = RGB.of(r, g, b);
+    List<I2DShape> shapes = new ArrayList<>();
+    for (I2DShape shape : this.readCurrent()) {
+      if (shape.getRGB().getPacked() == color.getPacked()) {
+        shapes.add(shape);
+      }
+    }
+    return shapes;
+  }
+
+  /**
+   * Changes a shape's x and y coordinates given its name on the album.
+   * @param name String shape name
+   * @param x int x coordinate
+   * @param y int y coordinate
+   * @throws IllegalArgumentException if invalid shape name
+   */
+  @Override
+  public void moveShape(String name, int x, int y) throws IllegalArgumentException {
+    this.write(name, false, current -> current.move(x, y),
+            (previous, index) -> this.history.recordMove(name, previous.getX(), previous.getY(),
+                    x, y));
+  }
+
+  /**
+   * Changes the color of a shape given its name on the album.
+   * @param name String shape name
+   * @param r int r RGB value
+   * @param g int g RGB value
+   * @param b int b RGB value
+   * @throws IllegalArgumentException if invalid shape name
+   */
+  @Override
+  public void colorShape(String name, int r, int g, int b) throws IllegalArgumentException {
+    this.write(name, false, current -> current.setColor(r, g, b),
+            (previous, index) -> this.history.recordColor(name,
+                    UndoHistory.packColor(previous.getRGB()), UndoHistory.packColor(r, g, b)));
+  }
+
+  /**
+   * Resizes a shape with a new length and width given its name on the album.
+   * @param name String shape name
+   * @param length int new length
+   * @param width int new width
+   * @throws IllegalArgumentException if invalid shape name or dimensions
+   */
+  @Override
+  public void resizeShape(String name, int length, int width) throws IllegalArgumentException {
+    this.write(name, false, current -> {
+      if (length <= 0 || width <= 0) {
+        throw new IllegalArgumentException("Invalid length or width");
+      }
+      return current.resize(length, width);
+    }, (previous, index) -> this.history.recordResize(name, previous.getLength(),
+            previous.getWidth(), length, width));
+  }
+
+  /**
+   * Deletes a shape from the photo album by passing its name.
+   * @param name String shape name
+   * @throws IllegalArgumentException if invalid shape name
+   */
+  @Override
+  public void deleteShape(String name) throws IllegalArgumentException {
+    this.write(name, false, current -> null, this.history::recordDelete);
+  }
+
+  /**
+   * Moves a shape to a position in the paint order, shifting the shapes from there on up by one.
+   * Blocks writers and snapshots while the shape is moved in the PaintOrder, which takes
+   * O(log n), unless the orders next to its new position have no room left between them and
+   * every shape is given a new one.
+   * @param name String shape name
+   * @param index int new position, 0 being the back
+   * @throws IllegalArgumentException if invalid shape name or position
+   */
+  @Override
+  public void reorderShape(String name, int index) throws IllegalArgumentException {
+    this.reorderShape(name, index, false);
+  }
+
+  /**
+   * Moves a shape in front of every other shape.
+   * @param name String shape name
+   * @throws IllegalArgumentException if invalid shape name
+   */
+  @Override
+  public void bringToFront(String name) throws IllegalArgumentException {
+    this.reorderShape(name, 0, true);
+  }
+
+  /**
+   * Moves a shape behind every other shape.
+   * @param name String shape name
+   * @throws IllegalArgumentException if invalid shape name
+   */
+  @Override
+  public void sendToBack(String name) throws IllegalArgumentException {
+    this.reorderShape(name, 0, false);
+  }
+
+  /**
+   * Helper method that moves a shape to a position in the paint order, or to the front.
+   * @param name String shape name
+   * @param index int new position, 0 being the back
+   * @param front boolean true to move the shape to the front instead
+   * @throws IllegalArgumentException if invalid shape name or position
+   */
+  private void reorderShape(String name, int index, boolean front)
+          throws IllegalArgumentException {
+    if (name == null || name.isBlank()) {
+      throw new IllegalArgumentException("Name of shape required.");
+    }
+    int previous;
+    I2DShape shape;
+    synchronized (this.snapshotLock) {
+      this.gate.writeLock().lock();
+      try {
+        // No writer or reader is in progress, so only the heads matter
+        Entry moved = this.entries.get(name);
+        if (moved == null || moved.head == null || moved.head.shape == null) {
+          throw new IllegalArgumentException("There is no shape with that name.");
+        }
+        synchronized (this.orderLock) {
+          int size = this.paintOrder.size();
+          if (front) {
+            index = size - 1;
+          }
+          if (index < 0 || index >= size) {
+            throw new IllegalArgumentException("Invalid paint order position");
+          }
+          shape = moved.head.shape;
+          previous = this.paintOrder.indexOf(moved.slot);
+          this.paintOrder.moveTo(moved.slot, index);
+          this.reorder(moved, index);
+        }
+        synchronized (this.history) {
+          this.history.recordOrder(name, previous, index);
+        }
+      } finally {
+        this.gate.writeLock().unlock();
+      }
+    }
+    this.listeners.shapeReordered(shape, previous, index);
+  }
+
+  /**
+   * Applies many operations in order. The whole batch is checked against the current shapes
+   * first, so if one operation would be rejected none of them is applied. Each operation is
+   * still published on its own, so other writers and snapshots may see part of a batch, and an
+   * operation can still be rejected partway through if another writer changes the shapes it
+   * names after the check; operations before it then stay applied.
+   * @param operations List<ShapeOperation></ShapeOperation>
+   * @param first long number of the first operation, counted from 1, used in error messages
+   * @throws IllegalArgumentException if operations is null or an operation is rejected
+   */
+  @Override
+  public void applyBatch(List<ShapeOperation> operations, long first)
+          throws IllegalArgumentException {
+    if (operations == null) {
+      throw new IllegalArgumentException("Operations required.");
+    }
+    int shapes;
+    synchronized (this.orderLock) {
+      shapes = this.paintOrder.size();
+    }
+    ShapeOperation.checkAll(operations, first, this::hasShape, shapes);
+    ShapeOperation.applyAll(this, operations, first);
+  }
+
+  /**
+   * Helper method that returns whether the newest version of a name holds a shape.
+   * @param name String shape name
+   * @return boolean
+   */
+  private boolean hasShape(String name) {
+    Entry entry = this.entries.get(name);
+    Version head = entry == null ? null : entry.head;
+    return head != null && head.shape != null;
+  }
+
+  /**
+   * Undoes the newest edit in the shared history that has not been undone yet. Writers and
+   * snapshots wait until it is done.
+   * @return boolean false if there was nothing to undo
+   * @throws IllegalArgumentException if another thread's edit makes the undo impossible
+   */
+  @Override
+  public boolean undo() throws IllegalArgumentException {
+    synchronized (this.snapshotLock) {
+      this.gate.writeLock().lock();
+      try {
+        synchronized (this.history) {
+          return this.history.undo(this);
+        }
+      } finally {
+        this.gate.writeLock().unlock();
+      }
+    }
+  }
+
+  /**
+   * Redoes the newest undone edit in the shared history, as long as no other edit was recorded
+   * since it was undone. Writers and snapshots wait until it is done.
+   * @return boolean false if there was nothing to redo
+   * @throws IllegalArgumentException if another thread's edit makes the redo impossible
+   */
+  @Override
+  public boolean redo() throws IllegalArgumentException {
+    synchronized (this.snapshotLock) {
+      this.gate.writeLock().lock();
+      try {
+        synchronized (this.history) {
+          return this.history.redo(this);
+        }
+      } finally {
+        this.gate.writeLock().unlock();
+      }
+    }
+  }
+
+  /**
+   * Takes a snapshot of the shapes as they were at one point in time. Writers are only held
+   * back while the clock is read, not while the shapes are collected.
+   * @param description String description of snapshot
+   */
+  @Override
+  public void takeSnapshot(String description) {
+    Snapshot snapshot;
+    synchronized (this.snapshotLock) {
+      List<I2DShape> shapes = this.readPinned();
+      snapshot = new Snapshot(description, Collections.unmodifiableList(shapes));
+      this.snapshots.add(snapshot);
+    }
+    this.listeners.snapshotTaken(snapshot);
+  }
+
+  /**
+   * Returns a list of snapshots in album.
+   * @return List<Snapshot></Snapshot>
+   */
+  @Override
+  public List<Snapshot> getSnapshots() {
+    synchronized (this.snapshotLock) {
+      return List.copyOf(this.snapshots.snapshots());
+    }
+  }
+
+  /**
+   * Returns a list of IDs of the snapshots taken.
+   * @return List<String></String>
+   */
+  @Override
+  public List<String> getSnapshotIDs() {
+    synchronized (this.snapshotLock) {
+      return List.copyOf(this.snapshots.ids());
+    }
+  }
+
+  /**
+   * Returns the snapshot with an ID. Looks the ID up in a map instead of searching.
+   * @param id String snapshot ID
+   * @return Snapshot
+   * @throws IllegalArgumentException if there is no snapshot with that ID
+   */
+  @Override
+  public Snapshot getSnapshot(String id) throws IllegalArgumentException {
+    synchronized (this.snapshotLock) {
+      return this.snapshots.get(id);
+    }
+  }
+
+  /**
+   * Returns the position of the snapshot with an ID in getSnapshots(), or -1 if there is none.
+   * Looks the ID up in a map instead of searching.
+   * @param id String snapshot ID
+   * @return int
+   */
+  @Override
+  public int indexOf(String id) {
+    synchronized (this.snapshotLock) {
+      return this.snapshots.indexOf(id);
+    }
+  }
+
+  /**
+   * Returns the shapes added, removed and changed from one snapshot of this album to another.
+   * This album does not track changes between snapshots, so the two are compared in full.
+   * @param from Snapshot snapshot to compare from
+   * @param to Snapshot snapshot to compare to
+   * @return SnapshotDiff
+   * @throws IllegalArgumentException if either snapshot is not in this album
+   */
+  @Override
+  public SnapshotDiff diff(Snapshot from, Snapshot to) throws IllegalArgumentException {
+    if (from == null || to == null) {
+      throw new IllegalArgumentException("Snapshots required.");
+    }
+    return SnapshotDiff.compare(this.getSnapshot(from.getID()).getShapes(),
+            this.getSnapshot(to.getID()).getShapes());
+  }
+
+  /**
+   * Adds a listener told about every shape made, changed, deleted or reordered and every
+   * snapshot taken from now on. Any thread may add or remove listeners at any time.
+   * @param listener AlbumListener
+   * @throws IllegalArgumentException if listener is null
+   */
+  @Override
+  public void addListener(AlbumListener listener) throws IllegalArgumentException {
+    this.listeners.addListener(listener);
+  }
+
+  /**
+   * Removes a listener.
+   * @param listener AlbumListener
+   * @return boolean false if the listener was not added
+   */
+  @Override
+  public boolean removeListener(AlbumListener listener) {
+    return this.listeners.removeListener(listener);
+  }
+
+  /**
+   * Helper method that looks up a shape type by name, ignoring case.
+   * @param type String shape type
+   * @return ShapeTypes
+   * @throws IllegalArgumentException if invalid type
+   */
+  private static ShapeTypes checkShapeType(String type) throws IllegalArgumentException {
+    if (type == null || type.isBlank()) {
+      throw new IllegalArgumentException("Shape type required.");
+    }
+    ShapeTypes shapeType = ShapeTypes.fromName(type);
+    if (shapeType == null) {
+      throw new IllegalArgumentException("Invalid shape type");
+    }
+    return shapeType;
+  }
+
+  /**
+   * Helper method that applies an edit to a shape under its entry's lock, publishes the result
+   * as a new version and records it in the history before letting the lock go, so edits to one
+   * shape are recorded in the order they were made. Then tells the listeners. Writers hold the
+   * read side of the gate, so any number of them can run together.
+   * @param name String shape name
+   * @param create boolean true if the shape must not exist yet, false if it must exist
+   * @param change UnaryOperator<I2DShape> returns the new shape, or null to delete it
+   * @param record ObjIntConsumer<I2DShape> records the edit given the shape before it and, for a
+   *               delete, its position in the paint order or -1 if it was in front
+   * @throws IllegalArgumentException if invalid name or the change is rejected
+   */
+  private void write(String name, boolean create, UnaryOperator<I2DShape> change,
+                     ObjIntConsumer<I2DShape> record) throws IllegalArgumentException {
+    if (name == null || name.isBlank()) {
+      throw new IllegalArgumentException("Name of shape required.");
+    }
+    I2DShape current;
+    I2DShape next;
+    this.gate.readLock().lock();
+    try {
+      while (true) {
+        Entry entry = create ? this.entries.computeIfAbsent(name, k -> new Entry())
+                : this.entries.get(name);
+        if (entry == null) {
+          throw new IllegalArgumentException("There is no shape with that name.");
+        }
+        synchronized (entry) {
+          if (entry.removed) {
+            continue; // entry was dropped while waiting for it, look the name up again
+          }
+          Version head = entry.head;
+          current = head == null ? null : head.shape;
+          if (create && current != null) {
+            throw new IllegalArgumentException("A shape with that name already exists");
+          }
+          if (!create && current == null) {
+            throw new IllegalArgumentException("There is no shape with that name.");
+          }
+
+          try {
+            next = change.apply(current);
+          } catch (IllegalArgumentException e) {
+            if (head == null) {
+              this.drop(name, entry);
+            }
+            throw e;
+          }
+
+          long order = head == null ? 0 : head.order;
+          int index = -1;
+          if (create || next == null) {
+            synchronized (this.orderLock) {
+              if (create) {
+                order = this.paint(entry);
+              } else {
+                index = this.paintOrder.indexOf(entry.slot);
+                if (index == this.paintOrder.size() - 1) {
+                  index = -1;
+                }
+                this.paintOrder.remove(entry.slot);
+              }
+            }
+          }
+          Version previous = this.retained(head);
+          entry.head = new Version(this.clock.incrementAndGet(), next, order, previous);
+          if (next == null && previous == null) {
+            this.drop(name, entry);
+          }
+          synchronized (this.history) {
+            record.accept(current, index);
+          }
+          break;
+        }
+      }
+    } finally {
+      this.gate.readLock().unlock();
+    }
+
+    if (current == null) {
+      this.listeners.shapeMade(next);
+    } else if (next == null) {
+      this.listeners.shapeDeleted(current);
+    } else {
+      this.listeners.shapeChanged(current, next);
+    }
+  }
+
+  /**
+   * Helper method that puts the shape of an entry on top of the paint order, giving the entry a
+   * slot in it first if it has none. A deleted shape's entry keeps its slot until it is dropped.
+   * Must hold the entry's lock and the order lock.
+   * @param entry Entry
+   * @return long order of the shape
+   */
+  private long paint(Entry entry) {
+    if (entry.slot < 0) {
+      if (this.freeCount > 0) {
+        entry.slot = this.freeSlots[--this.freeCount];
+      } else {
+        if (this.slotCount == this.bySlot.length) {
+          this.bySlot = Arrays.copyOf(this.bySlot, this.slotCount * 2);
+        }
+        entry.slot = this.slotCount++;
+      }
+      this.bySlot[entry.slot] = entry;
+    }
+    this.paintOrder.add(entry.slot);
+    this.insertions += ORDER_GAP;
+    return this.insertions;
+  }
+
+  /**
+   * Helper method that gives a shape just moved in the paint order an order between its new
+   * neighbours, or gives every shape a new, spaced out order if there is no room. Must hold the
+   * snapshot lock, the write side of the gate and the order lock.
+   * @param moved Entry entry of the moved shape
+   * @param index int position of the moved shape
+   */
+  private void reorder(Entry moved, int index) {
+    long stamp = this.clock.incrementAndGet();
+    int last = this.paintOrder.size() - 1;
+    long below = index == 0 ? Long.MIN_VALUE
+            : this.bySlot[this.paintOrder.slotAt(index - 1)].head.order;
+    long above = index == last ? Long.MAX_VALUE
+            : this.bySlot[this.paintOrder.slotAt(index + 1)].head.order;
+    long order;
+    if (index == last) {
+      this.insertions += ORDER_GAP;
+      order = this.insertions;
+    } else if (index == 0) {
+      order = above - ORDER_GAP;
+    } else {
+      order = above - below < 2 ? below : below + (above - below) / 2;
+    }
+    if (order != below && order > Long.MIN_VALUE / 2) {
+      moved.head = new Version(stamp, moved.head.shape, order, null);
+      return;
+    }
+
+    // No room, space every order out again
+    int[] painted = this.paintOrder.toArray();
+    for (int i = 0; i < painted.length; i++) {
+      Entry entry = this.bySlot[painted[i]];
+      entry.head = new Version(stamp, entry.head.shape, (i + 1) * ORDER_GAP, null);
+    }
+    this.insertions = painted.length * ORDER_GAP;
+  }
+
+  /**
+   * Helper method that returns the part of a version chain a snapshot in progress still needs,
+   * which is the newest version stamped at or before the pinned stamp, or null if none.
+   * @param head Version current head of an entry, or null
+   * @return Version or null
+   */
+  private Version retained(Version head) {
+    long pin = this.pinned;
+    if (pin == UNPINNED) {
+      return null;
+    }
+    Version version = head;
+    while (version != null && version.stamp > pin) {
+      version = version.previous;
+    }
+    if (version == null || version.previous == null) {
+      return version;
+    }
+    return new Version(version.stamp, version.shape, version.order, null);
+  }
+
+  /**
+   * Helper method that removes an entry no reader needs any more. Must hold the entry's lock.
+   * @param name String shape name
+   * @param entry Entry
+   */
+  private void drop(String name, Entry entry) {
+    entry.removed = true;
+    this.entries.remove(name, entry);
+    if (entry.slot >= 0) {
+      synchronized (this.orderLock) {
+        this.bySlot[entry.slot] = null;
+        if (this.freeCount == this.freeSlots.length) {
+          this.freeSlots = Arrays.copyOf(this.freeSlots, this.freeCount * 2);
+        }
+        this.freeSlots[this.freeCount++] = entry.slot;
+      }
+      entry.slot = -1;
+    }
+  }
+
+  /**
+   * Helper method that reads the current shapes at one point in time.
+   * @return List<I2DShape></I2DShape>
+   */
+  private List<I2DShape> readCurrent() {
+    synchronized (this.snapshotLock) {
+      return this.readPinned();
+    }
+  }
+
+  /**
+   * Helper method that pins the current stamp, waiting only for writers already in progress,
+   * and collects the newest version of each shape stamped at or before it in insertion order.
+   * Once the pin is let go, drops the entries of deleted shapes and the old versions that only
+   * this read kept alive. Must hold the snapshot lock.
+   * @return List<I2DShape></I2DShape>
+   */
+  private List<I2DShape> readPinned() {
+    long stamp;
+    this.gate.writeLock().lock();
+    try {
+      stamp = this.clock.get();
+      this.pinned = stamp;
+    } finally {
+      this.gate.writeLock().unlock();
+    }
+
+    List<Map.Entry<String, Entry>> retained = new ArrayList<>();
+    List<Version> visible = new ArrayList<>();
+    try {
+      for (Map.Entry<String, Entry> named : this.entries.entrySet()) {
+        Version version = named.getValue().head;
+        if (version != null && (version.shape == null || version.previous != null)) {
+          retained.add(named);
+        }
+        while (version != null && version.stamp > stamp) {
+          version = version.previous;
+        }
+        if (version != null && version.shape != null) {
+          visible.add(version);
+        }
+      }
+    } finally {
+      this.pinned = UNPINNED;
+    }
+    this.release(retained);
+    visible.sort(Comparator.comparingLong(version -> version.order));
+
+    List<I2DShape> shapes = new ArrayList<>(visible.size());
+    for (Version version : visible) {
+      shapes.add(version.shape);
+    }
+    return shapes;
+  }
+
+  /**
+   * Helper method that drops the entries of deleted shapes and cuts the old versions off the
+   * chains of live ones, now that no read is pinned. Must hold the snapshot lock, so no read can
+   * pin a stamp again until it is done.
+   * @param retained List<Map.Entry<String, Entry>> entries kept alive by the pinned read
+   */
+  private void release(List<Map.Entry<String, Entry>> retained) {
+    for (Map.Entry<String, Entry> named : retained) {
+      Entry entry = named.getValue();
+      synchronized (entry) {
+        Version head = entry.head;
+        if (entry.removed || head == null) {
+          continue;
+        }
+        if (head.shape == null) {
+          this.drop(named.getKey(), entry);
+        } else if (head.previous != null) {
+          entry.head = new Version(head.stamp, head.shape, head.order, null);
+        }
+      }
+    }
+  }
+
+  /**
+   * Map entry for one shape name. Its head is only replaced under the entry's lock, and its slot
+   * is only set under both the entry's lock and the order lock.
+   */
+  private static final class Entry {
+    private volatile Version head;
+    private boolean removed = false;
+    private int slot = -1; // slot in the paint order, -1 if none
+  }
+
+  /**
+   * Immutable version of a shape, or of its deletion when the shape is null.
+   */
+  private static final class Version {
+    private final long stamp;
+    private final I2DShape shape;
+    private final long order;
+    private final Version previous;
+
+    private Version(long stamp, I2DShape shape, long order, Version previous) {
+      this.stamp = stamp;
+      this.shape = shape;
+      this.order = order;
+      this.previous = previous;
+    }
+  }
+}
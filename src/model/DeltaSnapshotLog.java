@@ -0,0 +1,134 @@
+package model;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import utilities.shapes.I2DShape;
+
+/**
+ * DeltaSnapshotLog class. Stores the snapshots of a ShapesPhotoAlbum as a list of frames, where
+ * most frames hold only the canvas slots that changed since the previous snapshot and every few
+ * frames a keyframe holds the whole canvas. The shapes of a snapshot are rebuilt from its nearest
+ * keyframe when they are requested, so rebuilding never replays more than one keyframe interval.
+ */
+public class DeltaSnapshotLog {
+  private final int keyframeInterval;
+  private final List<Frame> frames = new ArrayList<>();
+  private final Map<Integer, I2DShape> pending = new HashMap<>();
+  private int lastKeyframe = -1;
+  private boolean keyframeDue = true;
+
+  /**
+   * Constructor.
+   * @param keyframeInterval int number of snapshots between keyframes
+   * @throws IllegalArgumentException if interval is less than 1
+   */
+  public DeltaSnapshotLog(int keyframeInterval) throws IllegalArgumentException {
+    if (keyframeInterval < 1) {
+      throw new IllegalArgumentException("Keyframe interval must be at least 1.");
+    }
+    this.keyframeInterval = keyframeInterval;
+  }
+
+  /**
+   * Records the shape now held in a canvas slot, or null if the shape was removed.
+   * @param slot int canvas slot
+   * @param shape I2DShape new shape or null
+   */
+  public void record(int slot, I2DShape shape) {
+    this.pending.put(slot, shape);
+  }
+
+  /**
+   * Tells the log the canvas slots were renumbered, so the next frame has to be a keyframe.
+   */
+  public void reslot() {
+    this.pending.clear();
+    this.keyframeDue = true;
+  }
+
+  /**
+   * Adds a frame for the current state of the canvas and returns a source for its shapes.
+   * @param canvas PersistentShapeStore current canvas
+   * @return Supplier<List<I2DShape>> rebuilds the shapes of the new frame
+   */
+  public Supplier<List<I2DShape>> take(PersistentShapeStore canvas) {
+    int index = this.frames.size();
+
+    if (this.keyframeDue || index - this.lastKeyframe >= this.keyframeInterval) {
+      this.frames.add(new Frame(index, canvas.slotCount(), null, canvas.toSlotArray()));
+      this.lastKeyframe = index;
+      this.keyframeDue = false;
+    } else {
+      int[] changedSlots = new int[this.pending.size()];
+      I2DShape[] changedShapes = new I2DShape[this.pending.size()];
+      int i = 0;
+      for (Map.Entry<Integer, I2DShape> change : this.pending.entrySet()) {
+        changedSlots[i] = change.getKey();
+        changedShapes[i] = change.getValue();
+        i++;
+      }
+      this.frames.add(new Frame(this.lastKeyframe, canvas.slotCount(), changedSlots,
+              changedShapes));
+    }
+    this.pending.clear();
+    return () -> this.shapesAt(index);
+  }
+
+  /**
+   * Returns the number of frames in the log.
+   * @return int
+   */
+  public int size() {
+    return this.frames.size();
+  }
+
+  /**
+   * Rebuilds the shapes of a frame by applying the deltas after its keyframe.
+   * @param index int frame index
+   * @return List<I2DShape> unmodifiable list of shapes in canvas order
+   */
+  public List<I2DShape> shapesAt(int index) {
+    Frame frame = this.frames.get(index);
+    Frame keyframe = this.frames.get(frame.keyframe);
+
+    I2DShape[] canvas = new I2DShape[frame.slots];
+    System.arraycopy(keyframe.shapes, 0, canvas, 0, keyframe.slots);
+    for (int i = frame.keyframe + 1; i <= index; i++) {
+      Frame delta = this.frames.get(i);
+      for (int j = 0; j < delta.changedSlots.length; j++) {
+        canvas[delta.changedSlots[j]] = delta.shapes[j];
+      }
+    }
+
+    List<I2DShape> shapes = new ArrayList<>();
+    for (I2DShape shape : canvas) {
+      if (shape != null) {
+        shapes.add(shape);
+      }
+    }
+    return Collections.unmodifiableList(shapes);
+  }
+
+  /**
+   * Snapshot frame. A keyframe has no changed slots and holds a shape for every slot, a delta
+   * holds the changed slots and their new shapes.
+   */
+  private static final class Frame {
+    private final int keyframe;
+    private final int slots;
+    private final int[] changedSlots;
+    private final I2DShape[] shapes;
+
+    private Frame(int keyframe, int slots, int[] changedSlots, I2DShape[] shapes) {
+      this.keyframe = keyframe;
+      this.slots = slots;
+      this.changedSlots = changedSlots;
+      this.shapes = shapes;
+    }
+  }
+}
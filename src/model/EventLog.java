@@ -0,0 +1,183 @@
+package model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Supplier;
+
+import utilities.shapes.I2DShape;
+
+/**
+ * EventLog class. Stores the snapshots of a ShapesPhotoAlbum as offsets into an append-only log
+ * of canvas slot changes, with a checkpoint of the whole canvas every so often. Taking a
+ * snapshot only notes the current offset; its shapes are rebuilt from the nearest checkpoint
+ * when they are requested. A checkpoint is taken once the events since the last one outnumber
+ * both the checkpoint interval and the canvas slots, so checkpoints cost constant time per
+ * event on average. A snapshot keeps the checkpoint it was taken after, so a checkpoint of a
+ * renumbered canvas at the same offset never changes the slots its shapes are rebuilt in.
+ */
+public class EventLog {
+  private static final int INITIAL_EVENTS = 64;
+  private final int checkpointInterval;
+  private final List<Checkpoint> checkpoints = new ArrayList<>();
+  private int[] eventSlots = new int[INITIAL_EVENTS];
+  private I2DShape[] eventShapes = new I2DShape[INITIAL_EVENTS];
+  private int size = 0;
+  private boolean lastTaken = false; // a snapshot replays from the last checkpoint
+
+  /**
+   * Constructor. Starts with a checkpoint of an empty canvas.
+   * @param checkpointInterval int least number of events between checkpoints
+   * @throws IllegalArgumentException if interval is less than 1
+   */
+  public EventLog(int checkpointInterval) throws IllegalArgumentException {
+    if (checkpointInterval < 1) {
+      throw new IllegalArgumentException("Checkpoint interval must be at least 1.");
+    }
+    this.checkpointInterval = checkpointInterval;
+    this.checkpoints.add(new Checkpoint(0, new I2DShape[0]));
+  }
+
+  /**
+   * Appends the shape now held in a canvas slot, or null if the shape was removed, and takes a
+   * checkpoint of the canvas if one is due.
+   * @param canvas PersistentShapeStore canvas after the change
+   * @param slot int canvas slot
+   * @param shape I2DShape new shape or null
+   */
+  public void record(PersistentShapeStore canvas, int slot, I2DShape shape) {
+    if (this.size == this.eventSlots.length) {
+      this.eventSlots = Arrays.copyOf(this.eventSlots, this.size * 2);
+      this.eventShapes = Arrays.copyOf(this.eventShapes, this.size * 2);
+    }
+    this.eventSlots[this.size] = slot;
+    this.eventShapes[this.size] = shape;
+    this.size++;
+
+    int since = this.size - this.checkpoints.get(this.checkpoints.size() - 1).offset;
+    if (since >= Math.max(this.checkpointInterval, canvas.slotCount())) {
+      this.checkpoint(canvas);
+    }
+  }
+
+  /**
+   * Takes a checkpoint of the canvas at the current offset. Must be called when the canvas
+   * slots are renumbered, since events before it use the old slots. Replaces the last checkpoint
+   * if it is at the same offset and no snapshot replays from it.
+   * @param canvas PersistentShapeStore current canvas
+   */
+  public void checkpoint(PersistentShapeStore canvas) {
+    Checkpoint last = this.checkpoints.get(this.checkpoints.size() - 1);
+    Checkpoint checkpoint = new Checkpoint(this.size, canvas.toSlotArray());
+    if (last.offset == this.size && !this.lastTaken) {
+      this.checkpoints.set(this.checkpoints.size() - 1, checkpoint);
+    } else {
+      this.checkpoints.add(checkpoint);
+    }
+    this.lastTaken = false;
+  }
+
+  /**
+   * Notes the current offset and the last checkpoint, and returns a source for the shapes at
+   * the offset. Takes constant time.
+   * @return Supplier<List<I2DShape>> rebuilds the shapes at the current offset
+   */
+  public Supplier<List<I2DShape>> take() {
+    int offset = this.size;
+    int checkpoint = this.checkpoints.size() - 1;
+    this.lastTaken = true;
+    return () -> this.replay(checkpoint, offset);
+  }
+
+  /**
+   * Returns the number of events in the log.
+   * @return int
+   */
+  public int size() {
+    return this.size;
+  }
+
+  /**
+   * Returns the number of checkpoints in the log, including the first, empty one.
+   * @return int
+   */
+  public int checkpointCount() {
+    return this.checkpoints.size();
+  }
+
+  /**
+   * Rebuilds the shapes at an offset by replaying the events after the nearest checkpoint at or
+   * before it.
+   * @param offset int number of events applied
+   * @return List<I2DShape> unmodifiable list of shapes in canvas order
+   * @throws IndexOutOfBoundsException if offset is past the end of the log
+   */
+  public List<I2DShape> shapesAt(int offset) throws IndexOutOfBoundsException {
+    if (offset < 0 || offset > this.size) {
+      throw new IndexOutOfBoundsException("No offset " + offset);
+    }
+    return this.replay(this.checkpointBefore(offset), offset);
+  }
+
+  /**
+   * Helper method that rebuilds the shapes at an offset by replaying the events after a
+   * checkpoint at or before it.
+   * @param index int position of the checkpoint in the checkpoint list
+   * @param offset int number of events applied
+   * @return List<I2DShape> unmodifiable list of shapes in canvas order
+   */
+  private List<I2DShape> replay(int index, int offset) {
+    Checkpoint checkpoint = this.checkpoints.get(index);
+
+    // Size the canvas for every slot the replayed events touch
+    int slots = checkpoint.shapes.length;
+    for (int i = checkpoint.offset; i < offset; i++) {
+      slots = Math.max(slots, this.eventSlots[i] + 1);
+    }
+    I2DShape[] canvas = Arrays.copyOf(checkpoint.shapes, slots);
+    for (int i = checkpoint.offset; i < offset; i++) {
+      canvas[this.eventSlots[i]] = this.eventShapes[i];
+    }
+
+    List<I2DShape> shapes = new ArrayList<>();
+    for (I2DShape shape : canvas) {
+      if (shape != null) {
+        shapes.add(shape);
+      }
+    }
+    return Collections.unmodifiableList(shapes);
+  }
+
+  /**
+   * Helper method that finds the last checkpoint at or before an offset.
+   * @param offset int offset
+   * @return int position in the checkpoint list
+   */
+  private int checkpointBefore(int offset) {
+    int low = 0;
+    int high = this.checkpoints.size() - 1;
+    while (low < high) {
+      int middle = (low + high + 1) >>> 1;
+      if (this.checkpoints.get(middle).offset <= offset) {
+        low = middle;
+      } else {
+        high = middle - 1;
+      }
+    }
+    return low;
+  }
+
+  /**
+   * Checkpoint. The shape held in every canvas slot after the first offset events.
+   */
+  private static final class Checkpoint {
+    private final int offset;
+    private final I2DShape[] shapes;
+
+    private Checkpoint(int offset, I2DShape[] shapes) {
+      this.offset = offset;
+      this.shapes = shapes;
+    }
+  }
+}
@@ -30,11 +30,48 @@ public interface IShapesPhotoAlbum {
   List<String> getShapeNames();
 
   /**
-   * Returns a list with copies of all shapes.
+   * Returns a list of all shapes. Shapes are immutable, so they may be shared with the album.
    * @return List<I2DShape></I2DShape>
    */
   List<I2DShape> getShapes();
 
+  /**
+   * Returns the shapes whose bounding box intersects a rectangular region of the canvas, in
+   * paint order. Rectangles and triangles cover x to x + width and y to y + length,
+   * ovals are centered on x and y with radii width and length.
+   * @param x int x coordinate of region corner
+   * @param y int y coordinate of region corner
+   * @param width int width of region
+   * @param height int height of region
+   * @return List<I2DShape></I2DShape>
+   */
+  List<I2DShape> getShapesInRegion(int x, int y, int width, int height);
+
+  /**
+   * Returns the topmost shape whose bounding box contains a point, or null if no
+   * shape does.
+   * @param x int x coordinate
+   * @param y int y coordinate
+   * @return I2DShape or null
+   */
+  I2DShape getShapeAt(int x, int y);
+
+  /**
+   * Returns the shapes of a type, in paint order.
+   * @param type String type of shape
+   * @return List<I2DShape></I2DShape>
+   */
+  List<I2DShape> getShapesOfType(String type);
+
+  /**
+   * Returns the shapes with a color, in paint order.
+   * @param r int r RGB value
+   * @param g int g RGB value
+   * @param b int b RGB value
+   * @return List<I2DShape></I2DShape>
+   */
+  List<I2DShape> getShapesWithColor(int r, int g, int b);
+
   /**
    * Changes a shape's x and y coordinates given its name on the album.
    * @param name String shape name
@@ -66,6 +103,56 @@ public interface IShapesPhotoAlbum {
    */
   void deleteShape(String name);
 
+  /**
+   * Moves a shape to a position in the paint order, shifting the shapes from there on up by one.
+   * @param name String shape name
+   * @param index int new position, 0 being the back
+   */
+  void reorderShape(String name, int index);
+
+  /**
+   * Moves a shape in front of every other shape.
+   * @param name String shape name
+   */
+  void bringToFront(String name);
+
+  /**
+   * Moves a shape behind every other shape.
+   * @param name String shape name
+   */
+  void sendToBack(String name);
+
+  /**
+   * Undoes the newest make, move, resize, color, reorder or delete that has not been undone yet.
+   * @return boolean false if there was nothing to undo
+   */
+  boolean undo();
+
+  /**
+   * Redoes the newest undone edit, as long as no other edit was made since it was undone.
+   * @return boolean false if there was nothing to redo
+   */
+  boolean redo();
+
+  /**
+   * Applies many operations in order, as if each were passed to its single-operation method.
+   * If one of them is rejected, none of the batch is applied.
+   * @param operations List<ShapeOperation></ShapeOperation>
+   */
+  default void applyBatch(List<ShapeOperation> operations) {
+    this.applyBatch(operations, 1);
+  }
+
+  /**
+   * Applies many operations in order, as if each were passed to its single-operation method.
+   * If one of them is rejected, none of the batch is applied, and the error names the
+   * operation's number counted on from first, so a caller applying a long list in batches can
+   * report where in the list it was.
+   * @param operations List<ShapeOperation></ShapeOperation>
+   * @param first long number of the first operation, counted from 1
+   */
+  void applyBatch(List<ShapeOperation> operations, long first);
+
   /**
    * Takes a snapshot of the current shapes.
    * @param description String description of snapshot
@@ -83,4 +170,41 @@ public interface IShapesPhotoAlbum {
    * @return List<String></String>
    */
   List<String> getSnapshotIDs();
+
+  /**
+   * Returns the snapshot with an ID.
+   * @param id String snapshot ID
+   * @return Snapshot
+   */
+  Snapshot getSnapshot(String id);
+
+  /**
+   * Returns the position of the snapshot with an ID in getSnapshots(), or -1 if there is none.
+   * @param id String snapshot ID
+   * @return int
+   */
+  int indexOf(String id);
+
+  /**
+   * Returns the shapes added, removed and changed from one snapshot of this album to another.
+   * The snapshots can be given in either order.
+   * @param from Snapshot snapshot to compare from
+   * @param to Snapshot snapshot to compare to
+   * @return SnapshotDiff
+   */
+  SnapshotDiff diff(Snapshot from, Snapshot to);
+
+  /**
+   * Adds a listener told about every shape made, changed, deleted or reordered and every
+   * snapshot taken from now on, including those made by undo, redo and batches.
+   * @param listener AlbumListener
+   */
+  void addListener(AlbumListener listener);
+
+  /**
+   * Removes a listener.
+   * @param listener AlbumListener
+   * @return boolean false if the listener was not added
+   */
+  boolean removeListener(AlbumListener listener);
 }
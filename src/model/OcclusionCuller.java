@@ -0,0 +1,89 @@
+package model;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import utilities.shapes.I2DShape;
+import utilities.shapes.ShapeTypes;
+
+/**
+ * OcclusionCuller class. Finds the shapes of a snapshot that are fully hidden by a single later
+ * rectangle in paint order, so renderers can skip them. Rectangles are the only occluders, since
+ * every renderer fills exactly their box; the other shapes are treated as covering their whole
+ * bounding box, which holds them under either oval convention. Rectangles are put in a
+ * SpatialGrid by position, and any rectangle hiding a shape must contain the minimum corner of its
+ * box, so each shape only checks the rectangles at that point.
+ */
+public final class OcclusionCuller {
+
+  /**
+   * Constructor. Not used, every method is static.
+   */
+  private OcclusionCuller() {
+  }
+
+  /**
+   * Returns the shapes not fully hidden by a later rectangle, in paint order.
+   * @param shapes List<I2DShape> shapes in paint order
+   * @return List<I2DShape> shapes itself if none are hidden, or else an unmodifiable list
+   */
+  public static List<I2DShape> visibleShapes(List<I2DShape> shapes) {
+    I2DShape[] array = shapes.toArray(new I2DShape[0]);
+
+    // Index the rectangles by position
+    SpatialGrid occluders = new SpatialGrid();
+    for (int i = 0; i < array.length; i++) {
+      I2DShape shape = array[i];
+      if (shape.getType() == ShapeTypes.RECTANGLE) {
+        occluders.insert(i, shape.getType(), shape.getX(), shape.getY(), shape.getLength(),
+                shape.getWidth());
+      }
+    }
+    if (occluders.size() == 0) {
+      return shapes;
+    }
+
+    List<I2DShape> visible = new ArrayList<>(array.length);
+    for (int i = 0; i < array.length; i++) {
+      if (!isHidden(array, i, occluders)) {
+        visible.add(array[i]);
+      }
+    }
+    if (visible.size() == array.length) {
+      return shapes;
+    }
+    return Collections.unmodifiableList(visible);
+  }
+
+  /**
+   * Helper method that checks whether a later rectangle contains a shape's bounding box.
+   * @param shapes I2DShape[] shapes in paint order
+   * @param position int position of the shape
+   * @param occluders SpatialGrid rectangles by position
+   * @return boolean
+   */
+  private static boolean isHidden(I2DShape[] shapes, int position, SpatialGrid occluders) {
+    I2DShape shape = shapes[position];
+    boolean oval = shape.getType() == ShapeTypes.OVAL;
+    long minX = oval ? (long) shape.getX() - shape.getWidth() : shape.getX();
+    long minY = oval ? (long) shape.getY() - shape.getLength() : shape.getY();
+    long maxX = (long) shape.getX() + shape.getWidth();
+    long maxY = (long) shape.getY() + shape.getLength();
+    if (minX < Integer.MIN_VALUE || minY < Integer.MIN_VALUE) {
+      return false;
+    }
+
+    // Rectangles at the corner, newest first
+    int[] candidates = occluders.query((int) minX, (int) minY, 1, 1);
+    for (int i = candidates.length - 1; i >= 0 && candidates[i] > position; i--) {
+      I2DShape rectangle = shapes[candidates[i]];
+      if (rectangle.getX() <= minX && rectangle.getY() <= minY
+              && maxX <= (long) rectangle.getX() + rectangle.getWidth()
+              && maxY <= (long) rectangle.getY() + rectangle.getLength()) {
+        return true;
+      }
+    }
+    return false;
+  }
+}
@@ -0,0 +1,888 @@
+package model;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import utilities.Snapshot;
+import utilities.shapes.I2DShape;
+import utilities.shapes.Oval;
+import utilities.shapes.RGB;
+import utilities.shapes.Rectangle;
+import utilities.shapes.ShapeTypes;
+import utilities.shapes.Triangle;
+
+/**
+ * PackedShapesPhotoAlbum class. Photo album that stores its canvas as a table of parallel
+ * primitive arrays (type, x, y, length, width and packed RGB color) indexed by slot instead of
+ * one shape object per shape, which makes scanning the whole canvas cache-friendly. The table takes
+ * 25 bytes a row plus the name; the name index, an open addressing table of slots kept at most
+ * half full, adds 8 to 16 bytes a shape, and the spatial grid about 21 bytes a row plus 4 bytes for
+ * each cell a shape covers and the cells themselves. Shape objects are only built when shapes are
+ * requested.
+ * Rows are painted in slot order, with SlotRanks giving their positions, until a reorder cannot
+ * be made by moving the row into an empty row, which builds a PaintOrder over the slots;
+ * compacting the table puts the rows back in paint order. Snapshots keep a packed copy of the
+ * canvas.
+ */
+public class PackedShapesPhotoAlbum implements IShapesPhotoAlbum {
+  private static final int INITIAL_CAPACITY = 16;
+  private static final int COMPACT_THRESHOLD = 1024;
+  private static final ShapeTypes[] SHAPE_TYPES = ShapeTypes.values();
+  private static final byte EMPTY = 0;
+  private final SnapshotIndex snapshots = new SnapshotIndex();
+  private final SpatialGrid grid;
+  private final UndoHistory history = new UndoHistory();
+  private final AlbumEvents listeners = new AlbumEvents();
+  private PaintOrder order = null; // explicit paint order, null while it is slot order
+  private final SlotRanks ranks = new SlotRanks(); // occupied slots, for slot order positions
+  private byte[] types = new byte[INITIAL_CAPACITY]; // type ordinal + 1, EMPTY if removed
+  private String[] names = new String[INITIAL_CAPACITY];
+  private int[] xs = new int[INITIAL_CAPACITY];
+  private int[] ys = new int[INITIAL_CAPACITY];
+  private int[] lengths = new int[INITIAL_CAPACITY];
+  private int[] widths = new int[INITIAL_CAPACITY];
+  private int[] colors = new int[INITIAL_CAPACITY];
+  private int[] slotsByName = new int[INITIAL_CAPACITY * 2]; // slot + 1 by name hash, 0 if free
+  private int slots = 0;
+  private int count = 0;
+
+  /**
+   * Constructor.
+   */
+  public PackedShapesPhotoAlbum() {
+    this(SpatialGrid.DEFAULT_CELL_SIZE);
+  }
+
+  /**
+   * Constructor. Takes the width and height of the spatial grid's cells.
+   * @param cellSize int width and height of a spatial grid cell
+   * @throws IllegalArgumentException if cell size is not positive
+   */
+  public PackedShapesPhotoAlbum(int cellSize) throws IllegalArgumentException {
+    this.grid = new SpatialGrid(cellSize);
+  }
+
+  /**
+   * Makes a shape within and adds it to the photo album canvas.
+   * @param type String type of shape
+   * @param name String name of shape
+   * @param length int length
+   * @param width int width
+   * @param x int x coordinate
+   * @param y int y coordiante
+   * @param r int r RGB value
+   * @param g int g RGB value
+   * @param b int b RGB value
+   * @throws IllegalArgumentException if invalid type, name, dimensions or color passed
+   */
+  @Override
+  public void makeShape(String type, String name, int length, int width, int x, int y,
+                        int r, int g, int b) throws IllegalArgumentException {
+    // Check valid shape type, name, dimensions and color
+    if (type == null || type.isBlank()) {
+      throw new IllegalArgumentException("Shape type required.");
+    }
+    if (name == null || name.isBlank()) {
+      throw new IllegalArgumentException("Shape name required.");
+    }
+    ShapeTypes shapeType = ShapeTypes.fromName(type);
+    if (shapeType == null) {
+      throw new IllegalArgumentException("Invalid shape type");
+    }
+    if (this.findName(name) >= 0) {
+      throw new IllegalArgumentException("A shape with that name already exists");
+    }
+    checkDimensions(length, width);
+    RGB.checkRGB(r, g, b);
+
+    // Add row to table
+    if (this.slots == this.types.length) {
+      this.grow(this.types.length * 2);
+    }
+    int slot = this.slots++;
+    this.types[slot] = (byte) (shapeType.ordinal() + 1);
+    this.names[slot] = name;
+    this.xs[slot] = x;
+    this.ys[slot] = y;
+    this.lengths[slot] = length;
+    this.widths[slot] = width;
+    this.colors[slot] = UndoHistory.packColor(r, g, b);
+    this.indexName(slot);
+    this.ranks.add(slot);
+    if (this.order != null) {
+      this.order.add(slot);
+    }
+    this.indexRow(slot);
+    this.count++;
+    this.history.recordMake(shapeType, name, length, width, x, y, this.colors[slot]);
+    if (this.listeners.hasListeners()) {
+      this.listeners.shapeMade(this.rowToShape(slot));
+    }
+  }
+
+  /**
+   * Returns an unmodifiable List of all shape names.
+   * @return List<String></String>
+   */
+  @Override
+  public List<String> getShapeNames() {
+    List<String> list = new ArrayList<>(this.count);
+    for (int slot : this.paintOrder()) {
+      list.add(this.names[slot]);
+    }
+    return Collections.unmodifiableList(list);
+  }
+
+  /**
+   * Returns a list of all shapes, built from the table.
+   * @return List<I2DShape></I2DShape>
+   */
+  @Override
+  public List<I2DShape> getShapes() {
+    return this.rowsToShapes(this.paintOrder());
+  }
+
+  /**
+   * Returns the shapes whose bounding box intersects a rectangular region of the canvas, in
+   * paint order.
+   * @param x int x coordinate of region corner
+   * @param y int y coordinate of region corner
+   * @param width int width of region
+   * @param height int height of region
+   * @return List<I2DShape></I2DShape>
+   * @throws IllegalArgumentException if width or height not positive
+   */
+  @Override
+  public List<I2DShape> getShapesInRegion(int x, int y, int width, int height)
+          throws IllegalArgumentException {
+    return this.rowsToShapes(this.inPaintOrder(this.grid.query(x, y, width, height)));
+  }
+
+  /**
+   * Returns the topmost shape whose bounding box contains a point, or null if no shape does.
+   * @param x int x coordinate
+   * @param y int y coordinate
+   * @return I2DShape or null
+   */
+  @Override
+  public I2DShape getShapeAt(int x, int y) {
+    int slot = this.order == null ? this.grid.topmostAt(x, y)
+            : this.order.frontmost(this.grid.query(x, y, 1, 1));
+    if (slot < 0) {
+      return null;
+    }
+    return this.rowToShape(slot);
+  }
+
+  /**
+   * Returns the shapes of a type, in paint order. Scans the type column, so only
+   * shapes of that type are built.
+   * @param type String type of shape
+   * @return List<I2DShape></I2DShape>
+   * @throws IllegalArgumentException if invalid type
+   */
+  @Override
+  public List<I2DShape> getShapesOfType(String type) throws IllegalArgumentException {
+    byte column = (byte) (checkShapeType(type).ordinal() + 1);
+    int[] found = new int[this.count];
+    int size = 0;
+    for (int slot = 0; slot < this.slots; slot++) {
+      if (this.types[slot] == column) {
+        found[size++] = slot;
+      }
+    }
+    return this.rowsToShapes(this.inPaintOrder(Arrays.copyOf(found, size)));
+  }
+
+  /**
+   * Returns the shapes with a color, in paint order. Scans the color column, so only
+   * shapes of that color are built.
+   * @param r int r RGB value
+   * @param g int g RGB value
+   * @param b int b RGB value
+   * @return List<I2DShape></I2DShape>
+   * @throws IllegalArgumentException if invalid color
+   */
+  @Override
+  public List<I2DShape> getShapesWithColor(int r, int g, int b) throws IllegalArgumentException {
+    RGB.checkRGB(r, g, b);
+    int color = UndoHistory.packColor(r, g, b);
+    int[] found = new int[this.count];
+    int size = 0;
+    for (int slot = 0; slot < this.slots; slot++) {
+      if (this.types[slot] != EMPTY && this.colors[slot] == color) {
+        found[size++] = slot;
+      }
+    }
+    return this.rowsToShapes(this.inPaintOrder(Arrays.copyOf(found, size)));
+  }
+
+  /**
+   * Changes a shape's x and y coordinates given its name on the album.
+   * @param name String shape name
+   * @param x int x coordinate
+   * @param y int y coordinate
+   * @throws IllegalArgumentException if invalid shape name
+   */
+  @Override
+  public void moveShape(String name, int x, int y) throws IllegalArgumentException {
+    int slot = this.slotOf(name);
+    I2DShape previous = this.listeners.hasListeners() ? this.rowToShape(slot) : null;
+    this.history.recordMove(name, this.xs[slot], this.ys[slot], x, y);
+    this.xs[slot] = x;
+    this.ys[slot] = y;
+    this.indexRow(slot);
+    this.publishChange(slot, previous);
+  }
+
+  /**
+   * Changes the color of a shape given its name on the album.
+   * @param name String shape name
+   * @param r int r RGB value
+   * @param g int g RGB value
+   * @param b int b RGB value
+   * @throws IllegalArgumentException if invalid shape name or color
+   */
+  @Override
+  public void colorShape(String name, int r, int g, int b) throws IllegalArgumentException {
+    int slot = this.slotOf(name);
+    RGB.checkRGB(r, g, b);
+    int color = UndoHistory.packColor(r, g, b);
+    I2DShape previous = this.listeners.hasListeners() ? this.rowToShape(slot) : null;
+    this.history.recordColor(name, this.colors[slot], color);
+    this.colors[slot] = color;
+    this.publishChange(slot, previous);
+  }
+
+  /**
+   * Resizes a shape with a new length and width given its name on the album.
+   * @param name String shape name
+   * @param length int new length
+   * @param width int new width
+   * @throws IllegalArgumentException if invalid shape name or dimensions
+   */
+  @Override
+  public void resizeShape(String name, int length, int width) throws IllegalArgumentException {
+    int slot = this.slotOf(name);
+    checkDimensions(length, width);
+    I2DShape previous = this.listeners.hasListeners() ? this.rowToShape(slot) : null;
+    this.history.recordResize(name, this.lengths[slot], this.widths[slot], length, width);
+    this.lengths[slot] = length;
+    this.widths[slot] = width;
+    this.indexRow(slot);
+    this.publishChange(slot, previous);
+  }
+
+  /**
+   * Deletes a shape from the photo album by passing its name.
+   * @param name String shape name
+   * @throws IllegalArgumentException if invalid shape name
+   */
+  @Override
+  public void deleteShape(String name) throws IllegalArgumentException {
+    int slot = this.slotOf(name);
+    I2DShape deleted = this.listeners.hasListeners() ? this.rowToShape(slot) : null;
+    int index = this.paintIndex(slot);
+    this.history.recordDelete(SHAPE_TYPES[this.types[slot] - 1], name, this.lengths[slot],
+            this.widths[slot], this.xs[slot], this.ys[slot], this.colors[slot],
+            index == this.count - 1 ? -1 : index);
+    this.unindexName(slot);
+    this.ranks.remove(slot);
+    this.grid.remove(slot);
+    if (this.order != null) {
+      this.order.remove(slot);
+    }
+    this.types[slot] = EMPTY;
+    this.names[slot] = null;
+    this.count--;
+    if (deleted != null) {
+      this.listeners.shapeDeleted(deleted);
+    }
+
+    // Drop empty rows once they outnumber the shapes
+    if (this.slots - this.count > this.count + COMPACT_THRESHOLD) {
+      this.compact();
+    }
+  }
+
+  /**
+   * Moves a shape to a position in the paint order, shifting the shapes from there on up by one.
+   * While the paint order is slot order, the row is moved into the empty row at the new position
+   * if there is one, such as the row it was deleted from when a delete is undone. Otherwise the
+   * first reorder builds the explicit paint order in linear time, after that a reorder takes
+   * O(log n).
+   * @param name String shape name
+   * @param index int new position, 0 being the back
+   * @throws IllegalArgumentException if invalid shape name or position
+   */
+  @Override
+  public void reorderShape(String name, int index) throws IllegalArgumentException {
+    int slot = this.slotOf(name);
+    if (index < 0 || index >= this.count) {
+      throw new IllegalArgumentException("Invalid paint order position");
+    }
+
+    int previous = this.paintIndex(slot);
+    int moved = this.order == null ? this.moveIntoGap(slot, index) : -1;
+    if (moved >= 0) {
+      slot = moved;
+    } else {
+      if (this.order == null) {
+        this.order = new PaintOrder(this.occupiedSlots());
+      }
+      this.order.moveTo(slot, index);
+    }
+    this.history.recordOrder(name, previous, index);
+    if (this.listeners.hasListeners()) {
+      this.listeners.shapeReordered(this.rowToShape(slot), previous, index);
+    }
+  }
+
+  /**
+   * Moves a shape in front of every other shape.
+   * @param name String shape name
+   * @throws IllegalArgumentException if invalid shape name
+   */
+  @Override
+  public void bringToFront(String name) throws IllegalArgumentException {
+    this.reorderShape(name, this.count - 1);
+  }
+
+  /**
+   * Moves a shape behind every other shape.
+   * @param name String shape name
+   * @throws IllegalArgumentException if invalid shape name
+   */
+  @Override
+  public void sendToBack(String name) throws IllegalArgumentException {
+    this.reorderShape(name, 0);
+  }
+
+  /**
+   * Applies many operations in order. The whole batch is checked against the table first, so
+   * if one operation would be rejected none of them is applied. The columns are grown once for
+   * every shape the batch makes.
+   * @param operations List<ShapeOperation></ShapeOperation>
+   * @param first long number of the first operation, counted from 1, used in error messages
+   * @throws IllegalArgumentException if operations is null or an operation is rejected
+   */
+  @Override
+  public void applyBatch(List<ShapeOperation> operations, long first)
+          throws IllegalArgumentException {
+    if (operations == null) {
+      throw new IllegalArgumentException("Operations required.");
+    }
+    ShapeOperation.checkAll(operations, first, name -> this.findName(name) >= 0, this.count);
+    int makes = 0;
+    for (ShapeOperation operation : operations) {
+      if (operation.getKind() == ShapeOperation.Kind.MAKE) {
+        makes++;
+      }
+    }
+    if (this.slots + makes > this.types.length) {
+      this.grow(this.slots + makes);
+    }
+    ShapeOperation.applyAll(this, operations, first);
+  }
+
+  /**
+   * Undoes the newest make, move, resize, color, reorder or delete that has not been undone yet.
+   * @return boolean false if there was nothing to undo
+   */
+  @Override
+  public boolean undo() {
+    return this.history.undo(this);
+  }
+
+  /**
+   * Redoes the newest undone edit, as long as no other edit was made since it was undone.
+   * @return boolean false if there was nothing to redo
+   */
+  @Override
+  public boolean redo() {
+    return this.history.redo(this);
+  }
+
+  /**
+   * Returns a string representation of the shapes currently in the album canvas.
+   * @return String
+   */
+  public String getCurrentState() {
+    String text = "Current Shapes:\n";
+    for (I2DShape shape : this.getShapes()) {
+      text += shape.toString() + "\n\n";
+    }
+    return text;
+  }
+
+  /**
+   * Takes a snapshot of the current shapes. The snapshot keeps a packed copy of the canvas and
+   * builds shape objects from it when its shapes are requested.
+   * @param description String description of snapshot
+   */
+  @Override
+  public void takeSnapshot(String description) {
+    PackedShapes packed = new PackedShapes(this.count);
+    int row = 0;
+    for (int slot : this.paintOrder()) {
+      packed.types[row] = this.types[slot];
+      packed.names[row] = this.names[slot];
+      packed.xs[row] = this.xs[slot];
+      packed.ys[row] = this.ys[slot];
+      packed.lengths[row] = this.lengths[slot];
+      packed.widths[row] = this.widths[slot];
+      packed.colors[row] = this.colors[slot];
+      row++;
+    }
+    Snapshot snapshot = new Snapshot(description, packed::toShapes);
+    this.snapshots.add(snapshot);
+    this.listeners.snapshotTaken(snapshot);
+  }
+
+  /**
+   * Returns a list of snapshots in album.
+   * @return List<Snapshot></Snapshot>
+   */
+  @Override
+  public List<Snapshot> getSnapshots() {
+    return this.snapshots.snapshots();
+  }
+
+  /**
+   * Returns a list of IDs of the snapshots taken.
+   * @return List<String></String>
+   */
+  @Override
+  public List<String> getSnapshotIDs() {
+    return this.snapshots.ids();
+  }
+
+  /**
+   * Returns the snapshot with an ID. Looks the ID up in a map instead of searching.
+   * @param id String snapshot ID
+   * @return Snapshot
+   * @throws IllegalArgumentException if there is no snapshot with that ID
+   */
+  @Override
+  public Snapshot getSnapshot(String id) throws IllegalArgumentException {
+    return this.snapshots.get(id);
+  }
+
+  /**
+   * Returns the position of the snapshot with an ID in getSnapshots(), or -1 if there is none.
+   * Looks the ID up in a map instead of searching.
+   * @param id String snapshot ID
+   * @return int
+   */
+  @Override
+  public int indexOf(String id) {
+    return this.snapshots.indexOf(id);
+  }
+
+  /**
+   * Returns the shapes added, removed and changed from one snapshot of this album to another.
+   * This album does not track changes between snapshots, so the two are compared in full.
+   * @param from Snapshot snapshot to compare from
+   * @param to Snapshot snapshot to compare to
+   * @return SnapshotDiff
+   * @throws IllegalArgumentException if either snapshot is not in this album
+   */
+  @Override
+  public SnapshotDiff diff(Snapshot from, Snapshot to) throws IllegalArgumentException {
+    if (from == null || to == null) {
+      throw new IllegalArgumentException("Snapshots required.");
+    }
+    return SnapshotDiff.compare(this.getSnapshot(from.getID()).getShapes(),
+            this.getSnapshot(to.getID()).getShapes());
+  }
+
+  /**
+   * Adds a listener told about every shape made, changed, deleted or reordered and every
+   * snapshot taken from now on. Shape objects are only built for events while a listener is
+   * added.
+   * @param listener AlbumListener
+   * @throws IllegalArgumentException if listener is null
+   */
+  @Override
+  public void addListener(AlbumListener listener) throws IllegalArgumentException {
+    this.listeners.addListener(listener);
+  }
+
+  /**
+   * Removes a listener.
+   * @param listener AlbumListener
+   * @return boolean false if the listener was not added
+   */
+  @Override
+  public boolean removeListener(AlbumListener listener) {
+    return this.listeners.removeListener(listener);
+  }
+
+  /**
+   * Helper method for checking if shape name exists.
+   * @param name String name of shape
+   * @return int table slot of the shape
+   * @throws IllegalArgumentException if invalid name or nonexistent shape
+   */
+  private int slotOf(String name) throws IllegalArgumentException {
+    if (name == null || name.isBlank()) {
+      throw new IllegalArgumentException("Name of shape required.");
+    }
+    int slot = this.findName(name);
+    if (slot < 0) {
+      throw new IllegalArgumentException("There is no shape with that name.");
+    }
+    return slot;
+  }
+
+  /**
+   * Helper method that builds a shape object from a row of the table.
+   * @param slot int table slot
+   * @return I2DShape
+   */
+  private I2DShape rowToShape(int slot) {
+    return makeShapeObject(this.types[slot], this.names[slot], this.lengths[slot],
+            this.widths[slot], this.xs[slot], this.ys[slot], this.colors[slot]);
+  }
+
+  /**
+   * Helper method that builds shape objects from rows of the table.
+   * @param found int[] table slots
+   * @return List<I2DShape></I2DShape>
+   */
+  private List<I2DShape> rowsToShapes(int[] found) {
+    List<I2DShape> list = new ArrayList<>(found.length);
+    for (int slot : found) {
+      list.add(this.rowToShape(slot));
+    }
+    return list;
+  }
+
+  /**
+   * Helper method that lists the table slots holding a shape, in slot order.
+   * @return int[]
+   */
+  private int[] occupiedSlots() {
+    int[] occupied = new int[this.count];
+    int size = 0;
+    for (int slot = 0; slot < this.slots; slot++) {
+      if (this.types[slot] != EMPTY) {
+        occupied[size++] = slot;
+      }
+    }
+    return occupied;
+  }
+
+  /**
+   * Helper method that returns the position of a table slot in the paint order, in O(log n).
+   * While the paint order is slot order that is the number of occupied rows before it.
+   * @param slot int table slot holding a shape
+   * @return int position, 0 being the back
+   */
+  private int paintIndex(int slot) {
+    return this.order == null ? this.ranks.rank(slot) : this.order.indexOf(slot);
+  }
+
+  /**
+   * Helper method that moves a row, while the paint order is slot order, into an empty row
+   * between the rows that will be behind and in front of it at a position. Takes O(log n).
+   * @param slot int table slot holding the shape
+   * @param index int new position, 0 being the back
+   * @return int slot now holding the shape, or -1 if there is no empty row there
+   */
+  private int moveIntoGap(int slot, int index) {
+    // Find the slots of the rows around the position, leaving the row itself out
+    this.ranks.remove(slot);
+    int behind = index == 0 ? -1 : this.ranks.slotAt(index - 1);
+    int front = index == this.ranks.size() ? this.slots : this.ranks.slotAt(index);
+    this.ranks.add(slot);
+    if (behind < slot && slot < front) {
+      return slot;
+    } else if (front - behind < 2) {
+      return -1;
+    }
+
+    // Every row between them is empty, so take the one just behind the front row
+    int target = front - 1;
+    this.unindexName(slot);
+    this.ranks.remove(slot);
+    this.grid.remove(slot);
+    this.types[target] = this.types[slot];
+    this.names[target] = this.names[slot];
+    this.xs[target] = this.xs[slot];
+    this.ys[target] = this.ys[slot];
+    this.lengths[target] = this.lengths[slot];
+    this.widths[target] = this.widths[slot];
+    this.colors[target] = this.colors[slot];
+    this.types[slot] = EMPTY;
+    this.names[slot] = null;
+    this.indexName(target);
+    this.ranks.add(target);
+    this.indexRow(target);
+    return target;
+  }
+
+  /**
+   * Helper method that lists the table slots holding a shape, back to front.
+   * @return int[]
+   */
+  private int[] paintOrder() {
+    return this.order == null ? this.occupiedSlots() : this.order.toArray();
+  }
+
+  /**
+   * Helper method that sorts table slots into paint order.
+   * @param found int[] table slots in slot order
+   * @return int[] found, sorted back to front
+   */
+  private int[] inPaintOrder(int[] found) {
+    return this.order == null ? found : this.order.sort(found);
+  }
+
+  /**
+   * Helper method that tells the listeners a row was moved, resized or recolored.
+   * @param slot int table slot
+   * @param previous I2DShape shape before the edit, or null if nobody listens
+   */
+  private void publishChange(int slot, I2DShape previous) {
+    if (previous != null) {
+      this.listeners.shapeChanged(previous, this.rowToShape(slot));
+    }
+  }
+
+  /**
+   * Helper method that puts a row's current bounding box into the spatial grid.
+   * @param slot int table slot
+   */
+  private void indexRow(int slot) {
+    this.grid.insert(slot, SHAPE_TYPES[this.types[slot] - 1], this.xs[slot], this.ys[slot],
+            this.lengths[slot], this.widths[slot]);
+  }
+
+  /**
+   * Helper method that finds the slot of a shape in the name index.
+   * @param name String shape name
+   * @return int table slot, or -1 if no shape has that name
+   */
+  private int findName(String name) {
+    int mask = this.slotsByName.length - 1;
+    int entry;
+    for (int i = nameHash(name) & mask; (entry = this.slotsByName[i]) != 0; i = (i + 1) & mask) {
+      if (this.names[entry - 1].equals(name)) {
+        return entry - 1;
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * Helper method that adds a row's name to the name index, doubling the index first if it would
+   * be more than half full.
+   * @param slot int table slot holding a shape
+   */
+  private void indexName(int slot) {
+    if (2 * (this.count + 1) > this.slotsByName.length) {
+      int[] old = this.slotsByName;
+      this.slotsByName = new int[old.length * 2];
+      for (int entry : old) {
+        if (entry != 0) {
+          this.placeName(entry - 1);
+        }
+      }
+    }
+    this.placeName(slot);
+  }
+
+  /**
+   * Helper method that puts a row's name in the first free entry from its hash.
+   * @param slot int table slot holding a shape
+   */
+  private void placeName(int slot) {
+    int mask = this.slotsByName.length - 1;
+    int i = nameHash(this.names[slot]) & mask;
+    while (this.slotsByName[i] != 0) {
+      i = (i + 1) & mask;
+    }
+    this.slotsByName[i] = slot + 1;
+  }
+
+  /**
+   * Helper method that removes a row's name from the name index. Entries after it that probed
+   * past it are shifted back, so lookups never need to skip removed entries.
+   * @param slot int table slot holding a shape
+   */
+  private void unindexName(int slot) {
+    int mask = this.slotsByName.length - 1;
+    int hole = nameHash(this.names[slot]) & mask;
+    while (this.slotsByName[hole] != slot + 1) {
+      hole = (hole + 1) & mask;
+    }
+    this.slotsByName[hole] = 0;
+    int entry;
+    for (int i = (hole + 1) & mask; (entry = this.slotsByName[i]) != 0; i = (i + 1) & mask) {
+      // Move the entry into the hole unless its home lies after the hole, up to the entry
+      int home = nameHash(this.names[entry - 1]) & mask;
+      if (((i - home) & mask) >= ((i - hole) & mask)) {
+        this.slotsByName[hole] = entry;
+        this.slotsByName[i] = 0;
+        hole = i;
+      }
+    }
+  }
+
+  /**
+   * Helper method that grows every column to a new capacity.
+   * @param capacity int new number of rows
+   */
+  private void grow(int capacity) {
+    this.types = Arrays.copyOf(this.types, capacity);
+    this.names = Arrays.copyOf(this.names, capacity);
+    this.xs = Arrays.copyOf(this.xs, capacity);
+    this.ys = Arrays.copyOf(this.ys, capacity);
+    this.lengths = Arrays.copyOf(this.lengths, capacity);
+    this.widths = Arrays.copyOf(this.widths, capacity);
+    this.colors = Arrays.copyOf(this.colors, capacity);
+  }
+
+  /**
+   * Helper method that moves the rows into new columns without empty rows, in paint order, so
+   * slot order is paint order again.
+   */
+  private void compact() {
+    int[] painted = this.paintOrder();
+    byte[] oldTypes = this.types;
+    String[] oldNames = this.names;
+    int[] oldXs = this.xs;
+    int[] oldYs = this.ys;
+    int[] oldLengths = this.lengths;
+    int[] oldWidths = this.widths;
+    int[] oldColors = this.colors;
+    int capacity = this.types.length;
+    this.types = new byte[capacity];
+    this.names = new String[capacity];
+    this.xs = new int[capacity];
+    this.ys = new int[capacity];
+    this.lengths = new int[capacity];
+    this.widths = new int[capacity];
+    this.colors = new int[capacity];
+    this.grid.clear();
+    this.ranks.clear();
+    for (int row = 0; row < painted.length; row++) {
+      int slot = painted[row];
+      this.types[row] = oldTypes[slot];
+      this.names[row] = oldNames[slot];
+      this.xs[row] = oldXs[slot];
+      this.ys[row] = oldYs[slot];
+      this.lengths[row] = oldLengths[slot];
+      this.widths[row] = oldWidths[slot];
+      this.colors[row] = oldColors[slot];
+      this.ranks.add(row);
+      this.indexRow(row);
+    }
+    this.slots = painted.length;
+    Arrays.fill(this.slotsByName, 0);
+    for (int row = 0; row < this.slots; row++) {
+      this.placeName(row);
+    }
+    this.order = null;
+  }
+
+  /**
+   * Helper method to check for valid dimensions.
+   * @param length int length
+   * @param width int width
+   * @throws IllegalArgumentException if length or width not positive
+   */
+  private static void checkDimensions(int length, int width) throws IllegalArgumentException {
+    if (length <= 0 || width <= 0) {
+      throw new IllegalArgumentException("Invalid length or width");
+    }
+  }
+
+  /**
+   * Helper method that looks up a shape type by name, ignoring case.
+   * @param type String shape type
+   * @return ShapeTypes
+   * @throws IllegalArgumentException if invalid type
+   */
+  private static ShapeTypes checkShapeType(String type) throws IllegalArgumentException {
+    if (type == null || type.isBlank()) {
+      throw new IllegalArgumentException("Shape type required.");
+    }
+    ShapeTypes shapeType = ShapeTypes.fromName(type);
+    if (shapeType == null) {
+      throw new IllegalArgumentException("Invalid shape type");
+    }
+    return shapeType;
+  }
+
+  /**
+   * Helper method that spreads the bits of a name's hash code into the low bits the name index
+   * uses.
+   * @param name String shape name
+   * @return int
+   */
+  private static int nameHash(String name) {
+    int hash = name.hashCode();
+    return hash ^ (hash >>> 16);
+  }
+
+  /**
+   * Helper method that builds a shape object from a table row.
+   * @param type byte type ordinal + 1
+   * @param name String name
+   * @param length int length
+   * @param width int width
+   * @param x int x coordinate
+   * @param y int y coordinate
+   * @param color int packed color
+   * @return I2DShape
+   */
+  private static I2DShape makeShapeObject(byte type, String name, int length, int width, int x,
+                                          int y, int color) {
+    int r = (color >>> 16) & 0xFF;
+    int g = (color >>> 8) & 0xFF;
+    int b = color & 0xFF;
+    ShapeTypes shapeType = SHAPE_TYPES[type - 1];
+    if (shapeType == ShapeTypes.OVAL) {
+      return new Oval(name, length, width, x, y, r, g, b);
+    } else if (shapeType == ShapeTypes.TRIANGLE) {
+      return new Triangle(name, length, width, x, y, r, g, b);
+    }
+    return new Rectangle(name, length, width, x, y, r, g, b);
+  }
+
+  /**
+   * Packed, gap-free copy of the canvas table held by a snapshot.
+   */
+  private static final class PackedShapes {
+    private final byte[] types;
+    private final String[] names;
+    private final int[] xs;
+    private final int[] ys;
+    private final int[] lengths;
+    private final int[] widths;
+    private final int[] colors;
+
+    private PackedShapes(int size) {
+      this.types = new byte[size];
+      this.names = new String[size];
+      this.xs = new int[size];
+      this.ys = new int[size];
+      this.lengths = new int[size];
+      this.widths = new int[size];
+      this.colors = new int[size];
+    }
+
+    private List<I2DShape> toShapes() {
+      List<I2DShape> list = new ArrayList<>(this.types.length);
+      for (int row = 0; row < this.types.length; row++) {
+        list.add(makeShapeObject(this.types[row], this.names[row], this.lengths[row],
+                this.widths[row], this.xs[row], this.ys[row], this.colors[row]));
+      }
+      return Collections.unmodifiableList(list);
+    }
+  }
+}
@@ -0,0 +1,511 @@
+package model;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+
+import utilities.shapes.I2DShape;
+
+/**
+ * PaintOrder class. Explicit paint order of the canvas slots of an album, back to front, for
+ * albums whose shapes have been reordered. Slots are kept in a persistent treap ordered by a
+ * long key with the size of every subtree, so finding, moving or dropping a slot takes O(log n)
+ * and listing the order takes linear time. Keys are spread out so a slot can usually be given a
+ * key between two neighbours; when there is no room every key is handed out again. Nodes are
+ * never changed once built, so freeze() is constant time and a frozen order stays valid while
+ * the album goes on.
+ */
+public class PaintOrder {
+  private static final long GAP = 1L << 20;
+  private static final long LIMIT = 1L << 61;
+  private static final int INITIAL_CAPACITY = 16;
+  private Node root = null;
+  private long[] keys = new long[INITIAL_CAPACITY]; // key of each slot in the order
+
+  /**
+   * Constructor.
+   * @param slots int[] canvas slots from back to front
+   */
+  public PaintOrder(int[] slots) {
+    this.rebuild(slots);
+  }
+
+  /**
+   * Returns the number of slots in the order.
+   * @return int
+   */
+  public int size() {
+    return size(this.root);
+  }
+
+  /**
+   * Puts a slot on top of every other slot.
+   * @param slot int canvas slot not in the order
+   */
+  public void add(int slot) {
+    Node last = last(this.root);
+    long key = last == null ? 0 : last.key + GAP;
+    if (key > LIMIT) {
+      this.rebuild(this.toArray());
+      key = last(this.root).key + GAP;
+    }
+    this.insert(slot, key);
+  }
+
+  /**
+   * Takes a slot out of the order.
+   * @param slot int canvas slot in the order
+   */
+  public void remove(int slot) {
+    this.root = delete(this.root, this.keys[slot]);
+  }
+
+  /**
+   * Returns the position of a slot, 0 being the back.
+   * @param slot int canvas slot in the order
+   * @return int
+   */
+  public int indexOf(int slot) {
+    return rank(this.root, this.keys[slot]);
+  }
+
+  /**
+   * Returns the slot at a position, 0 being the back.
+   * @param index int position
+   * @return int canvas slot
+   * @throws IndexOutOfBoundsException if there is no such position
+   */
+  public int slotAt(int index) throws IndexOutOfBoundsException {
+    if (index < 0 || index >= this.size()) {
+      throw new IndexOutOfBoundsException("No position " + index);
+    }
+    return select(this.root, index).slot;
+  }
+
+  /**
+   * Moves a slot to a position, shifting the slots from there on up by one.
+   * @param slot int canvas slot in the order
+   * @param index int new position, 0 being the back
+   * @throws IndexOutOfBoundsException if there is no such position
+   */
+  public void moveTo(int slot, int index) throws IndexOutOfBoundsException {
+    if (index < 0 || index >= this.size()) {
+      throw new IndexOutOfBoundsException("No position " + index);
+    }
+    this.remove(slot);
+    long key = this.keyAt(index);
+    if (key == Long.MIN_VALUE) {
+      // No room between the neighbours, hand out every key again
+      this.rebuild(this.toArray());
+      key = this.keyAt(index);
+    }
+    this.insert(slot, key);
+  }
+
+  /**
+   * Returns the slots from back to front.
+   * @return int[]
+   */
+  public int[] toArray() {
+    return toArray(this.root);
+  }
+
+  /**
+   * Sorts slots in the order into paint order, back to front.
+   * @param slots int[] canvas slots in the order, sorted in place
+   * @return int[] slots
+   */
+  public int[] sort(int[] slots) {
+    long[] ranked = new long[slots.length];
+    for (int i = 0; i < slots.length; i++) {
+      ranked[i] = ((long) this.indexOf(slots[i]) << 32) | slots[i];
+    }
+    Arrays.sort(ranked);
+    for (int i = 0; i < slots.length; i++) {
+      slots[i] = (int) ranked[i];
+    }
+    return slots;
+  }
+
+  /**
+   * Returns the frontmost of some slots in the order.
+   * @param slots int[] canvas slots in the order
+   * @return int slot, or -1 if there are none
+   */
+  public int frontmost(int[] slots) {
+    int frontmost = -1;
+    for (int slot : slots) {
+      if (frontmost < 0 || this.keys[slot] > this.keys[frontmost]) {
+        frontmost = slot;
+      }
+    }
+    return frontmost;
+  }
+
+  /**
+   * Returns the current order, which later changes leave alone.
+   * @return Version
+   */
+  public Version freeze() {
+    return new Version(this.root);
+  }
+
+  /**
+   * Goes back to an order returned by freeze(). Takes linear time.
+   * @param version Version
+   */
+  public void restore(Version version) {
+    this.root = version.root;
+    this.restoreKeys(this.root);
+  }
+
+  /**
+   * Helper method that returns a free key for a slot about to be put at a position, or
+   * Long.MIN_VALUE if the neighbours at that position leave no room.
+   * @param index int position
+   * @return long
+   */
+  private long keyAt(int index) {
+    int size = this.size();
+    if (size == 0) {
+      return 0;
+    }
+    long below = index == 0 ? Long.MIN_VALUE : select(this.root, index - 1).key;
+    long above = index == size ? Long.MAX_VALUE : select(this.root, index).key;
+    if (index == 0) {
+      return above - GAP < -LIMIT ? Long.MIN_VALUE : above - GAP;
+    }
+    if (index == size) {
+      return below + GAP > LIMIT ? Long.MIN_VALUE : below + GAP;
+    }
+    return above - below < 2 ? Long.MIN_VALUE : below + (above - below) / 2;
+  }
+
+  /**
+   * Helper method that puts a slot into the treap under a key.
+   * @param slot int canvas slot
+   * @param key long free key
+   */
+  private void insert(int slot, long key) {
+    if (slot >= this.keys.length) {
+      this.keys = Arrays.copyOf(this.keys, Math.max(slot + 1, this.keys.length * 2));
+    }
+    this.keys[slot] = key;
+    this.root = insert(this.root, new Node(key, slot, null, null));
+  }
+
+  /**
+   * Helper method that builds a treap over slots with evenly spread keys. Keys go in sorted,
+   * so the tree is built in linear time by keeping the right spine on a stack.
+   * @param slots int[] canvas slots from back to front
+   */
+  private void rebuild(int[] slots) {
+    Node[] spine = new Node[slots.length];
+    int height = 0;
+    for (int i = 0; i < slots.length; i++) {
+      int slot = slots[i];
+      long key = i * GAP;
+      if (slot >= this.keys.length) {
+        this.keys = Arrays.copyOf(this.keys, Math.max(slot + 1, this.keys.length * 2));
+      }
+      this.keys[slot] = key;
+
+      // Pop the spine nodes this one goes above, they become its left child
+      int priority = priority(key);
+      Node left = null;
+      while (height > 0 && spine[height - 1].priority < priority) {
+        Node popped = spine[--height];
+        left = popped.with(popped.left, left);
+      }
+      spine[height++] = new Node(key, slot, left, null);
+    }
+
+    // Hang each spine node under the one before it
+    Node tree = null;
+    for (int i = height - 1; i >= 0; i--) {
+      tree = spine[i].with(spine[i].left, tree);
+    }
+    this.root = tree;
+  }
+
+  /**
+   * Helper method that sets the key of every slot in a treap.
+   * @param node Node or null
+   */
+  private void restoreKeys(Node node) {
+    while (node != null) {
+      this.restoreKeys(node.left);
+      if (node.slot >= this.keys.length) {
+        this.keys = Arrays.copyOf(this.keys, Math.max(node.slot + 1, this.keys.length * 2));
+      }
+      this.keys[node.slot] = node.key;
+      node = node.right;
+    }
+  }
+
+  /**
+   * Helper method that returns the size of a treap.
+   * @param node Node or null
+   * @return int
+   */
+  private static int size(Node node) {
+    return node == null ? 0 : node.size;
+  }
+
+  /**
+   * Helper method that returns the node with the largest key.
+   * @param node Node or null
+   * @return Node or null
+   */
+  private static Node last(Node node) {
+    if (node == null) {
+      return null;
+    }
+    while (node.right != null) {
+      node = node.right;
+    }
+    return node;
+  }
+
+  /**
+   * Helper method that counts the keys below a key.
+   * @param node Node or null
+   * @param key long
+   * @return int
+   */
+  private static int rank(Node node, long key) {
+    int rank = 0;
+    while (node != null) {
+      if (key <= node.key) {
+        if (key == node.key) {
+          return rank + size(node.left);
+        }
+        node = node.left;
+      } else {
+        rank += size(node.left) + 1;
+        node = node.right;
+      }
+    }
+    return rank;
+  }
+
+  /**
+   * Helper method that returns the node at a position.
+   * @param node Node
+   * @param index int position within the treap
+   * @return Node
+   */
+  private static Node select(Node node, int index) {
+    while (true) {
+      int left = size(node.left);
+      if (index < left) {
+        node = node.left;
+      } else if (index == left) {
+        return node;
+      } else {
+        index -= left + 1;
+        node = node.right;
+      }
+    }
+  }
+
+  /**
+   * Helper method that returns a treap with a new node added, copying the path to it.
+   * @param node Node or null
+   * @param added Node without children
+   * @return Node
+   */
+  private static Node insert(Node node, Node added) {
+    if (node == null) {
+      return added;
+    }
+    if (added.priority > node.priority) {
+      Node[] split = split(node, added.key);
+      return added.with(split[0], split[1]);
+    }
+    if (added.key < node.key) {
+      return node.with(insert(node.left, added), node.right);
+    }
+    return node.with(node.left, insert(node.right, added));
+  }
+
+  /**
+   * Helper method that returns a treap without the node with a key, copying the path to it.
+   * @param node Node or null
+   * @param key long
+   * @return Node or null
+   */
+  private static Node delete(Node node, long key) {
+    if (node == null) {
+      return null;
+    }
+    if (key == node.key) {
+      return merge(node.left, node.right);
+    }
+    if (key < node.key) {
+      return node.with(delete(node.left, key), node.right);
+    }
+    return node.with(node.left, delete(node.right, key));
+  }
+
+  /**
+   * Helper method that splits a treap into the keys below a key and the rest.
+   * @param node Node or null
+   * @param key long
+   * @return Node[] lower and upper treap
+   */
+  private static Node[] split(Node node, long key) {
+    if (node == null) {
+      return new Node[2];
+    }
+    if (node.key < key) {
+      Node[] split = split(node.right, key);
+      split[0] = node.with(node.left, split[0]);
+      return split;
+    }
+    Node[] split = split(node.left, key);
+    split[1] = node.with(split[1], node.right);
+    return split;
+  }
+
+  /**
+   * Helper method that joins two treaps, every key of the first below every key of the second.
+   * @param lower Node or null
+   * @param upper Node or null
+   * @return Node or null
+   */
+  private static Node merge(Node lower, Node upper) {
+    if (lower == null) {
+      return upper;
+    }
+    if (upper == null) {
+      return lower;
+    }
+    if (lower.priority > upper.priority) {
+      return lower.with(lower.left, merge(lower.right, upper));
+    }
+    return upper.with(merge(lower, upper.left), upper.right);
+  }
+
+  /**
+   * Helper method that lists the slots of a treap in key order.
+   * @param root Node or null
+   * @return int[]
+   */
+  private static int[] toArray(Node root) {
+    int[] slots = new int[size(root)];
+    Node[] path = new Node[64];
+    int depth = 0;
+    int i = 0;
+    Node node = root;
+    while (node != null || depth > 0) {
+      while (node != null) {
+        if (depth == path.length) {
+          path = Arrays.copyOf(path, depth * 2);
+        }
+        path[depth++] = node;
+        node = node.left;
+      }
+      node = path[--depth];
+      slots[i++] = node.slot;
+      node = node.right;
+    }
+    return slots;
+  }
+
+  /**
+   * Helper method that derives a node's heap priority from its key, spreading the bits so
+   * keys handed out in order still give a balanced treap.
+   * @param key long
+   * @return int
+   */
+  private static int priority(long key) {
+    key = (key ^ (key >>> 30)) * 0xBF58476D1CE4E5B9L;
+    key = (key ^ (key >>> 27)) * 0x94D049BB133111EBL;
+    return (int) (key ^ (key >>> 31));
+  }
+
+  /**
+   * Frozen paint order, kept by a snapshot to put its shapes in order.
+   */
+  public static final class Version {
+    private final Node root;
+
+    /**
+     * Constructor.
+     * @param root Node or null
+     */
+    private Version(Node root) {
+      this.root = root;
+    }
+
+    /**
+     * Returns whether another version froze the very same order, without comparing slots. Two
+     * versions frozen with no change to the order in between match; an order that was changed
+     * and changed back does not.
+     * @param other Version
+     * @return boolean
+     */
+    public boolean isSameOrder(Version other) {
+      return other != null && this.root == other.root;
+    }
+
+    /**
+     * Puts the shapes of the frozen slots, given in slot order, into paint order. Takes time
+     * linear in the number of slots.
+     * @param shapes List<I2DShape> one shape per frozen slot, in slot order
+     * @return List<I2DShape> unmodifiable list of the shapes back to front
+     * @throws IllegalArgumentException if the number of shapes does not match
+     */
+    public List<I2DShape> arrange(List<I2DShape> shapes) throws IllegalArgumentException {
+      int[] slots = toArray(this.root);
+      if (shapes.size() != slots.length) {
+        throw new IllegalArgumentException("Expected " + slots.length + " shapes.");
+      }
+      int slotCount = 0;
+      for (int slot : slots) {
+        slotCount = Math.max(slotCount, slot + 1);
+      }
+      int[] positions = new int[slotCount];
+      Arrays.fill(positions, -1);
+      for (int i = 0; i < slots.length; i++) {
+        positions[slots[i]] = i;
+      }
+
+      I2DShape[] arranged = new I2DShape[slots.length];
+      Iterator<I2DShape> inSlotOrder = shapes.iterator();
+      for (int position : positions) {
+        if (position >= 0) {
+          arranged[position] = inSlotOrder.next();
+        }
+      }
+      return Collections.unmodifiableList(Arrays.asList(arranged));
+    }
+  }
+
+  /**
+   * Immutable treap node.
+   */
+  private static final class Node {
+    private final long key;
+    private final int slot;
+    private final int priority;
+    private final int size;
+    private final Node left;
+    private final Node right;
+
+    private Node(long key, int slot, Node left, Node right) {
+      this.key = key;
+      this.slot = slot;
+      this.priority = priority(key);
+      this.size = size(left) + size(right) + 1;
+      this.left = left;
+      this.right = right;
+    }
+
+    private Node with(Node left, Node right) {
+      return new Node(this.key, this.slot, left, right);
+    }
+  }
+}
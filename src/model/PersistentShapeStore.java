@@ -0,0 +1,354 @@
+package model;
+
+import java.util.AbstractList;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import utilities.shapes.I2DShape;
+
+/**
+ * PersistentShapeStore class. Holds the shapes of the album canvas in a persistent vector (a
+ * 32-way trie) indexed by slot, where slots are handed out in insertion order. Freezing the store
+ * returns an immutable Version that shares every node with the live store, and later writes only
+ * copy the nodes on the path to the slot they touch. Removed shapes leave an empty slot behind.
+ */
+public class PersistentShapeStore implements Iterable<I2DShape> {
+  private static final int BITS = 5;
+  private static final int WIDTH = 1 << BITS;
+  private static final int MASK = WIDTH - 1;
+
+  private Object edit = new Object();
+  private Node root = new Node(this.edit);
+  private int shift = 0;
+  private int slots = 0;
+  private int count = 0;
+
+  /**
+   * Constructor.
+   */
+  public PersistentShapeStore() {
+  }
+
+  /**
+   * Adds a shape to the next free slot at the end of the store.
+   * @param shape I2DShape to add
+   * @return int slot of the shape
+   */
+  public int add(I2DShape shape) {
+    // Grow the trie by one level when full
+    if (this.slots == 1 << (this.shift + BITS)) {
+      Node newRoot = new Node(this.edit);
+      newRoot.array[0] = this.root;
+      this.root = newRoot;
+      this.shift += BITS;
+    }
+    int slot = this.slots++;
+    this.write(slot, shape);
+    this.count++;
+    return slot;
+  }
+
+  /**
+   * Returns the shape held in a slot, or null if the slot is empty.
+   * @param slot int slot
+   * @return I2DShape
+   */
+  public I2DShape get(int slot) {
+    this.checkSlot(slot);
+    return (I2DShape) leafFor(this.root, this.shift, slot)[slot & MASK];
+  }
+
+  /**
+   * Replaces the shape held in an occupied slot.
+   * @param slot int slot
+   * @param shape I2DShape new shape
+   * @throws IllegalArgumentException if the slot is empty or shape is null
+   */
+  public void set(int slot, I2DShape shape) throws IllegalArgumentException {
+    if (shape == null || this.get(slot) == null) {
+      throw new IllegalArgumentException("Cannot replace an empty slot.");
+    }
+    this.write(slot, shape);
+  }
+
+  /**
+   * Puts a shape back into an empty slot, such as when a removal is undone.
+   * @param slot int slot
+   * @param shape I2DShape shape to put back
+   * @throws IllegalArgumentException if the slot is occupied or shape is null
+   */
+  public void restore(int slot, I2DShape shape) throws IllegalArgumentException {
+    if (shape == null || this.get(slot) != null) {
+      throw new IllegalArgumentException("Can only restore into an empty slot.");
+    }
+    this.write(slot, shape);
+    this.count++;
+  }
+
+  /**
+   * Empties a slot.
+   * @param slot int slot
+   */
+  public void remove(int slot) {
+    if (this.get(slot) != null) {
+      this.write(slot, null);
+      this.count--;
+    }
+  }
+
+  /**
+   * Returns the number of shapes in the store.
+   * @return int
+   */
+  public int size() {
+    return this.count;
+  }
+
+  /**
+   * Returns the number of empty slots left behind by removed shapes.
+   * @return int
+   */
+  public int emptySlots() {
+    return this.slots - this.count;
+  }
+
+  /**
+   * Returns the number of slots handed out so far, empty or not.
+   * @return int
+   */
+  public int slotCount() {
+    return this.slots;
+  }
+
+  /**
+   * Returns an array holding the shape in each slot, with null for empty slots.
+   * @return I2DShape[]
+   */
+  public I2DShape[] toSlotArray() {
+    I2DShape[] array = new I2DShape[this.slots];
+    for (int slot = 0; slot < this.slots; slot += WIDTH) {
+      Object[] leaf = leafFor(this.root, this.shift, slot);
+      System.arraycopy(leaf, 0, array, slot, Math.min(WIDTH, this.slots - slot));
+    }
+    return array;
+  }
+
+  /**
+   * Returns an immutable view of the shapes currently in the store. Takes constant time; the
+   * view shares its nodes with the store until the store is written to.
+   * @return Version
+   */
+  public Version freeze() {
+    Version version = new Version(this.root, this.shift, this.slots, this.count);
+    this.edit = new Object(); // nodes from now on belong to the frozen version
+    return version;
+  }
+
+  /**
+   * Iterates through the shapes in the store in slot order.
+   * @return Iterator<I2DShape>
+   */
+  @Override
+  public Iterator<I2DShape> iterator() {
+    return new ShapeIterator(this.root, this.shift, this.slots);
+  }
+
+  /**
+   * Helper method that writes a value into a slot, copying any node on the path that is shared
+   * with a frozen version.
+   * @param slot int slot
+   * @param shape I2DShape or null
+   */
+  private void write(int slot, I2DShape shape) {
+    this.root = this.editable(this.root);
+    Node node = this.root;
+    for (int level = this.shift; level > 0; level -= BITS) {
+      int index = (slot >>> level) & MASK;
+      Node child = (Node) node.array[index];
+      child = child == null ? new Node(this.edit) : this.editable(child);
+      node.array[index] = child;
+      node = child;
+    }
+    node.array[slot & MASK] = shape;
+  }
+
+  /**
+   * Helper method that returns the node itself if it belongs to the live store, or a copy of it
+   * that does.
+   * @param node Node
+   * @return Node
+   */
+  private Node editable(Node node) {
+    if (node.edit == this.edit) {
+      return node;
+    }
+    return new Node(this.edit, node.array.clone());
+  }
+
+  /**
+   * Helper method to check a slot is in range.
+   * @param slot int slot
+   * @throws IndexOutOfBoundsException if slot out of range
+   */
+  private void checkSlot(int slot) throws IndexOutOfBoundsException {
+    if (slot < 0 || slot >= this.slots) {
+      throw new IndexOutOfBoundsException("No slot " + slot);
+    }
+  }
+
+  /**
+   * Helper method that finds the leaf array holding a slot.
+   * @param root Node root of trie
+   * @param shift int height of trie in bits
+   * @param slot int slot
+   * @return Object[] leaf array
+   */
+  private static Object[] leafFor(Node root, int shift, int slot) {
+    Node node = root;
+    for (int level = shift; level > 0; level -= BITS) {
+      node = (Node) node.array[(slot >>> level) & MASK];
+    }
+    return node.array;
+  }
+
+  /**
+   * Trie node. Nodes are only written to by the store whose edit token they carry.
+   */
+  private static final class Node {
+    private final Object edit;
+    private final Object[] array;
+
+    private Node(Object edit) {
+      this(edit, new Object[WIDTH]);
+    }
+
+    private Node(Object edit, Object[] array) {
+      this.edit = edit;
+      this.array = array;
+    }
+  }
+
+  /**
+   * Iterator over the occupied slots of a trie, reading one leaf array at a time.
+   */
+  private static final class ShapeIterator implements Iterator<I2DShape> {
+    private final Node root;
+    private final int shift;
+    private final int slots;
+    private Object[] leaf;
+    private int slot = -1;
+    private int next = -1;
+
+    private ShapeIterator(Node root, int shift, int slots) {
+      this.root = root;
+      this.shift = shift;
+      this.slots = slots;
+      this.advance();
+    }
+
+    private void advance() {
+      this.next = this.slot + 1;
+      while (this.next < this.slots) {
+        if ((this.next & MASK) == 0 || this.leaf == null) {
+          this.leaf = leafFor(this.root, this.shift, this.next);
+        }
+        if (this.leaf[this.next & MASK] != null) {
+          return;
+        }
+        this.next++;
+      }
+    }
+
+    @Override
+    public boolean hasNext() {
+      return this.next < this.slots;
+    }
+
+    @Override
+    public I2DShape next() {
+      if (!this.hasNext()) {
+        throw new NoSuchElementException();
+      }
+      this.slot = this.next;
+      I2DShape shape = (I2DShape) this.leaf[this.slot & MASK];
+      this.advance();
+      return shape;
+    }
+  }
+
+  /**
+   * Version class. Immutable, ordered list view of the store at the moment it was frozen.
+   * Shapes in a version are shared with the store and later versions, so they must not be
+   * mutated.
+   */
+  public static final class Version extends AbstractList<I2DShape> {
+    private final Node root;
+    private final int shift;
+    private final int slots;
+    private final int count;
+    // Built on first random access when there are empty slots. Volatile so a version shared
+    // between threads only hands out a filled array; threads racing to build it build the same.
+    private volatile int[] occupied;
+
+    private Version(Node root, int shift, int slots, int count) {
+      this.root = root;
+      this.shift = shift;
+      this.slots = slots;
+      this.count = count;
+    }
+
+    /**
+     * Returns the shape at a position in the list.
+     * @param index int position
+     * @return I2DShape
+     */
+    @Override
+    public I2DShape get(int index) {
+      if (index < 0 || index >= this.count) {
+        throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + this.count);
+      }
+      int slot = index;
+      if (this.count != this.slots) {
+        slot = this.occupiedSlots()[index];
+      }
+      return (I2DShape) leafFor(this.root, this.shift, slot)[slot & MASK];
+    }
+
+    /**
+     * Returns the number of shapes in the version.
+     * @return int
+     */
+    @Override
+    public int size() {
+      return this.count;
+    }
+
+    /**
+     * Iterates through the shapes in the version in order.
+     * @return Iterator<I2DShape>
+     */
+    @Override
+    public Iterator<I2DShape> iterator() {
+      return new ShapeIterator(this.root, this.shift, this.slots);
+    }
+
+    /**
+     * Helper method that maps list positions to occupied slots.
+     * @return int[]
+     */
+    private int[] occupiedSlots() {
+      int[] positions = this.occupied;
+      if (positions == null) {
+        positions = new int[this.count];
+        int index = 0;
+        for (int slot = 0; slot < this.slots; slot++) {
+          if (leafFor(this.root, this.shift, slot)[slot & MASK] != null) {
+            positions[index++] = slot;
+          }
+        }
+        this.occupied = positions;
+      }
+      return positions;
+    }
+  }
+}
@@ -0,0 +1,456 @@
+package model;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+
+import utilities.shapes.RGB;
+import utilities.shapes.ShapeTypes;
+
+/**
+ * ShapeOperation class. Immutable description of one edit to a photo album, such as making,
+ * moving, resizing, coloring, reordering or removing a shape or taking a snapshot, so many edits
+ * can be passed to IShapesPhotoAlbum.applyBatch() at once.
+ */
+public final class ShapeOperation {
+  /**
+   * Kinds of operation.
+   */
+  public enum Kind { MAKE, MOVE, RESIZE, COLOR, REMOVE, SNAPSHOT, ORDER, FRONT, BACK; }
+
+  private final Kind kind;
+  private final String name;
+  private final String type;
+  private final int length;
+  private final int width;
+  private final int x;
+  private final int y;
+  private final int r;
+  private final int g;
+  private final int b;
+  private final int index;
+
+  /**
+   * Constructor. Use the static factory methods.
+   */
+  private ShapeOperation(Kind kind, String name, String type, int length, int width, int x,
+                         int y, int r, int g, int b, int index) {
+    this.kind = kind;
+    this.name = name;
+    this.type = type;
+    this.length = length;
+    this.width = width;
+    this.x = x;
+    this.y = y;
+    this.r = r;
+    this.g = g;
+    this.b = b;
+    this.index = index;
+  }
+
+  /**
+   * Returns an operation that makes a shape.
+   * @param type String type of shape
+   * @param name String name of shape
+   * @param length int length
+   * @param width int width
+   * @param x int x coordinate
+   * @param y int y coordinate
+   * @param r int r RGB value
+   * @param g int g RGB value
+   * @param b int b RGB value
+   * @return ShapeOperation
+   */
+  public static ShapeOperation make(String type, String name, int length, int width, int x,
+                                    int y, int r, int g, int b) {
+    return new ShapeOperation(Kind.MAKE, name, type, length, width, x, y, r, g, b, 0);
+  }
+
+  /**
+   * Returns an operation that moves a shape.
+   * @param name String shape name
+   * @param x int x coordinate
+   * @param y int y coordinate
+   * @return ShapeOperation
+   */
+  public static ShapeOperation move(String name, int x, int y) {
+    return new ShapeOperation(Kind.MOVE, name, null, 0, 0, x, y, 0, 0, 0, 0);
+  }
+
+  /**
+   * Returns an operation that resizes a shape.
+   * @param name String shape name
+   * @param length int new length
+   * @param width int new width
+   * @return ShapeOperation
+   */
+  public static ShapeOperation resize(String name, int length, int width) {
+    return new ShapeOperation(Kind.RESIZE, name, null, length, width, 0, 0, 0, 0, 0, 0);
+  }
+
+  /**
+   * Returns an operation that colors a shape.
+   * @param name String shape name
+   * @param r int r RGB value
+   * @param g int g RGB value
+   * @param b int b RGB value
+   * @return ShapeOperation
+   */
+  public static ShapeOperation color(String name, int r, int g, int b) {
+    return new ShapeOperation(Kind.COLOR, name, null, 0, 0, 0, 0, r, g, b, 0);
+  }
+
+  /**
+   * Returns an operation that removes a shape.
+   * @param name String shape name
+   * @return ShapeOperation
+   */
+  public static ShapeOperation remove(String name) {
+    return new ShapeOperation(Kind.REMOVE, name, null, 0, 0, 0, 0, 0, 0, 0, 0);
+  }
+
+  /**
+   * Returns an operation that moves a shape to a position in the paint order.
+   * @param name String shape name
+   * @param index int new position, 0 being the back
+   * @return ShapeOperation
+   */
+  public static ShapeOperation reorder(String name, int index) {
+    return new ShapeOperation(Kind.ORDER, name, null, 0, 0, 0, 0, 0, 0, 0, index);
+  }
+
+  /**
+   * Returns an operation that moves a shape in front of every other shape.
+   * @param name String shape name
+   * @return ShapeOperation
+   */
+  public static ShapeOperation bringToFront(String name) {
+    return new ShapeOperation(Kind.FRONT, name, null, 0, 0, 0, 0, 0, 0, 0, 0);
+  }
+
+  /**
+   * Returns an operation that moves a shape behind every other shape.
+   * @param name String shape name
+   * @return ShapeOperation
+   */
+  public static ShapeOperation sendToBack(String name) {
+    return new ShapeOperation(Kind.BACK, name, null, 0, 0, 0, 0, 0, 0, 0, 0);
+  }
+
+  /**
+   * Returns an operation that takes a snapshot.
+   * @param description String description of snapshot
+   * @return ShapeOperation
+   */
+  public static ShapeOperation snapshot(String description) {
+    return new ShapeOperation(Kind.SNAPSHOT, description, null, 0, 0, 0, 0, 0, 0, 0, 0);
+  }
+
+  /**
+   * Applies the operation to an album through its single-operation methods.
+   * @param album IShapesPhotoAlbum
+   * @throws IllegalArgumentException if the album rejects the operation
+   */
+  public void applyTo(IShapesPhotoAlbum album) throws IllegalArgumentException {
+    switch (this.kind) {
+      case MAKE:
+        album.makeShape(this.type, this.name, this.length, this.width, this.x, this.y, this.r,
+                this.g, this.b);
+        break;
+      case MOVE:
+        album.moveShape(this.name, this.x, this.y);
+        break;
+      case RESIZE:
+        album.resizeShape(this.name, this.length, this.width);
+        break;
+      case COLOR:
+        album.colorShape(this.name, this.r, this.g, this.b);
+        break;
+      case REMOVE:
+        album.deleteShape(this.name);
+        break;
+      case ORDER:
+        album.reorderShape(this.name, this.index);
+        break;
+      case FRONT:
+        album.bringToFront(this.name);
+        break;
+      case BACK:
+        album.sendToBack(this.name);
+        break;
+      default:
+        album.takeSnapshot(this.name);
+        break;
+    }
+  }
+
+  /**
+   * Applies operations to an album in order, stopping at the first one the album rejects.
+   * Operations before it stay applied.
+   * @param album IShapesPhotoAlbum
+   * @param operations List<ShapeOperation></ShapeOperation>
+   * @throws IllegalArgumentException naming the position of the rejected operation
+   */
+  public static void applyAll(IShapesPhotoAlbum album, List<ShapeOperation> operations)
+          throws IllegalArgumentException {
+    applyAll(album, operations, 1);
+  }
+
+  /**
+   * Applies operations to an album in order, stopping at the first one the album rejects.
+   * Operations before it stay applied.
+   * @param album IShapesPhotoAlbum
+   * @param operations List<ShapeOperation></ShapeOperation>
+   * @param first long number of the first operation, counted from 1, used in error messages
+   * @throws IllegalArgumentException naming the number of the rejected operation
+   */
+  public static void applyAll(IShapesPhotoAlbum album, List<ShapeOperation> operations,
+                              long first) throws IllegalArgumentException {
+    for (int i = 0; i < operations.size(); i++) {
+      try {
+        operations.get(i).applyTo(album);
+      } catch (IllegalArgumentException e) {
+        throw failed(first + i, operations.get(i), e);
+      }
+    }
+  }
+
+  /**
+   * Checks operations in order the way an album's single-operation methods would, without
+   * applying any, so an album can reject a bad batch before changing anything. Names made and
+   * removed by earlier operations of the batch are tracked, so an operation may use a shape the
+   * batch made.
+   * @param operations List<ShapeOperation></ShapeOperation>
+   * @param first long number of the first operation, counted from 1, used in error messages
+   * @param hasShape Predicate<String> whether the album has a shape with a name
+   * @param shapes int number of shapes in the album
+   * @throws IllegalArgumentException naming the number of the first invalid operation
+   */
+  static void checkAll(List<ShapeOperation> operations, long first, Predicate<String> hasShape,
+                       int shapes) throws IllegalArgumentException {
+    Map<String, Boolean> made = new HashMap<>(); // names the batch made (true) or removed (false)
+    for (int i = 0; i < operations.size(); i++) {
+      ShapeOperation operation = operations.get(i);
+      try {
+        shapes += operation.check(made, hasShape, shapes);
+      } catch (IllegalArgumentException e) {
+        throw failed(first + i, operation, e);
+      }
+    }
+  }
+
+  /**
+   * Helper method that checks the operation against the shapes before it, and notes a shape it
+   * makes or removes.
+   * @param made Map<String, Boolean> names made (true) or removed (false) by earlier operations
+   * @param hasShape Predicate<String> whether the album has a shape with a name
+   * @param shapes int number of shapes before the operation
+   * @return int change in the number of shapes
+   * @throws IllegalArgumentException if the album would reject the operation
+   */
+  private int check(Map<String, Boolean> made, Predicate<String> hasShape, int shapes)
+          throws IllegalArgumentException {
+    if (this.kind == Kind.SNAPSHOT) {
+      return 0;
+    }
+    if (this.kind == Kind.MAKE) {
+      if (this.type == null || this.type.isBlank()) {
+        throw new IllegalArgumentException("Shape type required.");
+      }
+      if (this.name == null || this.name.isBlank()) {
+        throw new IllegalArgumentException("Shape name required.");
+      }
+      if (ShapeTypes.fromName(this.type) == null) {
+        throw new IllegalArgumentException("Invalid shape type");
+      }
+      if (exists(this.name, made, hasShape)) {
+        throw new IllegalArgumentException("A shape with that name already exists");
+      }
+      checkDimensions(this.length, this.width);
+      RGB.checkRGB(this.r, this.g, this.b);
+      made.put(this.name, true);
+      return 1;
+    }
+
+    if (this.name == null || this.name.isBlank()) {
+      throw new IllegalArgumentException("Name of shape required.");
+    }
+    if (!exists(this.name, made, hasShape)) {
+      throw new IllegalArgumentException("There is no shape with that name.");
+    }
+    switch (this.kind) {
+      case RESIZE:
+        checkDimensions(this.length, this.width);
+        return 0;
+      case COLOR:
+        RGB.checkRGB(this.r, this.g, this.b);
+        return 0;
+      case ORDER:
+        if (this.index < 0 || this.index >= shapes) {
+          throw new IllegalArgumentException("Invalid paint order position");
+        }
+        return 0;
+      case REMOVE:
+        made.put(this.name, false);
+        return -1;
+      default:
+        return 0;
+    }
+  }
+
+  /**
+   * Helper method that returns whether a shape exists after the operations checked so far.
+   * @param name String shape name
+   * @param made Map<String, Boolean> names made (true) or removed (false) by earlier operations
+   * @param hasShape Predicate<String> whether the album has a shape with a name
+   * @return boolean
+   */
+  private static boolean exists(String name, Map<String, Boolean> made,
+                                Predicate<String> hasShape) {
+    Boolean batch = made.get(name);
+    return batch == null ? hasShape.test(name) : batch;
+  }
+
+  /**
+   * Helper method to check for valid dimensions.
+   * @param length int length
+   * @param width int width
+   * @throws IllegalArgumentException if length or width not positive
+   */
+  private static void checkDimensions(int length, int width) throws IllegalArgumentException {
+    if (length <= 0 || width <= 0) {
+      throw new IllegalArgumentException("Invalid length or width");
+    }
+  }
+
+  /**
+   * Helper method that wraps the reason an operation was rejected with its number.
+   * @param number long number of the operation, counted from 1
+   * @param operation ShapeOperation
+   * @param cause IllegalArgumentException
+   * @return IllegalArgumentException
+   */
+  private static IllegalArgumentException failed(long number, ShapeOperation operation,
+                                                 IllegalArgumentException cause) {
+    return new IllegalArgumentException("Operation " + number + " (" + operation + ") failed: "
+            + cause.getMessage(), cause);
+  }
+
+  /**
+   * Getter method for the kind of operation.
+   * @return Kind
+   */
+  public Kind getKind() {
+    return this.kind;
+  }
+
+  /**
+   * Getter method for the shape name, or the description of a snapshot operation.
+   * @return String
+   */
+  public String getName() {
+    return this.name;
+  }
+
+  /**
+   * Getter method for the shape type of a make operation.
+   * @return String
+   */
+  public String getType() {
+    return this.type;
+  }
+
+  /**
+   * Getter method for length.
+   * @return int
+   */
+  public int getLength() {
+    return this.length;
+  }
+
+  /**
+   * Getter method for width.
+   * @return int
+   */
+  public int getWidth() {
+    return this.width;
+  }
+
+  /**
+   * Getter method for x coordinate.
+   * @return int
+   */
+  public int getX() {
+    return this.x;
+  }
+
+  /**
+   * Getter method for y coordinate.
+   * @return int
+   */
+  public int getY() {
+    return this.y;
+  }
+
+  /**
+   * Getter method for r value.
+   * @return int
+   */
+  public int getR() {
+    return this.r;
+  }
+
+  /**
+   * Getter method for g value.
+   * @return int
+   */
+  public int getG() {
+    return this.g;
+  }
+
+  /**
+   * Getter method for b value.
+   * @return int
+   */
+  public int getB() {
+    return this.b;
+  }
+
+  /**
+   * Getter method for the paint order position of a reorder operation.
+   * @return int
+   */
+  public int getIndex() {
+    return this.index;
+  }
+
+  /**
+   * toString method.
+   * @return String
+   */
+  @Override
+  public String toString() {
+    switch (this.kind) {
+      case MAKE:
+        return "make " + this.name + " " + this.type + " " + this.x + " " + this.y + " "
+                + this.width + " " + this.length + " " + this.r + " " + this.g + " " + this.b;
+      case MOVE:
+        return "move " + this.name + " " + this.x + " " + this.y;
+      case RESIZE:
+        return "resize " + this.name + " " + this.width + " " + this.length;
+      case COLOR:
+        return "color " + this.name + " " + this.r + " " + this.g + " " + this.b;
+      case REMOVE:
+        return "remove " + this.name;
+      case ORDER:
+        return "order " + this.name + " " + this.index;
+      case FRONT:
+        return "front " + this.name;
+      case BACK:
+        return "back " + this.name;
+      default:
+        return "snapshot " + this.name;
+    }
+  }
+}
@@ -1,32 +1,156 @@
 package model;
 
+import java.io.UncheckedIOException;
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.Collections;
-import java.util.LinkedHashMap;
+import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
-import java.util.stream.Stream;
+import java.util.function.Supplier;
 
 import utilities.Snapshot;
 import utilities.shapes.Oval;
 import utilities.shapes.I2DShape;
+import utilities.shapes.RGB;
 import utilities.shapes.Rectangle;
 import utilities.shapes.ShapeTypes;
 import utilities.shapes.Triangle;
 
 /**
  * ShapesPhotoAlbum class. Creates a photo album of I2DShapes on a canvas. Can edit shapes and
- * create snapshots of their states at a given timestamp.
+ * create snapshots of their states at a given timestamp. Shapes are kept in a
+ * PersistentShapeStore, so a snapshot shares every shape that has not changed since the previous
+ * one, and edits replace a shape with the new shape its immutable edit methods return. In DELTA
+ * mode snapshots are kept in a DeltaSnapshotLog instead, in EVENT_LOG mode in an EventLog, and
+ * in SPILLED mode in a SpillingSnapshotStore that keeps them within a heap budget.
+ * Edits can be grouped into a
+ * transaction, which keeps an undo log of the slots it changed so a rollback only touches those.
+ * Separately, an UndoHistory keeps the recent edits for undo() and redo(). An AttributeIndex
+ * finds the shapes of a type or color without scanning the canvas. Shapes are painted in slot
+ * order, with SlotRanks giving their positions, until a reorder cannot be made by moving the
+ * shape into an empty slot, which builds a PaintOrder that snapshots freeze along with the
+ * canvas; compacting the canvas puts the slots back in paint order. AlbumListeners are told
+ * about each change as it is made, or on commit for changes made inside a transaction. An album
+ * in SPILLED mode should be closed to release its spill file.
  */
-public class ShapesPhotoAlbum implements IShapesPhotoAlbum {
-  private Map<String, I2DShape> shapes = new LinkedHashMap<>();
-  private List<Snapshot> snapshots = new ArrayList<>();
+public class ShapesPhotoAlbum implements IShapesPhotoAlbum, AutoCloseable {
+  private static final int COMPACT_THRESHOLD = 1024;
+  private static final int DEFAULT_KEYFRAME_INTERVAL = 32;
+  private static final int DEFAULT_CHECKPOINT_INTERVAL = 1024;
+  private PersistentShapeStore canvas = new PersistentShapeStore();
+  private Map<String, Integer> slots = new HashMap<>();
+  private final SpatialGrid grid;
+  private final AttributeIndex attributes = new AttributeIndex();
+  private PaintOrder order = null; // explicit paint order, null while it is slot order
+  private final SlotRanks ranks = new SlotRanks(); // occupied slots, for slot order positions
+  private final Map<String, Integer> vacated = new HashMap<>(); // slot a deleted shape left
+  private final SnapshotIndex snapshots = new SnapshotIndex();
+  private final SnapshotMode mode;
+  private DeltaSnapshotLog deltas = null;
+  private EventLog events = null;
+  private SpillingSnapshotStore spill = null;
+  private BitSet unindexed = null; // slots left out of the grid during applyBatch
+  private List<UndoEntry> undoLog = null; // changes to roll back, null outside a transaction
+  private int transactionSnapshots = 0; // snapshot count when the transaction began
+  private int transactionSpilled = 0; // spill store size when the transaction began
+  private long transactionEdits = 0; // edits recorded in history when the transaction began
+  private PaintOrder.Version transactionOrder = null; // paint order when it began, if explicit
+  private final UndoHistory history = new UndoHistory();
+  private final CanvasHash contentHash = new CanvasHash();
+  private final ChangeJournal journal = new ChangeJournal();
+  private final AlbumEvents listeners = new AlbumEvents();
+  private boolean unchanged = false; // canvas unchanged since the newest snapshot
+  private long changed = 0; // canvas slot changes since the newest snapshot, for SPILLED mode
 
   /**
    * Constructor.
    */
   public ShapesPhotoAlbum(){
+    this(SnapshotMode.SHARED);
+  }
+
+  /**
+   * Constructor. Takes the way snapshots should be stored.
+   * @param mode SnapshotMode
+   */
+  public ShapesPhotoAlbum(SnapshotMode mode) {
+    this(mode, mode == SnapshotMode.EVENT_LOG ? DEFAULT_CHECKPOINT_INTERVAL
+            : DEFAULT_KEYFRAME_INTERVAL);
+  }
+
+  /**
+   * Constructor. Takes the way snapshots should be stored and, for DELTA mode, the number of
+   * snapshots between keyframes or, for EVENT_LOG mode, the least number of changes between
+   * checkpoints.
+   * @param mode SnapshotMode
+   * @param interval int snapshots between keyframes or changes between checkpoints
+   * @throws IllegalArgumentException if mode is null or interval is less than 1
+   */
+  public ShapesPhotoAlbum(SnapshotMode mode, int interval)
+          throws IllegalArgumentException {
+    this(mode, interval, SpatialGrid.DEFAULT_CELL_SIZE);
+  }
+
+  /**
+   * Constructor. Takes the way snapshots should be stored, the interval as above, and the width
+   * and height of the spatial grid's cells. Cells near the size of a typical shape work best.
+   * @param mode SnapshotMode
+   * @param interval int snapshots between keyframes or changes between checkpoints
+   * @param cellSize int width and height of a spatial grid cell
+   * @throws IllegalArgumentException if mode is null, interval is less than 1 or cell size is
+   *         not positive
+   */
+  public ShapesPhotoAlbum(SnapshotMode mode, int interval, int cellSize)
+          throws IllegalArgumentException {
+    this.grid = new SpatialGrid(cellSize);
+    if (mode == null) {
+      throw new IllegalArgumentException("Snapshot mode required.");
+    }
+    this.mode = mode;
+    if (mode == SnapshotMode.DELTA) {
+      this.deltas = new DeltaSnapshotLog(interval);
+    } else if (mode == SnapshotMode.EVENT_LOG) {
+      this.events = new EventLog(interval);
+    } else if (mode == SnapshotMode.SPILLED) {
+      throw new IllegalArgumentException("SPILLED mode needs a snapshot budget.");
+    }
+  }
+
+  /**
+   * Constructor for SPILLED mode. Takes the estimated bytes of snapshot shapes to keep in
+   * memory; colder snapshots are spilled to a temporary file.
+   * @param snapshotBudget long estimated bytes of snapshot shapes kept in memory
+   * @throws IllegalArgumentException if budget is negative
+   */
+  public ShapesPhotoAlbum(long snapshotBudget) throws IllegalArgumentException {
+    this(snapshotBudget, SpatialGrid.DEFAULT_CELL_SIZE);
+  }
+
+  /**
+   * Constructor for SPILLED mode that also takes the width and height of the spatial grid's
+   * cells.
+   * @param snapshotBudget long estimated bytes of snapshot shapes kept in memory
+   * @param cellSize int width and height of a spatial grid cell
+   * @throws IllegalArgumentException if budget is negative or cell size is not positive
+   */
+  public ShapesPhotoAlbum(long snapshotBudget, int cellSize) throws IllegalArgumentException {
+    this.grid = new SpatialGrid(cellSize);
+    this.mode = SnapshotMode.SPILLED;
+    this.spill = new SpillingSnapshotStore(snapshotBudget);
+  }
+
+  /**
+   * Releases the spill file in SPILLED mode, after which the album's snapshots cannot be read.
+   * Does nothing in the other modes.
+   * @throws UncheckedIOException if the spill file cannot be closed
+   */
+  @Override
+  public void close() throws UncheckedIOException {
+    if (this.spill != null) {
+      this.spill.close();
+    }
   }
 
   /**
@@ -46,37 +170,48 @@ public class ShapesPhotoAlbum implements IShapesPhotoAlbum {
   public void makeShape(String type, String name, int length, int width, int x, int y,
                         int r, int g, int b) throws IllegalArgumentException {
     // Check valid shape type and name
-    this.checkValidShapeTypeName(type, name);
+    ShapeTypes shapeType = this.checkValidShapeTypeName(type, name);
 
     // Create shapes
-    type = type.toUpperCase();
     I2DShape newShape = null;
 
     // If rectangle or square
-    if (type.equals(ShapeTypes.RECTANGLE.name())) {
+    if (shapeType == ShapeTypes.RECTANGLE) {
       newShape = new Rectangle(name, length, width, x, y, r, g, b);
 
     // If circle or oval
-    } else if (type.equals(ShapeTypes.OVAL.name())) {
+    } else if (shapeType == ShapeTypes.OVAL) {
       newShape = new Oval(name, length,width, x, y, r, g, b);
 
     // If triangle
-    } else if (type.equals(ShapeTypes.TRIANGLE.name())) {
+    } else if (shapeType == ShapeTypes.TRIANGLE) {
       newShape = new Triangle(name, length, width, x, y, r, g, b);
     }
 
-    // Add to shapes
-    this.shapes.put(name, newShape);
+    // Add to canvas
+    int slot = this.canvas.add(newShape);
+    this.slots.put(name, slot);
+    this.ranks.add(slot);
+    if (this.order != null) {
+      this.order.add(slot);
+    }
+    this.indexShape(slot, newShape);
+    this.recordChange(slot, null, newShape);
+    this.logUndo(slot, null);
+    this.history.recordMake(newShape);
+    this.listeners.shapeMade(newShape);
   }
 
   /**
    * Helper method to check if a valid shape type and name are passed for creating a new shape
-   * in the photo album.
+   * in the photo album. Does not allocate.
    * @param type String shape type
    * @param name Sting name of shape
+   * @return ShapeTypes matching the type, ignoring case
    * @throws IllegalArgumentException if invalid type or name already exists
    */
-  private void checkValidShapeTypeName(String type, String name) throws IllegalArgumentException {
+  private ShapeTypes checkValidShapeTypeName(String type, String name)
+          throws IllegalArgumentException {
     if (type == null || type.isBlank()) {
       throw new IllegalArgumentException("Shape type required.");
     }
@@ -84,15 +219,32 @@ public class ShapesPhotoAlbum implements IShapesPhotoAlbum {
       throw new IllegalArgumentException("Shape name required.");
     }
     // Check for valid shape in enum
-    List<String> shapeTypes = Stream.of(ShapeTypes.values()).
-            map(ShapeTypes::name).collect(Collectors.toList());
-    if (!shapeTypes.contains(type.toUpperCase())) {
+    ShapeTypes shapeType = ShapeTypes.fromName(type);
+    if (shapeType == null) {
       throw new IllegalArgumentException("Invalid shape type");
     }
     // Check if name already exists
-    if (this.getShapeNames().contains(name)) {
+    if (this.slots.containsKey(name)) {
       throw new IllegalArgumentException("A shape with that name already exists");
     }
+    return shapeType;
+  }
+
+  /**
+   * Helper method that looks up a shape type by name, ignoring case.
+   * @param type String shape type
+   * @return ShapeTypes
+   * @throws IllegalArgumentException if invalid type
+   */
+  private static ShapeTypes checkShapeType(String type) throws IllegalArgumentException {
+    if (type == null || type.isBlank()) {
+      throw new IllegalArgumentException("Shape type required.");
+    }
+    ShapeTypes shapeType = ShapeTypes.fromName(type);
+    if (shapeType == null) {
+      throw new IllegalArgumentException("Invalid shape type");
+    }
+    return shapeType;
   }
 
   /**
@@ -101,40 +253,134 @@ public class ShapesPhotoAlbum implements IShapesPhotoAlbum {
    */
   @Override
   public List<String> getShapeNames() {
-    List<String> names = Collections.unmodifiableList(this.shapes.keySet()
-            .stream().collect(Collectors.toList()));
-    return names;
+    List<String> names = new ArrayList<>();
+    for (I2DShape shape : this.paintOrder()) {
+      names.add(shape.getName());
+    }
+    return Collections.unmodifiableList(names);
   }
 
   /**
-   * Returns a list with copies of all shapes.
+   * Returns a list of all shapes. Shapes are immutable, so they are shared rather than copied.
    * @return List<I2DShape>
    */
   @Override
   public List<I2DShape> getShapes() {
-    List<I2DShape> list = this.shapes.values().stream().collect(Collectors.toList());
-    List<I2DShape> copies = new ArrayList<>();
-    for (I2DShape shape : list) {
-      I2DShape copy = shape.makeCopy();
-      copies.add(copy);
+    List<I2DShape> shapes = new ArrayList<>(this.canvas.size());
+    for (I2DShape shape : this.paintOrder()) {
+      shapes.add(shape);
+    }
+    return shapes;
+  }
+
+  /**
+   * Returns the shapes whose bounding box intersects a rectangular region of the canvas, in
+   * paint order. Uses the spatial grid, so only shapes near the region are checked.
+   * @param x int x coordinate of region corner
+   * @param y int y coordinate of region corner
+   * @param width int width of region
+   * @param height int height of region
+   * @return List<I2DShape></I2DShape>
+   * @throws IllegalArgumentException if width or height not positive
+   */
+  @Override
+  public List<I2DShape> getShapesInRegion(int x, int y, int width, int height)
+          throws IllegalArgumentException {
+    return this.shapesAt(this.inPaintOrder(this.grid.query(x, y, width, height)));
+  }
+
+  /**
+   * Returns the topmost shape whose bounding box contains a point, or null if no
+   * shape does.
+   * @param x int x coordinate
+   * @param y int y coordinate
+   * @return I2DShape or null
+   */
+  @Override
+  public I2DShape getShapeAt(int x, int y) {
+    int slot = this.order == null ? this.grid.topmostAt(x, y)
+            : this.order.frontmost(this.grid.query(x, y, 1, 1));
+    if (slot < 0) {
+      return null;
     }
-    return copies;
+    return this.canvas.get(slot);
   }
 
   /**
-   * Helper method for checking if shape name exists.
+   * Returns the shapes of a type, in paint order. Uses the type index, so only shapes of that
+   * type are looked at.
+   * @param type String type of shape
+   * @return List<I2DShape></I2DShape>
+   * @throws IllegalArgumentException if invalid type
+   */
+  @Override
+  public List<I2DShape> getShapesOfType(String type) throws IllegalArgumentException {
+    return this.shapesAt(this.inPaintOrder(this.attributes.slotsOfType(checkShapeType(type))));
+  }
+
+  /**
+   * Returns the shapes with a color, in paint order. Uses the color index, so only shapes of
+   * that color are looked at.
+   * @param r int r RGB value
+   * @param g int g RGB value
+   * @param b int b RGB value
+   * @return List<I2DShape></I2DShape>
+   * @throws IllegalArgumentException if invalid color
+   */
+  @Override
+  public List<I2DShape> getShapesWithColor(int r, int g, int b) throws IllegalArgumentException {
+    int[] found = this.attributes.slotsWithColor(RGB.of(r, g, b).getPacked());
+    return this.shapesAt(this.inPaintOrder(found));
+  }
+
+  /**
+   * Helper method that sorts canvas slots into paint order.
+   * @param found int[] canvas slots in slot order
+   * @return int[] found, sorted back to front
+   */
+  private int[] inPaintOrder(int[] found) {
+    return this.order == null ? found : this.order.sort(found);
+  }
+
+  /**
+   * Helper method that returns the shapes on the canvas back to front.
+   * @return Iterable<I2DShape></I2DShape>
+   */
+  private Iterable<I2DShape> paintOrder() {
+    return this.order == null ? this.canvas : this.shapesAt(this.order.toArray());
+  }
+
+  /**
+   * Helper method that returns the shapes held in canvas slots.
+   * @param found int[] canvas slots
+   * @return List<I2DShape></I2DShape>
+   */
+  private List<I2DShape> shapesAt(int[] found) {
+    List<I2DShape> shapes = new ArrayList<>(found.length);
+    for (int slot : found) {
+      shapes.add(this.canvas.get(slot));
+    }
+    return shapes;
+  }
+
+  /**
+   * Helper method for checking if shape name exists. Looks the name up once and does not
+   * allocate.
    * @param name String name of shape name
+   * @return int canvas slot of the shape
    * @throws IllegalArgumentException if invalid name or nonexistent shape
    */
-  private void checkValidShapeName(String name) throws IllegalArgumentException {
+  private int slotOf(String name) throws IllegalArgumentException {
     // Check valid name
     if (name == null || name.isBlank()) {
       throw new IllegalArgumentException("Name of shape required.");
     }
     // Check shape exists
-    if (!this.getShapeNames().contains(name)) {
+    Integer slot = this.slots.get(name);
+    if (slot == null) {
       throw new IllegalArgumentException("There is no shape with that name.");
     }
+    return slot;
   }
 
   /**
@@ -147,10 +393,17 @@ public class ShapesPhotoAlbum implements IShapesPhotoAlbum {
   @Override
   public void moveShape(String name, int x, int y) throws IllegalArgumentException {
     // Check valid name
-    this.checkValidShapeName(name);
+    int slot = this.slotOf(name);
 
-    // Grab shape and move it
-    this.shapes.get(name).move(x, y);
+    // Move shape
+    I2DShape previous = this.canvas.get(slot);
+    I2DShape shape = previous.move(x, y);
+    this.canvas.set(slot, shape);
+    this.indexShape(slot, shape);
+    this.recordChange(slot, previous, shape);
+    this.logUndo(slot, previous);
+    this.history.recordMove(name, previous.getX(), previous.getY(), shape.getX(), shape.getY());
+    this.listeners.shapeChanged(previous, shape);
   }
 
   /**
@@ -164,10 +417,17 @@ public class ShapesPhotoAlbum implements IShapesPhotoAlbum {
   @Override
   public void colorShape(String name, int r, int g, int b) throws IllegalArgumentException {
     // Check valid name
-    this.checkValidShapeName(name);
+    int slot = this.slotOf(name);
 
-    // Grab shape and recolor
-    this.shapes.get(name).setColor(r, g, b);
+    // Recolor shape
+    I2DShape previous = this.canvas.get(slot);
+    I2DShape shape = previous.setColor(r, g, b);
+    this.canvas.set(slot, shape);
+    this.recordChange(slot, previous, shape);
+    this.logUndo(slot, previous);
+    this.history.recordColor(name, UndoHistory.packColor(previous.getRGB()),
+            UndoHistory.packColor(shape.getRGB()));
+    this.listeners.shapeChanged(previous, shape);
   }
 
   /**
@@ -179,17 +439,22 @@ public class ShapesPhotoAlbum implements IShapesPhotoAlbum {
   @Override
   public void resizeShape(String name, int length, int width) {
     // Check valid name
-    this.checkValidShapeName(name);
+    int slot = this.slotOf(name);
 
     // Check valid length and width
     if (length <= 0|| width <= 0) {
       throw new IllegalArgumentException("Invalid length or width");
     }
 
-    // Grab shape and resize
-    I2DShape shape = this.shapes.get(name);
-    shape.setLength(length);
-    shape.setWidth(width);
+    // Resize shape
+    I2DShape previous = this.canvas.get(slot);
+    I2DShape shape = previous.resize(length, width);
+    this.canvas.set(slot, shape);
+    this.indexShape(slot, shape);
+    this.recordChange(slot, previous, shape);
+    this.logUndo(slot, previous);
+    this.history.recordResize(name, previous.getLength(), previous.getWidth(), length, width);
+    this.listeners.shapeChanged(previous, shape);
   }
 
   /**
@@ -199,9 +464,437 @@ public class ShapesPhotoAlbum implements IShapesPhotoAlbum {
   @Override
   public void deleteShape(String name) {
     // Check valid name
-    this.checkValidShapeName(name);
+    int slot = this.slotOf(name);
+
+    I2DShape shape = this.canvas.get(slot);
+    this.logUndo(slot, shape);
+    int index = this.paintIndex(slot);
+    this.history.recordDelete(shape, index == this.canvas.size() - 1 ? -1 : index);
+    this.slots.remove(name);
+    this.vacated.put(name, slot);
+    this.canvas.remove(slot);
+    this.ranks.remove(slot);
+    this.grid.remove(slot);
+    if (this.order != null) {
+      this.order.remove(slot);
+    }
+    if (this.unindexed != null) {
+      this.unindexed.clear(slot);
+    }
+    this.recordChange(slot, shape, null);
+    this.listeners.shapeDeleted(shape);
+    this.compactIfSparse();
+  }
+
+  /**
+   * Moves a shape to a position in the paint order, shifting the shapes from there on up by one.
+   * While the paint order is slot order, the shape is moved into the empty slot at the new
+   * position if there is one, such as the slot it was deleted from when a delete is undone.
+   * Otherwise the first reorder builds the explicit paint order in linear time, after that a
+   * reorder takes O(log n).
+   * @param name String shape name
+   * @param index int new position, 0 being the back
+   * @throws IllegalArgumentException if invalid shape name or position
+   */
+  @Override
+  public void reorderShape(String name, int index) throws IllegalArgumentException {
+    // Check valid name and position
+    int slot = this.slotOf(name);
+    if (index < 0 || index >= this.canvas.size()) {
+      throw new IllegalArgumentException("Invalid paint order position");
+    }
 
-    this.shapes.remove(name);
+    // Reorder shape
+    I2DShape shape = this.canvas.get(slot);
+    int previous = this.paintIndex(slot);
+    if (this.order != null || !this.moveIntoGap(slot, index)) {
+      if (this.order == null) {
+        this.order = new PaintOrder(this.occupiedSlots());
+      }
+      this.order.moveTo(slot, index);
+    }
+    this.unchanged = false;
+    this.history.recordOrder(name, previous, index);
+    this.listeners.shapeReordered(shape, previous, index);
+  }
+
+  /**
+   * Moves a shape in front of every other shape.
+   * @param name String shape name
+   * @throws IllegalArgumentException if invalid shape name
+   */
+  @Override
+  public void bringToFront(String name) throws IllegalArgumentException {
+    this.reorderShape(name, this.canvas.size() - 1);
+  }
+
+  /**
+   * Moves a shape behind every other shape.
+   * @param name String shape name
+   * @throws IllegalArgumentException if invalid shape name
+   */
+  @Override
+  public void sendToBack(String name) throws IllegalArgumentException {
+    this.reorderShape(name, 0);
+  }
+
+  /**
+   * Helper method that returns the position of a canvas slot in the paint order, in O(log n).
+   * While the paint order is slot order that is the number of occupied slots before it.
+   * @param slot int canvas slot holding a shape
+   * @return int position, 0 being the back
+   */
+  private int paintIndex(int slot) {
+    return this.order == null ? this.ranks.rank(slot) : this.order.indexOf(slot);
+  }
+
+  /**
+   * Helper method that moves a shape, while the paint order is slot order, into an empty slot
+   * between the shapes that will be behind and in front of it at a position: the slot a shape of
+   * the same name was deleted from if it is there, so undoing several deletes leaves room for
+   * each, or else the slot just behind the front shape. Takes O(log n).
+   * @param slot int canvas slot holding the shape
+   * @param index int new position, 0 being the back
+   * @return boolean false if there is no empty slot there
+   */
+  private boolean moveIntoGap(int slot, int index) {
+    // Find the slots of the shapes around the position, leaving the shape itself out
+    this.ranks.remove(slot);
+    int behind = index == 0 ? -1 : this.ranks.slotAt(index - 1);
+    int front = index == this.ranks.size() ? this.canvas.slotCount()
+            : this.ranks.slotAt(index);
+    this.ranks.add(slot);
+    if (behind < slot && slot < front) {
+      return true;
+    } else if (front - behind < 2) {
+      return false;
+    }
+
+    // Every slot between them is empty
+    I2DShape shape = this.canvas.get(slot);
+    Integer left = this.vacated.remove(shape.getName());
+    int target = left != null && behind < left && left < front ? left : front - 1;
+    this.logUndo(slot, shape);
+    this.canvas.remove(slot);
+    this.ranks.remove(slot);
+    this.grid.remove(slot);
+    if (this.unindexed != null) {
+      this.unindexed.clear(slot);
+    }
+    this.recordChange(slot, shape, null);
+    this.canvas.restore(target, shape);
+    this.slots.put(shape.getName(), target);
+    this.ranks.add(target);
+    this.indexShape(target, shape);
+    this.recordChange(target, null, shape);
+    this.logUndo(target, null);
+    return true;
+  }
+
+  /**
+   * Helper method that lists the canvas slots holding a shape, in slot order.
+   * @return int[]
+   */
+  private int[] occupiedSlots() {
+    I2DShape[] slotArray = this.canvas.toSlotArray();
+    int[] occupied = new int[this.canvas.size()];
+    int count = 0;
+    for (int slot = 0; slot < slotArray.length; slot++) {
+      if (slotArray[slot] != null) {
+        occupied[count++] = slot;
+      }
+    }
+    return occupied;
+  }
+
+  /**
+   * Starts a transaction. Edits and snapshots from now on can be undone together by rollback()
+   * or kept by commit().
+   * @throws IllegalStateException if a transaction is already open
+   */
+  public void beginTransaction() throws IllegalStateException {
+    if (this.undoLog != null) {
+      throw new IllegalStateException("A transaction is already open.");
+    }
+    this.undoLog = new ArrayList<>();
+    this.transactionSnapshots = this.snapshots.size();
+    this.transactionSpilled = this.spill == null ? 0 : this.spill.size();
+    this.transactionEdits = this.history.recorded();
+    this.transactionOrder = this.order == null ? null : this.order.freeze();
+    this.listeners.hold();
+  }
+
+  /**
+   * Keeps every edit and snapshot made since beginTransaction(), and only now tells the
+   * listeners about them.
+   * @throws IllegalStateException if no transaction is open
+   */
+  public void commit() throws IllegalStateException {
+    if (this.undoLog == null) {
+      throw new IllegalStateException("No transaction is open.");
+    }
+    this.undoLog = null;
+    this.compactIfSparse();
+    this.listeners.release();
+  }
+
+  /**
+   * Undoes every edit made since beginTransaction(), newest first, and drops the snapshots
+   * taken since then. Only the slots in the undo log are touched. Listeners never hear about
+   * the edits and snapshots that were rolled back.
+   * @throws IllegalStateException if no transaction is open
+   */
+  public void rollback() throws IllegalStateException {
+    if (this.undoLog == null) {
+      throw new IllegalStateException("No transaction is open.");
+    }
+    List<UndoEntry> log = this.undoLog;
+    this.undoLog = null;
+    this.listeners.discard();
+
+    for (int i = log.size() - 1; i >= 0; i--) {
+      int slot = log.get(i).slot;
+      I2DShape previous = log.get(i).previous;
+      I2DShape current = this.canvas.get(slot);
+
+      // Undo make
+      if (previous == null) {
+        this.slots.remove(current.getName());
+        this.canvas.remove(slot);
+        this.ranks.remove(slot);
+        this.grid.remove(slot);
+
+      // Undo delete
+      } else if (current == null) {
+        this.canvas.restore(slot, previous);
+        this.slots.put(previous.getName(), slot);
+        this.ranks.add(slot);
+        this.indexShape(slot, previous);
+
+      // Undo move, resize or color
+      } else {
+        this.canvas.set(slot, previous);
+        this.indexShape(slot, previous);
+      }
+      this.recordChange(slot, current, previous);
+    }
+
+    // Go back to the paint order the transaction began with
+    if (this.transactionOrder == null) {
+      this.order = null;
+    } else {
+      this.order.restore(this.transactionOrder);
+    }
+
+    // Delta frames of dropped snapshots stay in the log, later frames build on them
+    this.snapshots.truncate(this.transactionSnapshots);
+    this.journal.truncateMarks(this.transactionSnapshots);
+    if (this.spill != null) {
+      this.spill.truncate(this.transactionSpilled);
+    }
+    this.unchanged = false;
+    this.history.dropNewest((int) (this.history.recorded() - this.transactionEdits));
+    this.compactIfSparse();
+  }
+
+  /**
+   * Undoes the newest make, move, resize, color, reorder or delete that has not been undone yet.
+   * @return boolean false if there was nothing to undo
+   * @throws IllegalStateException if a transaction is open
+   */
+  @Override
+  public boolean undo() throws IllegalStateException {
+    this.checkNoTransaction();
+    return this.history.undo(this);
+  }
+
+  /**
+   * Redoes the newest undone edit, as long as no other edit was made since it was undone.
+   * @return boolean false if there was nothing to redo
+   * @throws IllegalStateException if a transaction is open
+   */
+  @Override
+  public boolean redo() throws IllegalStateException {
+    this.checkNoTransaction();
+    return this.history.redo(this);
+  }
+
+  /**
+   * Helper method that stops undo and redo inside a transaction, whose undo log could not
+   * tell them apart from ordinary edits.
+   * @throws IllegalStateException if a transaction is open
+   */
+  private void checkNoTransaction() throws IllegalStateException {
+    if (this.undoLog != null) {
+      throw new IllegalStateException("Cannot undo or redo inside a transaction.");
+    }
+  }
+
+  /**
+   * Returns whether a transaction is open.
+   * @return boolean
+   */
+  public boolean isInTransaction() {
+    return this.undoLog != null;
+  }
+
+  /**
+   * Helper method that adds the shape a slot held before an edit to the undo log of the open
+   * transaction, if any.
+   * @param slot int canvas slot
+   * @param previous I2DShape shape before the edit, or null if the slot was just filled
+   */
+  private void logUndo(int slot, I2DShape previous) {
+    if (this.undoLog != null) {
+      this.undoLog.add(new UndoEntry(slot, previous));
+    }
+  }
+
+  /**
+   * Helper method that drops empty slots once they outnumber the shapes. Waits while a
+   * transaction is open, since its undo log refers to slots.
+   */
+  private void compactIfSparse() {
+    if (this.undoLog == null
+            && this.canvas.emptySlots() > this.canvas.size() + COMPACT_THRESHOLD) {
+      this.compactCanvas();
+    }
+  }
+
+  /**
+   * Applies many operations in order inside a transaction, which is rolled back if one of them
+   * is rejected, so either the whole batch is applied or none of it. Inside a transaction that
+   * is already open the batch is part of it, and the caller decides whether to roll back. The
+   * name map is sized for the new shapes up front, and the spatial grid is brought up to date
+   * once per changed shape at the end instead of after every edit. Listeners are told about the
+   * batch once it is committed.
+   * @param operations List<ShapeOperation></ShapeOperation>
+   * @param first long number of the first operation, counted from 1, used in error messages
+   * @throws IllegalArgumentException if operations is null or an operation is rejected
+   */
+  @Override
+  public void applyBatch(List<ShapeOperation> operations, long first)
+          throws IllegalArgumentException {
+    if (operations == null) {
+      throw new IllegalArgumentException("Operations required.");
+    }
+    this.presizeSlots(operations);
+
+    boolean own = this.undoLog == null;
+    if (own) {
+      this.beginTransaction();
+    }
+    this.unindexed = new BitSet(this.canvas.slotCount());
+    try {
+      ShapeOperation.applyAll(this, operations, first);
+    } catch (IllegalArgumentException e) {
+      if (own) {
+        this.unindexed = null; // rollback indexes every slot it puts back
+        this.rollback();
+      }
+      throw e;
+    } finally {
+      // Index every shape made, moved or resized by the batch
+      BitSet pending = this.unindexed;
+      this.unindexed = null;
+      if (pending != null) {
+        for (int slot = pending.nextSetBit(0); slot >= 0;
+             slot = pending.nextSetBit(slot + 1)) {
+          this.indexShape(slot, this.canvas.get(slot));
+        }
+      }
+    }
+    if (own) {
+      this.commit();
+    }
+  }
+
+  /**
+   * Helper method that rehashes the name map once if a batch makes more shapes than the album
+   * already has, instead of letting it double several times along the way.
+   * @param operations List<ShapeOperation></ShapeOperation>
+   */
+  private void presizeSlots(List<ShapeOperation> operations) {
+    int makes = 0;
+    for (ShapeOperation operation : operations) {
+      if (operation.getKind() == ShapeOperation.Kind.MAKE) {
+        makes++;
+      }
+    }
+    if (makes > this.slots.size()) {
+      Map<String, Integer> presized = new HashMap<>((int) ((this.slots.size() + makes) / 0.75f)
+              + 1);
+      presized.putAll(this.slots);
+      this.slots = presized;
+    }
+  }
+
+  /**
+   * Helper method that moves the shapes into a new store without empty slots, in paint order, so
+   * slot order is paint order again. Snapshots already taken keep the old store's nodes.
+   */
+  private void compactCanvas() {
+    PersistentShapeStore compacted = new PersistentShapeStore();
+    this.grid.clear();
+    this.attributes.clear();
+    this.ranks.clear();
+    this.vacated.clear();
+    if (this.unindexed != null) {
+      this.unindexed.clear();
+    }
+    for (I2DShape shape : this.paintOrder()) {
+      int slot = compacted.add(shape);
+      this.slots.put(shape.getName(), slot);
+      this.ranks.add(slot);
+      this.indexShape(slot, shape);
+      this.attributes.add(slot, shape);
+    }
+    this.canvas = compacted;
+    this.order = null;
+    if (this.deltas != null) {
+      this.deltas.reslot();
+    }
+    if (this.events != null) {
+      this.events.checkpoint(this.canvas);
+    }
+    this.contentHash.reset(this.canvas);
+    this.changed = this.canvas.size(); // the new store shares no nodes with the snapshots
+  }
+
+  /**
+   * Helper method that puts a shape's current bounding box into the spatial grid, or marks it
+   * to be indexed at the end of the current batch.
+   * @param slot int canvas slot
+   * @param shape I2DShape
+   */
+  private void indexShape(int slot, I2DShape shape) {
+    if (this.unindexed != null) {
+      this.unindexed.set(slot);
+      return;
+    }
+    this.grid.insert(slot, shape.getType(), shape.getX(), shape.getY(), shape.getLength(),
+            shape.getWidth());
+  }
+
+  /**
+   * Helper method that passes a change to a canvas slot on to the content hash, the type and
+   * color indexes and the change journal, and to the
+   * delta log in DELTA mode or the event log in EVENT_LOG mode.
+   * @param slot int canvas slot
+   * @param previous I2DShape shape before, or null if the slot was empty
+   * @param shape I2DShape new shape, or null if removed
+   */
+  private void recordChange(int slot, I2DShape previous, I2DShape shape) {
+    this.contentHash.update(slot, previous, shape);
+    this.attributes.update(slot, previous, shape);
+    this.journal.record(previous, shape);
+    this.unchanged = false;
+    this.changed++;
+    if (this.deltas != null) {
+      this.deltas.record(slot, shape);
+    } else if (this.events != null) {
+      this.events.record(this.canvas, slot, shape);
+    }
   }
 
   /**
@@ -210,30 +903,118 @@ public class ShapesPhotoAlbum implements IShapesPhotoAlbum {
    */
   public String getCurrentState() {
     String text = "Current Shapes:\n";
-    for (I2DShape shape : this.shapes.values()) {
+    for (I2DShape shape : this.paintOrder()) {
       text += shape.toString() + "\n\n";
     }
     return text;
   }
 
   /**
-   * Takes a snapshot of the current shapes.
+   * Takes a snapshot of the current shapes. The snapshot shares its shapes with the canvas, which
+   * never edits a shape in place, so this takes constant time in SHARED and EVENT_LOG mode and
+   * time proportional to the changes since the last snapshot in DELTA mode. In SPILLED mode it
+   * also writes out colder snapshots if the store goes over its budget. If the canvas holds the
+   * same shapes as an earlier snapshot, the new snapshot shares that snapshot's shapes instead;
+   * when that snapshot is found by its hash, its shapes are first compared in linear time.
+   * Once shapes have been reordered, the snapshot also keeps the frozen paint order and puts its
+   * shapes into it, in linear time, whenever they are requested.
    * @param description String description of snapshot
    */
   @Override
   public void takeSnapshot(String description) {
-    // Get list of current shapes
-    List<I2DShape> shapes = this.shapes.values().stream().toList();
+    PaintOrder.Version order = this.order == null ? null : this.order.freeze();
+    ContentCheck check = new ContentCheck(this.contentHash.check(), order);
+    Snapshot same = this.findSameContent(check);
+    Snapshot snapshot;
+    if (same != null) {
+      // create Snapshot sharing the shapes of an earlier one
+      snapshot = new Snapshot(description, same);
+    } else if (order != null) {
+      // create Snapshot that puts its shapes into the paint order frozen now
+      Supplier<List<I2DShape>> shapes = this.takeShapes();
+      snapshot = new Snapshot(description, () -> order.arrange(shapes.get()));
+    } else if (this.mode == SnapshotMode.SHARED) {
+      // create Snapshot of frozen canvas
+      snapshot = new Snapshot(description, this.canvas.freeze());
+    } else {
+      snapshot = new Snapshot(description, this.takeShapes());
+    }
+    this.snapshots.add(snapshot, this.contentHash.value(), check);
+    this.journal.mark();
+    this.unchanged = true;
+    this.changed = 0;
+    this.listeners.snapshotTaken(snapshot);
+  }
+
+  /**
+   * Helper method that stores the shapes on the canvas the way the snapshot mode says and
+   * returns a source for them, in slot order.
+   * @return Supplier<List<I2DShape>></I2DShape>
+   */
+  private Supplier<List<I2DShape>> takeShapes() {
+    if (this.mode == SnapshotMode.DELTA) {
+      // rebuilt from delta log
+      return this.deltas.take(this.canvas);
+    } else if (this.mode == SnapshotMode.EVENT_LOG) {
+      // rebuilt from event log offset
+      return this.events.take();
+    } else if (this.mode == SnapshotMode.SPILLED) {
+      // frozen canvas that may be spilled to disk
+      return this.spill.add(this.canvas.freeze(), (int) Math.min(this.changed,
+              Integer.MAX_VALUE));
+    }
+    // frozen canvas
+    List<I2DShape> frozen = this.canvas.freeze();
+    return () -> frozen;
+  }
+
+  /**
+   * Helper method that finds an earlier snapshot holding the same shapes as the canvas. The
+   * newest snapshot is used without checking if nothing changed since it was taken; otherwise
+   * the first snapshot with the same content hash, check hash and paint order is a candidate.
+   * The hashes build on names chosen by whoever writes the commands, so they can be made to
+   * collide; a candidate is only used once its shapes compare equal to the canvas. That takes
+   * linear time, and rebuilds or reads back the candidate's shapes outside SHARED mode, but only
+   * on a hash match, which otherwise saves a copy of the canvas.
+   * @param check ContentCheck check hash and paint order of the canvas
+   * @return Snapshot or null if there is none
+   */
+  private Snapshot findSameContent(ContentCheck check) {
+    if (this.unchanged && this.snapshots.size() > 0) {
+      return this.snapshots.snapshots().get(this.snapshots.size() - 1);
+    }
+    int index = this.snapshots.indexOfContent(this.contentHash.value(), check);
+    if (index < 0) {
+      return null;
+    }
+    Snapshot candidate = this.snapshots.snapshots().get(index);
+    return this.hasCanvasShapes(candidate.getShapes()) ? candidate : null;
+  }
 
-    // Make copy of shapes
-    List<I2DShape> copies = new ArrayList<>();
+  /**
+   * Helper method that checks whether a list holds the shapes on the canvas, back to front.
+   * @param shapes List<I2DShape> shapes of a snapshot
+   * @return boolean
+   */
+  private boolean hasCanvasShapes(List<I2DShape> shapes) {
+    if (shapes.size() != this.canvas.size()) {
+      return false;
+    }
+    Iterator<I2DShape> painted = this.paintOrder().iterator();
     for (I2DShape shape : shapes) {
-      I2DShape copy = (I2DShape) shape.makeCopy();
-      copies.add(copy);
+      if (!shape.equals(painted.next())) {
+        return false;
+      }
     }
+    return true;
+  }
 
-    // create Snapshot of shapes
-    this.snapshots.add(new Snapshot(description, copies));
+  /**
+   * Returns the way this album stores its snapshots.
+   * @return SnapshotMode
+   */
+  public SnapshotMode getSnapshotMode() {
+    return this.mode;
   }
 
   /**
@@ -242,7 +1023,7 @@ public class ShapesPhotoAlbum implements IShapesPhotoAlbum {
    */
   @Override
   public List<Snapshot> getSnapshots() {
-    return Collections.unmodifiableList(snapshots);
+    return this.snapshots.snapshots();
   }
 
   /**
@@ -251,8 +1032,115 @@ public class ShapesPhotoAlbum implements IShapesPhotoAlbum {
    */
   @Override
   public List<String> getSnapshotIDs() {
-    return Collections.unmodifiableList(snapshots.stream().map(s -> s.getID())
-            .collect(Collectors.toList()));
+    return this.snapshots.ids();
   }
 
+  /**
+   * Returns the snapshot with an ID. Looks the ID up in a map instead of searching.
+   * @param id String snapshot ID
+   * @return Snapshot
+   * @throws IllegalArgumentException if there is no snapshot with that ID
+   */
+  @Override
+  public Snapshot getSnapshot(String id) throws IllegalArgumentException {
+    return this.snapshots.get(id);
+  }
+
+  /**
+   * Returns the position of the snapshot with an ID in getSnapshots(), or -1 if there is none.
+   * Looks the ID up in a map instead of searching.
+   * @param id String snapshot ID
+   * @return int
+   */
+  @Override
+  public int indexOf(String id) {
+    return this.snapshots.indexOf(id);
+  }
+
+  /**
+   * Returns the shapes added, removed and changed from one snapshot of this album to another.
+   * Only the edits made between the two snapshots are looked at, so this takes time
+   * proportional to those edits rather than to the number of shapes.
+   * @param from Snapshot snapshot to compare from
+   * @param to Snapshot snapshot to compare to
+   * @return SnapshotDiff
+   * @throws IllegalArgumentException if either snapshot is not in this album
+   */
+  @Override
+  public SnapshotDiff diff(Snapshot from, Snapshot to) throws IllegalArgumentException {
+    if (from == null || to == null) {
+      throw new IllegalArgumentException("Snapshots required.");
+    }
+    int fromIndex = this.snapshots.indexOf(from.getID());
+    int toIndex = this.snapshots.indexOf(to.getID());
+    if (fromIndex < 0 || toIndex < 0) {
+      throw new IllegalArgumentException("There is no snapshot with that ID.");
+    }
+    return this.journal.diff(fromIndex, toIndex);
+  }
+
+  /**
+   * Adds a listener told about every shape made, changed, deleted or reordered and every
+   * snapshot taken from now on. Inside a transaction they are told on commit.
+   * @param listener AlbumListener
+   * @throws IllegalArgumentException if listener is null
+   */
+  @Override
+  public void addListener(AlbumListener listener) throws IllegalArgumentException {
+    this.listeners.addListener(listener);
+  }
+
+  /**
+   * Removes a listener.
+   * @param listener AlbumListener
+   * @return boolean false if the listener was not added
+   */
+  @Override
+  public boolean removeListener(AlbumListener listener) {
+    return this.listeners.removeListener(listener);
+  }
+
+  /**
+   * Undo log entry. Holds the shape a slot held before an edit, or null if the edit made the
+   * shape.
+   */
+  private static final class UndoEntry {
+    private final int slot;
+    private final I2DShape previous;
+
+    private UndoEntry(int slot, I2DShape previous) {
+      this.slot = slot;
+      this.previous = previous;
+    }
+  }
+
+  /**
+   * Content check of a snapshot: the canvas check hash, which is independent of the content
+   * hash, and the paint order frozen with it, or null while slot order was paint order. The
+   * content hash only covers which shape is in which slot, so orders are matched too.
+   */
+  private static final class ContentCheck {
+    private final long hash;
+    private final PaintOrder.Version order;
+
+    private ContentCheck(long hash, PaintOrder.Version order) {
+      this.hash = hash;
+      this.order = order;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+      if (!(other instanceof ContentCheck)) {
+        return false;
+      }
+      ContentCheck check = (ContentCheck) other;
+      return this.hash == check.hash
+              && (this.order == null ? check.order == null : this.order.isSameOrder(check.order));
+    }
+
+    @Override
+    public int hashCode() {
+      return Long.hashCode(this.hash);
+    }
+  }
 }
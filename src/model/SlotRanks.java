@@ -0,0 +1,130 @@
+package model;
+
+import java.util.Arrays;
+
+/**
+ * SlotRanks class. Counts the occupied canvas slots of an album in a Fenwick tree, so the
+ * position of a slot among the occupied ones, and the slot at a position, are found in O(log n)
+ * without listing the slots. While an album paints its shapes in slot order, these positions are
+ * the paint order positions. The tree holds a power of two slots, so growing it only copies the
+ * tree and sets the count of the new top node.
+ */
+public class SlotRanks {
+  private static final int INITIAL_CAPACITY = 16;
+  private int[] tree = new int[INITIAL_CAPACITY + 1]; // 1-based, node i counts (i - (i & -i), i]
+  private boolean[] occupied = new boolean[INITIAL_CAPACITY];
+  private int count = 0;
+
+  /**
+   * Constructor.
+   */
+  public SlotRanks() {
+  }
+
+  /**
+   * Marks a slot as occupied. Does nothing if it already is.
+   * @param slot int canvas slot
+   * @throws IllegalArgumentException if slot is negative
+   */
+  public void add(int slot) throws IllegalArgumentException {
+    if (slot < 0) {
+      throw new IllegalArgumentException("Invalid slot " + slot);
+    }
+    while (slot >= this.occupied.length) {
+      this.grow();
+    }
+    if (!this.occupied[slot]) {
+      this.occupied[slot] = true;
+      this.update(slot, 1);
+      this.count++;
+    }
+  }
+
+  /**
+   * Marks a slot as empty. Does nothing if it already is.
+   * @param slot int canvas slot
+   */
+  public void remove(int slot) {
+    if (slot >= 0 && slot < this.occupied.length && this.occupied[slot]) {
+      this.occupied[slot] = false;
+      this.update(slot, -1);
+      this.count--;
+    }
+  }
+
+  /**
+   * Marks every slot as empty.
+   */
+  public void clear() {
+    Arrays.fill(this.tree, 0);
+    Arrays.fill(this.occupied, false);
+    this.count = 0;
+  }
+
+  /**
+   * Returns the number of occupied slots.
+   * @return int
+   */
+  public int size() {
+    return this.count;
+  }
+
+  /**
+   * Returns the number of occupied slots before a slot, which is its position among them if it
+   * is occupied.
+   * @param slot int canvas slot
+   * @return int
+   */
+  public int rank(int slot) {
+    int sum = 0;
+    for (int i = Math.min(Math.max(slot, 0), this.occupied.length); i > 0; i -= i & -i) {
+      sum += this.tree[i];
+    }
+    return sum;
+  }
+
+  /**
+   * Returns the occupied slot at a position, 0 being the first.
+   * @param index int position
+   * @return int canvas slot
+   * @throws IndexOutOfBoundsException if there is no such position
+   */
+  public int slotAt(int index) throws IndexOutOfBoundsException {
+    if (index < 0 || index >= this.count) {
+      throw new IndexOutOfBoundsException("No position " + index);
+    }
+
+    // Walk down from the top node, keeping the last node whose prefix holds at most index slots
+    int node = 0;
+    int remaining = index;
+    for (int step = this.occupied.length; step > 0; step >>= 1) {
+      if (this.tree[node + step] <= remaining) {
+        node += step;
+        remaining -= this.tree[node];
+      }
+    }
+    return node;
+  }
+
+  /**
+   * Helper method that adds to the count of a slot and every node covering it.
+   * @param slot int canvas slot
+   * @param delta int change
+   */
+  private void update(int slot, int delta) {
+    for (int i = slot + 1; i < this.tree.length; i += i & -i) {
+      this.tree[i] += delta;
+    }
+  }
+
+  /**
+   * Helper method that doubles the slots the tree holds. Every new node but the top one covers
+   * new, empty slots only, and the top one covers all of them.
+   */
+  private void grow() {
+    int capacity = this.occupied.length * 2;
+    this.occupied = Arrays.copyOf(this.occupied, capacity);
+    this.tree = Arrays.copyOf(this.tree, capacity + 1);
+    this.tree[capacity] = this.count;
+  }
+}
@@ -0,0 +1,205 @@
+package model;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import utilities.shapes.I2DShape;
+
+/**
+ * SnapshotDiff class. The shapes added, removed and changed between two snapshots of an album,
+ * matched by name. A changed shape lists which of its fields differ. Paint order is not compared.
+ */
+public final class SnapshotDiff {
+
+  /**
+   * Fields of a shape a change can touch.
+   */
+  public enum Field {TYPE, POSITION, SIZE, COLOR}
+
+  private final List<I2DShape> added;
+  private final List<I2DShape> removed;
+  private final List<Change> changed;
+
+  /**
+   * Constructor.
+   * @param added List<I2DShape> shapes only in the later snapshot
+   * @param removed List<I2DShape> shapes only in the earlier snapshot
+   * @param changed List<Change> shapes in both with different fields
+   */
+  SnapshotDiff(List<I2DShape> added, List<I2DShape> removed, List<Change> changed) {
+    this.added = Collections.unmodifiableList(added);
+    this.removed = Collections.unmodifiableList(removed);
+    this.changed = Collections.unmodifiableList(changed);
+  }
+
+  /**
+   * Compares the shapes of two snapshots in full, for albums that do not track changes between
+   * snapshots. Takes time proportional to the number of shapes.
+   * @param from List<I2DShape> shapes of the earlier snapshot
+   * @param to List<I2DShape> shapes of the later snapshot
+   * @return SnapshotDiff
+   */
+  public static SnapshotDiff compare(List<I2DShape> from, List<I2DShape> to) {
+    Map<String, I2DShape> before = new HashMap<>((int) (from.size() / 0.75f) + 1);
+    for (I2DShape shape : from) {
+      before.put(shape.getName(), shape);
+    }
+    List<I2DShape> added = new ArrayList<>();
+    List<Change> changed = new ArrayList<>();
+    for (I2DShape shape : to) {
+      I2DShape previous = before.remove(shape.getName());
+      if (previous == null) {
+        added.add(shape);
+      } else {
+        Change change = Change.of(previous, shape);
+        if (change != null) {
+          changed.add(change);
+        }
+      }
+    }
+    List<I2DShape> removed = new ArrayList<>();
+    for (I2DShape shape : from) {
+      if (before.containsKey(shape.getName())) {
+        removed.add(shape);
+      }
+    }
+    return new SnapshotDiff(added, removed, changed);
+  }
+
+  /**
+   * Returns the shapes only in the later snapshot.
+   * @return List<I2DShape></I2DShape>
+   */
+  public List<I2DShape> getAdded() {
+    return this.added;
+  }
+
+  /**
+   * Returns the shapes only in the earlier snapshot.
+   * @return List<I2DShape></I2DShape>
+   */
+  public List<I2DShape> getRemoved() {
+    return this.removed;
+  }
+
+  /**
+   * Returns the shapes in both snapshots whose fields differ.
+   * @return List<Change></Change>
+   */
+  public List<Change> getChanged() {
+    return this.changed;
+  }
+
+  /**
+   * Returns whether the two snapshots hold the same shapes.
+   * @return boolean
+   */
+  public boolean isEmpty() {
+    return this.added.isEmpty() && this.removed.isEmpty() && this.changed.isEmpty();
+  }
+
+  /**
+   * Returns the same differences seen from the other snapshot.
+   * @return SnapshotDiff
+   */
+  SnapshotDiff reverse() {
+    List<Change> reversed = new ArrayList<>(this.changed.size());
+    for (Change change : this.changed) {
+      reversed.add(new Change(change.after, change.before, change.fields));
+    }
+    return new SnapshotDiff(new ArrayList<>(this.removed), new ArrayList<>(this.added),
+            reversed);
+  }
+
+  /**
+   * toString method.
+   * @return String
+   */
+  @Override
+  public String toString() {
+    return "Added: " + this.added.size() + " Removed: " + this.removed.size() + " Changed: "
+            + this.changed.size();
+  }
+
+  /**
+   * One shape in both snapshots, before and after, with the fields that differ.
+   */
+  public static final class Change {
+    private final I2DShape before;
+    private final I2DShape after;
+    private final Set<Field> fields;
+
+    /**
+     * Constructor.
+     * @param before I2DShape shape in the earlier snapshot
+     * @param after I2DShape shape in the later snapshot
+     * @param fields Set<Field> fields that differ
+     */
+    private Change(I2DShape before, I2DShape after, Set<Field> fields) {
+      this.before = before;
+      this.after = after;
+      this.fields = fields;
+    }
+
+    /**
+     * Returns the change between two versions of a shape, or null if no field differs.
+     * @param before I2DShape earlier version
+     * @param after I2DShape later version
+     * @return Change or null
+     */
+    static Change of(I2DShape before, I2DShape after) {
+      Set<Field> fields = EnumSet.noneOf(Field.class);
+      if (before.getType() != after.getType()) {
+        fields.add(Field.TYPE);
+      }
+      if (before.getX() != after.getX() || before.getY() != after.getY()) {
+        fields.add(Field.POSITION);
+      }
+      if (before.getLength() != after.getLength() || before.getWidth() != after.getWidth()) {
+        fields.add(Field.SIZE);
+      }
+      if (before.getRGB().getPacked() != after.getRGB().getPacked()) {
+        fields.add(Field.COLOR);
+      }
+      return fields.isEmpty() ? null : new Change(before, after, Collections.unmodifiableSet(
+              fields));
+    }
+
+    /**
+     * Returns the name of the shape.
+     * @return String
+     */
+    public String getName() {
+      return this.after.getName();
+    }
+
+    /**
+     * Returns the shape in the earlier snapshot.
+     * @return I2DShape
+     */
+    public I2DShape getBefore() {
+      return this.before;
+    }
+
+    /**
+     * Returns the shape in the later snapshot.
+     * @return I2DShape
+     */
+    public I2DShape getAfter() {
+      return this.after;
+    }
+
+    /**
+     * Returns the fields that differ.
+     * @return Set<Field></Field>
+     */
+    public Set<Field> getFields() {
+      return this.fields;
+    }
+  }
+}
@@ -0,0 +1,132 @@
+package model;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import utilities.Snapshot;
+
+/**
+ * SnapshotIndex class. Holds the snapshots of an album in the order they were taken, along with
+ * their IDs and a map from ID to position, so a snapshot can be found by ID in constant time and
+ * the lists of snapshots and IDs can be handed out without copying them. Snapshots can also be
+ * added with a content hash and a content check, to find an earlier snapshot that holds the
+ * same shapes without rebuilding it.
+ */
+public class SnapshotIndex {
+  private final List<Snapshot> snapshots = new ArrayList<>();
+  private final List<String> ids = new ArrayList<>();
+  private final Map<String, Integer> positions = new HashMap<>();
+  private final Map<Long, Integer> contents = new HashMap<>(); // content hash to first position
+  private final List<Object> checks = new ArrayList<>(); // content check by position, or null
+
+  /**
+   * Adds a snapshot after the others.
+   * @param snapshot Snapshot
+   * @throws IllegalArgumentException if a snapshot with the same ID was already added
+   */
+  public void add(Snapshot snapshot) throws IllegalArgumentException {
+    if (this.positions.putIfAbsent(snapshot.getID(), this.snapshots.size()) != null) {
+      throw new IllegalArgumentException("A snapshot with that ID already exists.");
+    }
+    this.snapshots.add(snapshot);
+    this.ids.add(snapshot.getID());
+    this.checks.add(null);
+  }
+
+  /**
+   * Adds a snapshot after the others, noting the content hash of its shapes and a check of
+   * them that is independent of the hash.
+   * @param snapshot Snapshot
+   * @param contentHash long content hash of the snapshot's shapes
+   * @param contentCheck Object equal to the check of any other content that is the same
+   * @throws IllegalArgumentException if a snapshot with the same ID was already added
+   */
+  public void add(Snapshot snapshot, long contentHash, Object contentCheck)
+          throws IllegalArgumentException {
+    this.add(snapshot);
+    this.checks.set(this.checks.size() - 1, contentCheck);
+    this.contents.putIfAbsent(contentHash, this.snapshots.size() - 1);
+  }
+
+  /**
+   * Returns the position of the first snapshot added with a content hash, if it was also added
+   * with an equal content check, or -1 otherwise. Only the first snapshot with the hash is
+   * looked at, so a later one with the same content may be missed, but a snapshot is never
+   * found for content whose hash and check it does not share.
+   * @param contentHash long content hash
+   * @param contentCheck Object content check
+   * @return int
+   */
+  public int indexOfContent(long contentHash, Object contentCheck) {
+    Integer index = this.contents.get(contentHash);
+    if (index == null || !contentCheck.equals(this.checks.get(index))) {
+      return -1;
+    }
+    return index;
+  }
+
+  /**
+   * Returns the snapshot with an ID.
+   * @param id String snapshot ID
+   * @return Snapshot
+   * @throws IllegalArgumentException if there is no snapshot with that ID
+   */
+  public Snapshot get(String id) throws IllegalArgumentException {
+    int index = this.indexOf(id);
+    if (index < 0) {
+      throw new IllegalArgumentException("There is no snapshot with that ID.");
+    }
+    return this.snapshots.get(index);
+  }
+
+  /**
+   * Returns the position of the snapshot with an ID, or -1 if there is none.
+   * @param id String snapshot ID
+   * @return int
+   */
+  public int indexOf(String id) {
+    Integer index = this.positions.get(id);
+    return index == null ? -1 : index;
+  }
+
+  /**
+   * Drops every snapshot after the first few.
+   * @param size int number of snapshots to keep
+   */
+  public void truncate(int size) {
+    for (int i = size; i < this.ids.size(); i++) {
+      this.positions.remove(this.ids.get(i));
+    }
+    this.contents.values().removeIf(index -> index >= size);
+    this.snapshots.subList(size, this.snapshots.size()).clear();
+    this.ids.subList(size, this.ids.size()).clear();
+    this.checks.subList(size, this.checks.size()).clear();
+  }
+
+  /**
+   * Returns the number of snapshots.
+   * @return int
+   */
+  public int size() {
+    return this.snapshots.size();
+  }
+
+  /**
+   * Returns an unmodifiable view of the snapshots.
+   * @return List<Snapshot></Snapshot>
+   */
+  public List<Snapshot> snapshots() {
+    return Collections.unmodifiableList(this.snapshots);
+  }
+
+  /**
+   * Returns an unmodifiable view of the snapshot IDs.
+   * @return List<String></String>
+   */
+  public List<String> ids() {
+    return Collections.unmodifiableList(this.ids);
+  }
+}
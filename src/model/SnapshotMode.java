@@ -0,0 +1,15 @@
+package model;
+
+/**
+ * SnapshotMode enum. Ways the ShapesPhotoAlbum can store the shapes of its snapshots.
+ */
+public enum SnapshotMode {
+  /** Each snapshot keeps a frozen view of the canvas that shares unchanged shapes. */
+  SHARED,
+  /** Each snapshot keeps only the changes since the previous one, with periodic keyframes. */
+  DELTA,
+  /** Each snapshot keeps only an offset into a log of every change, with periodic checkpoints. */
+  EVENT_LOG,
+  /** Like SHARED, but snapshots over a heap budget are spilled to disk and read back on use. */
+  SPILLED;
+}
@@ -0,0 +1,404 @@
+package model;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import utilities.shapes.I2DShape;
+import utilities.shapes.ShapeTypes;
+
+/**
+ * SpatialGrid class. Uniform grid over the album canvas that indexes the bounding box of each
+ * shape by its canvas slot, so region and point queries only look at the shapes in the cells they
+ * touch. Rectangles and triangles cover x to x + width and y to y + length; ovals are centered on
+ * their coordinates with radii width and length. Boxes include their minimum edge and exclude their
+ * maximum edge. Shapes that would cover too many cells are kept in a separate list that every
+ * query checks. Each slot remembers where it sits in every cell it covers, so removing a shape
+ * swaps the last slot of each cell into its place in constant time.
+ */
+public class SpatialGrid {
+  public static final int DEFAULT_CELL_SIZE = 64;
+  private static final int MAX_CELLS_PER_SHAPE = 256;
+  private static final int INITIAL_CAPACITY = 16;
+  private final int cellSize;
+  private final Map<Long, Cell> cells = new HashMap<>();
+  private final Cell oversized = new Cell();
+  private int[] minXs = new int[INITIAL_CAPACITY];
+  private int[] minYs = new int[INITIAL_CAPACITY];
+  private int[] maxXs = new int[INITIAL_CAPACITY];
+  private int[] maxYs = new int[INITIAL_CAPACITY];
+  private boolean[] indexed = new boolean[INITIAL_CAPACITY];
+  // Position of a slot in each cell it covers, column by column, or in the oversized list
+  private int[][] positions = new int[INITIAL_CAPACITY][];
+  private int[] seen = new int[INITIAL_CAPACITY];
+  private int queryStamp = 0;
+  private int[] found = new int[INITIAL_CAPACITY];
+  private int foundSize = 0;
+  private int count = 0;
+
+  /**
+   * Constructor.
+   */
+  public SpatialGrid() {
+    this(DEFAULT_CELL_SIZE);
+  }
+
+  /**
+   * Constructor.
+   * @param cellSize int width and height of a grid cell
+   * @throws IllegalArgumentException if cell size is not positive
+   */
+  public SpatialGrid(int cellSize) throws IllegalArgumentException {
+    if (cellSize <= 0) {
+      throw new IllegalArgumentException("Cell size must be positive.");
+    }
+    this.cellSize = cellSize;
+  }
+
+  /**
+   * Adds a shape to the grid, or moves it if its slot is already indexed.
+   * @param slot int canvas slot of the shape
+   * @param type ShapeTypes type of shape
+   * @param x int x coordinate
+   * @param y int y coordinate
+   * @param length int length
+   * @param width int width
+   */
+  public void insert(int slot, ShapeTypes type, int x, int y, int length, int width) {
+    this.ensureCapacity(slot);
+    if (this.indexed[slot]) {
+      this.remove(slot);
+    }
+
+    // Work out bounding box, clamped to the int range
+    long minX = type == ShapeTypes.OVAL ? (long) x - width : x;
+    long minY = type == ShapeTypes.OVAL ? (long) y - length : y;
+    long maxX = (long) x + width;
+    long maxY = (long) y + length;
+    this.minXs[slot] = clamp(minX);
+    this.minYs[slot] = clamp(minY);
+    this.maxXs[slot] = clamp(maxX);
+    this.maxYs[slot] = clamp(maxY);
+    this.indexed[slot] = true;
+    this.count++;
+
+    long span = this.cellSpan(slot);
+    int[] at = this.positions[slot];
+    if (span > MAX_CELLS_PER_SHAPE) {
+      at = at != null && at.length == 1 ? at : new int[1];
+      at[0] = this.oversized.add(slot);
+      this.positions[slot] = at;
+      return;
+    }
+    at = at != null && at.length == span ? at : new int[(int) span];
+    int i = 0;
+    for (int cx = this.cellOf(this.minXs[slot]); cx <= this.lastCellOf(this.maxXs[slot]); cx++) {
+      for (int cy = this.cellOf(this.minYs[slot]); cy <= this.lastCellOf(this.maxYs[slot]);
+           cy++) {
+        at[i++] = this.cells.computeIfAbsent(key(cx, cy), k -> new Cell()).add(slot);
+      }
+    }
+    this.positions[slot] = at;
+  }
+
+  /**
+   * Removes a shape from the grid. Does nothing if the slot is not indexed.
+   * @param slot int canvas slot of the shape
+   */
+  public void remove(int slot) {
+    if (slot >= this.indexed.length || !this.indexed[slot]) {
+      return;
+    }
+    int[] at = this.positions[slot];
+    if (this.cellSpan(slot) > MAX_CELLS_PER_SHAPE) {
+      int moved = this.oversized.removeAt(at[0]);
+      if (moved >= 0) {
+        this.positions[moved][0] = at[0];
+      }
+    } else {
+      int i = 0;
+      for (int cx = this.cellOf(this.minXs[slot]); cx <= this.lastCellOf(this.maxXs[slot]);
+           cx++) {
+        for (int cy = this.cellOf(this.minYs[slot]); cy <= this.lastCellOf(this.maxYs[slot]);
+             cy++) {
+          Long key = key(cx, cy);
+          Cell cell = this.cells.get(key);
+          int moved = cell.removeAt(at[i]);
+          if (moved >= 0) {
+            this.positions[moved][this.positionIn(moved, cx, cy)] = at[i];
+          }
+          if (cell.size == 0) {
+            this.cells.remove(key);
+          }
+          i++;
+        }
+      }
+    }
+    this.indexed[slot] = false;
+    this.count--;
+  }
+
+  /**
+   * Removes every shape from the grid.
+   */
+  public void clear() {
+    this.cells.clear();
+    this.oversized.size = 0;
+    Arrays.fill(this.indexed, false);
+    this.count = 0;
+  }
+
+  /**
+   * Returns the number of shapes in the grid.
+   * @return int
+   */
+  public int size() {
+    return this.count;
+  }
+
+  /**
+   * Returns the slots of the shapes whose bounding box intersects a region, in slot order.
+   * @param x int x coordinate of region corner
+   * @param y int y coordinate of region corner
+   * @param width int width of region
+   * @param height int height of region
+   * @return int[] sorted slots
+   * @throws IllegalArgumentException if width or height not positive
+   */
+  public int[] query(int x, int y, int width, int height) throws IllegalArgumentException {
+    if (width <= 0 || height <= 0) {
+      throw new IllegalArgumentException("Invalid width or height");
+    }
+    int maxX = clamp((long) x + width);
+    int maxY = clamp((long) y + height);
+    this.foundSize = 0;
+    this.queryStamp++;
+
+    // Visit cells under the region, or every cell if there are fewer of those
+    int firstCx = this.cellOf(x);
+    int lastCx = this.lastCellOf(maxX);
+    int firstCy = this.cellOf(y);
+    int lastCy = this.lastCellOf(maxY);
+    long regionCells = ((long) lastCx - firstCx + 1) * ((long) lastCy - firstCy + 1);
+    if (regionCells > this.cells.size()) {
+      for (Cell cell : this.cells.values()) {
+        this.collect(cell, x, y, maxX, maxY);
+      }
+    } else {
+      for (int cx = firstCx; cx <= lastCx; cx++) {
+        for (int cy = firstCy; cy <= lastCy; cy++) {
+          Cell cell = this.cells.get(key(cx, cy));
+          if (cell != null) {
+            this.collect(cell, x, y, maxX, maxY);
+          }
+        }
+      }
+    }
+    this.collect(this.oversized, x, y, maxX, maxY);
+
+    int[] slots = Arrays.copyOf(this.found, this.foundSize);
+    Arrays.sort(slots);
+    return slots;
+  }
+
+  /**
+   * Returns the highest slot whose bounding box contains a point, or -1 if there is none.
+   * @param x int x coordinate
+   * @param y int y coordinate
+   * @return int slot or -1
+   */
+  public int topmostAt(int x, int y) {
+    int topmost = this.topmostIn(this.cells.get(key(this.cellOf(x), this.cellOf(y))), x, y, -1);
+    return this.topmostIn(this.oversized, x, y, topmost);
+  }
+
+  /**
+   * Returns whether a shape's bounding box intersects a region, for albums that scan their shapes
+   * instead of keeping a grid.
+   * @param shape I2DShape
+   * @param x int x coordinate of region corner
+   * @param y int y coordinate of region corner
+   * @param width int width of region
+   * @param height int height of region
+   * @return boolean
+   */
+  public static boolean intersects(I2DShape shape, int x, int y, int width, int height) {
+    boolean oval = shape.getType() == ShapeTypes.OVAL;
+    long minX = oval ? (long) shape.getX() - shape.getWidth() : shape.getX();
+    long minY = oval ? (long) shape.getY() - shape.getLength() : shape.getY();
+    long maxX = (long) shape.getX() + shape.getWidth();
+    long maxY = (long) shape.getY() + shape.getLength();
+    return minX < (long) x + width && x < maxX && minY < (long) y + height && y < maxY;
+  }
+
+  /**
+   * Returns whether a shape's bounding box contains a point, for albums that scan their shapes
+   * instead of keeping a grid.
+   * @param shape I2DShape
+   * @param x int x coordinate
+   * @param y int y coordinate
+   * @return boolean
+   */
+  public static boolean contains(I2DShape shape, int x, int y) {
+    return intersects(shape, x, y, 1, 1);
+  }
+
+  /**
+   * Helper method that adds the slots of a cell whose boxes intersect a region to the found
+   * slots, skipping slots already found by the current query.
+   * @param cell Cell
+   * @param minX int region minimum x
+   * @param minY int region minimum y
+   * @param maxX int region exclusive maximum x
+   * @param maxY int region exclusive maximum y
+   */
+  private void collect(Cell cell, int minX, int minY, int maxX, int maxY) {
+    for (int i = 0; i < cell.size; i++) {
+      int slot = cell.slots[i];
+      if (this.seen[slot] != this.queryStamp && this.minXs[slot] < maxX
+              && minX < this.maxXs[slot] && this.minYs[slot] < maxY && minY < this.maxYs[slot]) {
+        this.seen[slot] = this.queryStamp;
+        if (this.foundSize == this.found.length) {
+          this.found = Arrays.copyOf(this.found, this.foundSize * 2);
+        }
+        this.found[this.foundSize++] = slot;
+      }
+    }
+  }
+
+  /**
+   * Helper method that finds the highest slot in a cell whose box contains a point.
+   * @param cell Cell or null
+   * @param x int x coordinate
+   * @param y int y coordinate
+   * @param topmost int highest slot found so far
+   * @return int highest slot
+   */
+  private int topmostIn(Cell cell, int x, int y, int topmost) {
+    if (cell == null) {
+      return topmost;
+    }
+    for (int i = 0; i < cell.size; i++) {
+      int slot = cell.slots[i];
+      if (slot > topmost && this.minXs[slot] <= x && x < this.maxXs[slot]
+              && this.minYs[slot] <= y && y < this.maxYs[slot]) {
+        topmost = slot;
+      }
+    }
+    return topmost;
+  }
+
+  /**
+   * Helper method that returns how many cells a slot's box covers.
+   * @param slot int slot
+   * @return long
+   */
+  private long cellSpan(int slot) {
+    long columns = (long) this.lastCellOf(this.maxXs[slot]) - this.cellOf(this.minXs[slot]) + 1;
+    long rows = (long) this.lastCellOf(this.maxYs[slot]) - this.cellOf(this.minYs[slot]) + 1;
+    return columns * rows;
+  }
+
+  /**
+   * Helper method that returns where in a slot's positions its place in a cell is kept.
+   * @param slot int slot covering the cell, not in the oversized list
+   * @param cx int cell column
+   * @param cy int cell row
+   * @return int
+   */
+  private int positionIn(int slot, int cx, int cy) {
+    int firstCy = this.cellOf(this.minYs[slot]);
+    int rows = this.lastCellOf(this.maxYs[slot]) - firstCy + 1;
+    return (cx - this.cellOf(this.minXs[slot])) * rows + (cy - firstCy);
+  }
+
+  /**
+   * Helper method that returns the cell holding a coordinate.
+   * @param coordinate int
+   * @return int cell
+   */
+  private int cellOf(int coordinate) {
+    return Math.floorDiv(coordinate, this.cellSize);
+  }
+
+  /**
+   * Helper method that returns the last cell covered by a box with an exclusive maximum edge.
+   * @param max int exclusive maximum coordinate
+   * @return int cell
+   */
+  private int lastCellOf(int max) {
+    return Math.floorDiv(max - 1, this.cellSize);
+  }
+
+  /**
+   * Helper method that grows the per-slot arrays to hold a slot.
+   * @param slot int slot
+   */
+  private void ensureCapacity(int slot) {
+    if (slot < this.indexed.length) {
+      return;
+    }
+    int capacity = Math.max(slot + 1, this.indexed.length * 2);
+    this.minXs = Arrays.copyOf(this.minXs, capacity);
+    this.minYs = Arrays.copyOf(this.minYs, capacity);
+    this.maxXs = Arrays.copyOf(this.maxXs, capacity);
+    this.maxYs = Arrays.copyOf(this.maxYs, capacity);
+    this.indexed = Arrays.copyOf(this.indexed, capacity);
+    this.positions = Arrays.copyOf(this.positions, capacity);
+    this.seen = Arrays.copyOf(this.seen, capacity);
+  }
+
+  /**
+   * Helper method that packs cell coordinates into a map key.
+   * @param cx int cell column
+   * @param cy int cell row
+   * @return Long key
+   */
+  private static Long key(int cx, int cy) {
+    return ((long) cx << 32) | (cy & 0xFFFFFFFFL);
+  }
+
+  /**
+   * Helper method that clamps a long to the int range.
+   * @param value long
+   * @return int
+   */
+  private static int clamp(long value) {
+    return (int) Math.max(Integer.MIN_VALUE, Math.min(Integer.MAX_VALUE, value));
+  }
+
+  /**
+   * Grid cell holding an unordered set of slots.
+   */
+  private static final class Cell {
+    private int[] slots = new int[4];
+    private int size = 0;
+
+    /**
+     * Adds a slot at the end.
+     * @param slot int slot
+     * @return int position of the slot in the cell
+     */
+    private int add(int slot) {
+      if (this.size == this.slots.length) {
+        this.slots = Arrays.copyOf(this.slots, this.size * 2);
+      }
+      this.slots[this.size] = slot;
+      return this.size++;
+    }
+
+    /**
+     * Removes the slot at a position by moving the last slot into it.
+     * @param index int position
+     * @return int slot moved into the position, or -1 if the last slot was removed
+     */
+    private int removeAt(int index) {
+      this.size--;
+      if (index == this.size) {
+        return -1;
+      }
+      this.slots[index] = this.slots[this.size];
+      return this.slots[index];
+    }
+  }
+}
@@ -0,0 +1,390 @@
+package model;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Supplier;
+
+import utilities.shapes.I2DShape;
+import utilities.shapes.Oval;
+import utilities.shapes.Rectangle;
+import utilities.shapes.ShapeTypes;
+import utilities.shapes.Triangle;
+
+/**
+ * SpillingSnapshotStore class. Holds the shape lists of snapshots within a heap budget. Once the
+ * lists held in memory are estimated to go over the budget, the coldest ones are written to a
+ * spill file and dropped from memory, and are read back in when a snapshot's shapes are
+ * requested. Cold lists are picked with the CLOCK policy: a hand sweeps the lists in order,
+ * sparing and clearing any list used since it last passed. A list is written to the file at
+ * most once, since snapshot shapes never change.
+ * A frozen canvas shares all but its changed shapes and their trie paths with the canvas and the
+ * snapshots before it, so such a list is only charged for the shapes changed since the previous
+ * one. A list read back from the file shares nothing and is charged in full. Spilling still
+ * writes the whole list, so it trades a linear write for the memory the list did not share.
+ */
+public class SpillingSnapshotStore implements AutoCloseable {
+  public static final int ESTIMATED_SHAPE_BYTES = 128;
+  public static final int ESTIMATED_NODE_BYTES = 160;
+  private static final int NODE_BITS = 5;
+  private static final ShapeTypes[] SHAPE_TYPES = ShapeTypes.values();
+  private final long budget;
+  private final File file;
+  private final boolean temporary;
+  private final List<Entry> entries = new ArrayList<>();
+  private RandomAccessFile spill = null;
+  private long residentBytes = 0;
+  private int hand = 0;
+  private boolean closed = false;
+
+  /**
+   * Constructor. Spills to a temporary file deleted when the program exits.
+   * @param budget long estimated bytes of shape lists to keep in memory
+   * @throws IllegalArgumentException if budget is negative
+   * @throws UncheckedIOException if the temporary file cannot be created
+   */
+  public SpillingSnapshotStore(long budget) throws IllegalArgumentException {
+    this(budget, createTempFile(), true);
+  }
+
+  /**
+   * Constructor.
+   * @param budget long estimated bytes of shape lists to keep in memory
+   * @param file File to spill to, overwritten if it exists
+   * @throws IllegalArgumentException if budget is negative or file is null
+   */
+  public SpillingSnapshotStore(long budget, File file) throws IllegalArgumentException {
+    this(budget, file, false);
+  }
+
+  /**
+   * Constructor.
+   * @param budget long estimated bytes of shape lists to keep in memory
+   * @param file File to spill to, overwritten if it exists
+   * @param temporary boolean true if close() should delete the file
+   * @throws IllegalArgumentException if budget is negative or file is null
+   */
+  private SpillingSnapshotStore(long budget, File file, boolean temporary)
+          throws IllegalArgumentException {
+    if (budget < 0) {
+      throw new IllegalArgumentException("Budget cannot be negative.");
+    }
+    if (file == null) {
+      throw new IllegalArgumentException("Spill file required.");
+    }
+    this.budget = budget;
+    this.file = file;
+    this.temporary = temporary;
+  }
+
+  /**
+   * Adds the shape list of a new snapshot that shares nothing with the other lists and returns a
+   * source for it, spilling colder lists if the store goes over its budget.
+   * @param shapes List<I2DShape> shapes of the snapshot, not changed afterwards
+   * @return Supplier<List<I2DShape>> returns the shapes, reading them back in if spilled
+   * @throws IllegalStateException if the store is closed
+   */
+  public Supplier<List<I2DShape>> add(List<I2DShape> shapes) throws IllegalStateException {
+    return this.add(shapes, shapes.size());
+  }
+
+  /**
+   * Adds the shape list of a new snapshot, such as a frozen canvas, that shares every shape but
+   * the changed ones and their paths with the canvas and the lists added before it, and returns
+   * a source for it. Only the changed shapes are charged to the budget.
+   * @param shapes List<I2DShape> shapes of the snapshot, not changed afterwards
+   * @param changes int canvas slots changed since the previous list was added
+   * @return Supplier<List<I2DShape>> returns the shapes, reading them back in if spilled
+   * @throws IllegalStateException if the store is closed
+   */
+  public synchronized Supplier<List<I2DShape>> add(List<I2DShape> shapes, int changes)
+          throws IllegalStateException {
+    this.checkOpen();
+    Entry entry = new Entry(shapes, shapes.size(), changedBytes(shapes.size(), changes));
+    this.entries.add(entry);
+    this.residentBytes += entry.bytes;
+    this.evict(entry);
+    return () -> this.get(entry);
+  }
+
+  /**
+   * Drops every list after the first few, such as the snapshots of a rolled back transaction.
+   * Their bytes in the spill file are not reclaimed.
+   * @param size int number of lists to keep
+   */
+  public synchronized void truncate(int size) {
+    for (int i = size; i < this.entries.size(); i++) {
+      Entry entry = this.entries.get(i);
+      if (entry.shapes != null) {
+        this.residentBytes -= entry.bytes;
+      }
+      entry.dropped = true;
+    }
+    this.entries.subList(size, this.entries.size()).clear();
+    if (this.hand >= this.entries.size()) {
+      this.hand = 0;
+    }
+  }
+
+  /**
+   * Returns the estimated bytes of the lists held in memory.
+   * @return long
+   */
+  public synchronized long residentBytes() {
+    return this.residentBytes;
+  }
+
+  /**
+   * Returns the number of lists that are only in the spill file.
+   * @return int
+   */
+  public synchronized int spilledCount() {
+    int count = 0;
+    for (Entry entry : this.entries) {
+      if (entry.shapes == null) {
+        count++;
+      }
+    }
+    return count;
+  }
+
+  /**
+   * Returns the number of lists in the store.
+   * @return int
+   */
+  public synchronized int size() {
+    return this.entries.size();
+  }
+
+  /**
+   * Closes the spill file, deleting it if the store made it. Lists cannot be added or read
+   * afterwards.
+   * @throws UncheckedIOException if the file cannot be closed
+   */
+  @Override
+  public synchronized void close() throws UncheckedIOException {
+    if (this.closed) {
+      return;
+    }
+    this.closed = true;
+    this.entries.clear();
+    this.residentBytes = 0;
+    try {
+      if (this.spill != null) {
+        this.spill.close();
+        this.spill = null;
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    } finally {
+      if (this.temporary) {
+        this.file.delete();
+      }
+    }
+  }
+
+  /**
+   * Helper method that returns the shapes of an entry, reading them back in if spilled.
+   * @param entry Entry
+   * @return List<I2DShape></I2DShape>
+   * @throws IllegalStateException if the entry was dropped or the store is closed
+   */
+  private synchronized List<I2DShape> get(Entry entry) throws IllegalStateException {
+    this.checkOpen();
+    if (entry.dropped) {
+      throw new IllegalStateException("Snapshot was rolled back.");
+    }
+    entry.referenced = true;
+    if (entry.shapes == null) {
+      // The list read back shares nothing, so it is charged in full
+      entry.shapes = this.read(entry);
+      entry.bytes = changedBytes(entry.count, entry.count);
+      this.residentBytes += entry.bytes;
+      this.evict(entry);
+    }
+    return entry.shapes;
+  }
+
+  /**
+   * Helper method that spills lists under the CLOCK hand until the store fits its budget. The
+   * list just added or read is never spilled, so it may be the only one left in memory.
+   * @param keep Entry entry to keep in memory
+   */
+  private void evict(Entry keep) {
+    // Two sweeps clear every reference bit, so a third finds nothing left to spill
+    int steps = 2 * this.entries.size();
+    while (this.residentBytes > this.budget && steps-- > 0) {
+      Entry entry = this.entries.get(this.hand);
+      this.hand = (this.hand + 1) % this.entries.size();
+      if (entry == keep || entry.shapes == null) {
+        continue;
+      }
+      if (entry.referenced) {
+        entry.referenced = false;
+      } else {
+        this.write(entry);
+        entry.shapes = null;
+        this.residentBytes -= entry.bytes;
+      }
+    }
+  }
+
+  /**
+   * Helper method that appends an entry's shapes to the spill file, unless they were written
+   * before.
+   * @param entry Entry
+   * @throws UncheckedIOException if the file cannot be written
+   */
+  private void write(Entry entry) throws UncheckedIOException {
+    if (entry.offset >= 0) {
+      return;
+    }
+    try {
+      ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+      DataOutputStream out = new DataOutputStream(bytes);
+      out.writeInt(entry.shapes.size());
+      for (I2DShape shape : entry.shapes) {
+        out.writeByte(shape.getType().ordinal());
+        out.writeUTF(shape.getName());
+        out.writeInt(shape.getLength());
+        out.writeInt(shape.getWidth());
+        out.writeInt(shape.getX());
+        out.writeInt(shape.getY());
+        out.writeInt(UndoHistory.packColor(shape.getRGB()));
+      }
+      RandomAccessFile spill = this.spillFile();
+      entry.offset = spill.length();
+      entry.length = bytes.size();
+      spill.seek(entry.offset);
+      spill.write(bytes.toByteArray());
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  /**
+   * Helper method that reads an entry's shapes back from the spill file.
+   * @param entry Entry
+   * @return List<I2DShape> unmodifiable list of shapes
+   * @throws UncheckedIOException if the file cannot be read
+   */
+  private List<I2DShape> read(Entry entry) throws UncheckedIOException {
+    try {
+      byte[] bytes = new byte[entry.length];
+      RandomAccessFile spill = this.spillFile();
+      spill.seek(entry.offset);
+      spill.readFully(bytes);
+
+      DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes));
+      int count = in.readInt();
+      List<I2DShape> shapes = new ArrayList<>(count);
+      for (int i = 0; i < count; i++) {
+        ShapeTypes type = SHAPE_TYPES[in.readByte()];
+        String name = in.readUTF();
+        int length = in.readInt();
+        int width = in.readInt();
+        int x = in.readInt();
+        int y = in.readInt();
+        int color = in.readInt();
+        int r = (color >>> 16) & 0xFF;
+        int g = (color >>> 8) & 0xFF;
+        int b = color & 0xFF;
+        if (type == ShapeTypes.RECTANGLE) {
+          shapes.add(new Rectangle(name, length, width, x, y, r, g, b));
+        } else if (type == ShapeTypes.OVAL) {
+          shapes.add(new Oval(name, length, width, x, y, r, g, b));
+        } else {
+          shapes.add(new Triangle(name, length, width, x, y, r, g, b));
+        }
+      }
+      return Collections.unmodifiableList(shapes);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  /**
+   * Helper method that opens the spill file the first time it is needed.
+   * @return RandomAccessFile
+   * @throws IOException if the file cannot be opened
+   */
+  private RandomAccessFile spillFile() throws IOException {
+    if (this.spill == null) {
+      this.spill = new RandomAccessFile(this.file, "rw");
+      this.spill.setLength(0);
+    }
+    return this.spill;
+  }
+
+  /**
+   * Helper method that throws if the store is closed.
+   * @throws IllegalStateException if the store is closed
+   */
+  private void checkOpen() throws IllegalStateException {
+    if (this.closed) {
+      throw new IllegalStateException("Snapshot store is closed.");
+    }
+  }
+
+  /**
+   * Helper method that estimates the bytes a list holds on its own: each changed shape and the
+   * trie nodes copied on its path, but never more than a list of its size that shares nothing,
+   * whose estimate counts the shapes only.
+   * @param size int number of shapes in the list
+   * @param changes int number of shapes not shared with other lists
+   * @return long
+   */
+  private static long changedBytes(int size, int changes) {
+    int levels = 1;
+    while (size > 1L << (levels * NODE_BITS)) {
+      levels++;
+    }
+    long whole = (long) size * ESTIMATED_SHAPE_BYTES;
+    long changed = (long) Math.max(changes, 0)
+            * (ESTIMATED_SHAPE_BYTES + (long) levels * ESTIMATED_NODE_BYTES);
+    return Math.min(changed, whole);
+  }
+
+  /**
+   * Helper method that creates a temporary spill file deleted when the program exits.
+   * @return File
+   * @throws UncheckedIOException if the file cannot be created
+   */
+  private static File createTempFile() throws UncheckedIOException {
+    try {
+      File file = File.createTempFile("snapshots", ".spill");
+      file.deleteOnExit();
+      return file;
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  /**
+   * Store entry. Holds a snapshot's shapes while in memory, and where they are in the spill file
+   * once written.
+   */
+  private static final class Entry {
+    private final int count;
+    private long bytes;
+    private List<I2DShape> shapes;
+    private long offset = -1;
+    private int length = 0;
+    private boolean referenced = false;
+    private boolean dropped = false;
+
+    private Entry(List<I2DShape> shapes, int count, long bytes) {
+      this.shapes = shapes;
+      this.count = count;
+      this.bytes = bytes;
+    }
+  }
+}
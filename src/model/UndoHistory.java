@@ -0,0 +1,436 @@
+package model;
+
+import java.util.Arrays;
+
+import utilities.shapes.I2DShape;
+import utilities.shapes.RGB;
+import utilities.shapes.ShapeTypes;
+
+/**
+ * UndoHistory class. Bounded undo and redo history for a photo album. Each edit is kept as one
+ * row of primitive columns in a ring buffer holding what the edit changed before and after, so
+ * no copies of the album are made and the oldest edit is forgotten once the buffer is full.
+ * Edits are undone and redone by name through the album's own methods. A delete keeps the
+ * shape's position in the paint order, so undoing it makes the shape again and moves it back
+ * there.
+ */
+public class UndoHistory {
+  public static final int DEFAULT_CAPACITY = 10_000;
+  private static final int INITIAL_ROWS = 16;
+  private static final ShapeTypes[] SHAPE_TYPES = ShapeTypes.values();
+  private static final byte MAKE = 0;
+  private static final byte DELETE = 1;
+  private static final byte MOVE = 2;
+  private static final byte RESIZE = 3;
+  private static final byte COLOR = 4;
+  private static final byte ORDER = 5;
+  private final int capacity;
+  private byte[] kinds;
+  private byte[] types; // type ordinal for MAKE and DELETE
+  private String[] names;
+  // MAKE, DELETE: x, y, length, width, color
+  // MOVE, RESIZE: before in a and b, after in c and d
+  // COLOR, ORDER: before in a, after in c
+  // DELETE: paint order position in f, or -1 if it was in front of every other shape
+  private int[] a;
+  private int[] b;
+  private int[] c;
+  private int[] d;
+  private int[] e;
+  private int[] f;
+  private int start = 0; // row of the oldest edit
+  private int undoable = 0;
+  private int redoable = 0;
+  private long recorded = 0;
+  private boolean replaying = false;
+
+  /**
+   * Constructor. Keeps up to DEFAULT_CAPACITY edits.
+   */
+  public UndoHistory() {
+    this(DEFAULT_CAPACITY);
+  }
+
+  /**
+   * Constructor.
+   * @param capacity int most edits kept
+   * @throws IllegalArgumentException if capacity is less than 1
+   */
+  public UndoHistory(int capacity) throws IllegalArgumentException {
+    if (capacity < 1) {
+      throw new IllegalArgumentException("Capacity must be at least 1.");
+    }
+    this.capacity = capacity;
+    int rows = Math.min(INITIAL_ROWS, capacity);
+    this.kinds = new byte[rows];
+    this.types = new byte[rows];
+    this.names = new String[rows];
+    this.a = new int[rows];
+    this.b = new int[rows];
+    this.c = new int[rows];
+    this.d = new int[rows];
+    this.e = new int[rows];
+    this.f = new int[rows];
+  }
+
+  /**
+   * Records that a shape was made.
+   * @param shape I2DShape new shape
+   */
+  public void recordMake(I2DShape shape) {
+    this.recordMake(shape.getType(), shape.getName(), shape.getLength(), shape.getWidth(),
+            shape.getX(), shape.getY(), packColor(shape.getRGB()));
+  }
+
+  /**
+   * Records that a shape was made.
+   * @param type ShapeTypes type of shape
+   * @param name String name of shape
+   * @param length int length
+   * @param width int width
+   * @param x int x coordinate
+   * @param y int y coordinate
+   * @param color int packed 0xRRGGBB color
+   */
+  public void recordMake(ShapeTypes type, String name, int length, int width, int x, int y,
+                         int color) {
+    this.recordShape(MAKE, type, name, length, width, x, y, color);
+  }
+
+  /**
+   * Records that a shape was deleted.
+   * @param shape I2DShape deleted shape
+   * @param index int its position in the paint order, or -1 if it was in front of every other
+   *              shape
+   */
+  public void recordDelete(I2DShape shape, int index) {
+    this.recordDelete(shape.getType(), shape.getName(), shape.getLength(), shape.getWidth(),
+            shape.getX(), shape.getY(), packColor(shape.getRGB()), index);
+  }
+
+  /**
+   * Records that a shape was deleted.
+   * @param type ShapeTypes type of shape
+   * @param name String name of shape
+   * @param length int length
+   * @param width int width
+   * @param x int x coordinate
+   * @param y int y coordinate
+   * @param color int packed 0xRRGGBB color
+   * @param index int its position in the paint order, or -1 if it was in front of every other
+   *              shape
+   */
+  public void recordDelete(ShapeTypes type, String name, int length, int width, int x, int y,
+                           int color, int index) {
+    int row = this.recordShape(DELETE, type, name, length, width, x, y, color);
+    if (row >= 0) {
+      this.f[row] = index;
+    }
+  }
+
+  /**
+   * Records that a shape was moved.
+   * @param name String name of shape
+   * @param oldX int x coordinate before
+   * @param oldY int y coordinate before
+   * @param x int x coordinate after
+   * @param y int y coordinate after
+   */
+  public void recordMove(String name, int oldX, int oldY, int x, int y) {
+    this.recordEdit(MOVE, name, oldX, oldY, x, y);
+  }
+
+  /**
+   * Records that a shape was resized.
+   * @param name String name of shape
+   * @param oldLength int length before
+   * @param oldWidth int width before
+   * @param length int length after
+   * @param width int width after
+   */
+  public void recordResize(String name, int oldLength, int oldWidth, int length, int width) {
+    this.recordEdit(RESIZE, name, oldLength, oldWidth, length, width);
+  }
+
+  /**
+   * Records that a shape was colored.
+   * @param name String name of shape
+   * @param oldColor int packed 0xRRGGBB color before
+   * @param color int packed 0xRRGGBB color after
+   */
+  public void recordColor(String name, int oldColor, int color) {
+    this.recordEdit(COLOR, name, oldColor, 0, color, 0);
+  }
+
+  /**
+   * Records that a shape was moved in the paint order.
+   * @param name String name of shape
+   * @param oldIndex int position before
+   * @param index int position after
+   */
+  public void recordOrder(String name, int oldIndex, int index) {
+    this.recordEdit(ORDER, name, oldIndex, 0, index, 0);
+  }
+
+  /**
+   * Undoes the newest edit on an album. Nothing changes if the album rejects the undo.
+   * @param album IShapesPhotoAlbum album the edits were made on
+   * @return boolean false if there was nothing to undo
+   * @throws IllegalArgumentException if the album rejects the undo
+   */
+  public boolean undo(IShapesPhotoAlbum album) throws IllegalArgumentException {
+    if (this.undoable == 0) {
+      return false;
+    }
+    int row = this.row(this.undoable - 1);
+    this.replaying = true;
+    try {
+      switch (this.kinds[row]) {
+        case MAKE:
+          album.deleteShape(this.names[row]);
+          break;
+        case DELETE:
+          this.make(album, row);
+          if (this.f[row] >= 0) {
+            album.reorderShape(this.names[row], this.f[row]);
+          }
+          break;
+        case MOVE:
+          album.moveShape(this.names[row], this.a[row], this.b[row]);
+          break;
+        case RESIZE:
+          album.resizeShape(this.names[row], this.a[row], this.b[row]);
+          break;
+        case ORDER:
+          album.reorderShape(this.names[row], this.a[row]);
+          break;
+        default:
+          this.color(album, row, this.a[row]);
+          break;
+      }
+    } finally {
+      this.replaying = false;
+    }
+    this.undoable--;
+    this.redoable++;
+    return true;
+  }
+
+  /**
+   * Redoes the newest undone edit on an album. Nothing changes if the album rejects the redo.
+   * @param album IShapesPhotoAlbum album the edits were made on
+   * @return boolean false if there was nothing to redo
+   * @throws IllegalArgumentException if the album rejects the redo
+   */
+  public boolean redo(IShapesPhotoAlbum album) throws IllegalArgumentException {
+    if (this.redoable == 0) {
+      return false;
+    }
+    int row = this.row(this.undoable);
+    this.replaying = true;
+    try {
+      switch (this.kinds[row]) {
+        case MAKE:
+          this.make(album, row);
+          break;
+        case DELETE:
+          album.deleteShape(this.names[row]);
+          break;
+        case MOVE:
+          album.moveShape(this.names[row], this.c[row], this.d[row]);
+          break;
+        case RESIZE:
+          album.resizeShape(this.names[row], this.c[row], this.d[row]);
+          break;
+        case ORDER:
+          album.reorderShape(this.names[row], this.c[row]);
+          break;
+        default:
+          this.color(album, row, this.c[row]);
+          break;
+      }
+    } finally {
+      this.replaying = false;
+    }
+    this.undoable++;
+    this.redoable--;
+    return true;
+  }
+
+  /**
+   * Forgets the newest edits that can be undone, such as the edits of a rolled back
+   * transaction.
+   * @param count int number of edits
+   */
+  public void dropNewest(int count) {
+    this.undoable -= Math.min(count, this.undoable);
+    this.redoable = 0;
+  }
+
+  /**
+   * Returns the number of edits that can be undone.
+   * @return int
+   */
+  public int undoSize() {
+    return this.undoable;
+  }
+
+  /**
+   * Returns the number of edits that can be redone.
+   * @return int
+   */
+  public int redoSize() {
+    return this.redoable;
+  }
+
+  /**
+   * Returns the number of edits recorded so far, including the ones forgotten since.
+   * @return long
+   */
+  public long recorded() {
+    return this.recorded;
+  }
+
+  /**
+   * Packs a color into one 0xRRGGBB int.
+   * @param color RGB
+   * @return int
+   */
+  public static int packColor(RGB color) {
+    return color.getPacked();
+  }
+
+  /**
+   * Packs a color into one 0xRRGGBB int.
+   * @param r int r RGB value
+   * @param g int g RGB value
+   * @param b int b RGB value
+   * @return int
+   */
+  public static int packColor(int r, int g, int b) {
+    return (r << 16) | (g << 8) | b;
+  }
+
+  /**
+   * Helper method that records a make or delete.
+   * @param kind byte MAKE or DELETE
+   * @param type ShapeTypes type of shape
+   * @param name String name of shape
+   * @param length int length
+   * @param width int width
+   * @param x int x coordinate
+   * @param y int y coordinate
+   * @param color int packed 0xRRGGBB color
+   * @return int row, or -1 if the edit is not recorded
+   */
+  private int recordShape(byte kind, ShapeTypes type, String name, int length, int width,
+                          int x, int y, int color) {
+    int row = this.append(kind, name);
+    if (row >= 0) {
+      this.types[row] = (byte) type.ordinal();
+      this.a[row] = x;
+      this.b[row] = y;
+      this.c[row] = length;
+      this.d[row] = width;
+      this.e[row] = color;
+    }
+    return row;
+  }
+
+  /**
+   * Helper method that records a move, resize or color.
+   * @param kind byte MOVE, RESIZE, COLOR or ORDER
+   * @param name String name of shape
+   * @param beforeA int first field before
+   * @param beforeB int second field before
+   * @param afterA int first field after
+   * @param afterB int second field after
+   */
+  private void recordEdit(byte kind, String name, int beforeA, int beforeB, int afterA,
+                          int afterB) {
+    int row = this.append(kind, name);
+    if (row >= 0) {
+      this.a[row] = beforeA;
+      this.b[row] = beforeB;
+      this.c[row] = afterA;
+      this.d[row] = afterB;
+    }
+  }
+
+  /**
+   * Helper method that claims the row for a new edit, forgetting the edits that could be redone
+   * and, once the buffer is full, the oldest edit. Edits made while undoing or redoing are not
+   * recorded.
+   * @param kind byte kind of edit
+   * @param name String name of shape
+   * @return int row, or -1 if the edit is not recorded
+   */
+  private int append(byte kind, String name) {
+    if (this.replaying) {
+      return -1;
+    }
+    this.redoable = 0;
+    if (this.undoable == this.kinds.length) {
+      if (this.kinds.length < this.capacity) {
+        this.grow();
+      } else {
+        this.start = (this.start + 1) % this.kinds.length;
+        this.undoable--;
+      }
+    }
+    int row = this.row(this.undoable);
+    this.undoable++;
+    this.recorded++;
+    this.kinds[row] = kind;
+    this.names[row] = name;
+    return row;
+  }
+
+  /**
+   * Helper method that returns the row of the edit at a position counted from the oldest.
+   * @param position int position
+   * @return int row
+   */
+  private int row(int position) {
+    return (this.start + position) % this.kinds.length;
+  }
+
+  /**
+   * Helper method that grows every column up to the capacity. The buffer has not wrapped yet,
+   * so its rows are still in order from row 0.
+   */
+  private void grow() {
+    int rows = (int) Math.min(this.capacity, this.kinds.length * 2L);
+    this.kinds = Arrays.copyOf(this.kinds, rows);
+    this.types = Arrays.copyOf(this.types, rows);
+    this.names = Arrays.copyOf(this.names, rows);
+    this.a = Arrays.copyOf(this.a, rows);
+    this.b = Arrays.copyOf(this.b, rows);
+    this.c = Arrays.copyOf(this.c, rows);
+    this.d = Arrays.copyOf(this.d, rows);
+    this.e = Arrays.copyOf(this.e, rows);
+    this.f = Arrays.copyOf(this.f, rows);
+  }
+
+  /**
+   * Helper method that makes the shape held in a make or delete row.
+   * @param album IShapesPhotoAlbum
+   * @param row int row
+   */
+  private void make(IShapesPhotoAlbum album, int row) {
+    RGB rgb = RGB.of(this.e[row]);
+    album.makeShape(SHAPE_TYPES[this.types[row]].name(), this.names[row], this.c[row],
+            this.d[row], this.a[row], this.b[row], rgb.getR(), rgb.getG(), rgb.getB());
+  }
+
+  /**
+   * Helper method that colors the shape of a row.
+   * @param album IShapesPhotoAlbum
+   * @param row int row
+   * @param color int packed 0xRRGGBB color
+   */
+  private void color(IShapesPhotoAlbum album, int row, int color) {
+    RGB rgb = RGB.of(color);
+    album.colorShape(this.names[row], rgb.getR(), rgb.getG(), rgb.getB());
+  }
+}
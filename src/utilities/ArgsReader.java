@@ -14,6 +14,7 @@ public class ArgsReader {
   private String inputFile = null;
   private String output = null;
   private String viewType = null;
+  private String compiledFile = null;
   private int xmax = 1000; // default value
   private int ymax = 1000; // default value
   private List<String> argsList = new ArrayList<>();
@@ -49,6 +50,10 @@ public class ArgsReader {
       } else if (args[i].equalsIgnoreCase("-out")) {
         this.output = args[i + 1];
 
+        // Check -compile file
+      } else if (args[i].equalsIgnoreCase("-compile")) {
+        this.compiledFile = args[i + 1];
+
         // Check for xmax and ymax
       } else {
         try {
@@ -74,14 +79,17 @@ public class ArgsReader {
    * Checks that initialized arg variables are valid.
    */
   private void checkArgs() throws FileNotFoundException {
-    // Check input and view passed
-    if (inputFile == null || viewType == null) {
+    // Check input and view passed, no view needed to compile
+    if (inputFile == null || (viewType == null && compiledFile == null)) {
       throw new IllegalArgumentException("Input file and view file are required.");
     }
     // Check valid file path
     if (!Files.exists(Paths.get(this.inputFile))) {
       throw new FileNotFoundException("File could not be found.");
     }
+    if (viewType == null) {
+      return;
+    }
 
     // Check valid view type
     if (!viewType.equals("web") && !viewType.equals("graphical")) {
@@ -101,6 +109,7 @@ public class ArgsReader {
    * Index 2: -out file
    * Index 3: xmax
    * Index 4: ymax
+   * Index 5: -compile file, null unless compiling
    */
   private void makeArgsList() {
     this.argsList.add(this.inputFile);
@@ -108,6 +117,7 @@ public class ArgsReader {
     this.argsList.add(this.output);
     this.argsList.add(String.valueOf(this.xmax));
     this.argsList.add(String.valueOf(this.ymax));
+    this.argsList.add(this.compiledFile);
   }
 
   /**
@@ -1,63 +1,236 @@
 package utilities;
 
-import java.io.BufferedReader;
-import java.io.File;
-import java.io.FileReader;
 import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
-import java.util.Arrays;
+import java.util.Deque;
 import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.Consumer;
+import java.util.function.Function;
 
 /**
  * CommandFileReader class. Reads a file containing commands and creates a filtered
- * list of commands.
+ * list of commands. The file is read one line at a time as the commands are handed out, so
+ * forEachCommand() takes memory for a single line however long the file is. Only
+ * getCommandsList() keeps every command. Lines are split by a memory-mapped CommandTokenizer;
+ * forEachLine() hands it out as is, so callers can parse each line without building Strings.
+ * forEachParsed() splits large files into chunks that end at line boundaries and parses them on a
+ * fork-join pool, handing the results back in file order.
  */
 public class CommandFileReader {
-  private final List<List<String>> commandsList = new ArrayList<>();
+  public static final int DEFAULT_CHUNK_SIZE = 1 << 22;
+  private static final int CHUNKS_PER_THREAD = 2;
+  private static final int SCAN_SIZE = 8192;
+  private List<List<String>> commandsList = null; // read on first request
   private final String commandFile;
+  private final int chunkSize;
 
   /**
-   * Constructor.
+   * Constructor. The file is not read until its commands are requested.
    * @param commandFile takes a file and reads through the commands.
    */
   public CommandFileReader(String commandFile) {
+    this(commandFile, DEFAULT_CHUNK_SIZE);
+  }
+
+  /**
+   * Constructor. The file is not read until its commands are requested.
+   * @param commandFile takes a file and reads through the commands.
+   * @param chunkSize int bytes per chunk parsed in parallel, give or take a line
+   * @throws IllegalArgumentException if chunkSize is not positive
+   */
+  public CommandFileReader(String commandFile, int chunkSize) throws IllegalArgumentException {
+    if (chunkSize <= 0) {
+      throw new IllegalArgumentException("Chunk size must be positive.");
+    }
     this.commandFile = commandFile;
-    this.readFile();
+    this.chunkSize = chunkSize;
+  }
+
+  /**
+   * Reads commandFile and passes the tokenizer to an action at each command line. The tokenizer
+   * only holds the current line, so the action must read its tokens before returning. Empty and
+   * comment lines are skipped.
+   * @param action Consumer<CommandTokenizer> called once per command, in file order
+   * @return boolean false if the file could not be read to the end
+   */
+  public boolean forEachLine(Consumer<CommandTokenizer> action) {
+    // Use try-catch block in case file not found
+    try (CommandTokenizer tokenizer = new CommandTokenizer(Paths.get(this.commandFile))) {
+      // Read through lines in file
+      while (tokenizer.nextLine()) {
+        action.accept(tokenizer);
+      }
+      return true;
+      // Print error to terminal
+    } catch (IOException e) {
+      e.printStackTrace();
+      return false;
+    }
+  }
+
+  /**
+   * Reads commandFile and passes each command to an action as soon as its line is read, as a
+   * list of words. Empty and comment lines are skipped.
+   * @param action Consumer<List<String>> called once per command, in file order
+   */
+  public void forEachCommand(Consumer<List<String>> action) {
+    this.forEachLine(tokenizer -> {
+      // Make list of words per line
+      List<String> wordsList = new ArrayList<>(tokenizer.tokenCount());
+      for (int i = 0; i < tokenizer.tokenCount(); i++) {
+        wordsList.add(tokenizer.token(i));
+      }
+      action.accept(wordsList);
+    });
   }
 
   /**
-   * Reads commandFile and initializes commandList values.
+   * Parses each command line of commandFile with a parser on the common fork-join pool and
+   * passes the results to an action in file order. See forEachParsed(Function, Consumer,
+   * ForkJoinPool).
+   * @param parser Function<CommandTokenizer, T> parses the current line, or returns null to skip it
+   * @param action Consumer<T> called once per parsed command, in file order
+   * @param <T> type of a parsed command
+   * @return boolean false if the file could not be read to the end
    */
-  private void readFile() {
-    File file = new File(this.commandFile);
+  public <T> boolean forEachParsed(Function<CommandTokenizer, T> parser, Consumer<T> action) {
+    return this.forEachParsed(parser, action, ForkJoinPool.commonPool());
+  }
+
+  /**
+   * Parses each command line of commandFile with a parser and passes the results to an action
+   * in file order, on the calling thread. Files longer than one chunk are split into chunks that
+   * end after a newline, and each chunk is parsed by its own tokenizer on a pool, while the
+   * action runs through the chunks already parsed. At most two chunks per pool thread are parsed
+   * or waiting at once, so memory stays bounded however long the file is. The parser is called
+   * from pool threads and must not depend on lines other than its own.
+   * @param parser Function<CommandTokenizer, T> parses the current line, or returns null to skip it
+   * @param action Consumer<T> called once per parsed command, in file order
+   * @param pool ForkJoinPool pool to parse chunks on
+   * @param <T> type of a parsed command
+   * @return boolean false if the file could not be read to the end
+   */
+  public <T> boolean forEachParsed(Function<CommandTokenizer, T> parser, Consumer<T> action,
+                                   ForkJoinPool pool) {
+    Path path = Paths.get(this.commandFile);
+    Deque<ForkJoinTask<List<T>>> parsing = new ArrayDeque<>();
 
     // Use try-catch block in case file not found
-    try {
-      FileReader fileReader = new FileReader(file);
-      BufferedReader bufferedReader = new BufferedReader(fileReader);
-      String line;
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+      long size = channel.size();
+      if (size <= this.chunkSize || pool.getParallelism() == 1) {
+        // Not worth splitting, parse on this thread
+        return this.forEachLine(line -> {
+          T parsed = parser.apply(line);
+          if (parsed != null) {
+            action.accept(parsed);
+          }
+        });
+      }
 
-      // Read through lines in file
-      while ((line = bufferedReader.readLine()) != null) {
-        line = line.trim(); // gets rid of extra spaces
-        if (line.isEmpty() || line.startsWith("#")) {
-          continue; // skip empty or comment lines
+      long start = 0;
+      int most = CHUNKS_PER_THREAD * pool.getParallelism();
+      while (start < size || !parsing.isEmpty()) {
+        // Keep the pool busy with the next chunks
+        while (start < size && parsing.size() < most) {
+          long end = lineStart(channel, Math.min(start + this.chunkSize, size), size);
+          parsing.add(pool.submit(parseChunk(path, start, end, parser)));
+          start = end;
+        }
+
+        // Pass on the oldest chunk's commands
+        for (T parsed : parsing.remove().join()) {
+          action.accept(parsed);
         }
-        // Make list of words per line to go in commands list
-        List<String> wordsList = Arrays.asList(line.split("\\s+"));
-        this.commandsList.add(wordsList);
       }
+      return true;
       // Print error to terminal
-    } catch (IOException e) {
+    } catch (IOException | UncheckedIOException e) {
       e.printStackTrace();
+      return false;
+    } finally {
+      for (ForkJoinTask<List<T>> task : parsing) {
+        task.cancel(true);
+      }
     }
   }
 
   /**
-   * Getter method for commandsList.
+   * Helper method that builds the task parsing the command lines of one chunk.
+   * @param path Path command file
+   * @param start long file offset of the chunk
+   * @param end long file offset after the chunk
+   * @param parser Function<CommandTokenizer, T> parses the current line, or returns null
+   * @param <T> type of a parsed command
+   * @return Callable<List<T>></T>
+   */
+  private static <T> Callable<List<T>> parseChunk(Path path, long start, long end,
+                                                  Function<CommandTokenizer, T> parser) {
+    return () -> {
+      List<T> commands = new ArrayList<>();
+      try (CommandTokenizer tokenizer = new CommandTokenizer(path, start, end,
+              CommandTokenizer.DEFAULT_WINDOW_SIZE)) {
+        while (tokenizer.nextLine()) {
+          T parsed = parser.apply(tokenizer);
+          if (parsed != null) {
+            commands.add(parsed);
+          }
+        }
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+      return commands;
+    };
+  }
+
+  /**
+   * Helper method that finds where the line holding a file offset ends, which is where the
+   * next line starts.
+   * @param channel FileChannel command file
+   * @param offset long file offset
+   * @param size long file size
+   * @return long offset after the first newline at or after offset - 1, or size if there is none
+   * @throws IOException if the file cannot be read
+   */
+  private static long lineStart(FileChannel channel, long offset, long size) throws IOException {
+    ByteBuffer buffer = ByteBuffer.allocate(SCAN_SIZE);
+    long position = offset - 1;
+    while (position < size) {
+      buffer.clear();
+      int read = channel.read(buffer, position);
+      if (read <= 0) {
+        break;
+      }
+      for (int i = 0; i < read; i++) {
+        if (buffer.get(i) == '\n') {
+          return position + i + 1;
+        }
+      }
+      position += read;
+    }
+    return size;
+  }
+
+  /**
+   * Getter method for commandsList. Reads the whole file into memory the first time, so large
+   * files are better read with forEachCommand().
    * @return List<List<String>>
    */
   public List<List<String>> getCommandsList() {
+    if (this.commandsList == null) {
+      this.commandsList = new ArrayList<>();
+      this.forEachCommand(this.commandsList::add);
+    }
     return this.commandsList;
   }
 
@@ -0,0 +1,354 @@
+package utilities;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * CommandTokenizer class. Reads a command file through a memory-mapped FileChannel one line at a
+ * time and splits each line into whitespace separated tokens without copying it: a token is only
+ * a start and end offset into the mapped bytes. Integers are parsed straight from the bytes and
+ * keywords are compared in place, ignoring case. Names come from a small cache keyed by their
+ * bytes, so a name used by many commands is only turned into a String once. Empty lines and lines
+ * starting with # are skipped. The file is mapped in windows, so it can be longer than a single
+ * mapping allows, but no line can be longer than a window. Text is read as UTF-8. A tokenizer can
+ * also read just a range of the file that starts and ends at line boundaries, so several of them
+ * can split one file between threads.
+ */
+public class CommandTokenizer implements AutoCloseable {
+  public static final int DEFAULT_WINDOW_SIZE = 1 << 26;
+  private static final int NAME_CACHE_SIZE = 1024;
+  private static final int INITIAL_TOKENS = 16;
+  private final FileChannel channel;
+  private final long end; // file offset where reading stops
+  private final int windowSize;
+  private MappedByteBuffer window;
+  private long windowStart = 0; // file offset of the first byte in the window
+  private int position = 0; // window offset of the first unread byte
+  private int[] starts = new int[INITIAL_TOKENS];
+  private int[] ends = new int[INITIAL_TOKENS];
+  private int tokens = 0;
+  private final String[] names = new String[NAME_CACHE_SIZE];
+  private byte[] scratch = new byte[64];
+
+  /**
+   * Constructor. Maps the start of a file.
+   * @param file Path command file
+   * @throws IOException if the file cannot be opened or mapped
+   */
+  public CommandTokenizer(Path file) throws IOException {
+    this(file, DEFAULT_WINDOW_SIZE);
+  }
+
+  /**
+   * Constructor. Maps the start of a file, in windows of a given size.
+   * @param file Path command file
+   * @param windowSize int most bytes mapped at once, which is also the longest line allowed
+   * @throws IOException if the file cannot be opened or mapped
+   * @throws IllegalArgumentException if windowSize is not positive
+   */
+  public CommandTokenizer(Path file, int windowSize) throws IOException,
+          IllegalArgumentException {
+    this(file, 0, Long.MAX_VALUE, windowSize);
+  }
+
+  /**
+   * Constructor. Maps the start of a range of a file, in windows of a given size. The range
+   * should start at the start of a line and end after a newline or at the end of the file.
+   * @param file Path command file
+   * @param start long file offset of the first byte to read
+   * @param end long file offset after the last byte to read, cut to the file's size
+   * @param windowSize int most bytes mapped at once, which is also the longest line allowed
+   * @throws IOException if the file cannot be opened or mapped
+   * @throws IllegalArgumentException if windowSize is not positive or the range is negative
+   */
+  public CommandTokenizer(Path file, long start, long end, int windowSize) throws IOException,
+          IllegalArgumentException {
+    if (windowSize <= 0) {
+      throw new IllegalArgumentException("Window size must be positive.");
+    }
+    if (start < 0 || end < start) {
+      throw new IllegalArgumentException("Invalid range of file.");
+    }
+    this.windowSize = windowSize;
+    this.channel = FileChannel.open(file, StandardOpenOption.READ);
+    try {
+      this.end = Math.min(end, this.channel.size());
+      this.map(Math.min(start, this.end));
+    } catch (IOException e) {
+      this.channel.close();
+      throw e;
+    }
+  }
+
+  /**
+   * Moves to the next line holding a command.
+   * @return boolean false once the file has no more commands
+   * @throws IOException if the file cannot be mapped or a line is longer than a window
+   */
+  public boolean nextLine() throws IOException {
+    while (true) {
+      int limit = this.window.limit();
+      if (this.position >= limit) {
+        if (this.windowStart + limit >= this.end) {
+          this.tokens = 0;
+          return false;
+        }
+        this.map(this.windowStart + limit);
+        continue;
+      }
+
+      int lineStart = this.position;
+      int lineEnd = this.scanLine(lineStart, limit);
+      if (lineEnd == limit && this.windowStart + limit < this.end) {
+        // Line runs past the window, so map the next window from the start of the line
+        if (lineStart == 0) {
+          throw new IOException("Line longer than " + this.windowSize + " bytes at offset "
+                  + this.windowStart + ".");
+        }
+        this.map(this.windowStart + lineStart);
+        continue;
+      }
+      this.position = lineEnd + 1;
+      if (this.tokens > 0 && this.window.get(this.starts[0]) != '#') {
+        return true;
+      }
+    }
+  }
+
+  /**
+   * Returns the number of tokens on the current line.
+   * @return int
+   */
+  public int tokenCount() {
+    return this.tokens;
+  }
+
+  /**
+   * Returns whether a token is a keyword, ignoring case. Compares the mapped bytes in place.
+   * @param index int token position on the line
+   * @param keyword String ASCII keyword
+   * @return boolean
+   * @throws IndexOutOfBoundsException if the line has no such token
+   */
+  public boolean isToken(int index, String keyword) throws IndexOutOfBoundsException {
+    this.checkIndex(index);
+    int start = this.starts[index];
+    int length = this.ends[index] - start;
+    if (length != keyword.length()) {
+      return false;
+    }
+    for (int i = 0; i < length; i++) {
+      int b = this.window.get(start + i);
+      int c = keyword.charAt(i);
+      if (b != c) {
+        // Only letters match their other case
+        int lower = c | 0x20;
+        if (lower < 'a' || lower > 'z' || (b | 0x20) != lower) {
+          return false;
+        }
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Parses a token as a base 10 int, with an optional sign, without building a String.
+   * @param index int token position on the line
+   * @return int
+   * @throws NumberFormatException if the token is not an int
+   * @throws IndexOutOfBoundsException if the line has no such token
+   */
+  public int intToken(int index) throws NumberFormatException, IndexOutOfBoundsException {
+    this.checkIndex(index);
+    int i = this.starts[index];
+    int end = this.ends[index];
+    byte first = this.window.get(i);
+    boolean negative = first == '-';
+    if (negative || first == '+') {
+      i++;
+    }
+    if (i == end) {
+      throw this.notAnInt(index);
+    }
+    long value = 0;
+    for (; i < end; i++) {
+      int digit = this.window.get(i) - '0';
+      if (digit < 0 || digit > 9) {
+        throw this.notAnInt(index);
+      }
+      value = value * 10 + digit;
+      if (value > (long) Integer.MAX_VALUE + 1) {
+        throw this.notAnInt(index);
+      }
+    }
+    if (!negative && value > Integer.MAX_VALUE) {
+      throw this.notAnInt(index);
+    }
+    return (int) (negative ? -value : value);
+  }
+
+  /**
+   * Returns a token as a String. ASCII tokens are kept in a small cache keyed by their bytes, so
+   * a name repeated across lines is usually handed out again instead of decoded again.
+   * @param index int token position on the line
+   * @return String
+   * @throws IndexOutOfBoundsException if the line has no such token
+   */
+  public String token(int index) throws IndexOutOfBoundsException {
+    this.checkIndex(index);
+    int start = this.starts[index];
+    int length = this.ends[index] - start;
+    int hash = 0;
+    boolean ascii = true;
+    for (int i = 0; i < length; i++) {
+      byte b = this.window.get(start + i);
+      hash = 31 * hash + b;
+      ascii &= b >= 0;
+    }
+    if (!ascii) {
+      return this.decode(start, length);
+    }
+
+    int slot = (hash ^ (hash >>> 16)) & (NAME_CACHE_SIZE - 1);
+    String cached = this.names[slot];
+    if (cached != null && this.matches(cached, start, length)) {
+      return cached;
+    }
+    String name = this.decode(start, length);
+    this.names[slot] = name;
+    return name;
+  }
+
+  /**
+   * Closes the file. Mapped windows are let go once they are garbage collected.
+   * @throws IOException if the file cannot be closed
+   */
+  @Override
+  public void close() throws IOException {
+    this.channel.close();
+  }
+
+  /**
+   * Helper method that maps the window starting at a file offset.
+   * @param start long file offset
+   * @throws IOException if the file cannot be mapped
+   */
+  private void map(long start) throws IOException {
+    long size = Math.min(this.windowSize, this.end - start);
+    this.window = this.channel.map(FileChannel.MapMode.READ_ONLY, start, size);
+    this.windowStart = start;
+    this.position = 0;
+  }
+
+  /**
+   * Helper method that records the tokens of the line starting at a window offset.
+   * @param start int window offset of the line
+   * @param limit int end of the window
+   * @return int window offset of the line's newline, or limit if the window ends first
+   */
+  private int scanLine(int start, int limit) {
+    this.tokens = 0;
+    int i = start;
+    while (i < limit) {
+      byte b = this.window.get(i);
+      if (b == '\n') {
+        return i;
+      }
+      if (isSpace(b)) {
+        i++;
+        continue;
+      }
+      int tokenStart = i;
+      while (i < limit && (b = this.window.get(i)) != '\n' && !isSpace(b)) {
+        i++;
+      }
+      this.addToken(tokenStart, i);
+    }
+    return limit;
+  }
+
+  /**
+   * Helper method that appends a token to the current line.
+   * @param start int window offset of the first byte
+   * @param end int window offset after the last byte
+   */
+  private void addToken(int start, int end) {
+    if (this.tokens == this.starts.length) {
+      this.starts = Arrays.copyOf(this.starts, this.tokens * 2);
+      this.ends = Arrays.copyOf(this.ends, this.tokens * 2);
+    }
+    this.starts[this.tokens] = start;
+    this.ends[this.tokens] = end;
+    this.tokens++;
+  }
+
+  /**
+   * Helper method that checks a token exists on the current line.
+   * @param index int token position
+   * @throws IndexOutOfBoundsException if the line has no such token
+   */
+  private void checkIndex(int index) throws IndexOutOfBoundsException {
+    if (index < 0 || index >= this.tokens) {
+      throw new IndexOutOfBoundsException("Index " + index + " out of bounds for length "
+              + this.tokens);
+    }
+  }
+
+  /**
+   * Helper method that decodes bytes of the window as UTF-8.
+   * @param start int window offset
+   * @param length int number of bytes
+   * @return String
+   */
+  private String decode(int start, int length) {
+    if (length > this.scratch.length) {
+      this.scratch = new byte[Math.max(length, this.scratch.length * 2)];
+    }
+    this.window.get(start, this.scratch, 0, length);
+    return new String(this.scratch, 0, length, StandardCharsets.UTF_8);
+  }
+
+  /**
+   * Helper method that checks whether an ASCII String holds the same characters as bytes of the
+   * window.
+   * @param text String
+   * @param start int window offset
+   * @param length int number of bytes
+   * @return boolean
+   */
+  private boolean matches(String text, int start, int length) {
+    if (text.length() != length) {
+      return false;
+    }
+    for (int i = 0; i < length; i++) {
+      if (text.charAt(i) != this.window.get(start + i)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Helper method that builds the error for a token that is not an int, worded like
+   * Integer.parseInt's.
+   * @param index int token position
+   * @return NumberFormatException
+   */
+  private NumberFormatException notAnInt(int index) {
+    return new NumberFormatException("For input string: \"" + this.token(index) + "\"");
+  }
+
+  /**
+   * Helper method that checks whether a byte separates tokens, like \s in a regular expression.
+   * @param b byte
+   * @return boolean
+   */
+  private static boolean isSpace(byte b) {
+    return b == ' ' || b == '\t' || b == '\r' || b == '\f' || b == 0x0B;
+  }
+}
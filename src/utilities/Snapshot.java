@@ -1,22 +1,26 @@
 package utilities;
 
 import java.util.List;
+import java.util.function.Supplier;
 
 import utilities.shapes.I2DShape;
 
 import java.sql.Timestamp;
 import java.util.Date;
-import java.util.Random;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Snapshot concrete class. Create Snapshot objects that hold I2DShapes on a canvas at a
  * given timestamp.
  */
 public class Snapshot {
+  private static final AtomicLong SEQUENCE = new AtomicLong();
   private String id;
   private String timestamp;
   private String description;
   private List<I2DShape> shapes;
+  private Supplier<List<I2DShape>> shapesSource;
+  private Snapshot original = null;
 
   /**
    * Constructor.
@@ -31,12 +35,45 @@ public class Snapshot {
 
     this.shapes = shapes;
     this.description = description;
+    this.makeID();
+  }
+
+  /**
+   * Constructor for snapshots whose shapes are rebuilt each time they are requested instead of
+   * being held by the snapshot.
+   * @param description String description of snapshot
+   * @param shapesSource Supplier<List<I2DShape>> that rebuilds the list of shapes
+   */
+  public Snapshot(String description, Supplier<List<I2DShape>> shapesSource) {
+    this.shapesSource = shapesSource;
+    this.description = description;
+    this.makeID();
+  }
+
+  /**
+   * Constructor for snapshots of the same shapes as an earlier snapshot, which share that
+   * snapshot's shapes instead of holding their own.
+   * @param description String description of snapshot
+   * @param original Snapshot earlier snapshot with the same shapes
+   */
+  public Snapshot(String description, Snapshot original) {
+    this.shapes = original.shapes;
+    this.shapesSource = original.shapesSource;
+    this.original = original.getOriginal();
+    this.description = description;
+    this.makeID();
+  }
 
+  /**
+   * Helper method that creates the snapshot ID and timestamp. The ID ends in a sequence number,
+   * so no two snapshots get the same ID even when taken in the same millisecond.
+   */
+  private void makeID() {
     // Create ID and timestamp
     Date date = new Date();
 
     this.id = new Timestamp(date.getTime()).toString() + "-"
-            + String.valueOf((new Random()).nextInt(26));
+            + SEQUENCE.incrementAndGet();
     this.timestamp = this.id.substring(0, 19); // timestamp up to second
   }
 
@@ -57,13 +94,26 @@ public class Snapshot {
   }
 
   /**
-   * Returns a list of the shapes contained within the Snapshot object.
-   * @return
+   * Returns a list of the shapes contained within the Snapshot object. Shapes are immutable, so
+   * snapshots taken by the album share unchanged shapes with each other and with the album.
+   * @return List<I2DShape></I2DShape>
    */
   public List<I2DShape> getShapes() {
+    if (this.shapes == null) {
+      return this.shapesSource.get();
+    }
     return this.shapes;
   }
 
+  /**
+   * Returns the first snapshot holding the shapes this snapshot shares, or this snapshot if it
+   * holds its own. Snapshots with the same original have the same shapes.
+   * @return Snapshot
+   */
+  public Snapshot getOriginal() {
+    return this.original == null ? this : this.original;
+  }
+
   /**
    * toString method.
    * @return String
@@ -73,7 +123,7 @@ public class Snapshot {
     String text = "Snapshot ID: " + this.id + "\nTimestamp: "
             + this.timestamp + "\nDescription: " + this.description
             + "\nShape Information:\n\n";
-    for (I2DShape shape : this.shapes) {
+    for (I2DShape shape : this.getShapes()) {
       text += shape.toString() + "\n\n";
     }
     return text;
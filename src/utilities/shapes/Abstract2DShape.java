@@ -2,14 +2,17 @@ package utilities.shapes;
 
 /**
  * Abstract2DShape class. Creates abstract 2 dimensional shapes with length and width, a given name,
- * coordinates on a canvas, color on RGB color scale.
+ * coordinates on a canvas, color on RGB color scale. Shapes are immutable: moving, coloring or
+ * resizing one returns a new shape, so shapes can be shared between albums, snapshots and views
+ * without copying.
  */
 public abstract class Abstract2DShape implements I2DShape {
-  private String name;
-  private CanvasPoint coordinates;
-  private RGB rgb;
-  private int length;
-  private int width;
+  private final String name;
+  private final int x;
+  private final int y;
+  private final RGB rgb;
+  private final int length;
+  private final int width;
 
   /**
    * Constructor.
@@ -25,6 +28,21 @@ public abstract class Abstract2DShape implements I2DShape {
    */
   public Abstract2DShape(String name, int length, int width, int x, int y, int r,
                          int g, int b) throws IllegalArgumentException{
+    this(name, length, width, x, y, RGB.of(r, g, b));
+  }
+
+  /**
+   * Constructor for shapes that take a color from the palette.
+   * @param name String shape name
+   * @param length int shape length
+   * @param width int shaped width
+   * @param x int x coordinate
+   * @param y int y coordiante
+   * @param rgb RGB color
+   * @throws IllegalArgumentException if invalid name or dimensions
+   */
+  protected Abstract2DShape(String name, int length, int width, int x, int y, RGB rgb)
+          throws IllegalArgumentException {
     if (name == null || name.isBlank()) {
       throw new IllegalArgumentException("Name must be provided.");
     }
@@ -34,20 +52,32 @@ public abstract class Abstract2DShape implements I2DShape {
     this.name = name;
     this.length = length;
     this.width = width;
-    this.coordinates = new CanvasPoint(x, y);
-    this.rgb = new RGB(r, g, b);
+    this.x = x;
+    this.y = y;
+    this.rgb = rgb;
   }
 
   /**
-   * Moves the x and y coordinates of a shape.
+   * Returns a shape of the same type and name with the given dimensions, coordinates and color.
+   * @param length int length
+   * @param width int width
+   * @param x int x coordinate
+   * @param y int y coordinate
+   * @param rgb RGB color
+   * @return I2DShape new shape
+   */
+  protected abstract I2DShape copyWith(int length, int width, int x, int y, RGB rgb);
+
+  /**
+   * Returns this shape moved to new x and y coordinates.
    *
    * @param x int new x coordinate
    * @param y int new y coordinate
+   * @return I2DShape new shape
    */
   @Override
-  public void move(int x, int y) {
-    this.coordinates.setX(x);
-    this.coordinates.setY(y);
+  public I2DShape move(int x, int y) {
+    return this.copyWith(this.length, this.width, x, y, this.rgb);
   }
 
   /**
@@ -57,7 +87,7 @@ public abstract class Abstract2DShape implements I2DShape {
    */
   @Override
   public int getX() {
-    return this.coordinates.getX();
+    return this.x;
   }
 
   /**
@@ -67,7 +97,7 @@ public abstract class Abstract2DShape implements I2DShape {
    */
   @Override
   public int getY() {
-    return this.coordinates.getY();
+    return this.y;
   }
 
   /**
@@ -97,7 +127,7 @@ public abstract class Abstract2DShape implements I2DShape {
    */
   @Override
   public CanvasPoint getCoordinates() {
-    return this.coordinates;
+    return new CanvasPoint(this.x, this.y);
   }
 
   /**
@@ -121,40 +151,32 @@ public abstract class Abstract2DShape implements I2DShape {
   }
 
   /**
-   * Sets a new length size for the shape.
+   * Returns this shape with a new length and width.
    *
    * @param length int new length
-   */
-  @Override
-  public void setLength(int length) throws IllegalArgumentException {
-    if (length <= 0) {
-      throw new IllegalArgumentException("Invalid length");
-    }
-    this.length = length;
-  }
-
-  /**
-   * Sets a new width size for the shape.
-   *
    * @param width int new width
+   * @return I2DShape new shape
+   * @throws IllegalArgumentException if invalid length or width
    */
   @Override
-  public void setWidth(int width) throws IllegalArgumentException {
-    if (width <= 0) {
-      throw new IllegalArgumentException("Invalid width");
+  public I2DShape resize(int length, int width) throws IllegalArgumentException {
+    if (length <= 0 || width <= 0) {
+      throw new IllegalArgumentException("Invalid length or width.");
     }
-    this.width = width;
+    return this.copyWith(length, width, this.x, this.y, this.rgb);
   }
 
   /**
-   * Sets a new color for the shape.
+   * Returns this shape with a new color, taken from the shared palette.
    *
    * @param r int r RGB value
    * @param g int g RGB value
    * @param b int b RGB value
+   * @return I2DShape new shape
+   * @throws IllegalArgumentException if RGB values out of range
    */
   @Override
-  public void setColor(int r, int g, int b) {
-    this.rgb.setRGB(r, g, b);
+  public I2DShape setColor(int r, int g, int b) throws IllegalArgumentException {
+    return this.copyWith(this.length, this.width, this.x, this.y, RGB.of(r, g, b));
   }
 }
@@ -1,7 +1,8 @@
 package utilities.shapes;
 
 /**
- * I2DShape interface for creating 2 dimensional shape objects.
+ * I2DShape interface for creating 2 dimensional shape objects. Shapes are immutable values, so
+ * edits return a new shape.
  */
 public interface I2DShape {
 
@@ -47,37 +48,29 @@ public interface I2DShape {
    */
   CanvasPoint getCoordinates();
   /**
-   * Moves the x and y coordinates of a shape.
+   * Returns this shape moved to new x and y coordinates. The shape itself is unchanged.
    * @param x int new x coordinate
    * @param y int new y coordinate
+   * @return I2DShape new shape
    */
-  void move(int x, int y);
+  I2DShape move(int x, int y);
 
   /**
-   * Sets a new color for the shape.
+   * Returns this shape with a new color. The shape itself is unchanged.
    * @param r int r RGB value
    * @param g int g RGB value
    * @param b int b RGB value
+   * @return I2DShape new shape
    */
-  void setColor(int r, int g, int b);
+  I2DShape setColor(int r, int g, int b);
 
   /**
-   * Sets a new length size for the shape.
+   * Returns this shape with a new length and width. The shape itself is unchanged.
    * @param length int new length
-   */
-  void setLength(int length);
-
-  /**
-   * Sets a new width size for the shape.
    * @param width int new width
+   * @return I2DShape new shape
    */
-  void setWidth(int width);
-
-  /**
-   * Makes a deep copy of the shape.
-   * @return <T>
-   */
-  <T> T makeCopy();
+  I2DShape resize(int length, int width);
 
   /**
    * Returns the type of shape.
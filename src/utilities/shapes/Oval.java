@@ -6,7 +6,7 @@ import java.util.Objects;
  * Oval shape class. Creates a type of I2DShape that can behave as an oval or a circle depending on
  * the passed dimensions.
  */
-public class Oval extends Abstract2DShape {
+public final class Oval extends Abstract2DShape {
   /**
    * Default constructor.
    */
@@ -30,22 +30,30 @@ public class Oval extends Abstract2DShape {
   }
 
   /**
-   * Copy constructor.
-   * @param other Oval object
+   * Constructor for shapes that take a color from the palette.
+   * @param name String shape name
+   * @param length int shape length
+   * @param width int shaped width
+   * @param x int x coordinate
+   * @param y int y coordiante
+   * @param rgb RGB color
    */
-  public Oval(Oval other) {
-    super(other.getName(), other.getLength(), other.getWidth(), other.getX(), other.getY(),
-            other.getRGB().getR(), other.getRGB().getG(), other.getRGB().getB());
+  private Oval(String name, int length, int width, int x, int y, RGB rgb) {
+    super(name, length, width, x, y, rgb);
   }
 
   /**
-   * Makes a deep copy of the shape.
-   *
-   * @return I2DShape
+   * Returns a Oval with the same name and the given dimensions, coordinates and color.
+   * @param length int length
+   * @param width int width
+   * @param x int x coordinate
+   * @param y int y coordinate
+   * @param rgb RGB color
+   * @return Oval
    */
   @Override
-  public Oval makeCopy() {
-    return new Oval(this);
+  protected Oval copyWith(int length, int width, int x, int y, RGB rgb) {
+    return new Oval(super.getName(), length, width, x, y, rgb);
   }
 
   /**
@@ -68,7 +76,7 @@ public class Oval extends Abstract2DShape {
   @Override
   public int hashCode() {
     return Objects.hash(super.getName(), this.getClass(), super.getLength(),
-            super.getWidth(), super.getCoordinates(), super.getRGB());
+            super.getWidth(), super.getX(), super.getY(), super.getRGB());
   }
 
   /**
@@ -89,7 +97,8 @@ public class Oval extends Abstract2DShape {
     if (this.getName().equals(otherOval.getName())
             && this.getLength() == otherOval.getLength()
             && this.getWidth() == otherOval.getWidth()
-            && this.getCoordinates().equals(otherOval.getCoordinates())
+            && this.getX() == otherOval.getX()
+            && this.getY() == otherOval.getY()
             && this.getRGB().equals(otherOval.getRGB())) {
       return true;
     }
@@ -1,39 +1,83 @@
 package utilities.shapes;
 
-import java.util.Objects;
-
 /**
- * RGB class, holds values on RGB color scale to represent colors.
+ * RGB class, holds values on RGB color scale to represent colors. Colors are immutable and kept
+ * as one packed 0xRRGGBB int, so shapes get them from a shared palette through of() and swap
+ * them when recolored instead of each holding its own copy.
  */
 public class RGB {
   private static final int MAX = 255;
   private static final int MIN = 0;
-  private int r;
-  private int g;
-  private int b;
+  // Palette pages of 256 colors, indexed by the red and green values of the packed color
+  private static final RGB[][] PALETTE = new RGB[1 << 16][];
+  private final int rgb;
 
   /**
-   * Constructor.
+   * Constructor. Only the palette makes colors, so every color has one shared instance; use
+   * of() to get it.
+   * @param rgb int packed 0xRRGGBB color, already checked
+   */
+  private RGB(int rgb) {
+    this.rgb = rgb;
+  }
+
+  /**
+   * Returns the shared instance of a color, adding it to the palette the first time it is used.
    * @param r int red value
    * @param g int green value
    * @param b int blue value
-   * @throws IllegalArgumentException if RGB values out of bounds
+   * @return RGB
+   * @throws IllegalArgumentException if RGB values out of range
+   */
+  public static RGB of(int r, int g, int b) throws IllegalArgumentException {
+    checkRGB(r, g, b);
+    return of((r << 16) | (g << 8) | b);
+  }
+
+  /**
+   * Returns the shared instance of a packed color, adding it to the palette the first time it
+   * is used.
+   * @param rgb int packed 0xRRGGBB color
+   * @return RGB
+   * @throws IllegalArgumentException if the color has bits above 0xFFFFFF
+   */
+  public static RGB of(int rgb) throws IllegalArgumentException {
+    if ((rgb & ~0xFFFFFF) != 0) {
+      throw new IllegalArgumentException("Not valid packed RGB color.");
+    }
+    RGB[] page = PALETTE[rgb >>> 8];
+    if (page != null && page[rgb & 0xFF] != null) {
+      return page[rgb & 0xFF];
+    }
+    return intern(rgb);
+  }
+
+  /**
+   * Helper method that adds a color to the palette, unless another thread added it first, so
+   * every color has exactly one shared instance.
+   * @param rgb int packed 0xRRGGBB color
+   * @return RGB
    */
-  public RGB(int r, int g, int b) throws IllegalArgumentException {
-    this.checkRGB(r, g, b); // check valid values
-    this.r = r;
-    this.g = g;
-    this.b = b;
+  private static synchronized RGB intern(int rgb) {
+    RGB[] page = PALETTE[rgb >>> 8];
+    if (page == null) {
+      page = new RGB[1 << 8];
+      PALETTE[rgb >>> 8] = page;
+    }
+    if (page[rgb & 0xFF] == null) {
+      page[rgb & 0xFF] = new RGB(rgb);
+    }
+    return page[rgb & 0xFF];
   }
 
   /**
-   * Helper method to check for correct RGB values.
+   * Checks for correct RGB values.
    * @param r int red value
    * @param g int green value
    * @param b int blue value
    * @throws IllegalArgumentException if RGB values out of range
    */
-  private void checkRGB(int r, int g, int b)  throws IllegalArgumentException {
+  public static void checkRGB(int r, int g, int b)  throws IllegalArgumentException {
     if (r < MIN || r > MAX) {
       throw new IllegalArgumentException("Not valid RGB number, range 0 to 255.");
     }
@@ -50,7 +94,7 @@ public class RGB {
    * @return int
    */
   public int getR() {
-    return this.r;
+    return (this.rgb >>> 16) & 0xFF;
   }
 
   /**
@@ -58,7 +102,7 @@ public class RGB {
    * @return int
    */
   public int getG() {
-    return this.g;
+    return (this.rgb >>> 8) & 0xFF;
   }
 
   /**
@@ -66,20 +110,15 @@ public class RGB {
    * @return int
    */
   public int getB() {
-    return this.b;
+    return this.rgb & 0xFF;
   }
+
   /**
-   * Setter method for RBG values.
-   * @param r int red value
-   * @param g int green value
-   * @param b int blue value
-   * @throws IllegalArgumentException if RGB values out of range
+   * Getter method for the packed color.
+   * @return int packed 0xRRGGBB color
    */
-  public void setRGB(int r, int g, int b) throws IllegalArgumentException {
-    this.checkRGB(r, g, b); // check valid RGB values
-    this.r = r;
-    this.g = g;
-    this.b = b;
+  public int getPacked() {
+    return this.rgb;
   }
 
   /**
@@ -88,7 +127,7 @@ public class RGB {
    */
   @Override
   public String toString() {
-    return "(" + this.r + ", " + this.g + ", " + this.b + ")";
+    return "(" + this.getR() + ", " + this.getG() + ", " + this.getB() + ")";
   }
 
   /**
@@ -97,7 +136,7 @@ public class RGB {
    */
   @Override
   public int hashCode() {
-    return Objects.hash(this.r, this.g, this.b);
+    return this.rgb;
   }
 
   /**
@@ -114,12 +153,7 @@ public class RGB {
       return false;
     }
 
-    RGB otherRGB = (RGB)other;
-    if (this.r == otherRGB.r && this.g == otherRGB.g && this.b == otherRGB.b) {
-      return true;
-    }
-    return false;
+    return this.rgb == ((RGB) other).rgb;
   }
 
 }
-
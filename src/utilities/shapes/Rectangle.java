@@ -6,7 +6,7 @@ import java.util.Objects;
  * Rectangle shape class. Creates a type of I2DShape that can behave as a rectangle or
  * a square depending on the passed dimensions.
  */
-public class Rectangle extends Abstract2DShape {
+public final class Rectangle extends Abstract2DShape {
   /**
    * Default constructor.
    */
@@ -30,22 +30,30 @@ public class Rectangle extends Abstract2DShape {
   }
 
   /**
-   * Copy constructor.
-   * @param other Rectangle object
+   * Constructor for shapes that take a color from the palette.
+   * @param name String shape name
+   * @param length int shape length
+   * @param width int shaped width
+   * @param x int x coordinate
+   * @param y int y coordiante
+   * @param rgb RGB color
    */
-  public Rectangle(Rectangle other) {
-    super(other.getName(), other.getLength(), other.getWidth(), other.getX(), other.getY(),
-            other.getRGB().getR(), other.getRGB().getG(), other.getRGB().getB());
+  private Rectangle(String name, int length, int width, int x, int y, RGB rgb) {
+    super(name, length, width, x, y, rgb);
   }
 
   /**
-   * Makes a deep copy of the shape.
-   *
+   * Returns a Rectangle with the same name and the given dimensions, coordinates and color.
+   * @param length int length
+   * @param width int width
+   * @param x int x coordinate
+   * @param y int y coordinate
+   * @param rgb RGB color
    * @return Rectangle
    */
   @Override
-  public Rectangle makeCopy() {
-    return new Rectangle(this);
+  protected Rectangle copyWith(int length, int width, int x, int y, RGB rgb) {
+    return new Rectangle(super.getName(), length, width, x, y, rgb);
   }
 
   /**
@@ -68,7 +76,7 @@ public class Rectangle extends Abstract2DShape {
   @Override
   public int hashCode() {
     return Objects.hash(super.getName(), this.getClass(), super.getLength(),
-            super.getWidth(), super.getCoordinates(), super.getRGB());
+            super.getWidth(), super.getX(), super.getY(), super.getRGB());
   }
 
   /**
@@ -89,7 +97,8 @@ public class Rectangle extends Abstract2DShape {
     if (this.getName().equals(otherRectangle.getName())
             && this.getLength() == otherRectangle.getLength()
             && this.getWidth() == otherRectangle.getWidth()
-            && this.getCoordinates().equals(otherRectangle.getCoordinates())
+            && this.getX() == otherRectangle.getX()
+            && this.getY() == otherRectangle.getY()
             && this.getRGB().equals(otherRectangle.getRGB())) {
       return true;
     }
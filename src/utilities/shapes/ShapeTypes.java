@@ -4,5 +4,21 @@ public enum ShapeTypes {
   RECTANGLE,
   OVAL,
   TRIANGLE;
-}
 
+  private static final ShapeTypes[] TYPES = values();
+
+  /**
+   * Returns the shape type with the given name, ignoring case, or null if there is none. Does not
+   * allocate.
+   * @param name String shape type name
+   * @return ShapeTypes or null
+   */
+  public static ShapeTypes fromName(String name) {
+    for (ShapeTypes type : TYPES) {
+      if (type.name().equalsIgnoreCase(name)) {
+        return type;
+      }
+    }
+    return null;
+  }
+}
@@ -5,7 +5,7 @@ import java.util.Objects;
 /**
  * Triangle shape class. Creates a type of I2DShape that can behave as a triangle.
  */
-public class Triangle extends Abstract2DShape {
+public final class Triangle extends Abstract2DShape {
   /**
    * Default constructor.
    */
@@ -30,22 +30,30 @@ public class Triangle extends Abstract2DShape {
   }
 
   /**
-   * Copy constructor.
-   * @param other Triangle object
+   * Constructor for shapes that take a color from the palette.
+   * @param name String shape name
+   * @param length int shape length
+   * @param width int shaped width
+   * @param x int x coordinate
+   * @param y int y coordiante
+   * @param rgb RGB color
    */
-  public Triangle(Triangle other) {
-    super(other.getName(), other.getLength(), other.getWidth(), other.getX(), other.getY(),
-            other.getRGB().getR(), other.getRGB().getG(), other.getRGB().getB());
+  private Triangle(String name, int length, int width, int x, int y, RGB rgb) {
+    super(name, length, width, x, y, rgb);
   }
 
   /**
-   * Makes a deep copy of the shape.
-   *
+   * Returns a Triangle with the same name and the given dimensions, coordinates and color.
+   * @param length int length
+   * @param width int width
+   * @param x int x coordinate
+   * @param y int y coordinate
+   * @param rgb RGB color
    * @return Triangle
    */
   @Override
-  public Triangle makeCopy() {
-    return new Triangle(this);
+  protected Triangle copyWith(int length, int width, int x, int y, RGB rgb) {
+    return new Triangle(super.getName(), length, width, x, y, rgb);
   }
 
   /**
@@ -68,7 +76,7 @@ public class Triangle extends Abstract2DShape {
   @Override
   public int hashCode() {
     return Objects.hash(super.getName(), this.getClass(), super.getLength(),
-            super.getWidth(), super.getCoordinates(), super.getRGB());
+            super.getWidth(), super.getX(), super.getY(), super.getRGB());
   }
 
   /**
@@ -89,7 +97,8 @@ public class Triangle extends Abstract2DShape {
     if (this.getName().equals(otherTriangle.getName())
             && this.getLength() == otherTriangle.getLength()
             && this.getWidth() == otherTriangle.getWidth()
-            && this.getCoordinates().equals(otherTriangle.getCoordinates())
+            && this.getX() == otherTriangle.getX()
+            && this.getY() == otherTriangle.getY()
             && this.getRGB().equals(otherTriangle.getRGB())) {
       return true;
     }
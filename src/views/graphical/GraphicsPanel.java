@@ -5,6 +5,7 @@ import java.util.List;
 
 import javax.swing.JPanel;
 
+import model.OcclusionCuller;
 import utilities.shapes.I2DShape;
 import utilities.shapes.RGB;
 import utilities.shapes.ShapeTypes;
@@ -16,6 +17,7 @@ import utilities.Snapshot;
  */
 public class GraphicsPanel extends JPanel {
   private Snapshot snapshot;
+  private List<I2DShape> visibleShapes;
   private int width = 700;
   private int height = 700;
 
@@ -30,11 +32,13 @@ public class GraphicsPanel extends JPanel {
   /**
    * Method called by controller when rendering shape images. Takes a Snapshot object passed by
    * controller from model and initializes a snapshot attribute that represents the
-   * snapshot to be drawn by the paintComponent method.
+   * snapshot to be drawn by the paintComponent method. Shapes hidden under later rectangles are
+   * left out once here instead of being painted on every repaint.
    * @param snapshot Snapshot object
    */
   public void paintSnapshot(Snapshot snapshot) {
     this.snapshot = snapshot;
+    this.visibleShapes = OcclusionCuller.visibleShapes(snapshot.getShapes());
     Graphics2D g = (Graphics2D) getGraphics();
     repaint();
   }
@@ -53,8 +57,8 @@ public class GraphicsPanel extends JPanel {
       return;
     }
 
-    // Get list of shapes within snapshot and draw
-      List<I2DShape> shapes = this.snapshot.getShapes();
+    // Get list of visible shapes within snapshot and draw
+      List<I2DShape> shapes = this.visibleShapes;
       for(I2DShape shape : shapes) {
         RGB rgb = shape.getRGB();
         g.setPaint(new Color(rgb.getR(), rgb.getG(), rgb.getB()));
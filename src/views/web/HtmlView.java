@@ -45,6 +45,7 @@ public class HtmlView implements IView {
   private boolean isClosed = false;
   private String html_string;
   private String out_file;
+  private int pageStart = 0; // where the shapes of the open page start in html_string
 
   /**
    * Constructor. Initializes a string with a html header.
@@ -69,6 +70,24 @@ public class HtmlView implements IView {
    */
   public void openPage(String title) {
     this.html_string += divTemplate[0] + sgvTemplate[0].replace(titleBuffer, title);
+    this.pageStart = this.html_string.length();
+  }
+
+  /**
+   * Returns the shapes written into the open page so far, so a later page with the same shapes
+   * can reuse them.
+   * @return String html of the page's shapes
+   */
+  public String getPageShapes() {
+    return this.html_string.substring(this.pageStart);
+  }
+
+  /**
+   * Writes shapes taken from an earlier page into the open page.
+   * @param shapes String html of the shapes, as returned by getPageShapes()
+   */
+  public void addShapes(String shapes) {
+    this.html_string += shapes;
   }
 
   /**
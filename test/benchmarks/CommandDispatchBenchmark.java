@@ -0,0 +1,291 @@
+package benchmarks;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.FileReader;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Stream;
+
+import controller.CommandParser;
+import model.ShapeOperation;
+import utilities.CommandTokenizer;
+
+/**
+ * CommandDispatchBenchmark class. Times turning command lines into ShapeOperations three ways:
+ * the original reader and controller path, splitting lines with a regular expression and then
+ * using toUpperCase(), a linear contains() on the command names, a chain of equals() and
+ * Integer.parseInt(); a chain of CommandTokenizer.isToken() checks in front of the same
+ * tokenizer parsers; and CommandParser.parse(), which finds each command's parser in a map.
+ * Every command is used equally often. The time to only split the lines with a tokenizer is
+ * reported too, so it can be taken off the two tokenizer paths to leave the cost of dispatching
+ * and parsing.
+ */
+public class CommandDispatchBenchmark {
+  private enum COMMANDS {SHAPE, MOVE, RESIZE, COLOR, REMOVE, SNAPSHOT, FRONT, BACK, ORDER;}
+  private static final int LINES = 1_000_000;
+  private static final int NAMES = 1_000;
+  private static final int WARMUP_ROUNDS = 3;
+  private static final int ROUNDS = 10;
+
+  /**
+   * Main method.
+   * @param args unused
+   * @throws IOException if the command file cannot be written or read
+   */
+  public static void main(String[] args) throws IOException {
+    Path file = Files.createTempFile("commands", ".txt");
+    try {
+      write(file);
+
+      // Warm up the JIT before measuring
+      for (int i = 0; i < WARMUP_ROUNDS; i++) {
+        parseStrings(file);
+        parseChain(file);
+        parseMap(file);
+        tokenize(file);
+      }
+
+      System.out.println("ns/command over " + LINES + " commands");
+      System.out.println("round\tstrings\tchain\tmap\ttokenize only");
+      for (int round = 0; round < ROUNDS; round++) {
+        long strings = time(() -> parseStrings(file));
+        long chain = time(() -> parseChain(file));
+        long map = time(() -> parseMap(file));
+        long tokenize = time(() -> tokenize(file));
+        System.out.println(round + "\t" + strings / LINES + "\t" + chain / LINES + "\t"
+                + map / LINES + "\t" + tokenize / LINES);
+      }
+    } finally {
+      Files.deleteIfExists(file);
+    }
+  }
+
+  /**
+   * Writes a command file that uses every command in turn.
+   * @param file Path
+   * @throws IOException if the file cannot be written
+   */
+  private static void write(Path file) throws IOException {
+    try (BufferedWriter writer = Files.newBufferedWriter(file)) {
+      for (int i = 0; i < LINES; i++) {
+        String name = "shape" + (i % NAMES);
+        switch (i % 9) {
+          case 0:
+            writer.write("shape " + name + " rectangle " + i + " " + -i + " 10 20 255 0 0\n");
+            break;
+          case 1:
+            writer.write("move " + name + " " + i + " " + -i + "\n");
+            break;
+          case 2:
+            writer.write("resize " + name + " " + (1 + (i & 63)) + " 2\n");
+            break;
+          case 3:
+            writer.write("color " + name + " " + (i & 255) + " 0 255\n");
+            break;
+          case 4:
+            writer.write("remove " + name + "\n");
+            break;
+          case 5:
+            writer.write("snapshot after line " + i + "\n");
+            break;
+          case 6:
+            writer.write("front " + name + "\n");
+            break;
+          case 7:
+            writer.write("back " + name + "\n");
+            break;
+          default:
+            writer.write("order " + name + " " + (i & 15) + "\n");
+            break;
+        }
+      }
+    }
+  }
+
+  /**
+   * Parses the file the way the reader and controller first did.
+   * @param file Path
+   * @return long checksum so the work cannot be skipped
+   * @throws IOException if the file cannot be read
+   */
+  private static long parseStrings(Path file) throws IOException {
+    List<List<String>> lines = new ArrayList<>();
+    try (BufferedReader reader = new BufferedReader(new FileReader(file.toFile()))) {
+      String text;
+      while ((text = reader.readLine()) != null) {
+        text = text.trim();
+        if (!text.isEmpty() && !text.startsWith("#")) {
+          lines.add(Arrays.asList(text.split("\\s+")));
+        }
+      }
+    }
+
+    List<String> validCommands = Stream.of(COMMANDS.values()).map(COMMANDS::name).toList();
+    long sum = 0;
+    for (List<String> line : lines) {
+      if (!validCommands.contains(line.get(0).toUpperCase())) {
+        continue;
+      }
+      String command = line.get(0).toUpperCase();
+      ShapeOperation operation;
+      if (command.equals(COMMANDS.SHAPE.toString())) {
+        operation = ShapeOperation.make(line.get(2), line.get(1), Integer.parseInt(line.get(6)),
+                Integer.parseInt(line.get(5)), Integer.parseInt(line.get(3)),
+                Integer.parseInt(line.get(4)), Integer.parseInt(line.get(7)),
+                Integer.parseInt(line.get(8)), Integer.parseInt(line.get(9)));
+      } else if (command.equals(COMMANDS.MOVE.toString())) {
+        operation = ShapeOperation.move(line.get(1), Integer.parseInt(line.get(2)),
+                Integer.parseInt(line.get(3)));
+      } else if (command.equals(COMMANDS.RESIZE.toString())) {
+        operation = ShapeOperation.resize(line.get(1), Integer.parseInt(line.get(3)),
+                Integer.parseInt(line.get(2)));
+      } else if (command.equals(COMMANDS.COLOR.toString())) {
+        operation = ShapeOperation.color(line.get(1), Integer.parseInt(line.get(2)),
+                Integer.parseInt(line.get(3)), Integer.parseInt(line.get(4)));
+      } else if (command.equals(COMMANDS.REMOVE.toString())) {
+        operation = ShapeOperation.remove(line.get(1));
+      } else if (command.equals(COMMANDS.SNAPSHOT.toString())) {
+        operation = ShapeOperation.snapshot(String.join(" ", line.subList(1, line.size())));
+      } else if (command.equals(COMMANDS.FRONT.toString())) {
+        operation = ShapeOperation.bringToFront(line.get(1));
+      } else if (command.equals(COMMANDS.BACK.toString())) {
+        operation = ShapeOperation.sendToBack(line.get(1));
+      } else {
+        operation = ShapeOperation.reorder(line.get(1), Integer.parseInt(line.get(2)));
+      }
+      sum += checksum(operation);
+    }
+    return sum;
+  }
+
+  /**
+   * Parses the file with a chain of isToken() checks picking the parser.
+   * @param file Path
+   * @return long checksum so the work cannot be skipped
+   * @throws IOException if the file cannot be read
+   */
+  private static long parseChain(Path file) throws IOException {
+    long sum = 0;
+    try (CommandTokenizer line = new CommandTokenizer(file)) {
+      while (line.nextLine()) {
+        ShapeOperation operation = null;
+        if (line.isToken(0, COMMANDS.SHAPE.name())) {
+          operation = ShapeOperation.make(line.token(2), line.token(1), line.intToken(6),
+                  line.intToken(5), line.intToken(3), line.intToken(4), line.intToken(7),
+                  line.intToken(8), line.intToken(9));
+        } else if (line.isToken(0, COMMANDS.MOVE.name())) {
+          operation = ShapeOperation.move(line.token(1), line.intToken(2), line.intToken(3));
+        } else if (line.isToken(0, COMMANDS.RESIZE.name())) {
+          operation = ShapeOperation.resize(line.token(1), line.intToken(3), line.intToken(2));
+        } else if (line.isToken(0, COMMANDS.COLOR.name())) {
+          operation = ShapeOperation.color(line.token(1), line.intToken(2), line.intToken(3),
+                  line.intToken(4));
+        } else if (line.isToken(0, COMMANDS.REMOVE.name())) {
+          operation = ShapeOperation.remove(line.token(1));
+        } else if (line.isToken(0, COMMANDS.SNAPSHOT.name())) {
+          operation = ShapeOperation.snapshot(snapshotDescription(line));
+        } else if (line.isToken(0, COMMANDS.FRONT.name())) {
+          operation = ShapeOperation.bringToFront(line.token(1));
+        } else if (line.isToken(0, COMMANDS.BACK.name())) {
+          operation = ShapeOperation.sendToBack(line.token(1));
+        } else if (line.isToken(0, COMMANDS.ORDER.name())) {
+          operation = ShapeOperation.reorder(line.token(1), line.intToken(2));
+        }
+        if (operation != null) {
+          sum += checksum(operation);
+        }
+      }
+    }
+    return sum;
+  }
+
+  /**
+   * Parses the file with CommandParser.parse().
+   * @param file Path
+   * @return long checksum so the work cannot be skipped
+   * @throws IOException if the file cannot be read
+   */
+  private static long parseMap(Path file) throws IOException {
+    long sum = 0;
+    try (CommandTokenizer line = new CommandTokenizer(file)) {
+      while (line.nextLine()) {
+        ShapeOperation operation = CommandParser.parse(line);
+        if (operation != null) {
+          sum += checksum(operation);
+        }
+      }
+    }
+    return sum;
+  }
+
+  /**
+   * Only splits the lines of the file into tokens.
+   * @param file Path
+   * @return long checksum so the work cannot be skipped
+   * @throws IOException if the file cannot be read
+   */
+  private static long tokenize(Path file) throws IOException {
+    long sum = 0;
+    try (CommandTokenizer line = new CommandTokenizer(file)) {
+      while (line.nextLine()) {
+        sum += line.tokenCount();
+      }
+    }
+    return sum;
+  }
+
+  /**
+   * Helper method that joins the words of a snapshot line after the keyword.
+   * @param line CommandTokenizer at a snapshot line
+   * @return String
+   */
+  private static String snapshotDescription(CommandTokenizer line) {
+    StringBuilder description = new StringBuilder();
+    for (int i = 1; i < line.tokenCount(); i++) {
+      if (i > 1) {
+        description.append(' ');
+      }
+      description.append(line.token(i));
+    }
+    return description.toString();
+  }
+
+  /**
+   * Helper method that sums the fields of an operation.
+   * @param operation ShapeOperation
+   * @return long
+   */
+  private static long checksum(ShapeOperation operation) {
+    return operation.getKind().ordinal() + operation.getName().length() + operation.getX()
+            + operation.getY() + operation.getLength() + operation.getWidth() + operation.getR()
+            + operation.getIndex();
+  }
+
+  /**
+   * Helper method that times one parse.
+   * @param parse Parse
+   * @return long elapsed nanoseconds
+   * @throws IOException if the parse fails to read the file
+   */
+  private static long time(Parse parse) throws IOException {
+    long start = System.nanoTime();
+    long sum = parse.run();
+    long elapsed = System.nanoTime() - start;
+    if (sum == 42) {
+      System.out.println(); // keeps the checksum alive
+    }
+    return elapsed;
+  }
+
+  /**
+   * One way of parsing the commands.
+   */
+  private interface Parse {
+    long run() throws IOException;
+  }
+}
@@ -0,0 +1,196 @@
+package benchmarks;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.FileReader;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import utilities.CommandFileReader;
+import utilities.CommandTokenizer;
+
+/**
+ * CommandParseBenchmark class. Times parsing a generated command file four ways: the old
+ * BufferedReader, trim and regex split path, CommandFileReader.forEachCommand(), which still
+ * builds a list of Strings per line, CommandTokenizer reading ints and keywords in place, and
+ * CommandFileReader.forEachParsed() running tokenizers over chunks on the common fork-join pool.
+ * Each way parses every int and name the controller would, and the throughput is reported in
+ * megabytes per second so it can be compared with the disk's read speed.
+ */
+public class CommandParseBenchmark {
+  private static final int LINES = 2_000_000;
+  private static final int NAMES = 10_000;
+  private static final int ROUNDS = 5;
+
+  /**
+   * Main method.
+   * @param args unused
+   * @throws IOException if the command file cannot be written or read
+   */
+  public static void main(String[] args) throws IOException {
+    Path file = Files.createTempFile("commands", ".txt");
+    try {
+      write(file);
+      double megabytes = Files.size(file) / (1024.0 * 1024.0);
+      System.out.printf("%d lines, %.1f MB%n", LINES, megabytes);
+      System.out.println("round\tsplit MB/s\tlists MB/s\ttokens MB/s\tparallel MB/s ("
+              + ForkJoinPool.commonPool().getParallelism() + " threads)");
+      for (int round = 0; round < ROUNDS; round++) {
+        long split = time(() -> parseSplit(file));
+        long lists = time(() -> parseLists(file));
+        long tokens = time(() -> parseTokens(file));
+        long parallel = time(() -> parseParallel(file));
+        System.out.printf("%d\t%.0f\t%.0f\t%.0f\t%.0f%n", round, megabytes * 1e9 / split,
+                megabytes * 1e9 / lists, megabytes * 1e9 / tokens, megabytes * 1e9 / parallel);
+      }
+    } finally {
+      Files.deleteIfExists(file);
+    }
+  }
+
+  /**
+   * Writes a command file that makes shapes and then moves, colors and resizes them.
+   * @param file Path
+   * @throws IOException if the file cannot be written
+   */
+  private static void write(Path file) throws IOException {
+    try (BufferedWriter writer = Files.newBufferedWriter(file)) {
+      for (int i = 0; i < LINES; i++) {
+        String name = "shape" + (i % NAMES);
+        if (i < NAMES) {
+          writer.write("shape " + name + " rectangle " + i + " " + i + " 10 20 255 0 0\n");
+        } else if (i % 100 == 0) {
+          writer.write("snapshot after line " + i + "\n");
+        } else if (i % 3 == 0) {
+          writer.write("move " + name + " " + i + " " + -i + "\n");
+        } else if (i % 3 == 1) {
+          writer.write("color " + name + " " + (i & 255) + " 0 255\n");
+        } else {
+          writer.write("resize " + name + " " + (1 + (i & 63)) + " 2\n");
+        }
+      }
+    }
+  }
+
+  /**
+   * Parses the file the way CommandFileReader used to, with Integer.parseInt for every int.
+   * @param file Path
+   * @return long checksum so the work cannot be skipped
+   * @throws IOException if the file cannot be read
+   */
+  private static long parseSplit(Path file) throws IOException {
+    long sum = 0;
+    try (BufferedReader reader = new BufferedReader(new FileReader(file.toFile()))) {
+      String line;
+      while ((line = reader.readLine()) != null) {
+        line = line.trim();
+        if (line.isEmpty() || line.startsWith("#")) {
+          continue;
+        }
+        List<String> words = Arrays.asList(line.split("\\s+"));
+        sum += checksum(words);
+      }
+    }
+    return sum;
+  }
+
+  /**
+   * Parses the file through CommandFileReader.forEachCommand().
+   * @param file Path
+   * @return long checksum so the work cannot be skipped
+   */
+  private static long parseLists(Path file) {
+    long[] sum = new long[1];
+    new CommandFileReader(file.toString()).forEachCommand(words -> sum[0] += checksum(words));
+    return sum[0];
+  }
+
+  /**
+   * Parses the file with a CommandTokenizer, matching keywords and parsing ints in place.
+   * @param file Path
+   * @return long checksum so the work cannot be skipped
+   * @throws IOException if the file cannot be read
+   */
+  private static long parseTokens(Path file) throws IOException {
+    long sum = 0;
+    try (CommandTokenizer tokenizer = new CommandTokenizer(file)) {
+      while (tokenizer.nextLine()) {
+        sum += checksum(tokenizer);
+      }
+    }
+    return sum;
+  }
+
+  /**
+   * Parses the file with CommandFileReader.forEachParsed(), summing in file order.
+   * @param file Path
+   * @return long checksum so the work cannot be skipped
+   */
+  private static long parseParallel(Path file) {
+    long[] sum = new long[1];
+    new CommandFileReader(file.toString()).forEachParsed(CommandParseBenchmark::checksum,
+            checksum -> sum[0] += checksum);
+    return sum[0];
+  }
+
+  /**
+   * Helper method that parses the ints and reads the name of the command at a tokenizer's line.
+   * @param tokenizer CommandTokenizer
+   * @return long
+   */
+  private static long checksum(CommandTokenizer tokenizer) {
+    if (tokenizer.isToken(0, "snapshot")) {
+      return tokenizer.tokenCount();
+    }
+    int first = tokenizer.isToken(0, "shape") ? 3 : 2;
+    long sum = tokenizer.token(1).length();
+    for (int i = first; i < tokenizer.tokenCount(); i++) {
+      sum += tokenizer.intToken(i);
+    }
+    return sum;
+  }
+
+  /**
+   * Helper method that parses the ints and reads the name of a command held as words.
+   * @param words List<String>
+   * @return long
+   */
+  private static long checksum(List<String> words) {
+    if (words.get(0).equalsIgnoreCase("snapshot")) {
+      return words.size();
+    }
+    int first = words.get(0).equalsIgnoreCase("shape") ? 3 : 2;
+    long sum = words.get(1).length();
+    for (int i = first; i < words.size(); i++) {
+      sum += Integer.parseInt(words.get(i));
+    }
+    return sum;
+  }
+
+  /**
+   * Helper method that times one parse.
+   * @param parse Parse
+   * @return long elapsed nanoseconds
+   * @throws IOException if the parse fails to read the file
+   */
+  private static long time(Parse parse) throws IOException {
+    long start = System.nanoTime();
+    long sum = parse.run();
+    long elapsed = System.nanoTime() - start;
+    if (sum == 42) {
+      System.out.println(); // keeps the checksum alive
+    }
+    return elapsed;
+  }
+
+  /**
+   * One way of parsing the file.
+   */
+  private interface Parse {
+    long run() throws IOException;
+  }
+}
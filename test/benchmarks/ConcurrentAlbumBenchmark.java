@@ -0,0 +1,87 @@
+package benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import model.ConcurrentShapesPhotoAlbum;
+
+/**
+ * ConcurrentAlbumBenchmark class. Measures mutation throughput of ConcurrentShapesPhotoAlbum
+ * with 1 to 32 writer threads, each editing its own shapes, while one more thread keeps taking
+ * snapshots.
+ */
+public class ConcurrentAlbumBenchmark {
+  private static final int[] THREAD_COUNTS = {1, 2, 4, 8, 16, 32};
+  private static final int SHAPES_PER_THREAD = 1_000;
+  private static final int MUTATIONS_PER_THREAD = 200_000;
+
+  /**
+   * Main method.
+   * @param args unused
+   */
+  public static void main(String[] args) throws InterruptedException {
+    // Warm up the JIT before measuring
+    run(4);
+
+    System.out.println("threads\tmutations/s\tsnapshots");
+    for (int threads : THREAD_COUNTS) {
+      run(threads);
+    }
+  }
+
+  /**
+   * Runs one round with the given number of writer threads and prints its throughput.
+   * @param threads int number of writer threads
+   */
+  private static void run(int threads) throws InterruptedException {
+    ConcurrentShapesPhotoAlbum album = new ConcurrentShapesPhotoAlbum();
+    for (int t = 0; t < threads; t++) {
+      for (int i = 0; i < SHAPES_PER_THREAD; i++) {
+        album.makeShape("rectangle", t + "-" + i, 10, 10, i, i, 0, 0, 0);
+      }
+    }
+
+    CountDownLatch start = new CountDownLatch(1);
+    List<Thread> writers = new ArrayList<>();
+    for (int t = 0; t < threads; t++) {
+      String prefix = t + "-";
+      Thread writer = new Thread(() -> {
+        try {
+          start.await();
+        } catch (InterruptedException e) {
+          return;
+        }
+        for (int i = 0; i < MUTATIONS_PER_THREAD; i++) {
+          String name = prefix + (i % SHAPES_PER_THREAD);
+          if (i % 2 == 0) {
+            album.moveShape(name, i, -i);
+          } else {
+            album.colorShape(name, i & 255, 0, 0);
+          }
+        }
+      });
+      writers.add(writer);
+      writer.start();
+    }
+    Thread snapshotter = new Thread(() -> {
+      while (!Thread.currentThread().isInterrupted()) {
+        album.takeSnapshot("benchmark");
+      }
+    });
+
+    long begin = System.nanoTime();
+    start.countDown();
+    snapshotter.start();
+    for (Thread writer : writers) {
+      writer.join();
+    }
+    long elapsed = System.nanoTime() - begin;
+    snapshotter.interrupt();
+    snapshotter.join();
+
+    long mutations = (long) threads * MUTATIONS_PER_THREAD;
+    System.out.println(threads + "\t" + mutations * 1_000_000_000L / elapsed + "\t"
+            + album.getSnapshots().size());
+  }
+}
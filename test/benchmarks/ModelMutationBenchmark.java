@@ -0,0 +1,70 @@
+package benchmarks;
+
+import java.util.Random;
+
+import model.ShapesPhotoAlbum;
+
+/**
+ * ModelMutationBenchmark class. Times the model's mutation path at growing canvas sizes. Each
+ * round applies the same number of move, color and resize calls to an album with a different
+ * number of shapes, so the time per mutation should stay flat as the canvas grows and the total
+ * time should grow linearly with the number of mutations.
+ */
+public class ModelMutationBenchmark {
+  private static final int MUTATIONS = 1_000_000;
+  private static final int[] SHAPE_COUNTS = {1_000, 10_000, 100_000};
+  private static final int WARMUP_ROUNDS = 2;
+
+  /**
+   * Main method.
+   * @param args unused
+   */
+  public static void main(String[] args) {
+    // Warm up the JIT before measuring
+    for (int i = 0; i < WARMUP_ROUNDS; i++) {
+      run(SHAPE_COUNTS[0], MUTATIONS / 10);
+    }
+
+    System.out.println("shapes\tmutations\ttotal ms\tns/mutation");
+    for (int shapes : SHAPE_COUNTS) {
+      for (int mutations = MUTATIONS / 4; mutations <= MUTATIONS; mutations *= 2) {
+        long nanos = run(shapes, mutations);
+        System.out.println(shapes + "\t" + mutations + "\t" + nanos / 1_000_000 + "\t"
+                + nanos / mutations);
+      }
+    }
+  }
+
+  /**
+   * Builds an album with the given number of shapes and times the given number of mutations.
+   * @param shapes int number of shapes on the canvas
+   * @param mutations int number of mutations to apply
+   * @return long elapsed nanoseconds for the mutations
+   */
+  private static long run(int shapes, int mutations) {
+    ShapesPhotoAlbum album = new ShapesPhotoAlbum();
+    String[] names = new String[shapes];
+    for (int i = 0; i < shapes; i++) {
+      names[i] = "shape" + i;
+      album.makeShape("rectangle", names[i], 10, 10, i, i, 0, 0, 0);
+    }
+
+    Random random = new Random(5004);
+    long start = System.nanoTime();
+    for (int i = 0; i < mutations; i++) {
+      String name = names[random.nextInt(shapes)];
+      switch (i % 3) {
+        case 0:
+          album.moveShape(name, i, -i);
+          break;
+        case 1:
+          album.colorShape(name, i & 255, 0, 255);
+          break;
+        default:
+          album.resizeShape(name, 1 + (i & 63), 2);
+          break;
+      }
+    }
+    return System.nanoTime() - start;
+  }
+}
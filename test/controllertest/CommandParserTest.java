@@ -0,0 +1,116 @@
+package controllertest;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+import controller.CommandParser;
+import model.ShapeOperation;
+import utilities.CommandTokenizer;
+
+/**
+ * CommandParserTest Junit test class.
+ */
+public class CommandParserTest {
+  private final Path file = Paths.get("parser_test_input.txt");
+
+  /**
+   * Write a command file with every command for testing.
+   */
+  @Before
+  public void setup() throws IOException {
+    Files.writeString(this.file, String.join("\n",
+            "shape myoval oval 500 100 60 30 0 255 1",
+            "MOVE myoval -5 400",
+            "Resize myoval 25 100",
+            "color myoval 0 0 255",
+            "front myoval",
+            "back myoval",
+            "order myoval 3",
+            "snapShot After first   selfie",
+            "snapshot",
+            "remove myoval"));
+  }
+
+  /**
+   * Delete the command file.
+   */
+  @After
+  public void cleanup() throws IOException {
+    Files.deleteIfExists(this.file);
+  }
+
+  /**
+   * Test every command is parsed to its operation, with keywords matched ignoring case.
+   */
+  @Test
+  public void testCommands() throws IOException {
+    List<ShapeOperation> expected = List.of(
+            ShapeOperation.make("oval", "myoval", 30, 60, 500, 100, 0, 255, 1),
+            ShapeOperation.move("myoval", -5, 400),
+            ShapeOperation.resize("myoval", 100, 25),
+            ShapeOperation.color("myoval", 0, 0, 255),
+            ShapeOperation.bringToFront("myoval"),
+            ShapeOperation.sendToBack("myoval"),
+            ShapeOperation.reorder("myoval", 3),
+            ShapeOperation.snapshot("After first selfie"),
+            ShapeOperation.snapshot(""),
+            ShapeOperation.remove("myoval"));
+    assertEquals(expected.toString(), this.parseAll().toString());
+  }
+
+  /**
+   * Test lines that are not commands, including keywords with a letter more or less, are
+   * skipped.
+   */
+  @Test
+  public void testNotCommands() throws IOException {
+    Files.writeString(this.file, String.join("\n", "shapes s", "mov s 1 2", "orders s 1",
+            "colour s 0 0 0", "snap shot", "f", "12 3", "remove_ s", "frontmyoval"));
+    assertEquals(0, this.parseAll().size());
+  }
+
+  /**
+   * Test an int argument that is not an int.
+   */
+  @Test(expected = NumberFormatException.class)
+  public void testBadInt() throws IOException {
+    Files.writeString(this.file, "move myoval 1 two\n");
+    this.parseAll();
+  }
+
+  /**
+   * Test a command missing an argument.
+   */
+  @Test(expected = IndexOutOfBoundsException.class)
+  public void testMissingArgument() throws IOException {
+    Files.writeString(this.file, "resize myoval 1\n");
+    this.parseAll();
+  }
+
+  /**
+   * Helper method that parses every line of the command file.
+   * @return List<ShapeOperation> operations of the lines that are commands
+   */
+  private List<ShapeOperation> parseAll() throws IOException {
+    List<ShapeOperation> operations = new ArrayList<>();
+    try (CommandTokenizer tokenizer = new CommandTokenizer(this.file)) {
+      while (tokenizer.nextLine()) {
+        ShapeOperation operation = CommandParser.parse(tokenizer);
+        if (operation != null) {
+          operations.add(operation);
+        }
+      }
+    }
+    return operations;
+  }
+}
@@ -1,6 +1,7 @@
 package controllertest;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
 import org.junit.Before;
@@ -124,4 +125,134 @@ public class PhotoAlbumControllerTest {
     assertTrue(file_string.contains(header));
   }
 
+
+  /**
+   * Test front, back and order commands reorder shapes in the model and the web view.
+   */
+  @Test
+  public void test6() throws IOException {
+    String commands = "order_test_input.txt";
+    Files.writeString(Paths.get(commands), String.join("\n",
+            "shape first rectangle 0 0 10 10 0 0 0",
+            "shape second rectangle 0 0 10 10 0 0 0",
+            "shape third oval 0 0 10 10 0 0 0",
+            "front first",
+            "back third",
+            "order second 0",
+            "snapshot reordered"));
+    try {
+      this.argsList.set(0, commands);
+      PhotoAlbumController ordered = new PhotoAlbumController(this.argsList, this.model);
+      ordered.run(header);
+
+      assertEquals("[second, third, first]", this.model.getShapeNames().toString());
+      String html = new String(Files.readAllBytes(Paths.get(outfile)), StandardCharsets.UTF_8);
+      assertTrue(html.indexOf("id=\"second\"") < html.indexOf("id=\"third\""));
+      assertTrue(html.indexOf("id=\"third\"") < html.indexOf("id=\"first\""));
+    } finally {
+      Files.deleteIfExists(Paths.get(commands));
+    }
+  }
+
+  /**
+   * Test a command file longer than one batch is executed in full and in order.
+   */
+  @Test
+  public void test7() throws IOException {
+    String commands = "long_test_input.txt";
+    StringBuilder text = new StringBuilder();
+    for (int i = 0; i < 10000; i++) {
+      text.append("shape s").append(i).append(" rectangle ").append(i % 500)
+              .append(" 0 1 1 0 0 0\n");
+      if (i % 3000 == 0) {
+        text.append("# comment\n\nsnapshot at ").append(i).append("\n");
+      }
+    }
+    text.append("move s0 7 7\nremove s9999\nsnapshot last\n");
+    Files.writeString(Paths.get(commands), text.toString());
+    try {
+      this.argsList.set(0, commands);
+      new PhotoAlbumController(this.argsList, this.model).run(header);
+
+      assertEquals(9999, this.model.getShapeNames().size());
+      assertEquals(7, this.model.getShapes().get(0).getX());
+      assertEquals(5, this.model.getSnapshots().size());
+      assertEquals(3001, this.model.getSnapshots().get(1).getShapes().size());
+      assertEquals("last", this.model.getSnapshots().get(4).getDescription());
+    } finally {
+      Files.deleteIfExists(Paths.get(commands));
+    }
+  }
+
+  /**
+   * Test a rejected command past the first batch is reported by its number in the whole file,
+   * and its batch is not applied.
+   */
+  @Test
+  public void test10() throws IOException {
+    String commands = "bad_batch_input.txt";
+    StringBuilder text = new StringBuilder();
+    for (int i = 0; i < 5000; i++) {
+      text.append("shape s").append(i).append(" oval 0 0 1 1 0 0 0\n");
+    }
+    text.append("# comment\nmove nobody 1 1\n");
+    Files.writeString(Paths.get(commands), text.toString());
+    try {
+      this.argsList.set(0, commands);
+      new PhotoAlbumController(this.argsList, this.model).run(header);
+      throw new AssertionError("Bad command ran");
+    } catch (IllegalArgumentException e) {
+      assertTrue(e.getMessage().startsWith("Operation 5001 (move nobody 1 1) failed"));
+      assertEquals(4096, this.model.getShapeNames().size());
+    } finally {
+      Files.deleteIfExists(Paths.get(commands));
+    }
+  }
+
+  /**
+   * Test compiling a command file with a bad line leaves no compiled file behind.
+   */
+  @Test(expected = NumberFormatException.class)
+  public void test9() throws IOException {
+    String commands = "bad_compile_input.txt";
+    String compiled = "bad_compile_input.bin";
+    Files.writeString(Paths.get(commands), "shape r1 rectangle 0 0 1 1 0 0 0\n"
+            + "move r1 1 1\nmove r1 5 x\nsnapshot\n");
+    try {
+      this.argsList.set(0, commands);
+      new PhotoAlbumController(this.argsList, this.model).compile(compiled);
+    } finally {
+      boolean left = Files.deleteIfExists(Paths.get(compiled));
+      Files.deleteIfExists(Paths.get(commands));
+      assertFalse(left);
+    }
+  }
+
+  /**
+   * Test a compiled command file runs to the same album as its text, and is smaller.
+   */
+  @Test
+  public void test8() throws IOException {
+    String compiled = "controller_test_input.bin";
+    try {
+      this.controller.compile(compiled);
+      assertTrue(Files.size(Paths.get(compiled)) < Files.size(Paths.get(this.argsList.get(0))));
+
+      this.controller.run(header);
+      this.argsList.set(0, compiled);
+      ShapesPhotoAlbum loaded = new ShapesPhotoAlbum();
+      new PhotoAlbumController(this.argsList, loaded).run(header);
+
+      assertEquals(this.model.getShapes(), loaded.getShapes());
+      assertEquals(snapshots, loaded.getSnapshots().size());
+      for (int i = 0; i < snapshots; i++) {
+        assertEquals(this.model.getSnapshots().get(i).getDescription(),
+                loaded.getSnapshots().get(i).getDescription());
+        assertEquals(this.model.getSnapshots().get(i).getShapes(),
+                loaded.getSnapshots().get(i).getShapes());
+      }
+    } finally {
+      Files.deleteIfExists(Paths.get(compiled));
+    }
+  }
 }
@@ -0,0 +1,152 @@
+package modeltest;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+import model.AlbumEvents;
+import model.AlbumListener;
+import utilities.Snapshot;
+import utilities.shapes.I2DShape;
+import utilities.shapes.Rectangle;
+
+/**
+ * AlbumEvents test class.
+ */
+public class AlbumEventsTest {
+  private AlbumEvents events;
+  private List<String> heard;
+  private AlbumListener listener;
+  private I2DShape rectangle;
+
+  /**
+   * Create objects for testing.
+   */
+  @Before
+  public void setup() {
+    this.events = new AlbumEvents();
+    this.heard = new ArrayList<>();
+    this.listener = new AlbumListener() {
+      @Override
+      public void shapeMade(I2DShape shape) {
+        AlbumEventsTest.this.heard.add("made " + shape.getName());
+      }
+
+      @Override
+      public void shapeChanged(I2DShape previous, I2DShape shape) {
+        AlbumEventsTest.this.heard.add("changed " + previous.getX() + " " + shape.getX());
+      }
+
+      @Override
+      public void shapeDeleted(I2DShape shape) {
+        AlbumEventsTest.this.heard.add("deleted " + shape.getName());
+      }
+
+      @Override
+      public void shapeReordered(I2DShape shape, int previous, int index) {
+        AlbumEventsTest.this.heard.add("reordered " + previous + " " + index);
+      }
+
+      @Override
+      public void snapshotTaken(Snapshot snapshot) {
+        AlbumEventsTest.this.heard.add("snapshot " + snapshot.getDescription());
+      }
+    };
+    this.rectangle = new Rectangle("rect", 5, 5, 0, 0, 255, 0, 0);
+    this.events.addListener(this.listener);
+  }
+
+  /**
+   * Test every kind of event reaches the listener, and nothing does once it is removed.
+   */
+  @Test
+  public void testPublish() {
+    assertTrue(this.events.hasListeners());
+    this.events.shapeMade(this.rectangle);
+    this.events.shapeChanged(this.rectangle, this.rectangle.move(7, 0));
+    this.events.shapeReordered(this.rectangle, 0, 2);
+    this.events.shapeDeleted(this.rectangle);
+    this.events.snapshotTaken(new Snapshot("first", List.of()));
+    assertEquals(List.of("made rect", "changed 0 7", "reordered 0 2", "deleted rect",
+            "snapshot first"), this.heard);
+
+    assertTrue(this.events.removeListener(this.listener));
+    assertFalse(this.events.removeListener(this.listener));
+    assertFalse(this.events.hasListeners());
+    this.events.shapeMade(this.rectangle);
+    assertEquals(5, this.heard.size());
+  }
+
+  /**
+   * Test held events are published in order on release and dropped on discard.
+   */
+  @Test
+  public void testHold() {
+    this.events.hold();
+    for (int i = 0; i < 40; i++) {
+      this.events.shapeMade(this.rectangle);
+    }
+    this.events.shapeDeleted(this.rectangle);
+    assertTrue(this.heard.isEmpty());
+    this.events.release();
+    assertEquals(41, this.heard.size());
+    assertEquals("deleted rect", this.heard.get(40));
+
+    this.events.hold();
+    this.events.shapeMade(this.rectangle);
+    this.events.discard();
+    this.events.shapeDeleted(this.rectangle);
+    assertEquals(42, this.heard.size());
+    assertEquals("deleted rect", this.heard.get(41));
+  }
+
+  /**
+   * Test holding events that are already held.
+   */
+  @Test(expected = IllegalStateException.class)
+  public void testHoldTwice() {
+    this.events.hold();
+    this.events.hold();
+  }
+
+  /**
+   * Test releasing events that are not held.
+   */
+  @Test(expected = IllegalStateException.class)
+  public void testReleaseWithoutHold() {
+    this.events.hold();
+    this.events.discard();
+    this.events.release();
+  }
+
+  /**
+   * Test a listener can remove itself while it is being told about an event.
+   */
+  @Test
+  public void testAddRemove() {
+    AlbumListener once = new AlbumListener() {
+      @Override
+      public void shapeMade(I2DShape shape) {
+        AlbumEventsTest.this.heard.add("once");
+        AlbumEventsTest.this.events.removeListener(this);
+      }
+    };
+    this.events.addListener(once);
+    this.events.shapeMade(this.rectangle);
+    this.events.shapeMade(this.rectangle);
+    assertEquals(List.of("made rect", "once", "made rect"), this.heard);
+  }
+
+  /**
+   * Test adding a null listener.
+   */
+  @Test(expected = IllegalArgumentException.class)
+  public void testNullListener() {
+    this.events.addListener(null);
+  }
+}
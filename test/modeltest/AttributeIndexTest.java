@@ -0,0 +1,67 @@
+package modeltest;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Before;
+import org.junit.Test;
+import model.AttributeIndex;
+import utilities.shapes.I2DShape;
+import utilities.shapes.Oval;
+import utilities.shapes.Rectangle;
+import utilities.shapes.ShapeTypes;
+
+/**
+ * AttributeIndex test class.
+ */
+public class AttributeIndexTest {
+  private AttributeIndex index;
+  private I2DShape rectangle;
+  private I2DShape oval;
+
+  /**
+   * Create objects for testing.
+   */
+  @Before
+  public void setup() {
+    this.index = new AttributeIndex();
+    this.rectangle = new Rectangle("rect", 5, 5, 0, 0, 255, 0, 0);
+    this.oval = new Oval("oval", 2, 3, 100, 100, 255, 0, 0);
+    this.index.update(3, null, this.rectangle);
+    this.index.update(1, null, this.oval);
+  }
+
+  /**
+   * Test slots are listed by type and color in slot order.
+   */
+  @Test
+  public void testQuery() {
+    assertArrayEquals(new int[] {3}, this.index.slotsOfType(ShapeTypes.RECTANGLE));
+    assertArrayEquals(new int[] {1}, this.index.slotsOfType(ShapeTypes.OVAL));
+    assertArrayEquals(new int[0], this.index.slotsOfType(ShapeTypes.TRIANGLE));
+    assertArrayEquals(new int[] {1, 3}, this.index.slotsWithColor(0xFF0000));
+    assertArrayEquals(new int[0], this.index.slotsWithColor(0));
+  }
+
+  /**
+   * Test update() follows recolors and removals, and drops colors no longer used.
+   */
+  @Test
+  public void testUpdate() {
+    I2DShape recolored = this.rectangle.setColor(0, 0, 255);
+    this.index.update(3, this.rectangle, recolored);
+    assertArrayEquals(new int[] {1}, this.index.slotsWithColor(0xFF0000));
+    assertArrayEquals(new int[] {3}, this.index.slotsWithColor(0x0000FF));
+
+    this.index.update(3, recolored, recolored.move(50, 50));
+    assertArrayEquals(new int[] {3}, this.index.slotsWithColor(0x0000FF));
+
+    this.index.update(3, recolored, null);
+    assertArrayEquals(new int[0], this.index.slotsOfType(ShapeTypes.RECTANGLE));
+    assertEquals(1, this.index.colorCount());
+
+    this.index.clear();
+    assertEquals(0, this.index.colorCount());
+    assertArrayEquals(new int[0], this.index.slotsOfType(ShapeTypes.OVAL));
+  }
+}
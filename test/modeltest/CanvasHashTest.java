@@ -0,0 +1,133 @@
+package modeltest;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+
+import org.junit.Before;
+import org.junit.Test;
+import model.CanvasHash;
+import model.PersistentShapeStore;
+import utilities.shapes.I2DShape;
+import utilities.shapes.Oval;
+import utilities.shapes.Rectangle;
+
+/**
+ * CanvasHash test class.
+ */
+public class CanvasHashTest {
+  private CanvasHash hash;
+  private PersistentShapeStore canvas;
+  private I2DShape rectangle;
+  private I2DShape oval;
+
+  /**
+   * Create objects for testing.
+   */
+  @Before
+  public void setup() {
+    this.hash = new CanvasHash();
+    this.canvas = new PersistentShapeStore();
+    this.rectangle = new Rectangle("rect", 5, 5, 0, 0, 0, 0, 0);
+    this.oval = new Oval("oval", 2, 3, 100, 100, 0, 0, 255);
+  }
+
+  /**
+   * Helper method that puts a shape into a canvas slot and updates the hash.
+   * @param slot int canvas slot
+   * @param shape I2DShape new shape
+   */
+  private void set(int slot, I2DShape shape) {
+    I2DShape previous = this.canvas.get(slot);
+    this.canvas.set(slot, shape);
+    this.hash.update(slot, previous, shape);
+  }
+
+  /**
+   * Test edits that return to an earlier canvas return to its hash.
+   */
+  @Test
+  public void testSameContentSameHash() {
+    assertEquals(0L, this.hash.value());
+    this.hash.update(this.canvas.add(this.rectangle), null, this.rectangle);
+    this.hash.update(this.canvas.add(this.oval), null, this.oval);
+    long start = this.hash.value();
+
+    this.set(0, this.rectangle.move(10, 10));
+    this.set(1, this.oval.setColor(255, 0, 0));
+    assertNotEquals(start, this.hash.value());
+
+    this.set(1, this.oval.setColor(0, 0, 255));
+    this.set(0, this.rectangle.move(10, 10).move(0, 0));
+    assertEquals(start, this.hash.value());
+
+    this.canvas.remove(1);
+    this.hash.update(1, this.oval, null);
+    CanvasHash rectangleOnly = new CanvasHash();
+    rectangleOnly.update(0, null, new Rectangle("rect", 5, 5, 0, 0, 0, 0, 0));
+    assertEquals(rectangleOnly.value(), this.hash.value());
+  }
+
+  /**
+   * Test the same shapes in other slots give another hash.
+   */
+  @Test
+  public void testSlotsMatter() {
+    CanvasHash swapped = new CanvasHash();
+    this.hash.update(0, null, this.rectangle);
+    this.hash.update(1, null, this.oval);
+    swapped.update(0, null, this.oval);
+    swapped.update(1, null, this.rectangle);
+    assertNotEquals(this.hash.value(), swapped.value());
+  }
+
+  /**
+   * Test reset() gives the same hash as updating slot by slot.
+   */
+  @Test
+  public void testReset() {
+    this.canvas.add(this.rectangle);
+    this.canvas.add(this.oval);
+    this.canvas.add(this.rectangle.move(1, 1));
+    this.canvas.remove(1);
+    this.hash.update(0, null, this.rectangle);
+    this.hash.update(2, null, this.rectangle.move(1, 1));
+
+    CanvasHash recomputed = new CanvasHash();
+    recomputed.reset(this.canvas);
+    assertEquals(this.hash.value(), recomputed.value());
+    assertEquals(this.hash.check(), recomputed.check());
+  }
+
+  /**
+   * Test the check hash follows edits back to an earlier canvas, and tells apart shapes whose
+   * names share a String hash code.
+   */
+  @Test
+  public void testCheckHash() {
+    this.hash.update(this.canvas.add(this.rectangle), null, this.rectangle);
+    long start = this.hash.check();
+    this.set(0, this.rectangle.move(3, 4));
+    assertNotEquals(start, this.hash.check());
+    this.set(0, this.rectangle);
+    assertEquals(start, this.hash.check());
+
+    I2DShape aa = new Rectangle("Aa", 5, 5, 0, 0, 0, 0, 0);
+    I2DShape bb = new Rectangle("BB", 5, 5, 0, 0, 0, 0, 0);
+    assertEquals(CanvasHash.hash(aa), CanvasHash.hash(bb));
+    assertNotEquals(CanvasHash.checkHash(aa), CanvasHash.checkHash(bb));
+  }
+
+  /**
+   * Test hash() tells apart shapes that differ in any field.
+   */
+  @Test
+  public void testShapeHash() {
+    long base = CanvasHash.hash(this.rectangle);
+    assertEquals(base, CanvasHash.hash(new Rectangle("rect", 5, 5, 0, 0, 0, 0, 0)));
+    assertNotEquals(base, CanvasHash.hash(this.rectangle.move(1, 0)));
+    assertNotEquals(base, CanvasHash.hash(this.rectangle.move(0, 31)));
+    assertNotEquals(base, CanvasHash.hash(this.rectangle.resize(5, 6)));
+    assertNotEquals(base, CanvasHash.hash(this.rectangle.setColor(0, 0, 1)));
+    assertNotEquals(base, CanvasHash.hash(new Oval("rect", 5, 5, 0, 0, 0, 0, 0)));
+  }
+}
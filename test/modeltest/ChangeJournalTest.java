@@ -0,0 +1,92 @@
+package modeltest;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.EnumSet;
+
+import org.junit.Before;
+import org.junit.Test;
+import model.ChangeJournal;
+import model.SnapshotDiff;
+import utilities.shapes.I2DShape;
+import utilities.shapes.Oval;
+import utilities.shapes.Rectangle;
+
+/**
+ * ChangeJournal test class.
+ */
+public class ChangeJournalTest {
+  private ChangeJournal journal;
+  private I2DShape rectangle;
+  private I2DShape oval;
+
+  /**
+   * Create objects for testing.
+   */
+  @Before
+  public void setup() {
+    this.journal = new ChangeJournal();
+    this.rectangle = new Rectangle("rect", 5, 5, 0, 0, 0, 0, 0);
+    this.oval = new Oval("oval", 2, 3, 100, 100, 0, 0, 255);
+    this.journal.record(null, this.rectangle);
+    this.journal.mark();
+  }
+
+  /**
+   * Test diff() folds the entries between two marks by shape.
+   */
+  @Test
+  public void testDiff() {
+    I2DShape moved = this.rectangle.move(10, 10);
+    this.journal.record(this.rectangle, moved);
+    this.journal.record(moved, moved.setColor(255, 0, 0));
+    this.journal.record(null, this.oval);
+    this.journal.mark();
+
+    SnapshotDiff diff = this.journal.diff(0, 1);
+    assertEquals(1, diff.getAdded().size());
+    assertSame(this.oval, diff.getAdded().get(0));
+    assertEquals(0, diff.getRemoved().size());
+    assertEquals(1, diff.getChanged().size());
+    assertSame(this.rectangle, diff.getChanged().get(0).getBefore());
+    assertEquals(EnumSet.of(SnapshotDiff.Field.POSITION, SnapshotDiff.Field.COLOR),
+            diff.getChanged().get(0).getFields());
+
+    // The other way round
+    SnapshotDiff reverse = this.journal.diff(1, 0);
+    assertSame(this.oval, reverse.getRemoved().get(0));
+    assertSame(this.rectangle, reverse.getChanged().get(0).getAfter());
+    assertTrue(this.journal.diff(1, 1).isEmpty());
+  }
+
+  /**
+   * Test edits that cancel out, and shapes made and removed between marks, are left out.
+   */
+  @Test
+  public void testCancelledEdits() {
+    I2DShape moved = this.rectangle.move(10, 10);
+    this.journal.record(this.rectangle, moved);
+    this.journal.record(moved, this.rectangle);
+    this.journal.record(null, this.oval);
+    this.journal.record(this.oval, null);
+    this.journal.mark();
+
+    assertTrue(this.journal.diff(0, 1).isEmpty());
+    assertEquals(5, this.journal.size());
+  }
+
+  /**
+   * Test truncateMarks() drops the newest marks and keeps the entries.
+   */
+  @Test(expected = IndexOutOfBoundsException.class)
+  public void testTruncateMarks() {
+    this.journal.record(this.rectangle, null);
+    this.journal.mark();
+    this.journal.truncateMarks(1);
+    assertEquals(1, this.journal.mark());
+    assertEquals(1, this.journal.diff(0, 1).getRemoved().size());
+    this.journal.diff(0, 2);
+  }
+}
@@ -0,0 +1,171 @@
+package modeltest;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import model.CompiledScript;
+import model.ShapeOperation;
+
+/**
+ * CompiledScript test class.
+ */
+public class CompiledScriptTest {
+  private final Path file = Paths.get("compiled_test_output.bin");
+  private List<ShapeOperation> operations;
+
+  /**
+   * Create operations of every kind for testing.
+   */
+  @Before
+  public void setup() {
+    this.operations = List.of(
+            ShapeOperation.make("rectangle", "rect", 50, 100, 200, -200, 255, 0, 0),
+            ShapeOperation.make("oval", "na\u00efve", Integer.MAX_VALUE, 1, Integer.MIN_VALUE,
+                    0, 0, 128, 255),
+            ShapeOperation.move("rect", -1, 64),
+            ShapeOperation.resize("rect", 25, 100),
+            ShapeOperation.color("na\u00efve", 0, 0, 255),
+            ShapeOperation.reorder("rect", 1),
+            ShapeOperation.bringToFront("rect"),
+            ShapeOperation.sendToBack("na\u00efve"),
+            ShapeOperation.snapshot("After first selfie"),
+            ShapeOperation.snapshot(""),
+            ShapeOperation.remove("rect"));
+  }
+
+  /**
+   * Delete the compiled file.
+   */
+  @After
+  public void cleanup() throws IOException {
+    Files.deleteIfExists(this.file);
+  }
+
+  /**
+   * Test operations read back from a compiled file are the ones written, in order.
+   */
+  @Test
+  public void testRoundTrip() throws IOException {
+    this.write(this.operations);
+    assertTrue(CompiledScript.isCompiled(this.file));
+    assertEquals(this.operations.toString(), this.read().toString());
+  }
+
+  /**
+   * Test repeated names are written once, so a compiled file is much smaller than its text.
+   */
+  @Test
+  public void testSize() throws IOException {
+    List<ShapeOperation> moves = new ArrayList<>();
+    StringBuilder text = new StringBuilder();
+    for (int i = 0; i < 1000; i++) {
+      moves.add(ShapeOperation.move("building" + (i % 10), i % 100, -i % 100));
+      text.append("move building").append(i % 10).append(' ').append(i % 100).append(' ')
+              .append(-i % 100).append('\n');
+    }
+    this.write(moves);
+    assertEquals(moves.toString(), this.read().toString());
+    assertTrue(Files.size(this.file) * 3 < text.length());
+  }
+
+  /**
+   * Test a text command file is not taken for a compiled one.
+   */
+  @Test
+  public void testNotCompiled() throws IOException {
+    Files.writeString(this.file, "shape s rectangle 0 0 1 1 0 0 0\n");
+    assertFalse(CompiledScript.isCompiled(this.file));
+    Files.writeString(this.file, "");
+    assertFalse(CompiledScript.isCompiled(this.file));
+  }
+
+  /**
+   * Test reading a file that is not compiled.
+   */
+  @Test(expected = IOException.class)
+  public void testReadText() throws IOException {
+    Files.writeString(this.file, "shape s rectangle 0 0 1 1 0 0 0\n");
+    this.read();
+  }
+
+  /**
+   * Test reading a compiled file cut short.
+   */
+  @Test(expected = EOFException.class)
+  public void testTruncated() throws IOException {
+    this.write(this.operations);
+    byte[] bytes = Files.readAllBytes(this.file);
+    Files.write(this.file, Arrays.copyOf(bytes, bytes.length - 1));
+    this.read();
+  }
+
+  /**
+   * Test a file closed without being finished is rejected, even though every operation in it
+   * was written whole.
+   */
+  @Test(expected = EOFException.class)
+  public void testUnfinished() throws IOException {
+    try (CompiledScript.Writer writer = new CompiledScript.Writer(this.file)) {
+      writer.write(this.operations.get(0));
+    }
+    assertTrue(CompiledScript.isCompiled(this.file));
+    this.read();
+  }
+
+  /**
+   * Test writing to a finished file.
+   */
+  @Test(expected = IllegalStateException.class)
+  public void testWriteAfterFinish() throws IOException {
+    try (CompiledScript.Writer writer = new CompiledScript.Writer(this.file)) {
+      writer.finish();
+      writer.write(this.operations.get(0));
+    }
+  }
+
+  /**
+   * Test writing a null operation.
+   */
+  @Test(expected = IllegalArgumentException.class)
+  public void testWriteNull() throws IOException {
+    try (CompiledScript.Writer writer = new CompiledScript.Writer(this.file)) {
+      writer.write(null);
+    }
+  }
+
+  /**
+   * Helper method that compiles operations to the test file.
+   * @param operations List<ShapeOperation></ShapeOperation>
+   */
+  private void write(List<ShapeOperation> operations) throws IOException {
+    try (CompiledScript.Writer writer = new CompiledScript.Writer(this.file)) {
+      for (ShapeOperation operation : operations) {
+        writer.write(operation);
+      }
+      writer.finish();
+    }
+  }
+
+  /**
+   * Helper method that reads the operations of the test file.
+   * @return List<ShapeOperation></ShapeOperation>
+   */
+  private List<ShapeOperation> read() throws IOException {
+    List<ShapeOperation> read = new ArrayList<>();
+    CompiledScript.forEachOperation(this.file, read::add);
+    return read;
+  }
+}
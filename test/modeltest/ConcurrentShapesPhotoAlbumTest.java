@@ -0,0 +1,457 @@
+package modeltest;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.Before;
+import org.junit.Test;
+import model.AlbumListener;
+import model.ConcurrentShapesPhotoAlbum;
+import model.ShapesPhotoAlbum;
+import model.SnapshotDiff;
+import utilities.Snapshot;
+import utilities.shapes.I2DShape;
+import utilities.shapes.Oval;
+import utilities.shapes.Rectangle;
+
+/**
+ * ConcurrentShapesPhotoAlbum test class.
+ */
+public class ConcurrentShapesPhotoAlbumTest {
+  private static final int WRITERS = 8;
+  private static final int STEPS = 20000;
+  private ConcurrentShapesPhotoAlbum album;
+
+  /**
+   * Create object for testing.
+   */
+  @Before
+  public void setup() {
+    this.album = new ConcurrentShapesPhotoAlbum();
+  }
+
+  /**
+   * Test makeShape() with duplicate name.
+   */
+  @Test(expected = IllegalArgumentException.class)
+  public void testBadMakeShape() {
+    this.album.makeShape("oval", "shape", 1, 1, 0, 0, 0, 0, 0);
+    this.album.makeShape("oval", "shape", 1, 1, 0, 0, 0, 0, 0);
+  }
+
+  /**
+   * Test makeShape() with bad dimensions leaves no shape behind.
+   */
+  @Test
+  public void testBadMakeShapeLeavesNoShape() {
+    try {
+      this.album.makeShape("oval", "shape", 0, 1, 0, 0, 0, 0, 0);
+    } catch (IllegalArgumentException e) {
+      // expected
+    }
+    assertEquals(0, this.album.getShapeNames().size());
+    this.album.makeShape("oval", "shape", 1, 1, 0, 0, 0, 0, 0);
+    assertEquals(1, this.album.getShapeNames().size());
+  }
+
+  /**
+   * Test moveShape() with nonexistent shape.
+   */
+  @Test(expected = IllegalArgumentException.class)
+  public void testBadMoveShape() {
+    this.album.moveShape("shape", 1, 1);
+  }
+
+  /**
+   * Test resizeShape() with bad dimensions.
+   */
+  @Test(expected = IllegalArgumentException.class)
+  public void testBadResizeShape() {
+    this.album.makeShape("oval", "shape", 1, 1, 0, 0, 0, 0, 0);
+    this.album.resizeShape("shape", 1, 0);
+  }
+
+  /**
+   * Test undo() and redo() on a single thread.
+   */
+  @Test
+  public void testUndoRedo() {
+    this.album.makeShape("oval", "shape", 1, 1, 0, 0, 0, 0, 0);
+    this.album.moveShape("shape", 5, 5);
+    this.album.deleteShape("shape");
+
+    assertTrue(this.album.undo());
+    assertEquals(5, this.album.getShapes().get(0).getX());
+    assertTrue(this.album.undo());
+    assertEquals(0, this.album.getShapes().get(0).getX());
+    assertTrue(this.album.undo());
+    assertEquals(0, this.album.getShapeNames().size());
+    assertFalse(this.album.undo());
+
+    assertTrue(this.album.redo());
+    assertTrue(this.album.redo());
+    assertEquals(5, this.album.getShapes().get(0).getX());
+  }
+
+  /**
+   * Test undoing the delete of a shape from the middle of the paint order puts it back there,
+   * before and after shapes have been reordered.
+   */
+  @Test
+  public void testUndoDeleteKeepsOrder() {
+    for (int i = 0; i < 5; i++) {
+      this.album.makeShape("rectangle", "r" + i, 5, 5, i, 0, 0, 0, 0);
+    }
+    this.album.deleteShape("r2");
+    assertTrue(this.album.undo());
+    assertEquals(List.of("r0", "r1", "r2", "r3", "r4"), this.album.getShapeNames());
+
+    this.album.deleteShape("r0");
+    this.album.deleteShape("r3");
+    assertTrue(this.album.undo());
+    assertEquals(List.of("r1", "r2", "r3", "r4"), this.album.getShapeNames());
+
+    this.album.sendToBack("r4");
+    this.album.deleteShape("r1");
+    assertTrue(this.album.undo());
+    assertEquals(List.of("r4", "r1", "r2", "r3"), this.album.getShapeNames());
+  }
+
+  /**
+   * Stress test. Writer threads move the same shape at once, then every move is undone. Moves
+   * must be recorded in the order they were made for the shape to end up where it started.
+   */
+  @Test
+  public void testUndoConcurrentMovesOfOneShape() throws InterruptedException {
+    int moves = 1000;
+    this.album.makeShape("rectangle", "shape", 1, 1, 0, 0, 0, 0, 0);
+    CountDownLatch start = new CountDownLatch(1);
+    AtomicReference<Throwable> failure = new AtomicReference<>();
+    List<Thread> writers = new ArrayList<>();
+    for (int t = 0; t < WRITERS; t++) {
+      int offset = (t + 1) * moves;
+      Thread writer = new Thread(() -> {
+        try {
+          start.await();
+          for (int i = 1; i <= moves; i++) {
+            this.album.moveShape("shape", offset + i, -offset - i);
+          }
+        } catch (Throwable e) {
+          failure.compareAndSet(null, e);
+        }
+      });
+      writers.add(writer);
+      writer.start();
+    }
+    start.countDown();
+    for (Thread writer : writers) {
+      writer.join();
+    }
+    assertEquals(null, failure.get());
+
+    for (int i = 0; i < WRITERS * moves; i++) {
+      assertTrue(this.album.undo());
+    }
+    I2DShape shape = this.album.getShapes().get(0);
+    assertEquals(0, shape.getX());
+    assertEquals(0, shape.getY());
+    assertTrue(this.album.undo());
+    assertEquals(0, this.album.getShapeNames().size());
+  }
+
+  /**
+   * Test deleting shapes while snapshots are taken leaves every name free to be made again.
+   */
+  @Test
+  public void testDeleteBetweenSnapshots() {
+    for (int i = 0; i < 50; i++) {
+      this.album.makeShape("oval", "shape", 1, 1, i, 0, 0, 0, 0);
+      this.album.takeSnapshot("made " + i);
+      this.album.deleteShape("shape");
+      this.album.takeSnapshot("deleted " + i);
+    }
+    assertEquals(0, this.album.getShapeNames().size());
+    assertEquals(1, this.album.getSnapshots().get(98).getShapes().size());
+    assertEquals(49, this.album.getSnapshots().get(98).getShapes().get(0).getX());
+    this.album.makeShape("oval", "shape", 1, 1, 7, 0, 0, 0, 0);
+    assertEquals(7, this.album.getShapes().get(0).getX());
+  }
+
+  /**
+   * Test a single thread sees the same shapes and snapshots as ShapesPhotoAlbum.
+   */
+  @Test
+  public void testMatchesShapesPhotoAlbum() {
+    ShapesPhotoAlbum expected = new ShapesPhotoAlbum();
+    for (int i = 0; i < 100; i++) {
+      expected.makeShape("rectangle", "r" + i, 1, 1, i, i, 0, 0, 0);
+      this.album.makeShape("rectangle", "r" + i, 1, 1, i, i, 0, 0, 0);
+    }
+    expected.takeSnapshot("first");
+    this.album.takeSnapshot("first");
+    for (int i = 0; i < 99; i += 3) {
+      expected.deleteShape("r" + i);
+      this.album.deleteShape("r" + i);
+      expected.moveShape("r" + (i + 1), -i, -i);
+      this.album.moveShape("r" + (i + 1), -i, -i);
+    }
+    expected.makeShape("oval", "r0", 2, 2, 5, 5, 255, 0, 0);
+    this.album.makeShape("oval", "r0", 2, 2, 5, 5, 255, 0, 0);
+    expected.takeSnapshot("second");
+    this.album.takeSnapshot("second");
+
+    assertEquals(expected.getShapeNames(), this.album.getShapeNames());
+    assertEquals(expected.getShapes(), this.album.getShapes());
+    assertEquals(expected.getShapesInRegion(0, 0, 10, 10),
+            this.album.getShapesInRegion(0, 0, 10, 10));
+    assertEquals(expected.getShapeAt(5, 5), this.album.getShapeAt(5, 5));
+    for (int i = 0; i < 2; i++) {
+      assertEquals(expected.getSnapshots().get(i).getShapes(),
+              this.album.getSnapshots().get(i).getShapes());
+    }
+    String id = this.album.getSnapshotIDs().get(1);
+    assertEquals(1, this.album.indexOf(id));
+    assertEquals("second", this.album.getSnapshot(id).getDescription());
+  }
+
+  /**
+   * Stress test. Each writer thread moves shape a then shape b to the same x, over and over,
+   * while another thread takes snapshots. A point-in-time snapshot can never show b ahead of a.
+   */
+  @Test
+  public void testSnapshotsAreConsistentUnderConcurrentWriters() throws InterruptedException {
+    for (int t = 0; t < WRITERS; t++) {
+      this.album.makeShape("rectangle", "a" + t, 1, 1, 0, 0, 0, 0, 0);
+      this.album.makeShape("rectangle", "b" + t, 1, 1, 0, 0, 0, 0, 0);
+    }
+
+    CountDownLatch start = new CountDownLatch(1);
+    AtomicBoolean done = new AtomicBoolean(false);
+    AtomicReference<Throwable> failure = new AtomicReference<>();
+    List<Thread> writers = new ArrayList<>();
+    for (int t = 0; t < WRITERS; t++) {
+      String a = "a" + t;
+      String b = "b" + t;
+      String extra = "extra" + t;
+      Thread writer = new Thread(() -> {
+        try {
+          start.await();
+          for (int i = 1; i <= STEPS; i++) {
+            this.album.moveShape(a, i, 0);
+            this.album.moveShape(b, i, 0);
+            // Churn creates and deletes alongside the moves
+            if (i % 100 == 0) {
+              this.album.makeShape("oval", extra, 1, 1, i, i, 0, 0, 0);
+              this.album.deleteShape(extra);
+            }
+          }
+        } catch (Throwable e) {
+          failure.compareAndSet(null, e);
+        }
+      });
+      writers.add(writer);
+      writer.start();
+    }
+    Thread snapshotter = new Thread(() -> {
+      try {
+        start.await();
+        while (!done.get()) {
+          this.album.takeSnapshot("stress");
+        }
+      } catch (Throwable e) {
+        failure.compareAndSet(null, e);
+      }
+    });
+    snapshotter.start();
+
+    start.countDown();
+    for (Thread writer : writers) {
+      writer.join();
+    }
+    done.set(true);
+    snapshotter.join();
+    assertEquals(null, failure.get());
+
+    List<Snapshot> snapshots = this.album.getSnapshots();
+    assertTrue(snapshots.size() > 0);
+    int[] lastX = new int[WRITERS];
+    for (Snapshot snapshot : snapshots) {
+      List<I2DShape> shapes = snapshot.getShapes();
+      // a0, b0, a1, b1 ... in insertion order, extra shapes come after
+      for (int t = 0; t < WRITERS; t++) {
+        int ax = shapes.get(2 * t).getX();
+        int bx = shapes.get(2 * t + 1).getX();
+        assertEquals("a" + t, shapes.get(2 * t).getName());
+        assertTrue(ax == bx || ax == bx + 1);
+        assertTrue(ax >= lastX[t]);
+        lastX[t] = ax;
+      }
+    }
+    for (int t = 0; t < WRITERS; t++) {
+      assertEquals(STEPS, this.album.getShapes().get(2 * t + 1).getX());
+    }
+    assertEquals(2 * WRITERS, this.album.getShapeNames().size());
+  }
+
+  /**
+   * Test diff() between snapshots, and with a snapshot from another album.
+   */
+  @Test(expected = IllegalArgumentException.class)
+  public void testDiff() {
+    this.album.makeShape("rectangle", "rect", 5, 5, 0, 0, 0, 0, 0);
+    this.album.takeSnapshot("first");
+    this.album.colorShape("rect", 1, 2, 3);
+    this.album.takeSnapshot("second");
+    List<Snapshot> snapshots = this.album.getSnapshots();
+    SnapshotDiff diff = this.album.diff(snapshots.get(1), snapshots.get(0));
+    assertEquals(EnumSet.of(SnapshotDiff.Field.COLOR), diff.getChanged().get(0).getFields());
+    assertEquals(0, diff.getChanged().get(0).getAfter().getRGB().getR());
+
+    ShapesPhotoAlbum other = new ShapesPhotoAlbum();
+    other.takeSnapshot("other");
+    this.album.diff(snapshots.get(0), other.getSnapshots().get(0));
+  }
+
+  /**
+   * Test getShapesOfType() and getShapesWithColor() match the object album.
+   */
+  @Test
+  public void testShapesOfTypeAndColor() {
+    ShapesPhotoAlbum objects = new ShapesPhotoAlbum();
+    for (int i = 0; i < 30; i++) {
+      String type = i % 2 == 0 ? "oval" : "rectangle";
+      objects.makeShape(type, "s" + i, 2, 3, i, i, i % 3, 0, 0);
+      this.album.makeShape(type, "s" + i, 2, 3, i, i, i % 3, 0, 0);
+    }
+    objects.colorShape("s4", 2, 0, 0);
+    this.album.colorShape("s4", 2, 0, 0);
+    assertEquals(objects.getShapesOfType("oval"), this.album.getShapesOfType("oval"));
+    assertEquals(objects.getShapesWithColor(2, 0, 0), this.album.getShapesWithColor(2, 0, 0));
+  }
+
+  /**
+   * Test reorderShape() matches the object album, including many moves into the same gap, and
+   * leaves snapshots already taken alone.
+   */
+  @Test
+  public void testReorder() {
+    ShapesPhotoAlbum objects = new ShapesPhotoAlbum();
+    for (int i = 0; i < 10; i++) {
+      objects.makeShape("rectangle", "r" + i, 5, 5, i, 0, 0, 0, 0);
+      this.album.makeShape("rectangle", "r" + i, 5, 5, i, 0, 0, 0, 0);
+    }
+    this.album.takeSnapshot("before");
+    for (int i = 0; i < 60; i++) {
+      String name = "r" + (i % 10);
+      objects.reorderShape(name, 1);
+      this.album.reorderShape(name, 1);
+    }
+    objects.bringToFront("r4");
+    this.album.bringToFront("r4");
+    objects.sendToBack("r7");
+    this.album.sendToBack("r7");
+    objects.makeShape("oval", "o", 1, 1, 0, 0, 0, 0, 0);
+    this.album.makeShape("oval", "o", 1, 1, 0, 0, 0, 0, 0);
+    assertEquals(objects.getShapes(), this.album.getShapes());
+    assertEquals(objects.getShapeAt(6, 1), this.album.getShapeAt(6, 1));
+    assertEquals("r0", this.album.getSnapshots().get(0).getShapes().get(0).getName());
+
+    assertTrue(objects.undo());
+    assertTrue(objects.undo());
+    assertTrue(this.album.undo());
+    assertTrue(this.album.undo());
+    assertEquals(objects.getShapeNames(), this.album.getShapeNames());
+  }
+
+  /**
+   * Test reorders keep matching the object album while shapes are deleted and made again, so
+   * paint order slots are given back and handed out again.
+   */
+  @Test
+  public void testReorderWithDeletes() {
+    ShapesPhotoAlbum objects = new ShapesPhotoAlbum();
+    for (int i = 0; i < 20; i++) {
+      objects.makeShape("rectangle", "r" + i, 5, 5, i, 0, 0, 0, 0);
+      this.album.makeShape("rectangle", "r" + i, 5, 5, i, 0, 0, 0, 0);
+    }
+    for (int i = 0; i < 200; i++) {
+      String name = "r" + (i * 7 % 20);
+      if (i % 4 == 0) {
+        objects.deleteShape(name);
+        this.album.deleteShape(name);
+        objects.makeShape("oval", name, 1, 1, i, 0, 0, 0, 0);
+        this.album.makeShape("oval", name, 1, 1, i, 0, 0, 0, 0);
+      } else {
+        objects.reorderShape(name, i % 20);
+        this.album.reorderShape(name, i % 20);
+      }
+      if (i % 50 == 0) {
+        this.album.takeSnapshot("during");
+      }
+    }
+    assertEquals(objects.getShapes(), this.album.getShapes());
+  }
+
+  /**
+   * Test listeners are told about each edit, reorder and snapshot with the shapes involved.
+   */
+  @Test
+  public void testListener() {
+    List<String> heard = new ArrayList<>();
+    AlbumListener listener = new AlbumListener() {
+      @Override
+      public void shapeMade(I2DShape shape) {
+        heard.add("made " + shape);
+      }
+
+      @Override
+      public void shapeChanged(I2DShape previous, I2DShape shape) {
+        heard.add("changed " + previous.getName() + " " + shape.getX() + " " + shape.getLength()
+                + " " + shape.getRGB().getR());
+      }
+
+      @Override
+      public void shapeDeleted(I2DShape shape) {
+        heard.add("deleted " + shape.getName());
+      }
+
+      @Override
+      public void shapeReordered(I2DShape shape, int previous, int index) {
+        heard.add("reordered " + shape.getName() + " " + previous + " " + index);
+      }
+
+      @Override
+      public void snapshotTaken(Snapshot snapshot) {
+        heard.add("snapshot " + snapshot.getShapes().size());
+      }
+    };
+    this.album.addListener(listener);
+    this.album.makeShape("oval", "o", 2, 3, 4, 5, 6, 7, 8);
+    this.album.makeShape("rectangle", "r", 1, 1, 0, 0, 0, 0, 0);
+    this.album.moveShape("o", 9, 9);
+    this.album.resizeShape("o", 4, 4);
+    this.album.colorShape("o", 10, 0, 0);
+    this.album.bringToFront("o");
+    this.album.takeSnapshot("two");
+    this.album.deleteShape("r");
+    assertTrue(this.album.undo());
+
+    List<String> expected = List.of("made " + new Oval("o", 2, 3, 4, 5, 6, 7, 8),
+            "made " + new Rectangle("r", 1, 1, 0, 0, 0, 0, 0), "changed o 9 2 6",
+            "changed o 9 4 6", "changed o 9 4 10", "reordered o 0 1", "snapshot 2",
+            "deleted r", "made " + new Rectangle("r", 1, 1, 0, 0, 0, 0, 0), "reordered r 1 0");
+    assertEquals(expected, heard);
+
+    assertTrue(this.album.removeListener(listener));
+    this.album.deleteShape("r");
+    assertEquals(expected.size(), heard.size());
+  }
+}
@@ -0,0 +1,118 @@
+package modeltest;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Before;
+import org.junit.Test;
+import model.DeltaSnapshotLog;
+import model.PersistentShapeStore;
+import model.ShapesPhotoAlbum;
+import model.SnapshotMode;
+import utilities.shapes.I2DShape;
+import utilities.shapes.Oval;
+import utilities.shapes.Rectangle;
+
+/**
+ * DeltaSnapshotLog test class.
+ */
+public class DeltaSnapshotLogTest {
+  private DeltaSnapshotLog log;
+  private PersistentShapeStore canvas;
+
+  /**
+   * Create objects for testing.
+   */
+  @Before
+  public void setup() {
+    this.log = new DeltaSnapshotLog(3);
+    this.canvas = new PersistentShapeStore();
+  }
+
+  /**
+   * Test constructor with bad keyframe interval.
+   */
+  @Test(expected = IllegalArgumentException.class)
+  public void testBadInterval() {
+    new DeltaSnapshotLog(0);
+  }
+
+  /**
+   * Test frames rebuild the canvas as it was when they were taken.
+   */
+  @Test
+  public void testShapesAt() {
+    I2DShape oval = new Oval("oval", 2, 3, 1, 1, 0, 0, 255);
+    I2DShape rectangle = new Rectangle("rectangle", 3, 3, 0, 0, 0, 0, 0);
+    this.log.record(this.canvas.add(oval), oval);
+    this.log.record(this.canvas.add(rectangle), rectangle);
+    this.log.take(this.canvas);
+
+    I2DShape moved = new Oval("oval", 2, 3, 5, 5, 0, 0, 255);
+    this.canvas.set(0, moved);
+    this.log.record(0, moved);
+    this.log.take(this.canvas);
+
+    this.canvas.remove(1);
+    this.log.record(1, null);
+    this.log.take(this.canvas);
+
+    assertEquals(3, this.log.size());
+    assertEquals(List.of(oval, rectangle), this.log.shapesAt(0));
+    assertEquals(List.of(moved, rectangle), this.log.shapesAt(1));
+    assertEquals(List.of(moved), this.log.shapesAt(2));
+  }
+
+  /**
+   * Test an album in DELTA mode produces the same snapshots as one in SHARED mode.
+   */
+  @Test
+  public void testDeltaAlbumMatchesSharedAlbum() {
+    ShapesPhotoAlbum shared = new ShapesPhotoAlbum();
+    ShapesPhotoAlbum delta = new ShapesPhotoAlbum(SnapshotMode.DELTA, 4);
+    Random random = new Random(5004);
+
+    for (int i = 0; i < 2500; i++) {
+      shared.makeShape("rectangle", "r" + i, 1 + i % 7, 2, i, i, 0, 0, 0);
+      delta.makeShape("rectangle", "r" + i, 1 + i % 7, 2, i, i, 0, 0, 0);
+    }
+    int deleted = 0;
+    for (int step = 0; step < 60; step++) {
+      for (int i = 0; i < 40; i++) {
+        String name = "r" + (deleted + random.nextInt(2500 - deleted));
+        int x = random.nextInt(1000);
+        shared.moveShape(name, x, x);
+        delta.moveShape(name, x, x);
+        shared.colorShape(name, x % 256, 0, 0);
+        delta.colorShape(name, x % 256, 0, 0);
+      }
+      // Delete in order so both albums compact at the same point
+      for (int i = 0; i < 40 && deleted < 2400; i++) {
+        shared.deleteShape("r" + deleted);
+        delta.deleteShape("r" + deleted);
+        deleted++;
+      }
+      shared.takeSnapshot("step " + step);
+      delta.takeSnapshot("step " + step);
+    }
+
+    assertEquals(shared.getSnapshots().size(), delta.getSnapshots().size());
+    for (int i = 0; i < shared.getSnapshots().size(); i++) {
+      assertEquals(shared.getSnapshots().get(i).getShapes(),
+              delta.getSnapshots().get(i).getShapes());
+    }
+  }
+
+  /**
+   * Test snapshots in DELTA mode cannot be modified.
+   */
+  @Test(expected = UnsupportedOperationException.class)
+  public void testUnmodifiableShapes() {
+    ShapesPhotoAlbum album = new ShapesPhotoAlbum(SnapshotMode.DELTA);
+    album.makeShape("oval", "oval", 2, 3, 1, 1, 0, 0, 255);
+    album.takeSnapshot("snapshot");
+    album.getSnapshots().get(0).getShapes().remove(0);
+  }
+}
@@ -0,0 +1,199 @@
+package modeltest;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Supplier;
+
+import org.junit.Before;
+import org.junit.Test;
+import model.EventLog;
+import model.PersistentShapeStore;
+import model.ShapeOperation;
+import model.ShapesPhotoAlbum;
+import model.SnapshotMode;
+import utilities.shapes.I2DShape;
+import utilities.shapes.Oval;
+import utilities.shapes.Rectangle;
+
+/**
+ * EventLog test class.
+ */
+public class EventLogTest {
+  private EventLog log;
+  private PersistentShapeStore canvas;
+
+  /**
+   * Create objects for testing.
+   */
+  @Before
+  public void setup() {
+    this.log = new EventLog(2);
+    this.canvas = new PersistentShapeStore();
+  }
+
+  /**
+   * Test constructor with bad checkpoint interval.
+   */
+  @Test(expected = IllegalArgumentException.class)
+  public void testBadInterval() {
+    new EventLog(0);
+  }
+
+  /**
+   * Test shapesAt() with offset past the end of the log.
+   */
+  @Test(expected = IndexOutOfBoundsException.class)
+  public void testBadShapesAt() {
+    this.log.shapesAt(1);
+  }
+
+  /**
+   * Test offsets rebuild the canvas as it was when they were taken, across checkpoints.
+   */
+  @Test
+  public void testShapesAt() {
+    I2DShape oval = new Oval("oval", 2, 3, 1, 1, 0, 0, 255);
+    I2DShape rectangle = new Rectangle("rectangle", 3, 3, 0, 0, 0, 0, 0);
+    Supplier<List<I2DShape>> empty = this.log.take();
+    this.log.record(this.canvas, this.canvas.add(oval), oval);
+    this.log.record(this.canvas, this.canvas.add(rectangle), rectangle);
+    Supplier<List<I2DShape>> first = this.log.take();
+
+    I2DShape moved = new Oval("oval", 2, 3, 5, 5, 0, 0, 255);
+    this.canvas.set(0, moved);
+    this.log.record(this.canvas, 0, moved);
+    Supplier<List<I2DShape>> second = this.log.take();
+    this.canvas.remove(1);
+    this.log.record(this.canvas, 1, null);
+    Supplier<List<I2DShape>> third = this.log.take();
+
+    assertEquals(4, this.log.size());
+    assertTrue(this.log.checkpointCount() > 1);
+    assertEquals(List.of(), empty.get());
+    assertEquals(List.of(oval, rectangle), first.get());
+    assertEquals(List.of(moved, rectangle), second.get());
+    assertEquals(List.of(moved), third.get());
+  }
+
+  /**
+   * Test checkpoints are spaced by the canvas size once it outgrows the interval.
+   */
+  @Test
+  public void testCheckpointSpacing() {
+    for (int i = 0; i < 100; i++) {
+      I2DShape shape = new Rectangle("r" + i, 1, 1, i, i, 0, 0, 0);
+      this.log.record(this.canvas, this.canvas.add(shape), shape);
+    }
+    this.log.checkpoint(this.canvas);
+    int checkpoints = this.log.checkpointCount();
+    for (int i = 0; i < 100; i++) {
+      assertEquals(checkpoints, this.log.checkpointCount());
+      I2DShape shape = new Rectangle("r0", 1, 1, i, i, 0, 0, 0);
+      this.canvas.set(0, shape);
+      this.log.record(this.canvas, 0, shape);
+    }
+    assertEquals(checkpoints + 1, this.log.checkpointCount());
+  }
+
+  /**
+   * Test a checkpoint taken when the canvas is renumbered does not replace the one a snapshot at
+   * the same offset replays from.
+   */
+  @Test
+  public void testCheckpointKeepsTakenOffset() {
+    I2DShape oval = new Oval("oval", 2, 3, 1, 1, 0, 0, 255);
+    I2DShape rectangle = new Rectangle("rectangle", 3, 3, 0, 0, 0, 0, 0);
+    this.log.record(this.canvas, this.canvas.add(oval), oval);
+    this.log.record(this.canvas, this.canvas.add(rectangle), rectangle);
+    this.canvas.remove(0);
+    this.log.record(this.canvas, 0, null);
+    Supplier<List<I2DShape>> taken = this.log.take();
+
+    PersistentShapeStore renumbered = new PersistentShapeStore();
+    renumbered.add(rectangle);
+    renumbered.add(oval);
+    this.log.checkpoint(renumbered);
+
+    assertEquals(List.of(rectangle), taken.get());
+    assertEquals(List.of(rectangle, oval), this.log.shapesAt(this.log.size()));
+  }
+
+  /**
+   * Test a snapshot taken in a batch keeps its paint order when committing the batch compacts
+   * the canvas.
+   */
+  @Test
+  public void testSnapshotInCompactedBatch() {
+    ShapesPhotoAlbum album = new ShapesPhotoAlbum(SnapshotMode.EVENT_LOG, 64);
+    List<ShapeOperation> operations = new ArrayList<>();
+    for (int i = 0; i < 1100; i++) {
+      album.makeShape("rectangle", "f" + i, 1, 1, i, i, 0, 0, 0);
+      operations.add(ShapeOperation.remove("f" + i));
+    }
+    for (int i = 0; i < 3; i++) {
+      album.makeShape("oval", "s" + i, 1, 1, i, i, 0, 0, 0);
+    }
+    album.reorderShape("s2", 0);
+    operations.add(ShapeOperation.snapshot("inside"));
+    album.applyBatch(operations);
+
+    List<String> names = new ArrayList<>();
+    for (I2DShape shape : album.getSnapshots().get(0).getShapes()) {
+      names.add(shape.getName());
+    }
+    assertEquals(List.of("s2", "s0", "s1"), names);
+    assertEquals(List.of("s2", "s0", "s1"), album.getShapeNames());
+  }
+
+  /**
+   * Test an album in EVENT_LOG mode produces the same snapshots as one in SHARED mode, through
+   * compaction and rolled back transactions.
+   */
+  @Test
+  public void testEventLogAlbumMatchesSharedAlbum() {
+    ShapesPhotoAlbum shared = new ShapesPhotoAlbum();
+    ShapesPhotoAlbum events = new ShapesPhotoAlbum(SnapshotMode.EVENT_LOG, 64);
+    Random random = new Random(5004);
+
+    for (int i = 0; i < 2500; i++) {
+      shared.makeShape("rectangle", "r" + i, 1 + i % 7, 2, i, i, 0, 0, 0);
+      events.makeShape("rectangle", "r" + i, 1 + i % 7, 2, i, i, 0, 0, 0);
+    }
+    int deleted = 0;
+    for (int step = 0; step < 60; step++) {
+      for (int i = 0; i < 40; i++) {
+        String name = "r" + (deleted + random.nextInt(2500 - deleted));
+        int x = random.nextInt(1000);
+        shared.moveShape(name, x, x);
+        events.moveShape(name, x, x);
+        shared.colorShape(name, x % 256, 0, 0);
+        events.colorShape(name, x % 256, 0, 0);
+      }
+      // Delete in order so both albums compact at the same point
+      for (int i = 0; i < 40 && deleted < 2400; i++) {
+        shared.deleteShape("r" + deleted);
+        events.deleteShape("r" + deleted);
+        deleted++;
+      }
+      if (step % 10 == 0) {
+        events.beginTransaction();
+        events.moveShape("r2499", -5, -5);
+        events.deleteShape("r2498");
+        events.takeSnapshot("rolled back");
+        events.rollback();
+      }
+      shared.takeSnapshot("step " + step);
+      events.takeSnapshot("step " + step);
+    }
+
+    assertEquals(shared.getSnapshots().size(), events.getSnapshots().size());
+    for (int i = 0; i < shared.getSnapshots().size(); i++) {
+      assertEquals(shared.getSnapshots().get(i).getShapes(),
+              events.getSnapshots().get(i).getShapes());
+    }
+  }
+}
@@ -0,0 +1,114 @@
+package modeltest;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+import model.OcclusionCuller;
+import model.ShapesPhotoAlbum;
+import utilities.shapes.I2DShape;
+import utilities.shapes.Oval;
+import utilities.shapes.Rectangle;
+import utilities.shapes.Triangle;
+
+/**
+ * OcclusionCuller test class.
+ */
+public class OcclusionCullerTest {
+  private List<I2DShape> shapes;
+  private I2DShape background;
+
+  /**
+   * Create objects for testing.
+   */
+  @Before
+  public void setup() {
+    this.shapes = new ArrayList<>();
+    this.background = new Rectangle("background", 800, 800, 0, 0, 0, 0, 0);
+  }
+
+  /**
+   * Test shapes under a later rectangle are dropped and the rest keep paint order.
+   */
+  @Test
+  public void testHiddenShapesDropped() {
+    I2DShape window = new Rectangle("window", 20, 20, 600, 600, 255, 255, 0);
+    I2DShape moon = new Oval("moon", 50, 50, 200, 200, 255, 255, 255);
+    I2DShape roof = new Triangle("roof", 10, 30, 100, 100, 255, 0, 0);
+    I2DShape wall = new Rectangle("wall", 300, 300, 50, 50, 0, 0, 255);
+    this.shapes.add(window);
+    this.shapes.add(moon);
+    this.shapes.add(roof);
+    this.shapes.add(this.background);
+    this.shapes.add(wall);
+
+    List<I2DShape> visible = OcclusionCuller.visibleShapes(this.shapes);
+    assertEquals(List.of(this.background, wall), visible);
+  }
+
+  /**
+   * Test shapes only partly covered, or covered by an earlier rectangle, are kept.
+   */
+  @Test
+  public void testPartlyHiddenShapesKept() {
+    this.shapes.add(this.background);
+    this.shapes.add(new Rectangle("edge", 10, 10, 795, 0, 0, 0, 0));
+    this.shapes.add(new Oval("corner", 10, 10, 5, 5, 0, 0, 0));
+    this.shapes.add(new Rectangle("cover", 10, 10, 790, 0, 0, 0, 0));
+
+    // Oval at 5,5 with radii 10 reaches past the background's corner
+    List<I2DShape> visible = OcclusionCuller.visibleShapes(this.shapes);
+    assertSame(this.shapes, visible);
+  }
+
+  /**
+   * Test shapes whose box matches a later rectangle exactly are dropped, and ovals and
+   * triangles never hide anything.
+   */
+  @Test
+  public void testExactCoverAndOccluders() {
+    this.shapes.add(new Rectangle("under", 10, 20, 5, 5, 0, 0, 0));
+    this.shapes.add(new Oval("oval", 400, 400, 400, 400, 0, 0, 0));
+    this.shapes.add(new Triangle("triangle", 800, 800, 0, 0, 0, 0, 0));
+    this.shapes.add(new Rectangle("over", 10, 20, 5, 5, 255, 0, 0));
+
+    List<I2DShape> visible = OcclusionCuller.visibleShapes(this.shapes);
+    assertEquals(3, visible.size());
+    assertEquals("oval", visible.get(0).getName());
+    assertEquals("over", visible.get(2).getName());
+  }
+
+  /**
+   * Test culling a snapshot with many shapes under a background.
+   */
+  @Test
+  public void testSnapshotCulling() {
+    ShapesPhotoAlbum album = new ShapesPhotoAlbum();
+    for (int i = 0; i < 2000; i++) {
+      album.makeShape("oval", "o" + i, 3, 3, (i * 7) % 700 + 10, (i * 13) % 700 + 10, 0, 0, 0);
+    }
+    album.makeShape("rectangle", "background", 800, 800, 0, 0, 0, 0, 0);
+    album.makeShape("rectangle", "sign", 10, 10, 20, 20, 255, 0, 0);
+    album.takeSnapshot("covered");
+
+    List<I2DShape> visible = OcclusionCuller.visibleShapes(album.getSnapshots().get(0)
+            .getShapes());
+    assertEquals(2, visible.size());
+    assertEquals("background", visible.get(0).getName());
+  }
+
+  /**
+   * Test an empty list or a list without rectangles is returned as is.
+   */
+  @Test
+  public void testNothingToCull() {
+    assertSame(this.shapes, OcclusionCuller.visibleShapes(this.shapes));
+    this.shapes.add(new Oval("moon", 50, 50, 200, 200, 255, 255, 255));
+    this.shapes.add(new Oval("moon2", 50, 50, 200, 200, 255, 255, 255));
+    assertSame(this.shapes, OcclusionCuller.visibleShapes(this.shapes));
+  }
+}
@@ -0,0 +1,515 @@
+package modeltest;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Before;
+import org.junit.Test;
+import model.AlbumListener;
+import model.PackedShapesPhotoAlbum;
+import model.ShapeOperation;
+import model.ShapesPhotoAlbum;
+import model.SnapshotDiff;
+import utilities.Snapshot;
+import utilities.shapes.I2DShape;
+import utilities.shapes.Oval;
+import utilities.shapes.Rectangle;
+import utilities.shapes.Triangle;
+
+/**
+ * PackedShapesPhotoAlbum test class.
+ */
+public class PackedShapesPhotoAlbumTest {
+  private PackedShapesPhotoAlbum album;
+
+  /**
+   * Create object for testing.
+   */
+  @Before
+  public void setup() {
+    this.album = new PackedShapesPhotoAlbum();
+  }
+
+  /**
+   * Test makeShape() with invalid shape type.
+   */
+  @Test(expected = IllegalArgumentException.class)
+  public void testBadMakeShapeType() {
+    this.album.makeShape("hexagon", "shape", 1, 1, 0, 0, 0, 0, 0);
+  }
+
+  /**
+   * Test makeShape() with duplicate name.
+   */
+  @Test(expected = IllegalArgumentException.class)
+  public void testBadMakeShapeName() {
+    this.album.makeShape("oval", "shape", 1, 1, 0, 0, 0, 0, 0);
+    this.album.makeShape("rectangle", "shape", 1, 1, 0, 0, 0, 0, 0);
+  }
+
+  /**
+   * Test makeShape() with invalid dimensions.
+   */
+  @Test(expected = IllegalArgumentException.class)
+  public void testBadMakeShapeDimensions() {
+    this.album.makeShape("oval", "shape", 0, 1, 0, 0, 0, 0, 0);
+  }
+
+  /**
+   * Test colorShape() with invalid color.
+   */
+  @Test(expected = IllegalArgumentException.class)
+  public void testBadColorShape() {
+    this.album.makeShape("oval", "shape", 1, 1, 0, 0, 0, 0, 0);
+    this.album.colorShape("shape", 0, 256, 0);
+  }
+
+  /**
+   * Test moveShape() with nonexistent shape.
+   */
+  @Test(expected = IllegalArgumentException.class)
+  public void testBadMoveShape() {
+    this.album.moveShape("shape", 1, 1);
+  }
+
+  /**
+   * Test shapes are rebuilt with their type, position, size and color.
+   */
+  @Test
+  public void testGetShapes() {
+    this.album.makeShape("Oval", "oval", 2, 3, 1, 1, 0, 0, 255);
+    this.album.makeShape("recTangle", "rectangle", 3, 3, 0, 0, 0, 0, 0);
+    this.album.makeShape("triangle", "triangle", 2, 1, 0, 0, 0, 0, 0);
+    this.album.moveShape("triangle", -4, 9);
+    this.album.colorShape("rectangle", 10, 20, 30);
+    this.album.resizeShape("oval", 7, 8);
+
+    List<I2DShape> shapes = this.album.getShapes();
+    assertEquals(new Oval("oval", 7, 8, 1, 1, 0, 0, 255), shapes.get(0));
+    assertEquals(new Rectangle("rectangle", 3, 3, 0, 0, 10, 20, 30), shapes.get(1));
+    assertEquals(new Triangle("triangle", 2, 1, -4, 9, 0, 0, 0), shapes.get(2));
+    assertEquals("[oval, rectangle, triangle]", this.album.getShapeNames().toString());
+  }
+
+  /**
+   * Test snapshots keep the shapes as they were when taken.
+   */
+  @Test
+  public void testTakeSnapshot() {
+    this.album.makeShape("Oval", "oval", 2, 3, 1, 1, 0, 0, 255);
+    this.album.makeShape("recTangle", "rectangle", 3, 3, 0, 0, 0, 0, 0);
+    this.album.takeSnapshot("first");
+    this.album.deleteShape("oval");
+    this.album.moveShape("rectangle", 5, 5);
+    this.album.takeSnapshot("second");
+
+    assertEquals(2, this.album.getSnapshots().size());
+    assertEquals(2, this.album.getSnapshotIDs().size());
+    String id = this.album.getSnapshotIDs().get(1);
+    assertEquals(1, this.album.indexOf(id));
+    assertEquals(this.album.getSnapshots().get(1), this.album.getSnapshot(id));
+    List<I2DShape> first = this.album.getSnapshots().get(0).getShapes();
+    List<I2DShape> second = this.album.getSnapshots().get(1).getShapes();
+    assertEquals(2, first.size());
+    assertEquals(0, first.get(1).getX());
+    assertEquals(1, second.size());
+    assertEquals(5, second.get(0).getX());
+    assertEquals("second", this.album.getSnapshots().get(1).getDescription());
+  }
+
+  /**
+   * Test the packed album produces the same shapes and snapshots as the object album.
+   */
+  @Test
+  public void testMatchesShapesPhotoAlbum() {
+    ShapesPhotoAlbum objects = new ShapesPhotoAlbum();
+    Random random = new Random(5004);
+
+    for (int i = 0; i < 3000; i++) {
+      String type = i % 3 == 0 ? "oval" : i % 3 == 1 ? "rectangle" : "triangle";
+      objects.makeShape(type, "s" + i, 1 + i % 5, 1 + i % 9, i, -i, i % 256, 0, 0);
+      this.album.makeShape(type, "s" + i, 1 + i % 5, 1 + i % 9, i, -i, i % 256, 0, 0);
+    }
+    for (int i = 0; i < 2500; i++) {
+      objects.deleteShape("s" + i);
+      this.album.deleteShape("s" + i);
+      String name = "s" + (2500 + random.nextInt(500));
+      objects.moveShape(name, i, i);
+      this.album.moveShape(name, i, i);
+      if (i % 100 == 0) {
+        objects.takeSnapshot("snapshot " + i);
+        this.album.takeSnapshot("snapshot " + i);
+      }
+    }
+
+    assertEquals(objects.getShapeNames(), this.album.getShapeNames());
+    assertEquals(objects.getShapes(), this.album.getShapes());
+    assertEquals(objects.getCurrentState(), this.album.getCurrentState());
+    for (int i = 0; i < objects.getSnapshots().size(); i++) {
+      assertEquals(objects.getSnapshots().get(i).getShapes(),
+              this.album.getSnapshots().get(i).getShapes());
+    }
+  }
+
+  /**
+   * Test applyBatch() grows the columns for a large batch and matches the object album.
+   */
+  @Test
+  public void testApplyBatch() {
+    ShapesPhotoAlbum objects = new ShapesPhotoAlbum();
+    List<ShapeOperation> operations = new ArrayList<>();
+    for (int i = 0; i < 5000; i++) {
+      operations.add(ShapeOperation.make("oval", "s" + i, 2, 3, i, i, 0, i % 256, 0));
+      if (i % 7 == 0) {
+        operations.add(ShapeOperation.move("s" + i, -i, i));
+      }
+    }
+    operations.add(ShapeOperation.snapshot("batch"));
+    objects.applyBatch(operations);
+    this.album.applyBatch(operations);
+
+    assertEquals(objects.getShapes(), this.album.getShapes());
+    assertEquals(objects.getShapesInRegion(-100, 0, 200, 200),
+            this.album.getShapesInRegion(-100, 0, 200, 200));
+    assertEquals(objects.getSnapshots().get(0).getShapes(),
+            this.album.getSnapshots().get(0).getShapes());
+  }
+
+  /**
+   * Test an album with large grid cells finds the same shapes as the object album.
+   */
+  @Test
+  public void testGridCellSize() {
+    PackedShapesPhotoAlbum large = new PackedShapesPhotoAlbum(1000);
+    ShapesPhotoAlbum objects = new ShapesPhotoAlbum();
+    for (int i = 0; i < 300; i++) {
+      large.makeShape("oval", "o" + i, 1 + i % 9, 1 + i % 7, i * 7 % 500, i * 13 % 500, 0, 0, 0);
+      objects.makeShape("oval", "o" + i, 1 + i % 9, 1 + i % 7, i * 7 % 500, i * 13 % 500, 0, 0,
+              0);
+      if (i % 4 == 0) {
+        large.deleteShape("o" + (i / 2));
+        objects.deleteShape("o" + (i / 2));
+      }
+    }
+
+    assertEquals(objects.getShapesInRegion(100, 100, 150, 150),
+            large.getShapesInRegion(100, 100, 150, 150));
+    assertEquals(objects.getShapeAt(250, 250), large.getShapeAt(250, 250));
+  }
+
+  /**
+   * Test constructor if pass a cell size that is not positive.
+   */
+  @Test(expected = IllegalArgumentException.class)
+  public void testBadGridCellSize() {
+    new PackedShapesPhotoAlbum(-1);
+  }
+
+  /**
+   * Test applyBatch() checks the whole batch first and applies none of it if an operation would
+   * be rejected, following the names and shape count the batch itself changes.
+   */
+  @Test
+  public void testBadApplyBatch() {
+    this.album.makeShape("rectangle", "rect", 5, 5, 0, 0, 0, 0, 0);
+    List<List<ShapeOperation>> batches = List.of(
+            List.of(ShapeOperation.move("rect", 9, 9), ShapeOperation.remove("rect"),
+                    ShapeOperation.move("rect", 1, 1)),
+            List.of(ShapeOperation.make("oval", "oval", 1, 1, 0, 0, 0, 0, 0),
+                    ShapeOperation.reorder("oval", 2)),
+            List.of(ShapeOperation.make("oval", "oval", 1, 1, 0, 0, 0, 0, 0),
+                    ShapeOperation.make("oval", "oval", 1, 1, 0, 0, 0, 0, 0)),
+            List.of(ShapeOperation.make("circle", "oval", 1, 1, 0, 0, 0, 0, 0)),
+            List.of(ShapeOperation.resize("rect", 0, 1)),
+            List.of(ShapeOperation.color("rect", 0, -1, 0)),
+            List.of(ShapeOperation.snapshot("kept?"), ShapeOperation.bringToFront(" ")));
+    for (List<ShapeOperation> batch : batches) {
+      try {
+        this.album.applyBatch(batch, 10);
+        throw new AssertionError("Batch applied: " + batch);
+      } catch (IllegalArgumentException e) {
+        assertTrue(e.getMessage().startsWith("Operation 1"));
+      }
+    }
+    assertEquals(List.of("rect"), this.album.getShapeNames());
+    assertEquals(0, this.album.getShapes().get(0).getX());
+    assertEquals(0, this.album.getSnapshots().size());
+
+    this.album.applyBatch(List.of(ShapeOperation.remove("rect"),
+            ShapeOperation.make("oval", "rect", 1, 1, 0, 0, 0, 0, 0),
+            ShapeOperation.reorder("rect", 0)));
+    assertTrue(this.album.getShapes().get(0) instanceof Oval);
+  }
+
+  /**
+   * Test undo() and redo() match the object album.
+   */
+  @Test
+  public void testUndoRedo() {
+    ShapesPhotoAlbum objects = new ShapesPhotoAlbum();
+    List<ShapeOperation> operations = new ArrayList<>();
+    for (int i = 0; i < 50; i++) {
+      operations.add(ShapeOperation.make("triangle", "t" + i, 2, 3, i, i, 0, 0, 0));
+      operations.add(ShapeOperation.move("t" + i, -i, i));
+      operations.add(ShapeOperation.color("t" + i, i, i, i));
+    }
+    operations.add(ShapeOperation.remove("t49"));
+    objects.applyBatch(operations);
+    this.album.applyBatch(operations);
+
+    for (int i = 0; i < 70; i++) {
+      objects.undo();
+      this.album.undo();
+    }
+    assertEquals(objects.getShapes(), this.album.getShapes());
+    for (int i = 0; i < 30; i++) {
+      objects.redo();
+      this.album.redo();
+    }
+    assertEquals(objects.getShapes(), this.album.getShapes());
+  }
+
+  /**
+   * Test diff() matches the object album.
+   */
+  @Test
+  public void testDiff() {
+    ShapesPhotoAlbum objects = new ShapesPhotoAlbum();
+    List<ShapeOperation> operations = new ArrayList<>();
+    for (int i = 0; i < 10; i++) {
+      operations.add(ShapeOperation.make("oval", "o" + i, 2, 3, i, i, 0, 0, 0));
+    }
+    objects.applyBatch(operations);
+    this.album.applyBatch(operations);
+    objects.takeSnapshot("first");
+    this.album.takeSnapshot("first");
+
+    operations.clear();
+    operations.add(ShapeOperation.move("o1", 5, 5));
+    operations.add(ShapeOperation.remove("o2"));
+    operations.add(ShapeOperation.make("rectangle", "r", 1, 1, 0, 0, 0, 0, 0));
+    objects.applyBatch(operations);
+    this.album.applyBatch(operations);
+    objects.takeSnapshot("second");
+    this.album.takeSnapshot("second");
+
+    SnapshotDiff expected = objects.diff(objects.getSnapshots().get(0),
+            objects.getSnapshots().get(1));
+    SnapshotDiff actual = this.album.diff(this.album.getSnapshots().get(0),
+            this.album.getSnapshots().get(1));
+    assertEquals(expected.getAdded(), actual.getAdded());
+    assertEquals(expected.getRemoved(), actual.getRemoved());
+    assertEquals(expected.getChanged().get(0).getFields(),
+            actual.getChanged().get(0).getFields());
+    assertEquals(expected.toString(), actual.toString());
+  }
+
+  /**
+   * Test getShapesOfType() and getShapesWithColor() match the object album.
+   */
+  @Test
+  public void testShapesOfTypeAndColor() {
+    ShapesPhotoAlbum objects = new ShapesPhotoAlbum();
+    List<ShapeOperation> operations = new ArrayList<>();
+    Random random = new Random(18);
+    for (int i = 0; i < 100; i++) {
+      String type = i % 3 == 0 ? "oval" : i % 3 == 1 ? "rectangle" : "triangle";
+      operations.add(ShapeOperation.make(type, "s" + i, 2, 3, i, i, random.nextInt(2), 0, 0));
+    }
+    for (int i = 0; i < 100; i += 7) {
+      operations.add(ShapeOperation.remove("s" + i));
+    }
+    objects.applyBatch(operations);
+    this.album.applyBatch(operations);
+
+    for (String type : List.of("oval", "rectangle", "triangle")) {
+      assertEquals(objects.getShapesOfType(type), this.album.getShapesOfType(type));
+    }
+    assertEquals(objects.getShapesWithColor(1, 0, 0), this.album.getShapesWithColor(1, 0, 0));
+    assertEquals(0, this.album.getShapesWithColor(2, 0, 0).size());
+  }
+
+  /**
+   * Test reorderShape(), bringToFront() and sendToBack() match the object album, across empty
+   * rows and undo.
+   */
+  @Test
+  public void testReorder() {
+    ShapesPhotoAlbum objects = new ShapesPhotoAlbum();
+    List<ShapeOperation> operations = new ArrayList<>();
+    for (int i = 0; i < 30; i++) {
+      operations.add(ShapeOperation.make("rectangle", "r" + i, 5, 5, i, 0, 0, 0, 0));
+    }
+    operations.add(ShapeOperation.remove("r3"));
+    Random random = new Random(19);
+    for (int i = 0; i < 40; i++) {
+      String name = "r" + (4 + random.nextInt(26));
+      if (i % 5 == 0) {
+        operations.add(ShapeOperation.bringToFront(name));
+      } else if (i % 5 == 1) {
+        operations.add(ShapeOperation.sendToBack(name));
+      } else {
+        operations.add(ShapeOperation.reorder(name, random.nextInt(29)));
+      }
+    }
+    objects.applyBatch(operations);
+    this.album.applyBatch(operations);
+    assertEquals(objects.getShapeNames(), this.album.getShapeNames());
+    assertEquals(objects.getShapeAt(6, 1), this.album.getShapeAt(6, 1));
+    assertEquals(objects.getShapesInRegion(0, 0, 20, 20),
+            this.album.getShapesInRegion(0, 0, 20, 20));
+    assertEquals(objects.getShapesOfType("rectangle"), this.album.getShapesOfType("rectangle"));
+    objects.makeShape("oval", "o", 1, 1, 6, 1, 0, 0, 0);
+    this.album.makeShape("oval", "o", 1, 1, 6, 1, 0, 0, 0);
+    objects.takeSnapshot("reordered");
+    this.album.takeSnapshot("reordered");
+    assertEquals(objects.getSnapshots().get(0).getShapes(),
+            this.album.getSnapshots().get(0).getShapes());
+    assertEquals(objects.getShapeAt(6, 1), this.album.getShapeAt(6, 1));
+
+    for (int i = 0; i < 10; i++) {
+      objects.undo();
+      this.album.undo();
+    }
+    assertEquals(objects.getShapeNames(), this.album.getShapeNames());
+  }
+
+  /**
+   * Test compacting the table after shapes were reordered keeps the paint order.
+   */
+  @Test
+  public void testReorderThenCompact() {
+    ShapesPhotoAlbum objects = new ShapesPhotoAlbum();
+    for (int i = 0; i < 3000; i++) {
+      objects.makeShape("rectangle", "r" + i, 5, 5, i, 0, 0, 0, 0);
+      this.album.makeShape("rectangle", "r" + i, 5, 5, i, 0, 0, 0, 0);
+    }
+    for (int i = 0; i < 3000; i += 7) {
+      objects.sendToBack("r" + i);
+      this.album.sendToBack("r" + i);
+    }
+    for (int i = 0; i < 3000; i++) {
+      if (i % 7 != 0 && i != 2) {
+        objects.deleteShape("r" + i);
+        this.album.deleteShape("r" + i);
+      }
+    }
+    assertEquals(objects.getShapeNames(), this.album.getShapeNames());
+    objects.reorderShape("r2", 0);
+    this.album.reorderShape("r2", 0);
+    assertEquals(objects.getShapeNames(), this.album.getShapeNames());
+    assertEquals(objects.getShapeAt(2, 1), this.album.getShapeAt(2, 1));
+  }
+
+  /**
+   * Test names are still found after many shapes are deleted and made again, with the table
+   * compacted on the way.
+   */
+  @Test
+  public void testNamesAfterDeletes() {
+    for (int i = 0; i < 4000; i++) {
+      this.album.makeShape("oval", "o" + i, 1, 1, i, i, 0, 0, 0);
+    }
+    for (int i = 0; i < 4000; i++) {
+      if (i % 5 != 0) {
+        this.album.deleteShape("o" + i);
+      }
+    }
+    for (int i = 1; i < 4000; i += 5) {
+      this.album.makeShape("oval", "o" + i, 2, 2, 0, 0, 0, 0, 0);
+    }
+    for (int i = 0; i < 4000; i++) {
+      try {
+        this.album.moveShape("o" + i, i, -i);
+        assertTrue(i % 5 <= 1);
+      } catch (IllegalArgumentException e) {
+        assertTrue(i % 5 > 1);
+      }
+    }
+    assertEquals(1600, this.album.getShapes().size());
+    assertEquals("o3996", this.album.getShapeNames().get(1599));
+  }
+
+  /**
+   * Test undoing the delete of a shape from the middle of the paint order puts it back there,
+   * before and after shapes have been reordered.
+   */
+  @Test
+  public void testUndoDeleteKeepsOrder() {
+    for (int i = 0; i < 5; i++) {
+      this.album.makeShape("rectangle", "r" + i, 5, 5, i, 0, 0, 0, 0);
+    }
+    this.album.deleteShape("r2");
+    assertTrue(this.album.undo());
+    assertEquals(List.of("r0", "r1", "r2", "r3", "r4"), this.album.getShapeNames());
+
+    this.album.deleteShape("r0");
+    this.album.deleteShape("r3");
+    assertTrue(this.album.undo());
+    assertEquals(List.of("r1", "r2", "r3", "r4"), this.album.getShapeNames());
+
+    this.album.sendToBack("r4");
+    this.album.deleteShape("r1");
+    assertTrue(this.album.undo());
+    assertEquals(List.of("r4", "r1", "r2", "r3"), this.album.getShapeNames());
+  }
+
+  /**
+   * Test listeners are told about each edit, reorder and snapshot with the shapes involved.
+   */
+  @Test
+  public void testListener() {
+    List<String> heard = new ArrayList<>();
+    AlbumListener listener = new AlbumListener() {
+      @Override
+      public void shapeMade(I2DShape shape) {
+        heard.add("made " + shape);
+      }
+
+      @Override
+      public void shapeChanged(I2DShape previous, I2DShape shape) {
+        heard.add("changed " + previous.getName() + " " + shape.getX() + " " + shape.getLength()
+                + " " + shape.getRGB().getR());
+      }
+
+      @Override
+      public void shapeDeleted(I2DShape shape) {
+        heard.add("deleted " + shape.getName());
+      }
+
+      @Override
+      public void shapeReordered(I2DShape shape, int previous, int index) {
+        heard.add("reordered " + shape.getName() + " " + previous + " " + index);
+      }
+
+      @Override
+      public void snapshotTaken(Snapshot snapshot) {
+        heard.add("snapshot " + snapshot.getShapes().size());
+      }
+    };
+    this.album.addListener(listener);
+    this.album.makeShape("oval", "o", 2, 3, 4, 5, 6, 7, 8);
+    this.album.makeShape("rectangle", "r", 1, 1, 0, 0, 0, 0, 0);
+    this.album.moveShape("o", 9, 9);
+    this.album.resizeShape("o", 4, 4);
+    this.album.colorShape("o", 10, 0, 0);
+    this.album.bringToFront("o");
+    this.album.takeSnapshot("two");
+    this.album.deleteShape("r");
+    assertTrue(this.album.undo());
+
+    List<String> expected = List.of("made " + new Oval("o", 2, 3, 4, 5, 6, 7, 8),
+            "made " + new Rectangle("r", 1, 1, 0, 0, 0, 0, 0), "changed o 9 2 6",
+            "changed o 9 4 6", "changed o 9 4 10", "reordered o 0 1", "snapshot 2",
+            "deleted r", "made " + new Rectangle("r", 1, 1, 0, 0, 0, 0, 0), "reordered r 1 0");
+    assertEquals(expected, heard);
+
+    assertTrue(this.album.removeListener(listener));
+    this.album.deleteShape("r");
+    assertEquals(expected.size(), heard.size());
+  }
+}
@@ -0,0 +1,117 @@
+package modeltest;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Before;
+import org.junit.Test;
+import model.PaintOrder;
+import utilities.shapes.I2DShape;
+import utilities.shapes.Oval;
+import utilities.shapes.Rectangle;
+
+/**
+ * PaintOrder test class.
+ */
+public class PaintOrderTest {
+  private PaintOrder order;
+
+  /**
+   * Create object for testing.
+   */
+  @Before
+  public void setup() {
+    this.order = new PaintOrder(new int[] {0, 2, 5});
+  }
+
+  /**
+   * Test moveTo(), indexOf() and slotAt() from back to front.
+   */
+  @Test
+  public void testMoveTo() {
+    assertEquals(3, this.order.size());
+    this.order.moveTo(0, 2);
+    assertArrayEquals(new int[] {2, 5, 0}, this.order.toArray());
+    this.order.moveTo(0, 1);
+    assertArrayEquals(new int[] {2, 0, 5}, this.order.toArray());
+    this.order.moveTo(5, 0);
+    assertArrayEquals(new int[] {5, 2, 0}, this.order.toArray());
+    assertEquals(1, this.order.indexOf(2));
+    assertEquals(0, this.order.slotAt(2));
+
+    this.order.add(7);
+    this.order.remove(2);
+    assertArrayEquals(new int[] {5, 0, 7}, this.order.toArray());
+  }
+
+  /**
+   * Test moveTo() with a position past the front.
+   */
+  @Test(expected = IndexOutOfBoundsException.class)
+  public void testBadMoveTo() {
+    this.order.moveTo(0, 3);
+  }
+
+  /**
+   * Test sort() and frontmost() follow the order rather than the slots.
+   */
+  @Test
+  public void testSortAndFrontmost() {
+    this.order.moveTo(5, 0);
+    assertArrayEquals(new int[] {5, 0, 2}, this.order.sort(new int[] {0, 2, 5}));
+    assertEquals(2, this.order.frontmost(new int[] {5, 2, 0}));
+    assertEquals(-1, this.order.frontmost(new int[0]));
+  }
+
+  /**
+   * Test a frozen order keeps its slots and arranges shapes given in slot order.
+   */
+  @Test
+  public void testFreezeAndRestore() {
+    I2DShape a = new Rectangle("a", 1, 1, 0, 0, 0, 0, 0);
+    I2DShape b = new Oval("b", 1, 1, 0, 0, 0, 0, 0);
+    I2DShape c = new Rectangle("c", 1, 1, 0, 0, 0, 0, 0);
+    this.order.moveTo(0, 2);
+    PaintOrder.Version frozen = this.order.freeze();
+    this.order.moveTo(0, 0);
+    this.order.remove(2);
+
+    assertEquals(List.of(b, c, a), frozen.arrange(List.of(a, b, c)));
+    this.order.restore(frozen);
+    assertArrayEquals(new int[] {2, 5, 0}, this.order.toArray());
+    assertEquals(2, this.order.indexOf(0));
+  }
+
+  /**
+   * Test many random moves, including repeated moves into the same gap that use up the room
+   * between keys, match a list.
+   */
+  @Test
+  public void testMatchesList() {
+    Random random = new Random(19);
+    int[] slots = new int[200];
+    List<Integer> expected = new ArrayList<>();
+    for (int i = 0; i < slots.length; i++) {
+      slots[i] = i;
+      expected.add(i);
+    }
+    this.order = new PaintOrder(slots);
+    for (int step = 0; step < 2000; step++) {
+      int slot = expected.get(random.nextInt(expected.size()));
+      int index = step % 3 == 0 ? 1 : random.nextInt(expected.size());
+      expected.remove(Integer.valueOf(slot));
+      expected.add(index, slot);
+      this.order.moveTo(slot, index);
+      assertEquals(index, this.order.indexOf(slot));
+    }
+    int[] actual = this.order.toArray();
+    for (int i = 0; i < actual.length; i++) {
+      assertEquals((int) expected.get(i), actual[i]);
+      assertEquals(actual[i], this.order.slotAt(i));
+    }
+  }
+}
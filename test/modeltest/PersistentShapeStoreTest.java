@@ -0,0 +1,208 @@
+package modeltest;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+import model.PersistentShapeStore;
+import utilities.shapes.I2DShape;
+import utilities.shapes.Oval;
+import utilities.shapes.Rectangle;
+
+/**
+ * PersistentShapeStore test class.
+ */
+public class PersistentShapeStoreTest {
+  private PersistentShapeStore store;
+
+  /**
+   * Create object for testing.
+   */
+  @Before
+  public void setup() {
+    this.store = new PersistentShapeStore();
+  }
+
+  /**
+   * Test add() hands out slots in order and get() returns them.
+   */
+  @Test
+  public void testAddGet() {
+    I2DShape oval = new Oval("oval", 2, 3, 1, 1, 0, 0, 255);
+    I2DShape rectangle = new Rectangle("rectangle", 3, 3, 0, 0, 0, 0, 0);
+    assertEquals(0, this.store.add(oval));
+    assertEquals(1, this.store.add(rectangle));
+    assertSame(oval, this.store.get(0));
+    assertSame(rectangle, this.store.get(1));
+    assertEquals(2, this.store.size());
+  }
+
+  /**
+   * Test get() with slot out of range.
+   */
+  @Test(expected = IndexOutOfBoundsException.class)
+  public void testBadGet() {
+    this.store.get(0);
+  }
+
+  /**
+   * Test restore() puts a removed shape back into its slot without touching frozen versions.
+   */
+  @Test
+  public void testRestore() {
+    I2DShape oval = new Oval("oval", 2, 3, 1, 1, 0, 0, 255);
+    this.store.add(oval);
+    this.store.add(new Rectangle("rectangle", 3, 3, 0, 0, 0, 0, 0));
+    this.store.remove(0);
+    List<I2DShape> frozen = this.store.freeze();
+    this.store.restore(0, oval);
+
+    assertSame(oval, this.store.get(0));
+    assertEquals(2, this.store.size());
+    assertEquals(0, this.store.emptySlots());
+    assertEquals(1, frozen.size());
+  }
+
+  /**
+   * Test restore() on an occupied slot.
+   */
+  @Test(expected = IllegalArgumentException.class)
+  public void testBadRestore() {
+    this.store.add(new Oval());
+    this.store.restore(0, new Oval());
+  }
+
+  /**
+   * Test set() on an empty slot.
+   */
+  @Test(expected = IllegalArgumentException.class)
+  public void testBadSet() {
+    this.store.add(new Oval());
+    this.store.remove(0);
+    this.store.set(0, new Oval());
+  }
+
+  /**
+   * Test remove() leaves an empty slot that iteration skips.
+   */
+  @Test
+  public void testRemove() {
+    this.store.add(new Oval("a", 1, 1, 0, 0, 0, 0, 0));
+    this.store.add(new Oval("b", 1, 1, 0, 0, 0, 0, 0));
+    this.store.add(new Oval("c", 1, 1, 0, 0, 0, 0, 0));
+    this.store.remove(1);
+    assertNull(this.store.get(1));
+    assertEquals(2, this.store.size());
+    assertEquals(1, this.store.emptySlots());
+
+    List<String> names = new ArrayList<>();
+    for (I2DShape shape : this.store) {
+      names.add(shape.getName());
+    }
+    assertEquals("[a, c]", names.toString());
+  }
+
+  /**
+   * Test frozen versions do not see later writes.
+   */
+  @Test
+  public void testFreeze() {
+    I2DShape oval = new Oval("oval", 2, 3, 1, 1, 0, 0, 255);
+    I2DShape rectangle = new Rectangle("rectangle", 3, 3, 0, 0, 0, 0, 0);
+    this.store.add(oval);
+    this.store.add(rectangle);
+    List<I2DShape> before = this.store.freeze();
+
+    I2DShape moved = new Oval("oval", 2, 3, 9, 9, 0, 0, 255);
+    this.store.set(0, moved);
+    this.store.remove(1);
+    this.store.add(new Oval());
+    List<I2DShape> after = this.store.freeze();
+
+    assertEquals(2, before.size());
+    assertSame(oval, before.get(0));
+    assertSame(rectangle, before.get(1));
+    assertEquals(2, after.size());
+    assertSame(moved, after.get(0));
+    assertEquals("DefaultOval", after.get(1).getName());
+  }
+
+  /**
+   * Test versions share unchanged shapes across a large, multi-level store.
+   */
+  @Test
+  public void testFreezeLarge() {
+    int count = 5000;
+    for (int i = 0; i < count; i++) {
+      this.store.add(new Rectangle("r" + i, 1, 1, i, i, 0, 0, 0));
+    }
+    List<I2DShape> before = this.store.freeze();
+    this.store.set(4321, new Rectangle("r4321", 1, 1, -1, -1, 0, 0, 0));
+    this.store.remove(17);
+    List<I2DShape> after = this.store.freeze();
+
+    assertEquals(count, before.size());
+    assertEquals(count - 1, after.size());
+    assertEquals(4321, before.get(4321).getX());
+    assertEquals(-1, after.get(4320).getX());
+    assertSame(before.get(4999), after.get(4998));
+    assertEquals("r18", after.get(17).getName());
+
+    int index = 0;
+    for (I2DShape shape : after) {
+      assertSame(after.get(index++), shape);
+    }
+    assertEquals(count - 1, index);
+  }
+
+  /**
+   * Test a version with empty slots read by index from several threads at once, each of which
+   * may be the first to map positions to slots.
+   */
+  @Test
+  public void testSharedVersion() throws InterruptedException {
+    for (int round = 0; round < 20; round++) {
+      PersistentShapeStore store = new PersistentShapeStore();
+      for (int i = 0; i < 3000; i++) {
+        store.add(new Rectangle("r" + i, 1, 1, i, 0, 0, 0, 0));
+      }
+      for (int i = 0; i < 3000; i += 3) {
+        store.remove(i);
+      }
+      List<I2DShape> version = store.freeze();
+      List<Thread> threads = new ArrayList<>();
+      int[] wrong = new int[4];
+      for (int t = 0; t < wrong.length; t++) {
+        int thread = t;
+        threads.add(new Thread(() -> {
+          for (int i = 0; i < version.size(); i++) {
+            if (version.get(i).getX() != i / 2 * 3 + 1 + i % 2) {
+              wrong[thread]++;
+            }
+          }
+        }));
+      }
+      for (Thread thread : threads) {
+        thread.start();
+      }
+      for (Thread thread : threads) {
+        thread.join();
+      }
+      assertEquals(0, wrong[0] + wrong[1] + wrong[2] + wrong[3]);
+    }
+  }
+
+  /**
+   * Test versions cannot be modified.
+   */
+  @Test(expected = UnsupportedOperationException.class)
+  public void testUnmodifiableVersion() {
+    this.store.add(new Oval());
+    this.store.freeze().remove(0);
+  }
+}
@@ -0,0 +1,106 @@
+package modeltest;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+import model.ShapeOperation;
+import model.ShapesPhotoAlbum;
+
+/**
+ * ShapeOperation test class.
+ */
+public class ShapeOperationTest {
+  private ShapesPhotoAlbum album;
+
+  /**
+   * Create object for testing.
+   */
+  @Before
+  public void setup() {
+    this.album = new ShapesPhotoAlbum();
+  }
+
+  /**
+   * Test applyTo() passes each kind of operation to the album.
+   */
+  @Test
+  public void testApplyTo() {
+    ShapeOperation.make("oval", "oval", 2, 3, 1, 1, 0, 0, 255).applyTo(this.album);
+    ShapeOperation.make("rectangle", "rect", 2, 3, 1, 1, 0, 0, 0).applyTo(this.album);
+    ShapeOperation.move("oval", 10, 20).applyTo(this.album);
+    ShapeOperation.resize("oval", 7, 8).applyTo(this.album);
+    ShapeOperation.color("oval", 1, 2, 3).applyTo(this.album);
+    ShapeOperation.make("triangle", "tri", 2, 3, 1, 1, 0, 0, 0).applyTo(this.album);
+    ShapeOperation.sendToBack("tri").applyTo(this.album);
+    ShapeOperation.bringToFront("oval").applyTo(this.album);
+    ShapeOperation.reorder("rect", 0).applyTo(this.album);
+    assertEquals(List.of("rect", "tri", "oval"), this.album.getShapeNames());
+    ShapeOperation.remove("rect").applyTo(this.album);
+    ShapeOperation.remove("tri").applyTo(this.album);
+    ShapeOperation.snapshot("after").applyTo(this.album);
+
+    assertEquals(List.of("oval"), this.album.getShapeNames());
+    assertEquals(10, this.album.getShapes().get(0).getX());
+    assertEquals(20, this.album.getShapes().get(0).getY());
+    assertEquals(7, this.album.getShapes().get(0).getLength());
+    assertEquals(8, this.album.getShapes().get(0).getWidth());
+    assertEquals(3, this.album.getShapes().get(0).getRGB().getB());
+    assertEquals("after", this.album.getSnapshots().get(0).getDescription());
+  }
+
+  /**
+   * Test applyAll() names the rejected operation and keeps the ones before it.
+   */
+  @Test
+  public void testApplyAllStopsAtRejectedOperation() {
+    List<ShapeOperation> operations = List.of(
+            ShapeOperation.make("oval", "oval", 2, 3, 1, 1, 0, 0, 255),
+            ShapeOperation.resize("oval", 0, 3),
+            ShapeOperation.move("oval", 10, 20));
+    try {
+      ShapeOperation.applyAll(this.album, operations);
+    } catch (IllegalArgumentException e) {
+      assertTrue(e.getMessage().startsWith("Operation 2 (resize oval 3 0) failed"));
+    }
+    assertEquals(List.of("oval"), this.album.getShapeNames());
+    assertEquals(1, this.album.getShapes().get(0).getX());
+  }
+
+  /**
+   * Test applyAll() numbers the rejected operation from the first number passed.
+   */
+  @Test
+  public void testApplyAllNumbersFromFirst() {
+    List<ShapeOperation> operations = List.of(
+            ShapeOperation.make("oval", "oval", 2, 3, 1, 1, 0, 0, 255),
+            ShapeOperation.remove("rect"));
+    try {
+      ShapeOperation.applyAll(this.album, operations, 8193);
+      throw new AssertionError("Operations applied");
+    } catch (IllegalArgumentException e) {
+      assertEquals("Operation 8194 (remove rect) failed: There is no shape with that name.",
+              e.getMessage());
+    }
+  }
+
+  /**
+   * Test toString() matches the command file format.
+   */
+  @Test
+  public void testToString() {
+    assertEquals("make s oval 1 2 4 3 5 6 7",
+            ShapeOperation.make("oval", "s", 3, 4, 1, 2, 5, 6, 7).toString());
+    assertEquals("move s 1 2", ShapeOperation.move("s", 1, 2).toString());
+    assertEquals("resize s 4 3", ShapeOperation.resize("s", 3, 4).toString());
+    assertEquals("color s 1 2 3", ShapeOperation.color("s", 1, 2, 3).toString());
+    assertEquals("remove s", ShapeOperation.remove("s").toString());
+    assertEquals("snapshot first", ShapeOperation.snapshot("first").toString());
+    assertEquals("order s 2", ShapeOperation.reorder("s", 2).toString());
+    assertEquals("front s", ShapeOperation.bringToFront("s").toString());
+    assertEquals("back s", ShapeOperation.sendToBack("s").toString());
+  }
+}
@@ -1,9 +1,15 @@
 package modeltest;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Random;
 
 import org.junit.Before;
 import org.junit.Test;
@@ -12,7 +18,12 @@ import utilities.shapes.Oval;
 import utilities.shapes.Rectangle;
 import utilities.shapes.RGB;
 import utilities.shapes.Triangle;
+import model.AlbumListener;
+import model.PersistentShapeStore;
+import model.ShapeOperation;
 import model.ShapesPhotoAlbum;
+import model.SnapshotDiff;
+import model.SnapshotMode;
 import utilities.Snapshot;
 
 /**
@@ -153,6 +164,23 @@ public class ShapeTypesPhotoAlbumTest {
 
   }
 
+  /**
+   * Test getShapes() and snapshots share the album's shapes, and edits replace them.
+   */
+  @Test
+  public void testShapesShared() {
+    this.album.makeShape("oval", "oval", 2, 3, 1, 1, 0, 0, 255);
+    I2DShape shape = this.album.getShapes().get(0);
+    this.album.takeSnapshot("before");
+    assertSame(shape, this.album.getSnapshots().get(0).getShapes().get(0));
+    assertSame(shape, this.album.getShapeAt(1, 1));
+
+    this.album.moveShape("oval", 50, 50);
+    assertEquals(1, shape.getX());
+    assertEquals(50, this.album.getShapes().get(0).getX());
+    assertEquals(1, this.album.getSnapshots().get(0).getShapes().get(0).getX());
+  }
+
   /**
    * Test getShapes() returns copy of shapes to avoid modification outside class.
    */
@@ -180,6 +208,92 @@ public class ShapeTypesPhotoAlbumTest {
     assertEquals(2, this.album.getShapes().size());
   }
 
+  /**
+   * Test getShapesInRegion() returns shapes over the region in paint order.
+   */
+  @Test
+  public void testGetShapesInRegion() {
+    // Add shapes
+    this.album.makeShape("rectangle", "background", 800, 800, 0, 0,
+            0, 0, 0);
+    this.album.makeShape("oval", "moon", 50, 50, 200, 200,
+            255, 255, 255);
+    this.album.makeShape("rectangle", "window", 20, 20, 600, 600,
+            255, 255, 0);
+
+    List<I2DShape> region = this.album.getShapesInRegion(160, 160, 10, 10);
+    assertEquals(2, region.size());
+    assertEquals("background", region.get(0).getName());
+    assertEquals("moon", region.get(1).getName());
+
+    // Moving a shape moves it in the index
+    this.album.moveShape("window", 165, 165);
+    region = this.album.getShapesInRegion(160, 160, 10, 10);
+    assertEquals(3, region.size());
+    assertEquals("window", region.get(2).getName());
+
+    // Deleted shapes are gone from the index
+    this.album.deleteShape("moon");
+    assertEquals(2, this.album.getShapesInRegion(160, 160, 10, 10).size());
+    assertEquals(0, this.album.getShapesInRegion(900, 900, 10, 10).size());
+  }
+
+  /**
+   * Test getShapeAt() returns the topmost shape under a point.
+   */
+  @Test
+  public void testGetShapeAt() {
+    // Add shapes
+    this.album.makeShape("rectangle", "background", 800, 800, 0, 0,
+            0, 0, 0);
+    this.album.makeShape("rectangle", "window", 20, 20, 600, 600,
+            255, 255, 0);
+
+    assertEquals("window", this.album.getShapeAt(610, 610).getName());
+    assertEquals("background", this.album.getShapeAt(10, 10).getName());
+    assertEquals(null, this.album.getShapeAt(-1, 10));
+
+    // Resizing a shape updates the index
+    this.album.resizeShape("window", 1, 1);
+    assertEquals("background", this.album.getShapeAt(610, 610).getName());
+  }
+
+  /**
+   * Test an album with small grid cells finds the same shapes as one with the default cells.
+   */
+  @Test
+  public void testGridCellSize() {
+    ShapesPhotoAlbum small = new ShapesPhotoAlbum(SnapshotMode.SHARED, 32, 4);
+    ShapesPhotoAlbum spilled = new ShapesPhotoAlbum(1 << 20, 4);
+    Random random = new Random(64);
+    for (int i = 0; i < 500; i++) {
+      int x = random.nextInt(400);
+      int y = random.nextInt(400);
+      for (ShapesPhotoAlbum album : List.of(this.album, small, spilled)) {
+        album.makeShape("rectangle", "r" + i, 1 + i % 40, 1 + i % 30, x, y, 0, 0, 0);
+        if (i % 3 == 0) {
+          album.deleteShape("r" + (i / 2));
+        }
+      }
+    }
+
+    for (int i = 0; i < 50; i++) {
+      int x = random.nextInt(400);
+      int y = random.nextInt(400);
+      assertEquals(this.album.getShapesInRegion(x, y, 20, 20),
+              small.getShapesInRegion(x, y, 20, 20));
+      assertEquals(this.album.getShapeAt(x, y), spilled.getShapeAt(x, y));
+    }
+  }
+
+  /**
+   * Test constructor if pass a cell size that is not positive.
+   */
+  @Test(expected = IllegalArgumentException.class)
+  public void testBadGridCellSize() {
+    new ShapesPhotoAlbum(SnapshotMode.SHARED, 32, 0);
+  }
+
   /**
    * Test moveShape() if pass invalid name.
    */
@@ -285,8 +399,8 @@ public class ShapeTypesPhotoAlbumTest {
     this.album.colorShape("oval", 3, 3, 3);
 
     // Create RGB for testing
-    RGB triangleRGB = new RGB(1, 1, 1);
-    RGB ovalRGB = new RGB(3, 3, 3);
+    RGB triangleRGB = RGB.of(1, 1, 1);
+    RGB ovalRGB = RGB.of(3, 3, 3);
     assertTrue(this.album.getShapes().get(0).getRGB().equals(ovalRGB));
     assertTrue(this.album.getShapes().get(2).getRGB().equals(triangleRGB));
   }
@@ -484,6 +598,798 @@ public class ShapeTypesPhotoAlbumTest {
 
   }
 
+  /**
+   * Test consecutive snapshots share shapes that did not change between them.
+   */
+  @Test
+  public void testSnapshotsShareUnchangedShapes() {
+    // Add shapes
+    this.album.makeShape("Oval", "oval", 2, 3, 1, 1, 0,
+            0, 255);
+    this.album.makeShape("recTangle", "rectangle", 3, 3, 0, 0,
+            0, 0, 0);
+    this.album.takeSnapshot("first");
+
+    // Edit one shape and take another snapshot
+    this.album.moveShape("oval", 7, 7);
+    this.album.takeSnapshot("second");
+
+    List<I2DShape> first = this.album.getSnapshots().get(0).getShapes();
+    List<I2DShape> second = this.album.getSnapshots().get(1).getShapes();
+    assertEquals(1, first.get(0).getX(), DELTA);
+    assertEquals(7, second.get(0).getX(), DELTA);
+    assertSame(first.get(1), second.get(1));
+  }
+
+  /**
+   * Test deleting many shapes keeps the order of the remaining shapes.
+   */
+  @Test
+  public void testDeleteManyShapes() {
+    for (int i = 0; i < 3000; i++) {
+      this.album.makeShape("rectangle", "r" + i, 1, 1, i, i, 0, 0, 0);
+    }
+    this.album.takeSnapshot("before");
+    for (int i = 0; i < 2990; i++) {
+      this.album.deleteShape("r" + i);
+    }
+    this.album.moveShape("r2995", 1, 1);
+
+    List<String> names = this.album.getShapeNames();
+    assertEquals(10, names.size());
+    assertEquals("r2990", names.get(0));
+    assertEquals("r2999", names.get(9));
+    assertEquals(1, this.album.getShapes().get(5).getX(), DELTA);
+    assertEquals(3000, this.album.getSnapshots().get(0).getShapes().size());
+  }
+
+  /**
+   * Test applyBatch() leaves the album as the single-operation methods would, including the
+   * spatial grid.
+   */
+  @Test
+  public void testApplyBatch() {
+    ShapesPhotoAlbum expected = new ShapesPhotoAlbum();
+    List<ShapeOperation> operations = new ArrayList<>();
+    for (int i = 0; i < 3000; i++) {
+      expected.makeShape("rectangle", "r" + i, 5, 5, i, i, 0, 0, 0);
+      operations.add(ShapeOperation.make("rectangle", "r" + i, 5, 5, i, i, 0, 0, 0));
+    }
+    expected.takeSnapshot("made");
+    operations.add(ShapeOperation.snapshot("made"));
+    for (int i = 0; i < 2500; i++) {
+      expected.deleteShape("r" + i);
+      operations.add(ShapeOperation.remove("r" + i));
+      expected.moveShape("r" + (2500 + i % 500), -i, -i);
+      operations.add(ShapeOperation.move("r" + (2500 + i % 500), -i, -i));
+    }
+    expected.resizeShape("r2999", 50, 50);
+    operations.add(ShapeOperation.resize("r2999", 50, 50));
+    expected.colorShape("r2999", 255, 0, 0);
+    operations.add(ShapeOperation.color("r2999", 255, 0, 0));
+    this.album.applyBatch(operations);
+
+    assertEquals(expected.getShapes(), this.album.getShapes());
+    assertEquals(expected.getShapesInRegion(-3000, -3000, 6000, 6000),
+            this.album.getShapesInRegion(-3000, -3000, 6000, 6000));
+    assertEquals(expected.getShapeAt(-2499, -2499), this.album.getShapeAt(-2499, -2499));
+    assertEquals(3000, this.album.getSnapshots().get(0).getShapes().size());
+  }
+
+  /**
+   * Test applyBatch() applies none of a batch with a rejected operation, keeps the spatial grid
+   * in step, and numbers the operation from the first number passed.
+   */
+  @Test
+  public void testBadApplyBatch() {
+    this.album.makeShape("rectangle", "rect", 5, 5, 10, 10, 0, 0, 0);
+    Mirror mirror = new Mirror(this.album.getShapes());
+    this.album.addListener(mirror);
+    List<ShapeOperation> operations = List.of(
+            ShapeOperation.make("oval", "oval", 2, 3, 10, 10, 0, 0, 255),
+            ShapeOperation.move("rect", 100, 100),
+            ShapeOperation.color("oval", 256, 0, 0),
+            ShapeOperation.move("oval", 200, 200));
+    try {
+      this.album.applyBatch(operations, 4097);
+      throw new AssertionError("Batch applied");
+    } catch (IllegalArgumentException e) {
+      assertTrue(e.getMessage().startsWith("Operation 4099 (color oval 256 0 0) failed"));
+    }
+    assertEquals(List.of("rect"), this.album.getShapeNames());
+    assertEquals(10, this.album.getShapes().get(0).getX(), DELTA);
+    assertEquals("rect", this.album.getShapeAt(11, 11).getName());
+    assertEquals(null, this.album.getShapeAt(100, 100));
+    assertFalse(this.album.isInTransaction());
+    assertEquals(1, mirror.events);
+
+    // Only the make before the batch is left to undo
+    assertTrue(this.album.undo());
+    assertEquals(List.of(), this.album.getShapeNames());
+  }
+
+  /**
+   * Test applyBatch() with null operations.
+   */
+  @Test(expected = IllegalArgumentException.class)
+  public void testNullApplyBatch() {
+    this.album.applyBatch(null);
+  }
+
+  /**
+   * Test rollback() undoes makes, edits, deletes and snapshots made during the transaction.
+   */
+  @Test
+  public void testRollback() {
+    for (int i = 0; i < 10; i++) {
+      this.album.makeShape("rectangle", "r" + i, 5, 5, i * 10, i * 10, 0, 0, 0);
+    }
+    this.album.takeSnapshot("before");
+    List<I2DShape> before = this.album.getShapes();
+
+    this.album.beginTransaction();
+    assertTrue(this.album.isInTransaction());
+    this.album.makeShape("oval", "new", 3, 3, 500, 500, 0, 0, 0);
+    this.album.moveShape("r1", 300, 300);
+    this.album.moveShape("r1", 400, 400);
+    this.album.resizeShape("r2", 9, 9);
+    this.album.colorShape("r3", 1, 2, 3);
+    this.album.deleteShape("r4");
+    this.album.makeShape("triangle", "r4", 1, 1, 0, 0, 0, 0, 0);
+    this.album.takeSnapshot("during");
+    this.album.rollback();
+
+    assertFalse(this.album.isInTransaction());
+    assertEquals(before, this.album.getShapes());
+    assertEquals(1, this.album.getSnapshots().size());
+    assertEquals(null, this.album.getShapeAt(500, 500));
+    assertEquals(null, this.album.getShapeAt(400, 400));
+    assertEquals("r1", this.album.getShapeAt(12, 12).getName());
+    assertEquals("r4", this.album.getShapeAt(42, 42).getName());
+
+    // Names can be used again after the rollback
+    this.album.makeShape("oval", "new", 3, 3, 500, 500, 0, 0, 0);
+    assertEquals("new", this.album.getShapeNames().get(10));
+  }
+
+  /**
+   * Test commit() keeps the transaction's edits and snapshots.
+   */
+  @Test
+  public void testCommit() {
+    this.album.makeShape("rectangle", "rect", 5, 5, 0, 0, 0, 0, 0);
+    this.album.beginTransaction();
+    this.album.moveShape("rect", 7, 7);
+    this.album.takeSnapshot("during");
+    this.album.commit();
+
+    assertFalse(this.album.isInTransaction());
+    assertEquals(7, this.album.getShapes().get(0).getX(), DELTA);
+    assertEquals(1, this.album.getSnapshots().size());
+  }
+
+  /**
+   * Test a failed batch can be rolled back so none of it is applied.
+   */
+  @Test
+  public void testRollbackFailedBatch() {
+    this.album.makeShape("rectangle", "rect", 5, 5, 0, 0, 0, 0, 0);
+    List<I2DShape> before = this.album.getShapes();
+
+    this.album.beginTransaction();
+    try {
+      this.album.applyBatch(List.of(
+              ShapeOperation.make("oval", "oval", 2, 2, 1, 1, 0, 0, 0),
+              ShapeOperation.move("rect", 50, 50),
+              ShapeOperation.resize("rect", 5, 0)));
+      this.album.commit();
+    } catch (IllegalArgumentException e) {
+      this.album.rollback();
+    }
+    assertEquals(before, this.album.getShapes());
+    assertEquals("rect", this.album.getShapeAt(1, 1).getName());
+  }
+
+  /**
+   * Test rollback() in DELTA mode, where snapshots taken after it must not see rolled back
+   * edits.
+   */
+  @Test
+  public void testRollbackDeltaMode() {
+    ShapesPhotoAlbum deltaAlbum = new ShapesPhotoAlbum(SnapshotMode.DELTA, 4);
+    for (int i = 0; i < 10; i++) {
+      deltaAlbum.makeShape("rectangle", "r" + i, 5, 5, i, i, 0, 0, 0);
+      deltaAlbum.takeSnapshot("make " + i);
+    }
+    List<I2DShape> before = deltaAlbum.getShapes();
+
+    deltaAlbum.beginTransaction();
+    deltaAlbum.deleteShape("r0");
+    deltaAlbum.moveShape("r1", 100, 100);
+    deltaAlbum.makeShape("oval", "extra", 1, 1, 0, 0, 0, 0, 0);
+    deltaAlbum.takeSnapshot("during");
+    deltaAlbum.rollback();
+    deltaAlbum.takeSnapshot("after");
+
+    assertEquals(11, deltaAlbum.getSnapshots().size());
+    assertEquals(before, deltaAlbum.getSnapshots().get(10).getShapes());
+    assertEquals(before, deltaAlbum.getSnapshots().get(9).getShapes());
+  }
+
+  /**
+   * Test snapshots of a canvas that has not changed, or has returned to an earlier state, share
+   * the shapes of the earlier snapshot.
+   */
+  @Test
+  public void testSnapshotSharesSameContent() {
+    for (SnapshotMode mode : SnapshotMode.values()) {
+      if (mode == SnapshotMode.SPILLED) {
+        continue;
+      }
+      ShapesPhotoAlbum modeAlbum = new ShapesPhotoAlbum(mode);
+      modeAlbum.makeShape("rectangle", "rect", 5, 5, 0, 0, 0, 0, 0);
+      modeAlbum.makeShape("oval", "oval", 2, 3, 100, 100, 0, 0, 255);
+      modeAlbum.takeSnapshot("start");
+      modeAlbum.takeSnapshot("unchanged");
+      modeAlbum.moveShape("rect", 50, 50);
+      modeAlbum.colorShape("oval", 255, 0, 0);
+      modeAlbum.takeSnapshot("changed");
+      modeAlbum.colorShape("oval", 0, 0, 255);
+      modeAlbum.moveShape("rect", 0, 0);
+      modeAlbum.takeSnapshot("back");
+
+      List<Snapshot> snapshots = modeAlbum.getSnapshots();
+      assertSame(snapshots.get(0), snapshots.get(1).getOriginal());
+      assertSame(snapshots.get(2), snapshots.get(2).getOriginal());
+      assertSame(snapshots.get(0), snapshots.get(3).getOriginal());
+      assertEquals(snapshots.get(0).getShapes(), snapshots.get(3).getShapes());
+      assertEquals(50, snapshots.get(2).getShapes().get(0).getX());
+    }
+  }
+
+  /**
+   * Test a snapshot of a different canvas is not shared, even with the same shapes in another
+   * order.
+   */
+  @Test
+  public void testSnapshotDifferentContent() {
+    this.album.makeShape("rectangle", "a", 5, 5, 0, 0, 0, 0, 0);
+    this.album.makeShape("rectangle", "b", 5, 5, 0, 0, 0, 0, 0);
+    this.album.takeSnapshot("a then b");
+    this.album.deleteShape("a");
+    this.album.makeShape("rectangle", "a", 5, 5, 0, 0, 0, 0, 0);
+    this.album.takeSnapshot("b then a");
+    this.album.resizeShape("a", 6, 5);
+    this.album.takeSnapshot("resized");
+
+    List<Snapshot> snapshots = this.album.getSnapshots();
+    assertSame(snapshots.get(1), snapshots.get(1).getOriginal());
+    assertSame(snapshots.get(2), snapshots.get(2).getOriginal());
+    assertEquals("b", snapshots.get(1).getShapes().get(0).getName());
+    assertEquals(6, snapshots.get(2).getShapes().get(1).getLength());
+  }
+
+  /**
+   * Test a snapshot is only shared while the paint order is the one it was taken with, since the
+   * content hash only covers which shape is in which slot.
+   */
+  @Test
+  public void testSnapshotSharesSameOrder() {
+    for (SnapshotMode mode : List.of(SnapshotMode.SHARED, SnapshotMode.DELTA,
+            SnapshotMode.EVENT_LOG)) {
+      ShapesPhotoAlbum modeAlbum = new ShapesPhotoAlbum(mode);
+      modeAlbum.makeShape("rectangle", "a", 5, 5, 0, 0, 0, 0, 0);
+      modeAlbum.makeShape("rectangle", "b", 5, 5, 0, 0, 0, 0, 0);
+      modeAlbum.sendToBack("b");
+      modeAlbum.takeSnapshot("b then a");
+      modeAlbum.moveShape("a", 9, 9);
+      modeAlbum.moveShape("a", 0, 0);
+      modeAlbum.takeSnapshot("moved back");
+      modeAlbum.sendToBack("a");
+      modeAlbum.takeSnapshot("a then b");
+
+      List<Snapshot> snapshots = modeAlbum.getSnapshots();
+      assertSame(snapshots.get(0), snapshots.get(1).getOriginal());
+      assertSame(snapshots.get(2), snapshots.get(2).getOriginal());
+      assertEquals("b", snapshots.get(1).getShapes().get(0).getName());
+      assertEquals("a", snapshots.get(2).getShapes().get(0).getName());
+    }
+  }
+
+  /**
+   * Test snapshots taken after a rollback only share snapshots that were kept.
+   */
+  @Test
+  public void testSnapshotSharesAfterRollback() {
+    this.album.makeShape("rectangle", "rect", 5, 5, 0, 0, 0, 0, 0);
+    this.album.takeSnapshot("start");
+    this.album.beginTransaction();
+    this.album.moveShape("rect", 10, 10);
+    this.album.takeSnapshot("during");
+    this.album.rollback();
+    this.album.moveShape("rect", 10, 10);
+    this.album.takeSnapshot("after");
+    this.album.moveShape("rect", 0, 0);
+    this.album.takeSnapshot("back");
+
+    List<Snapshot> snapshots = this.album.getSnapshots();
+    assertEquals(3, snapshots.size());
+    assertSame(snapshots.get(1), snapshots.get(1).getOriginal());
+    assertEquals(10, snapshots.get(1).getShapes().get(0).getX());
+    assertSame(snapshots.get(0), snapshots.get(2).getOriginal());
+  }
+
+  /**
+   * Test beginTransaction() while a transaction is open.
+   */
+  @Test(expected = IllegalStateException.class)
+  public void testBadBeginTransaction() {
+    this.album.beginTransaction();
+    this.album.beginTransaction();
+  }
+
+  /**
+   * Test commit() with no open transaction.
+   */
+  @Test(expected = IllegalStateException.class)
+  public void testBadCommit() {
+    this.album.commit();
+  }
+
+  /**
+   * Test rollback() with no open transaction.
+   */
+  @Test(expected = IllegalStateException.class)
+  public void testBadRollback() {
+    this.album.rollback();
+  }
+
+  /**
+   * Test bringToFront(), sendToBack() and reorderShape() change the paint order of shapes,
+   * queries and new snapshots, but not of snapshots already taken.
+   */
+  @Test
+  public void testReorder() {
+    this.album.makeShape("rectangle", "a", 10, 10, 0, 0, 0, 0, 0);
+    this.album.makeShape("rectangle", "b", 10, 10, 0, 0, 0, 0, 0);
+    this.album.makeShape("oval", "c", 5, 5, 0, 0, 0, 0, 0);
+    this.album.takeSnapshot("before");
+    assertEquals("c", this.album.getShapeAt(1, 1).getName());
+
+    this.album.bringToFront("a");
+    assertEquals(List.of("b", "c", "a"), this.album.getShapeNames());
+    assertEquals("a", this.album.getShapeAt(1, 1).getName());
+    this.album.sendToBack("c");
+    this.album.reorderShape("a", 1);
+    assertEquals(List.of("c", "a", "b"), this.album.getShapeNames());
+    assertEquals(List.of("c", "a", "b"), names(this.album.getShapesInRegion(0, 0, 5, 5)));
+    assertEquals(List.of("a", "b"), names(this.album.getShapesOfType("rectangle")));
+    assertEquals("b", this.album.getShapeAt(1, 1).getName());
+
+    // New shapes go on top, deleted shapes leave the order
+    this.album.makeShape("triangle", "d", 1, 1, 0, 0, 0, 0, 0);
+    this.album.deleteShape("a");
+    this.album.takeSnapshot("after");
+    assertEquals(List.of("a", "b", "c"), names(this.album.getSnapshots().get(0).getShapes()));
+    assertEquals(List.of("c", "b", "d"), names(this.album.getSnapshots().get(1).getShapes()));
+    assertEquals(List.of("c", "b", "d"), this.album.getShapeNames());
+  }
+
+  /**
+   * Test reorderShape() with a position past the front.
+   */
+  @Test(expected = IllegalArgumentException.class)
+  public void testBadReorder() {
+    this.album.makeShape("rectangle", "a", 10, 10, 0, 0, 0, 0, 0);
+    this.album.reorderShape("a", 1);
+  }
+
+  /**
+   * Test undo(), redo() and rollback() put reordered shapes back.
+   */
+  @Test
+  public void testReorderUndoRollback() {
+    for (String name : List.of("a", "b", "c")) {
+      this.album.makeShape("rectangle", name, 10, 10, 0, 0, 0, 0, 0);
+    }
+    this.album.sendToBack("c");
+    assertTrue(this.album.undo());
+    assertEquals(List.of("a", "b", "c"), this.album.getShapeNames());
+    assertTrue(this.album.redo());
+    assertEquals(List.of("c", "a", "b"), this.album.getShapeNames());
+
+    this.album.beginTransaction();
+    this.album.bringToFront("c");
+    this.album.deleteShape("a");
+    this.album.makeShape("oval", "d", 1, 1, 0, 0, 0, 0, 0);
+    this.album.sendToBack("d");
+    this.album.takeSnapshot("dropped");
+    this.album.rollback();
+    assertEquals(List.of("c", "a", "b"), this.album.getShapeNames());
+    assertEquals("b", this.album.getShapeAt(1, 1).getName());
+    this.album.takeSnapshot("kept");
+    assertEquals(List.of("c", "a", "b"), names(this.album.getSnapshots().get(0).getShapes()));
+  }
+
+  /**
+   * Test rollback() of a transaction that made the first reorder goes back to slot order.
+   */
+  @Test
+  public void testFirstReorderRollback() {
+    this.album.makeShape("rectangle", "a", 10, 10, 0, 0, 0, 0, 0);
+    this.album.makeShape("rectangle", "b", 10, 10, 0, 0, 0, 0, 0);
+    this.album.beginTransaction();
+    this.album.sendToBack("b");
+    this.album.rollback();
+    this.album.makeShape("rectangle", "c", 10, 10, 0, 0, 0, 0, 0);
+    assertEquals(List.of("a", "b", "c"), this.album.getShapeNames());
+    assertEquals("c", this.album.getShapeAt(1, 1).getName());
+  }
+
+  /**
+   * Test snapshots keep the paint order in every snapshot mode, across canvas compaction.
+   */
+  @Test
+  public void testReorderSnapshotModes() {
+    List<ShapesPhotoAlbum> albums = List.of(new ShapesPhotoAlbum(SnapshotMode.DELTA, 2),
+            new ShapesPhotoAlbum(SnapshotMode.EVENT_LOG, 2), new ShapesPhotoAlbum(1L),
+            new ShapesPhotoAlbum());
+    for (ShapesPhotoAlbum album : albums) {
+      for (int i = 0; i < 1100; i++) {
+        album.makeShape("oval", "o" + i, 1, 1, i, i, 0, 0, 0);
+      }
+      album.sendToBack("o1099");
+      album.reorderShape("o1", 0);
+      album.takeSnapshot("reordered");
+      for (int i = 2; i < 1098; i++) {
+        album.deleteShape("o" + i);
+      }
+      album.takeSnapshot("compacted");
+      album.bringToFront("o1");
+      album.takeSnapshot("front");
+
+      List<Snapshot> snapshots = album.getSnapshots();
+      List<String> reordered = names(snapshots.get(0).getShapes());
+      assertEquals(List.of("o1", "o1099", "o0", "o2"), reordered.subList(0, 4));
+      assertEquals("o1098", reordered.get(1099));
+      assertEquals(List.of("o1", "o1099", "o0", "o1098"), names(snapshots.get(1).getShapes()));
+      assertEquals(List.of("o1099", "o0", "o1098", "o1"), names(snapshots.get(2).getShapes()));
+      assertEquals(List.of("o1099", "o0", "o1098", "o1"), album.getShapeNames());
+    }
+  }
+
+  /**
+   * Test getShapesOfType() and getShapesWithColor() follow makes, recolors and deletes.
+   */
+  @Test
+  public void testShapesOfTypeAndColor() {
+    this.album.makeShape("rectangle", "r1", 5, 5, 0, 0, 255, 0, 0);
+    this.album.makeShape("oval", "o1", 2, 3, 100, 100, 255, 0, 0);
+    this.album.makeShape("rectangle", "r2", 5, 5, 10, 10, 0, 0, 255);
+    assertEquals(List.of("r1", "r2"), names(this.album.getShapesOfType("Rectangle")));
+    assertEquals(List.of("o1"), names(this.album.getShapesOfType("oval")));
+    assertEquals(0, this.album.getShapesOfType("triangle").size());
+    assertEquals(List.of("r1", "o1"), names(this.album.getShapesWithColor(255, 0, 0)));
+
+    this.album.colorShape("r1", 0, 0, 255);
+    this.album.moveShape("r2", 20, 20);
+    this.album.deleteShape("o1");
+    assertEquals(0, this.album.getShapesWithColor(255, 0, 0).size());
+    assertEquals(List.of("r1", "r2"), names(this.album.getShapesWithColor(0, 0, 255)));
+    assertEquals(20, this.album.getShapesWithColor(0, 0, 255).get(1).getX(), DELTA);
+    assertEquals(0, this.album.getShapesOfType("oval").size());
+  }
+
+  /**
+   * Test the type and color indexes follow rollback, undo and canvas compaction.
+   */
+  @Test
+  public void testShapesOfTypeAndColorAfterRollbackAndCompaction() {
+    this.album.makeShape("triangle", "t", 1, 2, 7, 7, 0, 255, 0);
+    this.album.beginTransaction();
+    this.album.colorShape("t", 1, 1, 1);
+    this.album.makeShape("oval", "o", 2, 3, 100, 100, 0, 255, 0);
+    this.album.rollback();
+    assertEquals(List.of("t"), names(this.album.getShapesWithColor(0, 255, 0)));
+    assertEquals(0, this.album.getShapesOfType("oval").size());
+
+    this.album.colorShape("t", 1, 1, 1);
+    assertTrue(this.album.undo());
+    assertEquals(List.of("t"), names(this.album.getShapesWithColor(0, 255, 0)));
+
+    // Enough deletes to compact the canvas
+    for (int i = 0; i < 1100; i++) {
+      this.album.makeShape("oval", "o" + i, 1, 1, i, i, 0, 255, 0);
+    }
+    for (int i = 0; i < 1098; i++) {
+      this.album.deleteShape("o" + i);
+    }
+    assertEquals(List.of("t", "o1098", "o1099"),
+            names(this.album.getShapesWithColor(0, 255, 0)));
+    assertEquals(List.of("o1098", "o1099"), names(this.album.getShapesOfType("oval")));
+  }
+
+  /**
+   * Test getShapesOfType() with an invalid type.
+   */
+  @Test(expected = IllegalArgumentException.class)
+  public void testBadShapesOfType() {
+    this.album.getShapesOfType("hexagon");
+  }
+
+  /**
+   * Test getShapesWithColor() with an invalid color.
+   */
+  @Test(expected = IllegalArgumentException.class)
+  public void testBadShapesWithColor() {
+    this.album.getShapesWithColor(0, 256, 0);
+  }
+
+  /**
+   * Helper method that lists the names of shapes.
+   * @param shapes List<I2DShape></I2DShape>
+   * @return List<String></String>
+   */
+  private static List<String> names(List<I2DShape> shapes) {
+    List<String> names = new ArrayList<>();
+    for (I2DShape shape : shapes) {
+      names.add(shape.getName());
+    }
+    return names;
+  }
+
+  /**
+   * Test diff() between snapshots in either order, including edits that cancel out.
+   */
+  @Test
+  public void testDiff() {
+    this.album.makeShape("rectangle", "rect", 5, 5, 0, 0, 0, 0, 0);
+    this.album.makeShape("oval", "oval", 2, 3, 100, 100, 0, 0, 255);
+    this.album.takeSnapshot("first");
+    this.album.moveShape("rect", 50, 50);
+    this.album.colorShape("oval", 10, 20, 30);
+    this.album.colorShape("oval", 0, 0, 255);
+    this.album.deleteShape("oval");
+    this.album.makeShape("triangle", "tri", 1, 2, 7, 7, 0, 0, 255);
+    this.album.takeSnapshot("second");
+    List<Snapshot> snapshots = this.album.getSnapshots();
+
+    SnapshotDiff diff = this.album.diff(snapshots.get(0), snapshots.get(1));
+    assertEquals(1, diff.getAdded().size());
+    assertEquals("tri", diff.getAdded().get(0).getName());
+    assertEquals(1, diff.getRemoved().size());
+    assertEquals("oval", diff.getRemoved().get(0).getName());
+    assertEquals(1, diff.getChanged().size());
+    assertEquals(EnumSet.of(SnapshotDiff.Field.POSITION),
+            diff.getChanged().get(0).getFields());
+
+    SnapshotDiff reverse = this.album.diff(snapshots.get(1), snapshots.get(0));
+    assertEquals("oval", reverse.getAdded().get(0).getName());
+    assertEquals("tri", reverse.getRemoved().get(0).getName());
+    assertEquals(50, reverse.getChanged().get(0).getBefore().getX(), DELTA);
+    assertTrue(this.album.diff(snapshots.get(1), snapshots.get(1)).isEmpty());
+  }
+
+  /**
+   * Test diff() matches a full compare of the snapshots' shapes after many random edits.
+   */
+  @Test
+  public void testDiffMatchesCompare() {
+    Random random = new Random(17);
+    for (int i = 0; i < 20; i++) {
+      this.album.makeShape("rectangle", "s" + i, 5, 5, i, i, 0, 0, 0);
+    }
+    this.album.takeSnapshot("start");
+    for (int step = 0; step < 10; step++) {
+      for (int i = 0; i < 30; i++) {
+        String name = "s" + random.nextInt(30);
+        boolean exists = this.album.getShapeNames().contains(name);
+        switch (random.nextInt(4)) {
+          case 0:
+            if (exists) {
+              this.album.moveShape(name, random.nextInt(3), random.nextInt(3));
+            }
+            break;
+          case 1:
+            if (exists) {
+              this.album.colorShape(name, random.nextInt(2), 0, 0);
+            }
+            break;
+          case 2:
+            if (exists) {
+              this.album.deleteShape(name);
+            }
+            break;
+          default:
+            if (!exists) {
+              this.album.makeShape("oval", name, 1, 1 + random.nextInt(2), 0, 0, 0, 0, 0);
+            }
+        }
+      }
+      this.album.takeSnapshot("step " + step);
+    }
+
+    List<Snapshot> snapshots = this.album.getSnapshots();
+    for (int i = 0; i < 20; i++) {
+      Snapshot from = snapshots.get(random.nextInt(snapshots.size()));
+      Snapshot to = snapshots.get(random.nextInt(snapshots.size()));
+      SnapshotDiff expected = SnapshotDiff.compare(from.getShapes(), to.getShapes());
+      SnapshotDiff actual = this.album.diff(from, to);
+      assertEquals(new HashSet<>(expected.getAdded()), new HashSet<>(actual.getAdded()));
+      assertEquals(new HashSet<>(expected.getRemoved()), new HashSet<>(actual.getRemoved()));
+      assertEquals(expected.getChanged().size(), actual.getChanged().size());
+    }
+  }
+
+  /**
+   * Test diff() still works for the snapshots left after a rollback.
+   */
+  @Test
+  public void testDiffAfterRollback() {
+    this.album.makeShape("rectangle", "rect", 5, 5, 0, 0, 0, 0, 0);
+    this.album.takeSnapshot("first");
+    this.album.beginTransaction();
+    this.album.moveShape("rect", 50, 50);
+    this.album.takeSnapshot("dropped");
+    this.album.rollback();
+    this.album.resizeShape("rect", 9, 9);
+    this.album.takeSnapshot("second");
+    List<Snapshot> snapshots = this.album.getSnapshots();
+    assertEquals(2, snapshots.size());
+
+    SnapshotDiff diff = this.album.diff(snapshots.get(0), snapshots.get(1));
+    assertEquals(1, diff.getChanged().size());
+    assertEquals(EnumSet.of(SnapshotDiff.Field.SIZE), diff.getChanged().get(0).getFields());
+  }
+
+  /**
+   * Test diff() with a snapshot from another album.
+   */
+  @Test(expected = IllegalArgumentException.class)
+  public void testBadDiff() {
+    this.album.takeSnapshot("first");
+    ShapesPhotoAlbum other = new ShapesPhotoAlbum();
+    other.takeSnapshot("other");
+    this.album.diff(this.album.getSnapshots().get(0), other.getSnapshots().get(0));
+  }
+
+  /**
+   * Test undoing the delete of a shape from the middle of the paint order puts it back there,
+   * before and after shapes have been reordered.
+   */
+  @Test
+  public void testUndoDeleteKeepsOrder() {
+    for (int i = 0; i < 5; i++) {
+      this.album.makeShape("rectangle", "r" + i, 5, 5, i, 0, 0, 0, 0);
+    }
+    this.album.deleteShape("r2");
+    assertTrue(this.album.undo());
+    assertEquals(List.of("r0", "r1", "r2", "r3", "r4"), this.album.getShapeNames());
+
+    this.album.deleteShape("r0");
+    this.album.deleteShape("r3");
+    assertTrue(this.album.undo());
+    assertEquals(List.of("r1", "r2", "r3", "r4"), this.album.getShapeNames());
+
+    this.album.sendToBack("r4");
+    this.album.deleteShape("r1");
+    assertTrue(this.album.undo());
+    assertEquals(List.of("r4", "r1", "r2", "r3"), this.album.getShapeNames());
+  }
+
+  /**
+   * Test deleting shapes and undoing the deletes keeps the album in slot order, so snapshots
+   * still share the frozen canvas, and puts every shape back where it was.
+   */
+  @Test
+  public void testUndoDeletesKeepSlotOrder() {
+    List<String> names = new ArrayList<>();
+    for (int i = 0; i < 200; i++) {
+      this.album.makeShape("rectangle", "r" + i, 5, 5, i * 10, 0, 0, 0, 0);
+      names.add("r" + i);
+    }
+    Random random = new Random(9);
+    List<String> remaining = new ArrayList<>(names);
+    for (int i = 0; i < 150; i++) {
+      this.album.deleteShape(remaining.remove(random.nextInt(remaining.size())));
+    }
+    this.album.takeSnapshot("deleted");
+    assertEquals(remaining, this.album.getShapeNames());
+
+    for (int i = 0; i < 150; i++) {
+      assertTrue(this.album.undo());
+    }
+    this.album.takeSnapshot("undone");
+    assertEquals(names, this.album.getShapeNames());
+    assertEquals("r42", this.album.getShapeAt(421, 1).getName());
+    for (Snapshot snapshot : this.album.getSnapshots()) {
+      assertTrue(snapshot.getShapes() instanceof PersistentShapeStore.Version);
+    }
+
+    for (int i = 0; i < 150; i++) {
+      assertTrue(this.album.redo());
+    }
+    assertEquals(remaining, this.album.getShapeNames());
+  }
+
+  /**
+   * Test rolling back a reorder that moved a shape into an empty slot puts it back in its own.
+   */
+  @Test
+  public void testRollbackReorderIntoEmptySlot() {
+    for (int i = 0; i < 5; i++) {
+      this.album.makeShape("rectangle", "r" + i, 5, 5, i * 10, 0, 0, 0, 0);
+    }
+    this.album.deleteShape("r1");
+    this.album.beginTransaction();
+    this.album.sendToBack("r4");
+    assertEquals(List.of("r4", "r0", "r2", "r3"), this.album.getShapeNames());
+    this.album.rollback();
+
+    assertEquals(List.of("r0", "r2", "r3", "r4"), this.album.getShapeNames());
+    assertEquals("r4", this.album.getShapeAt(41, 1).getName());
+  }
+
+  /**
+   * Test undo() and redo() step back and forward through edits, keeping the spatial grid in
+   * step.
+   */
+  @Test
+  public void testUndoRedo() {
+    this.album.makeShape("rectangle", "rect", 5, 5, 0, 0, 0, 0, 0);
+    this.album.makeShape("oval", "oval", 2, 3, 100, 100, 0, 0, 255);
+    List<I2DShape> made = this.album.getShapes();
+    this.album.moveShape("rect", 50, 50);
+    this.album.resizeShape("rect", 9, 9);
+    this.album.colorShape("oval", 10, 20, 30);
+    this.album.deleteShape("oval");
+    List<I2DShape> edited = this.album.getShapes();
+
+    for (int i = 0; i < 4; i++) {
+      assertTrue(this.album.undo());
+    }
+    assertEquals(made, this.album.getShapes());
+    assertEquals("rect", this.album.getShapeAt(1, 1).getName());
+    assertEquals(null, this.album.getShapeAt(55, 55));
+
+    for (int i = 0; i < 4; i++) {
+      assertTrue(this.album.redo());
+    }
+    assertFalse(this.album.redo());
+    assertEquals(edited, this.album.getShapes());
+    assertEquals("rect", this.album.getShapeAt(55, 55).getName());
+
+    while (this.album.undo()) {
+      // undo everything
+    }
+    assertEquals(0, this.album.getShapeNames().size());
+  }
+
+  /**
+   * Test undo() inside a transaction.
+   */
+  @Test(expected = IllegalStateException.class)
+  public void testBadUndoInTransaction() {
+    this.album.beginTransaction();
+    this.album.undo();
+  }
+
+  /**
+   * Test rollback() also takes the transaction's edits out of the undo history.
+   */
+  @Test
+  public void testRollbackDropsUndoHistory() {
+    this.album.makeShape("rectangle", "rect", 5, 5, 0, 0, 0, 0, 0);
+    this.album.beginTransaction();
+    this.album.moveShape("rect", 50, 50);
+    this.album.makeShape("oval", "oval", 2, 3, 100, 100, 0, 0, 255);
+    this.album.rollback();
+
+    assertTrue(this.album.undo());
+    assertEquals(0, this.album.getShapeNames().size());
+    assertFalse(this.album.undo());
+  }
+
   /**
    * Test getSnapshotIDs().
    */
@@ -504,6 +1410,48 @@ public class ShapeTypesPhotoAlbumTest {
     assertEquals(2, this.album.getSnapshotIDs().size(), DELTA);
   }
 
+  /**
+   * Test getSnapshot() and indexOf() find snapshots by ID, including many taken in the same
+   * millisecond.
+   */
+  @Test
+  public void testGetSnapshotByID() {
+    this.album.makeShape("oval", "oval", 2, 3, 1, 1, 0, 0, 255);
+    for (int i = 0; i < 2000; i++) {
+      this.album.takeSnapshot("snapshot " + i);
+    }
+    List<String> ids = this.album.getSnapshotIDs();
+    for (int i = 0; i < 2000; i++) {
+      assertEquals(i, this.album.indexOf(ids.get(i)));
+      assertEquals("snapshot " + i, this.album.getSnapshot(ids.get(i)).getDescription());
+    }
+    assertEquals(-1, this.album.indexOf("missing"));
+  }
+
+  /**
+   * Test getSnapshot() with an unknown ID.
+   */
+  @Test(expected = IllegalArgumentException.class)
+  public void testBadGetSnapshot() {
+    this.album.getSnapshot("missing");
+  }
+
+  /**
+   * Test rollback() forgets the IDs of the snapshots it drops.
+   */
+  @Test
+  public void testRollbackForgetsSnapshotIDs() {
+    this.album.takeSnapshot("kept");
+    this.album.beginTransaction();
+    this.album.takeSnapshot("dropped");
+    String dropped = this.album.getSnapshotIDs().get(1);
+    this.album.rollback();
+
+    assertEquals(-1, this.album.indexOf(dropped));
+    assertEquals(1, this.album.getSnapshotIDs().size());
+    assertEquals(0, this.album.indexOf(this.album.getSnapshotIDs().get(0)));
+  }
+
   /**
    * Test getSnapshotIDs() returns unmodifiable list.
    */
@@ -548,4 +1496,132 @@ public class ShapeTypesPhotoAlbumTest {
     assertEquals("second snapshot", this.album.getSnapshots().get(1).getDescription());
   }
 
+
+  /**
+   * Test a listener told about every change can keep its own copy of the shapes and snapshots
+   * in step with the album, through edits, reorders, batches, undo and redo.
+   */
+  @Test
+  public void testListener() {
+    this.album.makeShape("oval", "before", 1, 1, 0, 0, 0, 0, 0);
+    Mirror mirror = new Mirror(this.album.getShapes());
+    this.album.addListener(mirror);
+
+    Random random = new Random(20);
+    List<String> live = new ArrayList<>(List.of("before"));
+    for (int i = 0; i < 300; i++) {
+      int choice = random.nextInt(8);
+      if (live.isEmpty() || choice == 0) {
+        String name = "s" + i;
+        this.album.makeShape("rectangle", name, 1 + random.nextInt(9), 1 + random.nextInt(9),
+                random.nextInt(50), random.nextInt(50), 0, 0, 0);
+        live.add(name);
+        continue;
+      }
+      String name = live.get(random.nextInt(live.size()));
+      if (choice == 1) {
+        this.album.moveShape(name, random.nextInt(50), random.nextInt(50));
+      } else if (choice == 2) {
+        this.album.colorShape(name, random.nextInt(256), 0, 0);
+      } else if (choice == 3) {
+        this.album.resizeShape(name, 1 + random.nextInt(9), 1 + random.nextInt(9));
+      } else if (choice == 4) {
+        this.album.reorderShape(name, random.nextInt(live.size()));
+      } else if (choice == 5) {
+        this.album.deleteShape(name);
+        live.remove(name);
+      } else if (choice == 6) {
+        this.album.takeSnapshot("snapshot " + i);
+      } else {
+        this.album.applyBatch(List.of(ShapeOperation.bringToFront(name),
+                ShapeOperation.move(name, 1, 1)));
+      }
+      assertEquals(this.album.getShapes(), mirror.shapes);
+    }
+    for (int i = 0; i < 20; i++) {
+      this.album.undo();
+    }
+    this.album.redo();
+    assertEquals(this.album.getShapes(), mirror.shapes);
+    assertEquals(this.album.getSnapshots(), mirror.snapshots);
+
+    assertTrue(this.album.removeListener(mirror));
+    this.album.deleteShape(this.album.getShapeNames().get(0));
+    assertEquals(this.album.getShapes().size() + 1, mirror.shapes.size());
+  }
+
+  /**
+   * Test listeners hear about the changes of a transaction only once it is committed, and never
+   * about those rolled back.
+   */
+  @Test
+  public void testListenerTransaction() {
+    this.album.makeShape("oval", "kept", 1, 1, 0, 0, 0, 0, 0);
+    Mirror mirror = new Mirror(this.album.getShapes());
+    this.album.addListener(mirror);
+
+    this.album.beginTransaction();
+    this.album.moveShape("kept", 5, 5);
+    this.album.makeShape("oval", "dropped", 1, 1, 0, 0, 0, 0, 0);
+    this.album.sendToBack("dropped");
+    this.album.takeSnapshot("dropped");
+    assertEquals(1, mirror.events);
+    this.album.rollback();
+    assertEquals(1, mirror.events);
+    assertEquals(this.album.getShapes(), mirror.shapes);
+
+    this.album.beginTransaction();
+    this.album.makeShape("oval", "added", 1, 1, 0, 0, 0, 0, 0);
+    this.album.sendToBack("added");
+    this.album.takeSnapshot("added");
+    assertEquals(1, mirror.events);
+    this.album.commit();
+    assertEquals(4, mirror.events);
+    assertEquals(this.album.getShapes(), mirror.shapes);
+    assertEquals(this.album.getSnapshots(), mirror.snapshots);
+  }
+
+  /**
+   * Listener that keeps its own copy of an album's shapes in paint order and of its snapshots.
+   */
+  private static final class Mirror implements AlbumListener {
+    private final List<I2DShape> shapes;
+    private final List<Snapshot> snapshots = new ArrayList<>();
+    private int events = 1; // counts the shapes copied when it was made as one event
+
+    private Mirror(List<I2DShape> shapes) {
+      this.shapes = new ArrayList<>(shapes);
+    }
+
+    @Override
+    public void shapeMade(I2DShape shape) {
+      this.shapes.add(shape);
+      this.events++;
+    }
+
+    @Override
+    public void shapeChanged(I2DShape previous, I2DShape shape) {
+      this.shapes.set(this.shapes.indexOf(previous), shape);
+      this.events++;
+    }
+
+    @Override
+    public void shapeDeleted(I2DShape shape) {
+      this.shapes.remove(shape);
+      this.events++;
+    }
+
+    @Override
+    public void shapeReordered(I2DShape shape, int previous, int index) {
+      assertEquals(shape, this.shapes.remove(previous));
+      this.shapes.add(index, shape);
+      this.events++;
+    }
+
+    @Override
+    public void snapshotTaken(Snapshot snapshot) {
+      this.snapshots.add(snapshot);
+      this.events++;
+    }
+  }
 }
@@ -0,0 +1,101 @@
+package modeltest;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Random;
+
+import org.junit.Before;
+import org.junit.Test;
+import model.SlotRanks;
+
+/**
+ * SlotRanks test class.
+ */
+public class SlotRanksTest {
+  private SlotRanks ranks;
+
+  /**
+   * Create object for testing.
+   */
+  @Before
+  public void setup() {
+    this.ranks = new SlotRanks();
+  }
+
+  /**
+   * Test add() with a negative slot.
+   */
+  @Test(expected = IllegalArgumentException.class)
+  public void testBadAdd() {
+    this.ranks.add(-1);
+  }
+
+  /**
+   * Test slotAt() with a position past the occupied slots.
+   */
+  @Test(expected = IndexOutOfBoundsException.class)
+  public void testBadSlotAt() {
+    this.ranks.add(3);
+    this.ranks.slotAt(1);
+  }
+
+  /**
+   * Test ranks and positions of a few slots, adding and removing twice.
+   */
+  @Test
+  public void testRanks() {
+    this.ranks.add(5);
+    this.ranks.add(0);
+    this.ranks.add(2);
+    this.ranks.add(2);
+    assertEquals(3, this.ranks.size());
+    assertEquals(0, this.ranks.rank(0));
+    assertEquals(1, this.ranks.rank(2));
+    assertEquals(2, this.ranks.rank(3));
+    assertEquals(3, this.ranks.rank(100));
+    assertEquals(5, this.ranks.slotAt(2));
+
+    this.ranks.remove(2);
+    this.ranks.remove(2);
+    this.ranks.remove(99);
+    assertEquals(2, this.ranks.size());
+    assertEquals(1, this.ranks.rank(5));
+    assertEquals(5, this.ranks.slotAt(1));
+
+    this.ranks.clear();
+    assertEquals(0, this.ranks.size());
+    assertEquals(0, this.ranks.rank(6));
+  }
+
+  /**
+   * Test ranks and positions match a brute force count as the slots grow past the initial
+   * capacity several times.
+   */
+  @Test
+  public void testMatchesBruteForce() {
+    Random random = new Random(5004);
+    boolean[] occupied = new boolean[3000];
+    for (int step = 0; step < 20000; step++) {
+      int slot = random.nextInt(1 + Math.min(occupied.length - 1, step / 4));
+      if (random.nextInt(3) == 0) {
+        this.ranks.remove(slot);
+        occupied[slot] = false;
+      } else {
+        this.ranks.add(slot);
+        occupied[slot] = true;
+      }
+
+      if (step % 97 == 0) {
+        int rank = 0;
+        for (int i = 0; i < occupied.length; i++) {
+          assertEquals(rank, this.ranks.rank(i));
+          if (occupied[i]) {
+            assertEquals(i, this.ranks.slotAt(rank));
+            rank++;
+          }
+        }
+        assertEquals(rank, this.ranks.size());
+      }
+    }
+  }
+}
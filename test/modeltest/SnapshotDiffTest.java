@@ -0,0 +1,73 @@
+package modeltest;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.EnumSet;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+import model.SnapshotDiff;
+import utilities.shapes.I2DShape;
+import utilities.shapes.Oval;
+import utilities.shapes.Rectangle;
+import utilities.shapes.Triangle;
+
+/**
+ * SnapshotDiff test class.
+ */
+public class SnapshotDiffTest {
+  private I2DShape rectangle;
+  private I2DShape oval;
+  private I2DShape triangle;
+
+  /**
+   * Create objects for testing.
+   */
+  @Before
+  public void setup() {
+    this.rectangle = new Rectangle("rect", 5, 5, 0, 0, 0, 0, 0);
+    this.oval = new Oval("oval", 2, 3, 100, 100, 0, 0, 255);
+    this.triangle = new Triangle("tri", 1, 2, 7, 7, 0, 0, 255);
+  }
+
+  /**
+   * Test compare() finds added, removed and changed shapes by name.
+   */
+  @Test
+  public void testCompare() {
+    I2DShape newOval = new Rectangle("oval", 4, 3, 100, 100, 0, 0, 255);
+    SnapshotDiff diff = SnapshotDiff.compare(List.of(this.rectangle, this.oval),
+            List.of(newOval, this.triangle, this.rectangle));
+    assertEquals(List.of(this.triangle), diff.getAdded());
+    assertEquals(0, diff.getRemoved().size());
+    assertEquals(1, diff.getChanged().size());
+    assertEquals("oval", diff.getChanged().get(0).getName());
+    assertEquals(EnumSet.of(SnapshotDiff.Field.TYPE, SnapshotDiff.Field.SIZE),
+            diff.getChanged().get(0).getFields());
+    assertEquals("Added: 1 Removed: 0 Changed: 1", diff.toString());
+
+    diff = SnapshotDiff.compare(List.of(this.rectangle, this.oval), List.of(this.oval));
+    assertEquals(List.of(this.rectangle), diff.getRemoved());
+    assertTrue(diff.getChanged().isEmpty());
+  }
+
+  /**
+   * Test compare() of equal lists is empty, even when the shapes are different instances.
+   */
+  @Test
+  public void testCompareEqual() {
+    assertTrue(SnapshotDiff.compare(List.of(), List.of()).isEmpty());
+    assertTrue(SnapshotDiff.compare(List.of(this.rectangle),
+            List.of(this.rectangle.move(1, 1).move(0, 0))).isEmpty());
+  }
+
+  /**
+   * Test the lists of a diff cannot be modified.
+   */
+  @Test(expected = UnsupportedOperationException.class)
+  public void testUnmodifiable() {
+    SnapshotDiff.compare(List.of(), List.of(this.oval)).getAdded().clear();
+  }
+}
@@ -0,0 +1,106 @@
+package modeltest;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+import model.SnapshotIndex;
+import utilities.Snapshot;
+
+/**
+ * SnapshotIndex test class.
+ */
+public class SnapshotIndexTest {
+  private SnapshotIndex index;
+  private List<Snapshot> snapshots;
+
+  /**
+   * Create objects for testing.
+   */
+  @Before
+  public void setup() {
+    this.index = new SnapshotIndex();
+    this.snapshots = new ArrayList<>();
+    for (int i = 0; i < 5; i++) {
+      Snapshot snapshot = new Snapshot("snapshot " + i, new ArrayList<>());
+      this.snapshots.add(snapshot);
+      this.index.add(snapshot);
+    }
+  }
+
+  /**
+   * Test get() and indexOf() find each snapshot by ID.
+   */
+  @Test
+  public void testGetIndexOf() {
+    for (int i = 0; i < 5; i++) {
+      String id = this.snapshots.get(i).getID();
+      assertSame(this.snapshots.get(i), this.index.get(id));
+      assertEquals(i, this.index.indexOf(id));
+    }
+    assertEquals(-1, this.index.indexOf("missing"));
+    assertEquals(this.snapshots, this.index.snapshots());
+    assertEquals(this.snapshots.get(3).getID(), this.index.ids().get(3));
+  }
+
+  /**
+   * Test get() with an unknown ID.
+   */
+  @Test(expected = IllegalArgumentException.class)
+  public void testBadGet() {
+    this.index.get("missing");
+  }
+
+  /**
+   * Test add() with a snapshot already added.
+   */
+  @Test(expected = IllegalArgumentException.class)
+  public void testBadAdd() {
+    this.index.add(this.snapshots.get(0));
+  }
+
+  /**
+   * Test truncate() forgets the IDs of the dropped snapshots.
+   */
+  @Test
+  public void testTruncate() {
+    this.index.truncate(2);
+    assertEquals(2, this.index.size());
+    assertEquals(2, this.index.ids().size());
+    assertEquals(1, this.index.indexOf(this.snapshots.get(1).getID()));
+    assertEquals(-1, this.index.indexOf(this.snapshots.get(2).getID()));
+  }
+
+  /**
+   * Test the lists handed out cannot be modified.
+   */
+  @Test(expected = UnsupportedOperationException.class)
+  public void testUnmodifiableIDs() {
+    this.index.ids().remove(0);
+  }
+
+  /**
+   * Test indexOfContent() finds the first snapshot added with a hash only if its check matches
+   * too, and forgets dropped ones.
+   */
+  @Test
+  public void testIndexOfContent() {
+    assertEquals(-1, this.index.indexOfContent(7L, "a"));
+    this.index.add(new Snapshot("seven", new ArrayList<>()), 7L, "a");
+    this.index.add(new Snapshot("seven again", new ArrayList<>()), 7L, "a");
+    this.index.add(new Snapshot("eight", new ArrayList<>()), 8L, "b");
+    assertEquals(5, this.index.indexOfContent(7L, "a"));
+    assertEquals(-1, this.index.indexOfContent(7L, "b"));
+    assertEquals(7, this.index.indexOfContent(8L, "b"));
+
+    this.index.truncate(6);
+    assertEquals(5, this.index.indexOfContent(7L, "a"));
+    assertEquals(-1, this.index.indexOfContent(8L, "b"));
+    this.index.add(new Snapshot("eight again", new ArrayList<>()), 8L, "c");
+    assertEquals(-1, this.index.indexOfContent(8L, "b"));
+  }
+}
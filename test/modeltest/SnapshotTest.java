@@ -1,11 +1,15 @@
 package modeltest;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertSame;
 
 import java.sql.Timestamp;
 import java.util.ArrayList;
 import java.util.Date;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 import org.junit.Before;
 import org.junit.Test;
@@ -65,6 +69,18 @@ public class SnapshotTest {
 
   }
 
+  /**
+   * Test snapshots taken in the same millisecond get different IDs.
+   */
+  @Test
+  public void testUniqueIDs() {
+    Set<String> ids = new HashSet<>();
+    for (int i = 0; i < 10000; i++) {
+      ids.add(new Snapshot("testsnap", this.shapes).getID());
+    }
+    assertEquals(10000, ids.size());
+  }
+
   /**
    * Test getDescription().
    */
@@ -90,8 +106,9 @@ public class SnapshotTest {
     text += this.square.toString() + "\n\n";
     text += this.triangle.toString() + "\n\n";
 
-    // Compare rest of string
-    assertEquals(text, snap.toString().substring(93));
+    // Compare rest of string, the ID before it varies in length
+    String snapText = snap.toString();
+    assertEquals(text, snapText.substring(snapText.indexOf("Shape Information:")));
   }
 
   /**
@@ -109,5 +126,36 @@ public class SnapshotTest {
     assertEquals(shapes.get(3).getType(), ShapeTypes.TRIANGLE);
   }
 
+  /**
+   * Test getShapes() when shapes are supplied on request.
+   */
+  @Test
+  public void testGetShapesFromSource() {
+    // Make snapshot that rebuilds its list
+    Snapshot snap = new Snapshot("testsnap", () -> List.copyOf(this.shapes));
+    assertEquals(4, snap.getShapes().size());
+    assertEquals(this.shapes, snap.getShapes());
+    assertEquals("testsnap", snap.getDescription());
+  }
+
+  /**
+   * Test a snapshot made from an earlier one shares its shapes and original.
+   */
+  @Test
+  public void testSharedShapes() {
+    Snapshot first = new Snapshot("first", this.shapes);
+    Snapshot second = new Snapshot("second", first);
+    Snapshot third = new Snapshot("third", second);
+    assertSame(first, first.getOriginal());
+    assertSame(first, second.getOriginal());
+    assertSame(first, third.getOriginal());
+    assertSame(first.getShapes(), third.getShapes());
+    assertEquals("third", third.getDescription());
+    assertNotEquals(first.getID(), third.getID());
+
+    // Shapes supplied on request are shared too
+    Snapshot rebuilt = new Snapshot("rebuilt", () -> List.copyOf(this.shapes));
+    assertEquals(this.shapes, new Snapshot("copy", rebuilt).getShapes());
+  }
 
 }
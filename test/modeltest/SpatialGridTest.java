@@ -0,0 +1,168 @@
+package modeltest;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.Before;
+import org.junit.Test;
+import model.SpatialGrid;
+import utilities.shapes.ShapeTypes;
+
+/**
+ * SpatialGrid test class.
+ */
+public class SpatialGridTest {
+  private SpatialGrid grid;
+
+  /**
+   * Create object for testing.
+   */
+  @Before
+  public void setup() {
+    this.grid = new SpatialGrid(10);
+  }
+
+  /**
+   * Test constructor with bad cell size.
+   */
+  @Test(expected = IllegalArgumentException.class)
+  public void testBadCellSize() {
+    new SpatialGrid(0);
+  }
+
+  /**
+   * Test query() with bad region.
+   */
+  @Test(expected = IllegalArgumentException.class)
+  public void testBadQuery() {
+    this.grid.query(0, 0, 0, 5);
+  }
+
+  /**
+   * Test rectangles cover x to x + width and ovals are centered on their coordinates.
+   */
+  @Test
+  public void testBoundingBoxes() {
+    this.grid.insert(0, ShapeTypes.RECTANGLE, 0, 0, 5, 10);
+    this.grid.insert(1, ShapeTypes.OVAL, 50, 50, 5, 10);
+
+    assertArrayEquals(new int[] {0}, this.grid.query(9, 4, 1, 1));
+    assertArrayEquals(new int[] {}, this.grid.query(10, 4, 1, 1));
+    assertArrayEquals(new int[] {1}, this.grid.query(40, 45, 1, 1));
+    assertArrayEquals(new int[] {}, this.grid.query(39, 45, 1, 1));
+    assertArrayEquals(new int[] {0, 1}, this.grid.query(0, 0, 100, 100));
+  }
+
+  /**
+   * Test topmostAt() returns the highest slot under a point.
+   */
+  @Test
+  public void testTopmostAt() {
+    this.grid.insert(0, ShapeTypes.RECTANGLE, 0, 0, 800, 800);
+    this.grid.insert(1, ShapeTypes.RECTANGLE, 100, 100, 20, 20);
+    this.grid.insert(2, ShapeTypes.RECTANGLE, 110, 110, 20, 20);
+
+    assertEquals(2, this.grid.topmostAt(115, 115));
+    assertEquals(1, this.grid.topmostAt(105, 105));
+    assertEquals(0, this.grid.topmostAt(500, 500));
+    assertEquals(-1, this.grid.topmostAt(900, 900));
+
+    this.grid.remove(2);
+    assertEquals(1, this.grid.topmostAt(115, 115));
+    this.grid.insert(1, ShapeTypes.RECTANGLE, 300, 300, 20, 20);
+    assertEquals(0, this.grid.topmostAt(115, 115));
+    assertEquals(2, this.grid.size());
+  }
+
+  /**
+   * Test removing shapes that share many cells, in an order unlike the order they were added,
+   * leaves the others findable.
+   */
+  @Test
+  public void testRemoveFromSharedCells() {
+    // Boxes of 3 by 3 cells, each overlapping the next, plus two oversized ones
+    for (int slot = 0; slot < 300; slot++) {
+      this.grid.insert(slot, ShapeTypes.RECTANGLE, slot % 7, slot % 5, 25, 25);
+    }
+    this.grid.insert(300, ShapeTypes.RECTANGLE, -1000, -1000, 5000, 5000);
+    this.grid.insert(301, ShapeTypes.OVAL, 0, 0, 5000, 5000);
+    for (int slot = 0; slot < 300; slot += 3) {
+      this.grid.remove(slot);
+    }
+    this.grid.remove(300);
+    // Moving a slot takes it out of its old cells
+    this.grid.insert(2, ShapeTypes.RECTANGLE, 500, 500, 1, 1);
+
+    assertEquals(201, this.grid.size());
+    int[] expected = new int[200];
+    int size = 0;
+    for (int slot = 1; slot < 300; slot++) {
+      if (slot % 3 != 0 && slot != 2) {
+        expected[size++] = slot;
+      }
+    }
+    expected[size++] = 301;
+    assertArrayEquals(Arrays.copyOf(expected, size), this.grid.query(7, 5, 1, 1));
+    assertArrayEquals(new int[] {2, 301}, this.grid.query(500, 500, 1, 1));
+    assertEquals(301, this.grid.topmostAt(24, 24));
+    this.grid.remove(301);
+    assertEquals(299, this.grid.topmostAt(24, 24));
+
+    for (int slot = 299; slot >= 0; slot--) {
+      this.grid.remove(slot);
+    }
+    assertEquals(0, this.grid.size());
+    assertEquals(0, this.grid.query(-100, -100, 400, 400).length);
+  }
+
+  /**
+   * Test queries match a brute force scan after random inserts, moves and removes.
+   */
+  @Test
+  public void testMatchesBruteForce() {
+    Random random = new Random(5004);
+    int slots = 2000;
+    int[][] boxes = new int[slots][];
+    for (int step = 0; step < 10000; step++) {
+      int slot = random.nextInt(slots);
+      if (random.nextInt(4) == 0) {
+        this.grid.remove(slot);
+        boxes[slot] = null;
+      } else {
+        int x = random.nextInt(2000) - 1000;
+        int y = random.nextInt(2000) - 1000;
+        // Mostly small shapes, some large enough to skip the cells
+        int length = 1 + random.nextInt(random.nextInt(20) == 0 ? 1000 : 30);
+        int width = 1 + random.nextInt(30);
+        this.grid.insert(slot, ShapeTypes.RECTANGLE, x, y, length, width);
+        boxes[slot] = new int[] {x, y, x + width, y + length};
+      }
+    }
+
+    for (int query = 0; query < 200; query++) {
+      int x = random.nextInt(2200) - 1100;
+      int y = random.nextInt(2200) - 1100;
+      int width = 1 + random.nextInt(query % 10 == 0 ? 2000 : 100);
+      int height = 1 + random.nextInt(100);
+
+      int[] expected = new int[slots];
+      int size = 0;
+      int topmost = -1;
+      for (int slot = 0; slot < slots; slot++) {
+        int[] box = boxes[slot];
+        if (box != null && box[0] < x + width && x < box[2] && box[1] < y + height
+                && y < box[3]) {
+          expected[size++] = slot;
+        }
+        if (box != null && box[0] <= x && x < box[2] && box[1] <= y && y < box[3]) {
+          topmost = slot;
+        }
+      }
+      assertArrayEquals(Arrays.copyOf(expected, size), this.grid.query(x, y, width, height));
+      assertEquals(topmost, this.grid.topmostAt(x, y));
+    }
+  }
+}
@@ -0,0 +1,244 @@
+package modeltest;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import model.ShapesPhotoAlbum;
+import model.SnapshotMode;
+import model.SpillingSnapshotStore;
+import utilities.shapes.I2DShape;
+import utilities.shapes.Oval;
+import utilities.shapes.Rectangle;
+import utilities.shapes.Triangle;
+
+/**
+ * SpillingSnapshotStore test class.
+ */
+public class SpillingSnapshotStoreTest {
+  private static final long ONE_LIST = 3L * SpillingSnapshotStore.ESTIMATED_SHAPE_BYTES;
+  private File file;
+  private SpillingSnapshotStore store;
+
+  /**
+   * Create objects for testing. The budget holds two lists of three shapes.
+   */
+  @Before
+  public void setup() throws IOException {
+    this.file = File.createTempFile("spilltest", ".spill");
+    this.store = new SpillingSnapshotStore(2 * ONE_LIST, this.file);
+  }
+
+  /**
+   * Delete the spill file.
+   */
+  @After
+  public void teardown() {
+    this.file.delete();
+  }
+
+  /**
+   * Helper method that makes a list of three shapes.
+   * @param i int used in names and coordinates
+   * @return List<I2DShape></I2DShape>
+   */
+  private static List<I2DShape> shapes(int i) {
+    List<I2DShape> shapes = new ArrayList<>();
+    shapes.add(new Oval("oval" + i, 2, 3, i, -i, 0, 0, 255));
+    shapes.add(new Rectangle("rect" + i, 4, 5, i, i, 10, 20, 30));
+    shapes.add(new Triangle("tri" + i, 6, 7, -i, i, 255, 255, 255));
+    return shapes;
+  }
+
+  /**
+   * Test constructor with negative budget.
+   */
+  @Test(expected = IllegalArgumentException.class)
+  public void testBadBudget() {
+    new SpillingSnapshotStore(-1, this.file);
+  }
+
+  /**
+   * Test lists over the budget are spilled and read back equal.
+   */
+  @Test
+  public void testSpillAndReadBack() {
+    List<Supplier<List<I2DShape>>> sources = new ArrayList<>();
+    for (int i = 0; i < 10; i++) {
+      sources.add(this.store.add(shapes(i)));
+      assertTrue(this.store.residentBytes() <= 2 * ONE_LIST);
+    }
+    assertEquals(8, this.store.spilledCount());
+    assertTrue(this.file.length() > 0);
+
+    for (int i = 0; i < 10; i++) {
+      assertEquals(shapes(i), sources.get(i).get());
+      assertTrue(this.store.residentBytes() <= 2 * ONE_LIST);
+    }
+  }
+
+  /**
+   * Test a list used since the hand last passed is spared.
+   */
+  @Test
+  public void testClockSparesReferencedList() {
+    List<I2DShape> first = shapes(0);
+    Supplier<List<I2DShape>> source = this.store.add(first);
+    this.store.add(shapes(1));
+    source.get();
+    this.store.add(shapes(2));
+
+    // The second list was spilled instead of the first
+    assertSame(first, source.get());
+    assertEquals(1, this.store.spilledCount());
+  }
+
+  /**
+   * Test a budget of zero still keeps the list in use in memory.
+   */
+  @Test
+  public void testZeroBudget() {
+    SpillingSnapshotStore empty = new SpillingSnapshotStore(0, this.file);
+    Supplier<List<I2DShape>> first = empty.add(shapes(0));
+    Supplier<List<I2DShape>> second = empty.add(shapes(1));
+    assertEquals(1, empty.spilledCount());
+    assertEquals(shapes(0), first.get());
+    assertEquals(shapes(1), second.get());
+    assertEquals(1, empty.spilledCount());
+  }
+
+  /**
+   * Test truncate() drops the newest lists.
+   */
+  @Test(expected = IllegalStateException.class)
+  public void testTruncate() {
+    this.store.add(shapes(0));
+    Supplier<List<I2DShape>> dropped = this.store.add(shapes(1));
+    this.store.truncate(1);
+    assertEquals(1, this.store.size());
+    assertEquals(ONE_LIST, this.store.residentBytes());
+    dropped.get();
+  }
+
+  /**
+   * Test lists that share all but a few shapes are charged for those only, so many fit the
+   * budget, and a list read back from the file is charged in full.
+   */
+  @Test
+  public void testSharedListsChargedByChanges() {
+    List<I2DShape> large = new ArrayList<>();
+    for (int i = 0; i < 1000; i++) {
+      large.add(new Rectangle("r" + i, 1, 1, i, i, 0, 0, 0));
+    }
+    SpillingSnapshotStore shared = new SpillingSnapshotStore(10 * ONE_LIST, this.file);
+    for (int i = 0; i < 8; i++) {
+      shared.add(large, 1);
+    }
+    assertEquals(0, shared.spilledCount());
+    assertEquals(8L * (SpillingSnapshotStore.ESTIMATED_SHAPE_BYTES
+            + 2 * SpillingSnapshotStore.ESTIMATED_NODE_BYTES), shared.residentBytes());
+
+    SpillingSnapshotStore empty = new SpillingSnapshotStore(0, this.file);
+    Supplier<List<I2DShape>> first = empty.add(large, 1);
+    empty.add(large, 1);
+    assertEquals(large, first.get());
+    assertEquals(1000L * SpillingSnapshotStore.ESTIMATED_SHAPE_BYTES, empty.residentBytes());
+    shared.close();
+    empty.close();
+  }
+
+  /**
+   * Test a closed store keeps the file it was given but cannot be read any more.
+   */
+  @Test(expected = IllegalStateException.class)
+  public void testClose() {
+    Supplier<List<I2DShape>> first = this.store.add(shapes(0));
+    for (int i = 1; i < 4; i++) {
+      this.store.add(shapes(i));
+    }
+    this.store.close();
+    this.store.close();
+    assertTrue(this.file.exists());
+    assertEquals(0, this.store.size());
+    first.get();
+  }
+
+  /**
+   * Test closing an album in SPILLED mode releases its snapshots.
+   */
+  @Test(expected = IllegalStateException.class)
+  public void testCloseSpilledAlbum() {
+    ShapesPhotoAlbum spilled = new ShapesPhotoAlbum(0L);
+    spilled.makeShape("rectangle", "r", 1, 2, 0, 0, 0, 0, 0);
+    spilled.takeSnapshot("first");
+    spilled.close();
+    spilled.getSnapshots().get(0).getShapes();
+  }
+
+  /**
+   * Test an album in SPILLED mode produces the same snapshots as one in SHARED mode.
+   */
+  @Test
+  public void testSpilledAlbumMatchesSharedAlbum() {
+    ShapesPhotoAlbum shared = new ShapesPhotoAlbum();
+    ShapesPhotoAlbum spilled = new ShapesPhotoAlbum(100L * SpillingSnapshotStore
+            .ESTIMATED_SHAPE_BYTES);
+    for (int i = 0; i < 50; i++) {
+      shared.makeShape("rectangle", "r" + i, 1 + i % 7, 2, i, i, 0, 0, 0);
+      spilled.makeShape("rectangle", "r" + i, 1 + i % 7, 2, i, i, 0, 0, 0);
+    }
+    for (int step = 0; step < 40; step++) {
+      shared.moveShape("r" + step, -step, step);
+      spilled.moveShape("r" + step, -step, step);
+      shared.takeSnapshot("step " + step);
+      spilled.takeSnapshot("step " + step);
+    }
+
+    for (int i = 0; i < 40; i++) {
+      assertEquals(shared.getSnapshots().get(i).getShapes(),
+              spilled.getSnapshots().get(i).getShapes());
+    }
+  }
+
+  /**
+   * Test SPILLED mode cannot be picked without a budget.
+   */
+  @Test(expected = IllegalArgumentException.class)
+  public void testSpilledModeNeedsBudget() {
+    new ShapesPhotoAlbum(SnapshotMode.SPILLED);
+  }
+
+  /**
+   * Test repeated snapshots in SPILLED mode share one entry, and a rollback drops only the
+   * entries added during the transaction.
+   */
+  @Test
+  public void testSpilledModeSharedSnapshots() {
+    ShapesPhotoAlbum spilled = new ShapesPhotoAlbum(0L);
+    spilled.makeShape("rectangle", "r", 1, 2, 0, 0, 0, 0, 0);
+    spilled.takeSnapshot("first");
+    spilled.takeSnapshot("again");
+    spilled.moveShape("r", 5, 5);
+    spilled.takeSnapshot("moved");
+
+    spilled.beginTransaction();
+    spilled.takeSnapshot("same");
+    spilled.moveShape("r", 9, 9);
+    spilled.takeSnapshot("during");
+    spilled.rollback();
+
+    assertEquals(3, spilled.getSnapshots().size());
+    assertSame(spilled.getSnapshots().get(0), spilled.getSnapshots().get(1).getOriginal());
+    assertEquals(5, spilled.getSnapshots().get(2).getShapes().get(0).getX());
+    assertEquals(0, spilled.getSnapshots().get(1).getShapes().get(0).getX());
+  }
+}
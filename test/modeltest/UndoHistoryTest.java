@@ -0,0 +1,190 @@
+package modeltest;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+import model.PackedShapesPhotoAlbum;
+import model.UndoHistory;
+import utilities.shapes.I2DShape;
+import utilities.shapes.ShapeTypes;
+
+/**
+ * UndoHistory test class. Replays against a PackedShapesPhotoAlbum, whose own history is not
+ * used here.
+ */
+public class UndoHistoryTest {
+  private UndoHistory history;
+  private PackedShapesPhotoAlbum album;
+
+  /**
+   * Create objects for testing.
+   */
+  @Before
+  public void setup() {
+    this.history = new UndoHistory(3);
+    this.album = new PackedShapesPhotoAlbum();
+    this.album.makeShape("oval", "oval", 2, 3, 1, 1, 0, 0, 255);
+  }
+
+  /**
+   * Test constructor with bad capacity.
+   */
+  @Test(expected = IllegalArgumentException.class)
+  public void testBadCapacity() {
+    new UndoHistory(0);
+  }
+
+  /**
+   * Test undo() and redo() with an empty history.
+   */
+  @Test
+  public void testEmpty() {
+    assertFalse(this.history.undo(this.album));
+    assertFalse(this.history.redo(this.album));
+  }
+
+  /**
+   * Test undo() and redo() replay each kind of edit.
+   */
+  @Test
+  public void testUndoRedo() {
+    this.history.recordMove("oval", 1, 1, 10, 20);
+    this.album.moveShape("oval", 10, 20);
+    this.history.recordColor("oval", UndoHistory.packColor(0, 0, 255),
+            UndoHistory.packColor(1, 2, 3));
+    this.album.colorShape("oval", 1, 2, 3);
+    this.history.recordResize("oval", 2, 3, 7, 8);
+    this.album.resizeShape("oval", 7, 8);
+    List<I2DShape> after = this.album.getShapes();
+
+    assertTrue(this.history.undo(this.album));
+    assertTrue(this.history.undo(this.album));
+    assertTrue(this.history.undo(this.album));
+    I2DShape shape = this.album.getShapes().get(0);
+    assertEquals(1, shape.getX());
+    assertEquals(2, shape.getLength());
+    assertEquals(255, shape.getRGB().getB());
+    assertEquals(3, this.history.redoSize());
+
+    while (this.history.redo(this.album)) {
+      // redo everything
+    }
+    assertEquals(after, this.album.getShapes());
+  }
+
+  /**
+   * Test undoing and redoing a reorder moves the shape back and forth.
+   */
+  @Test
+  public void testUndoRedoOrder() {
+    this.album.makeShape("rectangle", "rect", 2, 3, 1, 1, 0, 0, 0);
+    this.history.recordOrder("oval", 0, 1);
+    this.album.bringToFront("oval");
+    assertEquals(List.of("rect", "oval"), this.album.getShapeNames());
+
+    assertTrue(this.history.undo(this.album));
+    assertEquals(List.of("oval", "rect"), this.album.getShapeNames());
+    assertTrue(this.history.redo(this.album));
+    assertEquals(List.of("rect", "oval"), this.album.getShapeNames());
+  }
+
+  /**
+   * Test undoing a delete makes the shape again and undoing a make deletes it.
+   */
+  @Test
+  public void testUndoMakeDelete() {
+    this.history.recordDelete(ShapeTypes.OVAL, "oval", 2, 3, 1, 1, 255, -1);
+    this.album.deleteShape("oval");
+    this.history.recordMake(ShapeTypes.RECTANGLE, "rect", 4, 5, 6, 7, 0);
+    this.album.makeShape("rectangle", "rect", 4, 5, 6, 7, 0, 0, 0);
+
+    this.history.undo(this.album);
+    this.history.undo(this.album);
+    assertEquals(List.of("oval"), this.album.getShapeNames());
+    assertEquals(ShapeTypes.OVAL, this.album.getShapes().get(0).getType());
+    assertEquals(255, this.album.getShapes().get(0).getRGB().getB());
+
+    this.history.redo(this.album);
+    this.history.redo(this.album);
+    assertEquals(List.of("rect"), this.album.getShapeNames());
+  }
+
+  /**
+   * Test undoing the delete of a shape from the middle of the paint order puts it back there.
+   */
+  @Test
+  public void testUndoDeleteKeepsOrder() {
+    this.album.makeShape("rectangle", "rect", 4, 5, 6, 7, 0, 0, 0);
+    this.album.makeShape("rectangle", "top", 4, 5, 6, 7, 0, 0, 0);
+    this.history.recordDelete(ShapeTypes.RECTANGLE, "rect", 4, 5, 6, 7, 0, 1);
+    this.album.deleteShape("rect");
+
+    assertTrue(this.history.undo(this.album));
+    assertEquals(List.of("oval", "rect", "top"), this.album.getShapeNames());
+    assertTrue(this.history.redo(this.album));
+    assertEquals(List.of("oval", "top"), this.album.getShapeNames());
+  }
+
+  /**
+   * Test a new edit forgets the edits that could be redone.
+   */
+  @Test
+  public void testRecordClearsRedo() {
+    this.history.recordMove("oval", 1, 1, 10, 20);
+    this.history.undo(this.album);
+    this.history.recordMove("oval", 1, 1, 5, 5);
+    assertEquals(0, this.history.redoSize());
+    assertFalse(this.history.redo(this.album));
+  }
+
+  /**
+   * Test the oldest edits are forgotten once the history is full.
+   */
+  @Test
+  public void testBounded() {
+    for (int i = 0; i < 10; i++) {
+      this.history.recordMove("oval", i, i, i + 1, i + 1);
+    }
+    assertEquals(3, this.history.undoSize());
+    assertEquals(10, this.history.recorded());
+    while (this.history.undo(this.album)) {
+      // undo everything kept
+    }
+    assertEquals(7, this.album.getShapes().get(0).getX());
+  }
+
+  /**
+   * Test a rejected undo leaves the history as it was.
+   */
+  @Test
+  public void testRejectedUndo() {
+    this.history.recordMove("missing", 1, 1, 2, 2);
+    try {
+      this.history.undo(this.album);
+    } catch (IllegalArgumentException e) {
+      // expected
+    }
+    assertEquals(1, this.history.undoSize());
+    assertEquals(0, this.history.redoSize());
+  }
+
+  /**
+   * Test dropNewest().
+   */
+  @Test
+  public void testDropNewest() {
+    this.history.recordMove("oval", 1, 1, 2, 2);
+    this.history.recordMove("oval", 2, 2, 3, 3);
+    this.history.dropNewest(1);
+    this.history.undo(this.album);
+    assertEquals(1, this.album.getShapes().get(0).getX());
+    this.history.dropNewest(5);
+    assertEquals(0, this.history.undoSize());
+    assertEquals(0, this.history.redoSize());
+  }
+}
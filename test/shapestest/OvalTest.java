@@ -54,13 +54,19 @@ public class OvalTest {
   }
 
   /**
-   * Test copy method and copy constructor.
+   * Test edits return new shapes and leave the original unchanged.
    */
   @Test
-  public void testMakeCopy() {
-    I2DShape oval1 = this.oval.makeCopy();
-    assertEquals(this.oval, oval1);
-    assertNotSame(this.oval, oval1);
+  public void testImmutable() {
+    I2DShape moved = this.oval.move(5, 5);
+    I2DShape colored = this.oval.setColor(0, 0, 255);
+    I2DShape resized = this.oval.resize(7, 7);
+    assertNotSame(this.oval, moved);
+    assertNotSame(this.oval, colored);
+    assertNotSame(this.oval, resized);
+    assertEquals(this.oval, new Oval("testOval", 2, 1, 0, 0, 255, 0, 0));
+    assertEquals(Oval.class, moved.getClass());
+    assertEquals("testOval", resized.getName());
   }
 
   /**
@@ -99,9 +105,9 @@ public class OvalTest {
 
     // Move oval
 
-    this.oval.move(1, 2);
-    assertEquals(1, this.oval.getX());
-    assertEquals(2, this.oval.getY());
+    I2DShape moved = this.oval.move(1, 2);
+    assertEquals(1, moved.getX());
+    assertEquals(2, moved.getY());
   }
 
   /**
@@ -122,55 +128,55 @@ public class OvalTest {
             + "Center: (0, 0)\nX-Radius: 2 Y-Radius: 1\nColor: (255, 0, 0)", oval.toString());
 
     // Change RGB
-    this.oval.setColor(255, 255, 255);
+    I2DShape colored = this.oval.setColor(255, 255, 255);
     assertEquals("Name: testOval\nType: Oval\n"
-            + "Center: (0, 0)\nX-Radius: 2 Y-Radius: 1\nColor: (255, 255, 255)", oval.toString());
+            + "Center: (0, 0)\nX-Radius: 2 Y-Radius: 1\nColor: (255, 255, 255)", colored.toString());
   }
 
   /**
-   * Test invalid setWidth().
+   * Test invalid resize() width.
    */
   @Test(expected = IllegalArgumentException.class)
-  public void testInvalidSetWidth() {
-    this.oval.setWidth(-1);
+  public void testInvalidResizeWidth() {
+    this.oval.resize(2, -1);
   }
 
   /**
-   * Test setWidth()..
+   * Test resize() width.
    */
   @Test
-  public void testSetWidth() {
+  public void testResizeWidth() {
     // Check before change
     assertEquals("Name: testOval\nType: Oval\n"
             + "Center: (0, 0)\nX-Radius: 2 Y-Radius: 1\nColor: (255, 0, 0)", oval.toString());
 
     // Change radius
-    this.oval.setWidth(10);
+    I2DShape resized = this.oval.resize(2, 10);
     assertEquals("Name: testOval\nType: Oval\n"
-            + "Center: (0, 0)\nX-Radius: 2 Y-Radius: 10\nColor: (255, 0, 0)", oval.toString());
+            + "Center: (0, 0)\nX-Radius: 2 Y-Radius: 10\nColor: (255, 0, 0)", resized.toString());
   }
 
   /**
-   * Test invalid setLength().
+   * Test invalid resize() length.
    */
   @Test(expected = IllegalArgumentException.class)
-  public void testInvalidSetLength() {
-    this.oval.setLength(-1);
+  public void testInvalidResizeLength() {
+    this.oval.resize(-1, 1);
   }
 
   /**
-   * Test setLength().
+   * Test resize() length.
    */
   @Test
-  public void testSetLength() {
+  public void testResizeLength() {
     // Check before change
     assertEquals("Name: testOval\nType: Oval\n"
             + "Center: (0, 0)\nX-Radius: 2 Y-Radius: 1\nColor: (255, 0, 0)", oval.toString());
 
     // Change radius
-    this.oval.setLength(10);
+    I2DShape resized = this.oval.resize(10, 1);
     assertEquals("Name: testOval\nType: Oval\n"
-            + "Center: (0, 0)\nX-Radius: 10 Y-Radius: 1\nColor: (255, 0, 0)", oval.toString());
+            + "Center: (0, 0)\nX-Radius: 10 Y-Radius: 1\nColor: (255, 0, 0)", resized.toString());
   }
 
     /**
@@ -1,6 +1,8 @@
 package shapestest;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
 
 import org.junit.Before;
 import org.junit.Test;
@@ -18,7 +20,7 @@ public class RGBTest {
    */
   @Before
   public void setup() {
-    this.rgb = new RGB(255, 0, 0);
+    this.rgb = RGB.of(255, 0, 0);
   }
 
   /**
@@ -26,7 +28,7 @@ public class RGBTest {
    */
   @Test(expected = IllegalArgumentException.class)
   public void testRBelow() {
-    RGB rgb1 = new RGB(-1, 0, 0);
+    RGB rgb1 = RGB.of(-1, 0, 0);
   }
 
   /**
@@ -34,7 +36,7 @@ public class RGBTest {
    */
   @Test(expected = IllegalArgumentException.class)
   public void testRAbove() {
-    RGB rgb1 = new RGB(300, 0, 0);
+    RGB rgb1 = RGB.of(300, 0, 0);
   }
 
   /**
@@ -42,7 +44,7 @@ public class RGBTest {
    */
   @Test(expected = IllegalArgumentException.class)
   public void testGBelow() {
-    RGB rgb1 = new RGB(0, -1, 0);
+    RGB rgb1 = RGB.of(0, -1, 0);
   }
 
   /**
@@ -50,7 +52,7 @@ public class RGBTest {
    */
   @Test(expected = IllegalArgumentException.class)
   public void testGAbove() {
-    RGB rgb1 = new RGB(0, 300, 0);
+    RGB rgb1 = RGB.of(0, 300, 0);
   }
 
   /**
@@ -58,7 +60,7 @@ public class RGBTest {
    */
   @Test(expected = IllegalArgumentException.class)
   public void testBBelow() {
-    RGB rgb1 = new RGB(0, 0, -1);
+    RGB rgb1 = RGB.of(0, 0, -1);
   }
 
   /**
@@ -66,7 +68,7 @@ public class RGBTest {
    */
   @Test(expected = IllegalArgumentException.class)
   public void testBAbove() {
-    RGB rgb1 = new RGB(0, 0, 300);
+    RGB rgb1 = RGB.of(0, 0, 300);
   }
 
   /**
@@ -78,27 +80,35 @@ public class RGBTest {
   }
 
   /**
-   * Test bad setRGB() with invalid R value.
+   * Test bad of() with invalid R value.
    */
   @Test(expected = IllegalArgumentException.class)
-  public void testBadRSetRGB() {
-    this.rgb.setRGB(-1, 0, 0);
+  public void testBadROf() {
+    RGB.of(-1, 0, 0);
   }
 
   /**
-   * Test bad setRGB() with invalid G value.
+   * Test bad of() with invalid G value.
    */
   @Test(expected = IllegalArgumentException.class)
-  public void testBadGSetRGB() {
-    this.rgb.setRGB(0, 1000, 0);
+  public void testBadGOf() {
+    RGB.of(0, 1000, 0);
   }
 
   /**
-   * Test bad setRGB() with invalid B value.
+   * Test bad of() with invalid B value.
    */
   @Test(expected = IllegalArgumentException.class)
-  public void testBadBSetRGB() {
-    this.rgb.setRGB(0, 0, -2);
+  public void testBadBOf() {
+    RGB.of(0, 0, -2);
+  }
+
+  /**
+   * Test bad of() with a packed color above 0xFFFFFF.
+   */
+  @Test(expected = IllegalArgumentException.class)
+  public void testBadPackedOf() {
+    RGB.of(0x1000000);
   }
 
   /**
@@ -112,16 +122,28 @@ public class RGBTest {
   }
 
   /**
-   * Test setRGB().
+   * Test getPacked().
    */
   @Test
-  public void testSetRGB() {
-    // Check before change
-    assertEquals("(255, 0, 0)", this.rgb.toString());
+  public void testGetPacked() {
+    assertEquals(0xFF0000, this.rgb.getPacked());
+    assertEquals(0x0A141E, RGB.of(10, 20, 30).getPacked());
+  }
 
-    // Change RGB
-    this.rgb.setRGB(0, 255, 255);
-    assertEquals("(0, 255, 255)", this.rgb.toString());
+  /**
+   * Test of() returns one shared instance per color.
+   */
+  @Test
+  public void testOf() {
+    RGB color = RGB.of(0, 255, 255);
+    assertEquals("(0, 255, 255)", color.toString());
+    assertSame(color, RGB.of(0, 255, 255));
+    assertSame(color, RGB.of(0x00FFFF));
+    assertNotSame(color, RGB.of(0, 255, 254));
+
+    // Constructed colors are equal to the shared one
+    assertEquals(this.rgb, RGB.of(255, 0, 0));
+    assertEquals(this.rgb.hashCode(), RGB.of(255, 0, 0).hashCode());
   }
 
 }
@@ -2,6 +2,7 @@ package shapestest;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
 
 import org.junit.Before;
 import org.junit.Test;
@@ -54,13 +55,32 @@ public class RectangleTest {
   }
 
   /**
-   * Test copy method and copy constructor.
+   * Test edits return new shapes and leave the original unchanged.
    */
   @Test
-  public void testMakeCopy() {
-    I2DShape rectangle1 = this.rectangle.makeCopy();
-    assertEquals(this.rectangle, rectangle1);
-    assertNotSame(this.rectangle, rectangle1);
+  public void testImmutable() {
+    I2DShape moved = this.rectangle.move(5, 5);
+    I2DShape colored = this.rectangle.setColor(0, 0, 255);
+    I2DShape resized = this.rectangle.resize(7, 7);
+    assertNotSame(this.rectangle, moved);
+    assertNotSame(this.rectangle, colored);
+    assertNotSame(this.rectangle, resized);
+    assertEquals(this.rectangle, new Rectangle("testRectangle", 2, 3, 0, 0, 255, 0, 0));
+    assertEquals(Rectangle.class, moved.getClass());
+    assertEquals("testRectangle", resized.getName());
+  }
+
+  /**
+   * Test shapes share their color, and recoloring one leaves the other unchanged.
+   */
+  @Test
+  public void testSharedColor() {
+    I2DShape rectangle1 = this.rectangle.move(1, 1);
+    assertSame(this.rectangle.getRGB(), rectangle1.getRGB());
+
+    rectangle1 = rectangle1.setColor(0, 0, 255);
+    assertEquals(0xFF0000, this.rectangle.getRGB().getPacked());
+    assertEquals(0x0000FF, rectangle1.getRGB().getPacked());
   }
 
   /**
@@ -98,9 +118,9 @@ public class RectangleTest {
     assertEquals(0, this.rectangle.getY());
 
     // Move rectangle
-    this.rectangle.move(1, 2);
-    assertEquals(1, this.rectangle.getX());
-    assertEquals(2, this.rectangle.getY());
+    I2DShape moved = this.rectangle.move(1, 2);
+    assertEquals(1, moved.getX());
+    assertEquals(2, moved.getY());
   }
 
   /**
@@ -121,56 +141,56 @@ public class RectangleTest {
             + "Corner: (0, 0)\nLength: 2 Width: 3\nColor: (255, 0, 0)", rectangle.toString());
 
     // Change RGB
-    this.rectangle.setColor(255, 255, 255);
+    I2DShape colored = this.rectangle.setColor(255, 255, 255);
     assertEquals("Name: testRectangle\nType: Rectangle\n"
             + "Corner: (0, 0)\nLength: 2 Width: 3\nColor: (255, 255, 255)",
-            rectangle.toString());
+            colored.toString());
   }
 
   /**
-   * Test invalid setWidth().
+   * Test invalid resize() width.
    */
   @Test(expected = IllegalArgumentException.class)
-  public void testInvalidSetWidth() {
-    this.rectangle.setWidth(-1);
+  public void testInvalidResizeWidth() {
+    this.rectangle.resize(2, -1);
   }
 
   /**
-   * Test setWidth().
+   * Test resize() width.
    */
   @Test
-  public void testSetWidth() {
+  public void testResizeWidth() {
     // Check before change
     assertEquals("Name: testRectangle\nType: Rectangle\n"
             + "Corner: (0, 0)\nLength: 2 Width: 3\nColor: (255, 0, 0)", rectangle.toString());
 
     // Change radius
-    this.rectangle.setWidth(10);
+    I2DShape resized = this.rectangle.resize(2, 10);
     assertEquals("Name: testRectangle\nType: Rectangle\n"
-            + "Corner: (0, 0)\nLength: 2 Width: 10\nColor: (255, 0, 0)", rectangle.toString());
+            + "Corner: (0, 0)\nLength: 2 Width: 10\nColor: (255, 0, 0)", resized.toString());
   }
 
   /**
-   * Test invalid setLength().
+   * Test invalid resize() length.
    */
   @Test(expected = IllegalArgumentException.class)
-  public void testInvalidSetLength() {
-    this.rectangle.setLength(-1);
+  public void testInvalidResizeLength() {
+    this.rectangle.resize(-1, 3);
   }
 
   /**
-   * Test setLength().
+   * Test resize() length.
    */
   @Test
-  public void testSetLength() {
+  public void testResizeLength() {
     // Check before change
     assertEquals("Name: testRectangle\nType: Rectangle\n"
             + "Corner: (0, 0)\nLength: 2 Width: 3\nColor: (255, 0, 0)", rectangle.toString());
 
     // Change radius
-    this.rectangle.setLength(10);
+    I2DShape resized = this.rectangle.resize(10, 3);
     assertEquals("Name: testRectangle\nType: Rectangle\n"
-            + "Corner: (0, 0)\nLength: 10 Width: 3\nColor: (255, 0, 0)", rectangle.toString());
+            + "Corner: (0, 0)\nLength: 10 Width: 3\nColor: (255, 0, 0)", resized.toString());
   }
 
   /**
@@ -54,13 +54,19 @@ public class TriangleTest {
   }
 
   /**
-   * Test copy method and copy constructor.
+   * Test edits return new shapes and leave the original unchanged.
    */
   @Test
-  public void testMakeCopy() {
-    I2DShape triangle1 = this.triangle.makeCopy();
-    assertEquals(this.triangle, triangle1);
-    assertNotSame(this.triangle, triangle1);
+  public void testImmutable() {
+    I2DShape moved = this.triangle.move(5, 5);
+    I2DShape colored = this.triangle.setColor(0, 0, 255);
+    I2DShape resized = this.triangle.resize(7, 7);
+    assertNotSame(this.triangle, moved);
+    assertNotSame(this.triangle, colored);
+    assertNotSame(this.triangle, resized);
+    assertEquals(this.triangle, new Triangle("testTriangle", 2, 3, 0, 0, 255, 0, 0));
+    assertEquals(Triangle.class, moved.getClass());
+    assertEquals("testTriangle", resized.getName());
   }
 
   /**
@@ -98,9 +104,9 @@ public class TriangleTest {
     assertEquals(0, this.triangle.getY());
 
     // Move triangle
-    this.triangle.move(1, 2);
-    assertEquals(1, this.triangle.getX());
-    assertEquals(2, this.triangle.getY());
+    I2DShape moved = this.triangle.move(1, 2);
+    assertEquals(1, moved.getX());
+    assertEquals(2, moved.getY());
   }
 
   /**
@@ -121,56 +127,56 @@ public class TriangleTest {
             + "Corner: (0, 0)\nLength: 2 Height: 3\nColor: (255, 0, 0)", triangle.toString());
 
     // Change RGB
-    this.triangle.setColor(255, 255, 255);
+    I2DShape colored = this.triangle.setColor(255, 255, 255);
     assertEquals("Name: testTriangle\nType: Triangle\n"
                     + "Corner: (0, 0)\nLength: 2 Height: 3\nColor: (255, 255, 255)",
-            triangle.toString());
+            colored.toString());
   }
 
   /**
-   * Test invalid setWidth().
+   * Test invalid resize() width.
    */
   @Test(expected = IllegalArgumentException.class)
-  public void testInvalidSetHeight() {
-    this.triangle.setWidth(-1);
+  public void testInvalidResizeHeight() {
+    this.triangle.resize(2, -1);
   }
 
   /**
-   * Test setWidth();() which changes the radius in Triangle class.
+   * Test resize() width, which is the height in Triangle class.
    */
   @Test
-  public void testSetHeight() {
+  public void testResizeHeight() {
     // Check before change
     assertEquals("Name: testTriangle\nType: Triangle\n"
             + "Corner: (0, 0)\nLength: 2 Height: 3\nColor: (255, 0, 0)", triangle.toString());
 
     // Change radius
-    this.triangle.setWidth(10);
+    I2DShape resized = this.triangle.resize(2, 10);
     assertEquals("Name: testTriangle\nType: Triangle\n"
-            + "Corner: (0, 0)\nLength: 2 Height: 10\nColor: (255, 0, 0)", triangle.toString());
+            + "Corner: (0, 0)\nLength: 2 Height: 10\nColor: (255, 0, 0)", resized.toString());
   }
 
   /**
-   * Test invalid setLength().
+   * Test invalid resize() length.
    */
   @Test(expected = IllegalArgumentException.class)
-  public void testInvalidSetLength() {
-    this.triangle.setLength(-1);
+  public void testInvalidResizeLength() {
+    this.triangle.resize(-1, 3);
   }
 
   /**
-   * Test setLength().
+   * Test resize() length.
    */
   @Test
-  public void testSetLength() {
+  public void testResizeLength() {
     // Check before change
     assertEquals("Name: testTriangle\nType: Triangle\n"
             + "Corner: (0, 0)\nLength: 2 Height: 3\nColor: (255, 0, 0)", triangle.toString());
 
     // Change radius
-    this.triangle.setLength(10);
+    I2DShape resized = this.triangle.resize(10, 3);
     assertEquals("Name: testTriangle\nType: Triangle\n"
-            + "Corner: (0, 0)\nLength: 10 Height: 3\nColor: (255, 0, 0)", triangle.toString());
+            + "Corner: (0, 0)\nLength: 10 Height: 3\nColor: (255, 0, 0)", resized.toString());
   }
 
 
@@ -216,5 +216,22 @@ public class ArgsReaderTest {
     // Run the program
     ArgsReader reader = new ArgsReader(args);
   }
+
+  /**
+   * Tests compiling needs no view, and the compiled file is added to the args list.
+   */
+  @Test
+  public void test10() throws FileNotFoundException {
+    String[] args = {"-in", input, "-compile", "buildings.bin"};
+
+    // Run the program
+    ArgsReader reader = new ArgsReader(args);
+    List<String> argsList = reader.getArgsList();
+    assertEquals(input, argsList.get(0));
+    assertEquals(null, argsList.get(1));
+    assertEquals("buildings.bin", argsList.get(5));
+    assertEquals(null, new ArgsReader(new String[] {"-in", input, "-view", web, "-out",
+        output}).getArgsList().get(5));
+  }
 }
 
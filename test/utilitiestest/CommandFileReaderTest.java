@@ -5,7 +5,12 @@ import static org.junit.Assert.assertEquals;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ForkJoinPool;
 
 import utilities.CommandFileReader;
 
@@ -41,4 +46,86 @@ public class CommandFileReaderTest {
     assertEquals(lines, list.size());
     assertEquals(expected, list.toString());
   }
+
+  /**
+   * Test forEachCommand() hands out the same commands in the same order.
+   */
+  @Test
+  public void test2() {
+    List<List<String>> streamed = new ArrayList<>();
+    this.reader.forEachCommand(streamed::add);
+    assertEquals(expected, streamed.toString());
+    assertEquals(this.reader.getCommandsList(), streamed);
+  }
+
+  /**
+   * Test the file is only read once its commands are requested.
+   */
+  @Test
+  public void test3() throws IOException {
+    String file = "reader_test_input.txt";
+    CommandFileReader later = new CommandFileReader(file);
+    Files.writeString(Paths.get(file), "shape s rectangle 0 0 1 1 0 0 0\n  \nsnapshot\n");
+    try {
+      assertEquals("[[shape, s, rectangle, 0, 0, 1, 1, 0, 0, 0], [snapshot]]",
+              later.getCommandsList().toString());
+    } finally {
+      Files.deleteIfExists(Paths.get(file));
+    }
+  }
+
+  /**
+   * Test forEachParsed() splits a file into many chunks, including lines longer than a chunk,
+   * and hands the parsed commands back in file order.
+   */
+  @Test
+  public void test4() throws IOException {
+    String file = "parallel_test_input.txt";
+    StringBuilder text = new StringBuilder();
+    for (int i = 0; i < 2000; i++) {
+      text.append(i % 7 == 0 ? "# comment\n\n" : "").append("move s").append(i).append(" ")
+              .append(i).append(" ").append(-i).append(i % 50 == 0 ? " ".repeat(200) : "")
+              .append("\n");
+    }
+    Files.writeString(Paths.get(file), text.toString());
+    ForkJoinPool pool = new ForkJoinPool(4);
+    try {
+      List<String> parsed = new ArrayList<>();
+      new CommandFileReader(file, 64).forEachParsed(line -> line.isToken(0, "move")
+              ? line.token(1) + ":" + (line.intToken(2) + line.intToken(3)) : null,
+              parsed::add, pool);
+      assertEquals(2000, parsed.size());
+      for (int i = 0; i < 2000; i++) {
+        assertEquals("s" + i + ":0", parsed.get(i));
+      }
+    } finally {
+      pool.shutdown();
+      Files.deleteIfExists(Paths.get(file));
+    }
+  }
+
+  /**
+   * Test forEachParsed() passes on a parser's error after the commands before it.
+   */
+  @Test
+  public void test5() throws IOException {
+    String file = "parallel_error_test_input.txt";
+    StringBuilder text = new StringBuilder();
+    for (int i = 0; i < 500; i++) {
+      text.append("move s ").append(i == 300 ? "x" : String.valueOf(i)).append(" 0\n");
+    }
+    Files.writeString(Paths.get(file), text.toString());
+    ForkJoinPool pool = new ForkJoinPool(4);
+    List<Integer> parsed = new ArrayList<>();
+    try {
+      new CommandFileReader(file, 100).forEachParsed(line -> line.intToken(2), parsed::add,
+              pool);
+      throw new AssertionError("Expected NumberFormatException");
+    } catch (NumberFormatException e) {
+      assertEquals(300, parsed.size());
+    } finally {
+      pool.shutdown();
+      Files.deleteIfExists(Paths.get(file));
+    }
+  }
 }
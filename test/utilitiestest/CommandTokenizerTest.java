@@ -0,0 +1,194 @@
+package utilitiestest;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import utilities.CommandTokenizer;
+
+/**
+ * CommandTokenizerTest Junit test class.
+ */
+public class CommandTokenizerTest {
+  private final Path file = Paths.get("tokenizer_test_input.txt");
+
+  /**
+   * Write a command file for testing.
+   */
+  @Before
+  public void setup() throws IOException {
+    Files.writeString(this.file, "  shape myOval oval -5 +10 60 30 0 255 1\r\n"
+            + "\n# comment line\n\t\n"
+            + "SnapShot after\tfirst  selfie\n"
+            + "move myOval 2147483647 -2147483648\n"
+            + "color na\u00efve 1 2 3", StandardCharsets.UTF_8);
+  }
+
+  /**
+   * Delete the command file.
+   */
+  @After
+  public void cleanup() throws IOException {
+    Files.deleteIfExists(this.file);
+  }
+
+  /**
+   * Test lines are split into tokens, skipping blank and comment lines, with keywords matched
+   * ignoring case and ints parsed in place.
+   */
+  @Test
+  public void testTokens() throws IOException {
+    try (CommandTokenizer tokenizer = new CommandTokenizer(this.file)) {
+      assertTrue(tokenizer.nextLine());
+      assertEquals(10, tokenizer.tokenCount());
+      assertTrue(tokenizer.isToken(0, "SHAPE"));
+      assertFalse(tokenizer.isToken(0, "shapes"));
+      assertEquals("myOval", tokenizer.token(1));
+      assertEquals(-5, tokenizer.intToken(3));
+      assertEquals(10, tokenizer.intToken(4));
+      assertEquals(1, tokenizer.intToken(9));
+
+      assertTrue(tokenizer.nextLine());
+      assertTrue(tokenizer.isToken(0, "snapshot"));
+      assertEquals(4, tokenizer.tokenCount());
+      assertEquals("selfie", tokenizer.token(3));
+
+      assertTrue(tokenizer.nextLine());
+      assertSame(tokenizer.token(1), tokenizer.token(1));
+      assertEquals(Integer.MAX_VALUE, tokenizer.intToken(2));
+      assertEquals(Integer.MIN_VALUE, tokenizer.intToken(3));
+
+      assertTrue(tokenizer.nextLine());
+      assertEquals("na\u00efve", tokenizer.token(1));
+      assertEquals(3, tokenizer.intToken(4));
+      assertFalse(tokenizer.nextLine());
+      assertFalse(tokenizer.nextLine());
+    }
+  }
+
+  /**
+   * Test lines split across small mapped windows are read whole.
+   */
+  @Test
+  public void testWindows() throws IOException {
+    for (int size = 42; size <= 96; size++) {
+      try (CommandTokenizer tokenizer = new CommandTokenizer(this.file, size)) {
+        int lines = 0;
+        int tokens = 0;
+        while (tokenizer.nextLine()) {
+          lines++;
+          tokens += tokenizer.tokenCount();
+        }
+        assertEquals(4, lines);
+        assertEquals(23, tokens);
+      }
+    }
+  }
+
+  /**
+   * Test a long line among many short ones is read whole.
+   */
+  @Test
+  public void testLongLines() throws IOException {
+    String name = "n".repeat(20000);
+    StringBuilder text = new StringBuilder();
+    for (int i = 0; i < 2000; i++) {
+      text.append("move s").append(i).append(" 1 ").append(i).append('\n');
+    }
+    text.append("remove ").append(name).append("\nmove s 2 3\n");
+    Files.writeString(this.file, text.toString());
+    try (CommandTokenizer tokenizer = new CommandTokenizer(this.file)) {
+      for (int i = 0; i < 2000; i++) {
+        assertTrue(tokenizer.nextLine());
+        assertEquals("s" + i, tokenizer.token(1));
+        assertEquals(i, tokenizer.intToken(3));
+      }
+      assertTrue(tokenizer.nextLine());
+      assertEquals(name, tokenizer.token(1));
+      assertTrue(tokenizer.nextLine());
+      assertEquals(3, tokenizer.intToken(3));
+      assertFalse(tokenizer.nextLine());
+    }
+  }
+
+  /**
+   * Test a line longer than a window.
+   */
+  @Test(expected = IOException.class)
+  public void testLineTooLong() throws IOException {
+    try (CommandTokenizer tokenizer = new CommandTokenizer(this.file, 8)) {
+      tokenizer.nextLine();
+    }
+  }
+
+  /**
+   * Test ints that do not fit or are not numbers.
+   */
+  @Test
+  public void testBadInts() throws IOException {
+    Files.writeString(this.file, "2147483648 -2147483649 - 1x +");
+    try (CommandTokenizer tokenizer = new CommandTokenizer(this.file)) {
+      assertTrue(tokenizer.nextLine());
+      for (int i = 0; i < tokenizer.tokenCount(); i++) {
+        try {
+          tokenizer.intToken(i);
+          throw new AssertionError("Parsed " + tokenizer.token(i));
+        } catch (NumberFormatException e) {
+          assertEquals("For input string: \"" + tokenizer.token(i) + "\"", e.getMessage());
+        }
+      }
+    }
+  }
+
+  /**
+   * Test asking for a token the line does not have.
+   */
+  @Test(expected = IndexOutOfBoundsException.class)
+  public void testMissingToken() throws IOException {
+    try (CommandTokenizer tokenizer = new CommandTokenizer(this.file)) {
+      tokenizer.nextLine();
+      tokenizer.token(10);
+    }
+  }
+
+  /**
+   * Test an empty file has no lines.
+   */
+  @Test
+  public void testEmptyFile() throws IOException {
+    Files.writeString(this.file, "");
+    try (CommandTokenizer tokenizer = new CommandTokenizer(this.file)) {
+      assertFalse(tokenizer.nextLine());
+      assertEquals(0, tokenizer.tokenCount());
+    }
+  }
+
+  /**
+   * Test a tokenizer over a range of the file only reads the lines in it.
+   */
+  @Test
+  public void testRange() throws IOException {
+    Files.writeString(this.file, "remove a\nremove b\nremove c\n");
+    try (CommandTokenizer tokenizer = new CommandTokenizer(this.file, 9, 18, 64)) {
+      assertTrue(tokenizer.nextLine());
+      assertEquals("b", tokenizer.token(1));
+      assertFalse(tokenizer.nextLine());
+    }
+    try (CommandTokenizer tokenizer = new CommandTokenizer(this.file, 18, 1000, 64)) {
+      assertTrue(tokenizer.nextLine());
+      assertEquals("c", tokenizer.token(1));
+      assertFalse(tokenizer.nextLine());
+    }
+  }
+}
@@ -213,4 +213,25 @@ public class HtmlViewTest {
     String file_string = new String(encodedBytes, StandardCharsets.UTF_8);
     assertEquals(comparator, file_string);
   }
+
+  /**
+   * Test reusing the shapes of an earlier page.
+   */
+  @Test
+  public void test8() {
+    writer.openPage("test1");
+    assertEquals("", writer.getPageShapes());
+    writer.newRect("B1", "385", "100", "260", "365", "255,0,0");
+    writer.newOval("B2", "385", "100", "260", "365", "255,0,0");
+    String shapes = writer.getPageShapes();
+    writer.closePage();
+    String first = writer.getHtmlString();
+
+    writer.openPage("test1");
+    writer.addShapes(shapes);
+    assertEquals(shapes, writer.getPageShapes());
+    writer.closePage();
+    assertEquals(first + first.substring(first.indexOf("<div")), writer.getHtmlString());
+  }
+
 }